@@ -0,0 +1,84 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.resources.routines.CompiledTree;
+import de.SweetCode.e.resources.routines.CompiledTreeBuilder;
+import de.SweetCode.e.resources.routines.TaskStatus;
+import de.SweetCode.e.resources.routines.TreeState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures one tick of a {@link CompiledTree} for every agent of a crowd: a selector choosing between eating, which
+ *    takes a few ticks, and idling in a loop.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BehaviourTreeBenchmark {
+
+    @Param({"1000", "10000"})
+    public int agents;
+
+    private CompiledTree<Agent> tree;
+    private Agent[] crowd;
+    private TreeState[] states;
+
+    @Setup
+    public void setup() {
+
+        this.tree = CompiledTreeBuilder.<Agent>create()
+            .selector("Root")
+                .sequence("Eat").filter(agent -> agent.hunger > 5)
+                    .leaf("Walk", agent -> (++agent.walked < 3 ? TaskStatus.RUNNING : TaskStatus.SUCCEEDED))
+                    .leaf("Eat", agent -> {
+                        agent.hunger = 0;
+                        agent.walked = 0;
+                        return TaskStatus.SUCCEEDED;
+                    })
+                .end()
+                .loop("Idle", 3)
+                    .leaf("Wait", agent -> {
+                        agent.hunger++;
+                        return TaskStatus.SUCCEEDED;
+                    })
+                .end()
+            .build();
+
+        this.crowd = new Agent[this.agents];
+        this.states = new TreeState[this.agents];
+
+        for(int i = 0; i < this.agents; i++) {
+            this.crowd[i] = new Agent();
+            this.crowd[i].hunger = i % 7;
+            this.states[i] = this.tree.createState();
+        }
+
+    }
+
+    @Benchmark
+    public int tick() {
+
+        int running = 0;
+
+        for(int i = 0; i < this.agents; i++) {
+            if(this.tree.tick(this.crowd[i], this.states[i]) == TaskStatus.RUNNING) {
+                running++;
+            }
+        }
+
+        return running;
+
+    }
+
+    private static class Agent {
+        private int hunger;
+        private int walked;
+    }
+
+}
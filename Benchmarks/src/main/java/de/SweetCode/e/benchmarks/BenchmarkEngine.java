@@ -0,0 +1,52 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.Settings;
+
+/**
+ * <p>
+ *    E is a singleton, so all benchmarks running in the same JVM share one instance. It is headless and only has the
+ *    features enabled the benchmarks need, the loops are never started: the benchmarks call the parts they measure
+ *    directly.
+ * </p>
+ */
+final class BenchmarkEngine {
+
+    private static E instance;
+
+    private BenchmarkEngine() {}
+
+    static synchronized E get() {
+
+        if(BenchmarkEngine.instance == null) {
+            BenchmarkEngine.instance = new E(new Settings() {
+
+                @Override
+                public boolean isDebugging() {
+                    return false;
+                }
+
+                @Override
+                public boolean isSoundEnabled() {
+                    return false;
+                }
+
+                @Override
+                public boolean isHeadless() {
+                    return true;
+                }
+
+                // Note: The benchmarks measure the engine itself, not the instrumentation.
+                @Override
+                public boolean isTracingEnabled() {
+                    return false;
+                }
+
+            });
+        }
+
+        return BenchmarkEngine.instance;
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.resources.dialogue.Dialogue;
+import de.SweetCode.e.resources.dialogue.condition.DialogueConditions;
+import de.SweetCode.e.resources.dialogue.parser.YarnJsonParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures parsing a Yarn dialogue in the JSON format with N nodes, where every node links to the next two.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DialogueParserBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int nodes;
+
+    private final YarnJsonParser parser = new YarnJsonParser();
+    private final DialogueConditions conditions = new DialogueConditions() {};
+    private String input;
+
+    @Setup
+    public void setup() {
+
+        StringBuilder builder = new StringBuilder("[");
+
+        for(int i = 0; i < this.nodes; i++) {
+            if(i > 0) {
+                builder.append(',');
+            }
+
+            builder.append(String.format(
+                "{\"title\":\"Node%d\",\"tags\":\"\",\"body\":\"Line %d of the dialogue.\\n[[Next|Node%d]]\\n[[Skip|Node%d]]\"}",
+                i, i, (i + 1) % this.nodes, (i + 2) % this.nodes
+            ));
+        }
+
+        this.input = builder.append(']').toString();
+
+    }
+
+    @Benchmark
+    public Dialogue parse() {
+        return this.parser.parse("Node0", this.input, this.conditions);
+    }
+
+}
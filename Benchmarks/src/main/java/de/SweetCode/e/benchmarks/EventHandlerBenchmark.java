@@ -0,0 +1,59 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.event.Event;
+import de.SweetCode.e.event.EventHandler;
+import de.SweetCode.e.event.EventListener;
+import de.SweetCode.e.event.Subscribe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures {@link EventHandler#trigger(Event, boolean)}, dispatching right away to one subscriber, and queueing the
+ *    event and draining the queue like the {@link de.SweetCode.e.loop.EventLoop} does.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventHandlerBenchmark {
+
+    private EventHandler eventHandler;
+    private final Listener listener = new Listener();
+    private final BenchmarkEvent event = new BenchmarkEvent();
+
+    @Setup
+    public void setup() {
+        this.eventHandler = BenchmarkEngine.get().getEventHandler();
+        this.eventHandler.registerListener(this.listener);
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        return this.eventHandler.trigger(this.event, false);
+    }
+
+    @Benchmark
+    public void queue() {
+        this.eventHandler.trigger(this.event, true);
+        BenchmarkEngine.get().getEventLoop().tick(0);
+    }
+
+    public static class BenchmarkEvent extends Event {}
+
+    public static class Listener implements EventListener {
+
+        private long received = 0;
+
+        @Subscribe
+        public void onEvent(BenchmarkEvent event) {
+            this.received++;
+        }
+
+    }
+
+}
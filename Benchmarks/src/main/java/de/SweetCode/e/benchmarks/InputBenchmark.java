@@ -0,0 +1,36 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.input.Input;
+import de.SweetCode.e.input.InputEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures {@link Input#build()}, which is called once per tick of the {@link de.SweetCode.e.loop.UpdateLoop}, so
+ *    it is paid even if there is no input at all.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputBenchmark {
+
+    private Input input;
+
+    @Setup
+    public void setup() {
+        BenchmarkEngine.get();
+        this.input = new Input();
+    }
+
+    @Benchmark
+    public InputEntry build() {
+        return this.input.build();
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.rendering.layers.Layers;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures {@link Layers#combine(BufferedImage)} with 1 to 8 layers in the default frame size. Every layer is
+ *    half covered with translucent content and marked as changed before every frame, so nothing can be skipped.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LayersBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int amount;
+
+    private Layers layers;
+    private BufferedImage target;
+
+    @Setup
+    public void setup() {
+
+        BenchmarkEngine.get();
+
+        this.layers = new Layers(this.amount);
+
+        int index = 0;
+        for(Layer layer : this.layers.getLayers()) {
+            Graphics2D g = layer.g();
+            BufferedImage image = layer.b();
+
+            g.setColor(new Color(40 * index, 255 - 30 * index, 128, 160));
+            g.fillRect(index * 20, 0, image.getWidth() / 2, image.getHeight());
+            index++;
+        }
+
+        this.target = this.layers.combine();
+
+    }
+
+    @Benchmark
+    public BufferedImage combine() {
+
+        // Note: Marks the layers as changed, like a renderer drawing on them in every frame would.
+        for(Layer layer : this.layers.getLayers()) {
+            layer.g();
+        }
+
+        return this.layers.combine(this.target);
+
+    }
+
+}
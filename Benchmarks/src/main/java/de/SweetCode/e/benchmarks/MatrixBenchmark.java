@@ -0,0 +1,50 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.math.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures {@link Matrix#multiply(Matrix)} of two square matrices.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatrixBenchmark {
+
+    @Param({"3", "4", "16", "64"})
+    public int size;
+
+    private Matrix a;
+    private Matrix b;
+
+    @Setup
+    public void setup() {
+
+        Random random = new Random(42);
+
+        this.a = new Matrix(this.size, this.size);
+        this.b = new Matrix(this.size, this.size);
+
+        for(int x = 0; x < this.size; x++) {
+            for(int y = 0; y < this.size; y++) {
+                this.a.set(x, y, random.nextDouble());
+                this.b.set(x, y, random.nextDouble());
+            }
+        }
+
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return this.a.multiply(this.b);
+    }
+
+}
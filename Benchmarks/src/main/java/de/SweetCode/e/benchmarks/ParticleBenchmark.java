@@ -0,0 +1,83 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.math.Location;
+import de.SweetCode.e.math.Vector2D;
+import de.SweetCode.e.rendering.batch.SpriteBatch;
+import de.SweetCode.e.rendering.particle.Particle;
+import de.SweetCode.e.rendering.particle.ParticleTypes;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures updating N {@link Particle particles}, and rendering them including the flush of the {@link SpriteBatch}
+ *    that actually draws them.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParticleBenchmark {
+
+    @Param({"1000", "10000"})
+    public int amount;
+
+    private E e;
+    private final List<Particle> particles = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+
+        this.e = BenchmarkEngine.get();
+
+        Random random = new Random(42);
+        ParticleTypes[] types = { ParticleTypes.CIRCLE, ParticleTypes.SQUARE };
+
+        for(int i = 0; i < this.amount; i++) {
+            this.particles.add(new Particle(
+                this.e.getLayers().first(),
+                new Location(random.nextInt(1280), random.nextInt(720)),
+                new Vector2D(random.nextDouble() - 0.5, random.nextDouble() - 0.5),
+                types[i % types.length],
+                new Color(random.nextInt(0xFFFFFF)),
+                false,
+                false,
+                false,
+                -1,
+                2 + random.nextInt(6)
+            ));
+        }
+
+    }
+
+    @Benchmark
+    public void update() {
+        for(Particle particle : this.particles) {
+            particle.update(null, 1);
+        }
+    }
+
+    @Benchmark
+    public void render() {
+
+        SpriteBatch batch = this.e.getSpriteBatch();
+
+        for(Particle particle : this.particles) {
+            batch.reset();
+            particle.render(this.e.getLayers());
+        }
+
+        batch.flush();
+
+    }
+
+}
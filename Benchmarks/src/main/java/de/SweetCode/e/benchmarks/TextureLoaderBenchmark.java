@@ -0,0 +1,104 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.resources.textures.DynamicTextureLoader;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures {@link DynamicTextureLoader#get(int)} of a 1024x1024 sprite sheet with 32x32 tiles, once for a tile that
+ *    is in the cache and once for a tile that has expired and has to be uncompressed again.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextureLoaderBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final int TILE = 32;
+    private static final int TILES = (SIZE / TILE) * (SIZE / TILE);
+
+    private static File createSheet() throws IOException {
+
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(42);
+
+        for(int y = 0; y < SIZE; y += TILE) {
+            for(int x = 0; x < SIZE; x += TILE) {
+                g.setColor(new Color(random.nextInt()));
+                g.fillOval(x, y, TILE, TILE);
+            }
+        }
+
+        g.dispose();
+
+        File file = File.createTempFile("e-benchmark-sheet", ".png");
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+
+        return file;
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class Hit {
+
+        private DynamicTextureLoader loader;
+        private int index = 0;
+
+        @Setup
+        public void setup() throws IOException {
+            BenchmarkEngine.get();
+
+            this.loader = new DynamicTextureLoader(TextureLoaderBenchmark.createSheet(), TILE, TILE, Integer.MAX_VALUE);
+            this.loader.load();
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class Miss {
+
+        private DynamicTextureLoader loader;
+
+        @Setup
+        public void setup() throws IOException {
+            BenchmarkEngine.get();
+
+            this.loader = new DynamicTextureLoader(TextureLoaderBenchmark.createSheet(), TILE, TILE, 1);
+            this.loader.load();
+        }
+
+        // Note: Lets every cached tile expire, the miss itself takes far longer than this, so the costs of an invocation
+        // level setup don't matter.
+        @Setup(Level.Invocation)
+        public void expire() throws InterruptedException {
+            Thread.sleep(2);
+            this.loader.update(null, 0);
+        }
+
+    }
+
+    @Benchmark
+    public Image hit(Hit state) {
+        state.index = (state.index + 1) % TILES;
+        return state.loader.get(state.index);
+    }
+
+    @Benchmark
+    public Image miss(Miss state) {
+        return state.loader.get(TILES / 2);
+    }
+
+}
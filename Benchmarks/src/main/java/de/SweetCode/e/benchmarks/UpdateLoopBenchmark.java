@@ -0,0 +1,72 @@
+package de.SweetCode.e.benchmarks;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.GameComponent;
+import de.SweetCode.e.input.InputEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    Measures one tick of the {@link de.SweetCode.e.loop.UpdateLoop} over N active components with a trivial update, so
+ *    the result is the overhead of the loop itself per component.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateLoopBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int components;
+
+    private E e;
+    private final List<GameComponent> added = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+
+        this.e = BenchmarkEngine.get();
+
+        for(int i = 0; i < this.components; i++) {
+            GameComponent component = new Counter();
+            this.e.addComponent(component);
+            this.added.add(component);
+        }
+
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.added.forEach(this.e::removeComponent);
+        this.added.clear();
+    }
+
+    @Benchmark
+    public void tick() {
+        this.e.getUpdateLoop().tick(TimeUnit.MILLISECONDS.toNanos(16));
+    }
+
+    private static class Counter implements GameComponent {
+
+        private long updates = 0;
+
+        @Override
+        public void update(InputEntry input, long delta) {
+            this.updates += delta;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+    }
+
+}
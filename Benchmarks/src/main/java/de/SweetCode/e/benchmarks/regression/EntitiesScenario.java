@@ -0,0 +1,93 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.Renderable;
+import de.SweetCode.e.entity.Entity;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.rendering.layers.Layers;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * <p>
+ *    10000 entities wandering around a world four times the size of the frame, so they move through the spatial index
+ *    and most of them are culled in every frame.
+ * </p>
+ */
+public class EntitiesScenario extends Scenario {
+
+    private static final int AMOUNT = 10000;
+    private static final int WORLD = 2560;
+
+    public EntitiesScenario() {
+        super(256, 640, 100, 64, 5 * 1024 * 1024 / 2);
+    }
+
+    @Override
+    public void setup(E e) {
+
+        BufferedImage texture = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = texture.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 8, 8);
+        g.dispose();
+
+        Random random = new Random(42);
+
+        for(int i = 0; i < AMOUNT; i++) {
+            double x = random.nextInt(WORLD);
+            double y = random.nextInt(WORLD);
+
+            e.addComponent(new Walker(i, new BoundingBox(x, y, x + 8, y + 8), texture, random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+        }
+
+    }
+
+    private static class Walker extends Entity<Integer> implements Renderable {
+
+        private final Image texture;
+        private double dx;
+        private double dy;
+
+        private Walker(int identifier, BoundingBox boundingBox, Image texture, double dx, double dy) {
+            super(identifier, boundingBox);
+
+            this.texture = texture;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        @Override
+        public void update(InputEntry input, long delta) {
+
+            BoundingBox box = this.getBoundingBox();
+
+            if(box.getMin().getX() + this.dx < 0 || box.getMax().getX() + this.dx > WORLD) {
+                this.dx = -this.dx;
+            }
+
+            if(box.getMin().getY() + this.dy < 0 || box.getMax().getY() + this.dy > WORLD) {
+                this.dy = -this.dy;
+            }
+
+            box.move(this.dx, this.dy);
+
+        }
+
+        @Override
+        public void render(Layers layers) {
+            BoundingBox box = this.getBoundingBox();
+            E.getE().getSpriteBatch().draw(layers.first(), this.texture, box.getMin().getX(), box.getMin().getY());
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+    }
+
+}
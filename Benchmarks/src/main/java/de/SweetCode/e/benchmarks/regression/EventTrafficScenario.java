@@ -0,0 +1,74 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.event.Event;
+import de.SweetCode.e.event.EventListener;
+import de.SweetCode.e.event.Subscribe;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.rendering.GameScene;
+import de.SweetCode.e.rendering.layers.Layers;
+
+/**
+ * <p>
+ *    Queues 1000 events in every tick that are dispatched by the event loop to a listener, while the update and render
+ *    loop keep running.
+ * </p>
+ */
+public class EventTrafficScenario extends Scenario {
+
+    private static final int EVENTS_PER_TICK = 1000;
+
+    public EventTrafficScenario() {
+        super(256, 640, 40, 4, 5 * 1024 * 1024 / 2);
+    }
+
+    @Override
+    public void setup(E e) {
+
+        e.getEventHandler().registerListener(new Listener());
+
+        e.addScene(new TrafficScene());
+
+    }
+
+    public static class TrafficEvent extends Event {
+
+        private final int value;
+
+        private TrafficEvent(int value) {
+            this.value = value;
+        }
+
+    }
+
+    public static class Listener implements EventListener {
+
+        private long sum = 0;
+
+        @Subscribe
+        public void onTraffic(TrafficEvent event) {
+            this.sum += event.value;
+        }
+
+    }
+
+    private static class TrafficScene extends GameScene {
+
+        @Override
+        public void update(InputEntry input, long delta) {
+            for(int i = 0; i < EVENTS_PER_TICK; i++) {
+                E.getE().getEventHandler().trigger(new TrafficEvent(i), true);
+            }
+        }
+
+        @Override
+        public void render(Layers layers) {}
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.Location;
+import de.SweetCode.e.math.Vector2D;
+import de.SweetCode.e.rendering.GameScene;
+import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.rendering.particle.Particle;
+import de.SweetCode.e.rendering.particle.ParticleTypes;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * <p>
+ *    Spawns particles in every tick that fade in and out and destroy themselves, so the engine keeps adding and removing
+ *    components while it updates and renders about 3000 of them.
+ * </p>
+ */
+public class ParticleStormScenario extends Scenario {
+
+    private static final int SPAWN_PER_TICK = 50;
+    private static final long LIFE_SPAN = 1000;
+
+    // Note: Effects use a handful of colours, random ones would only measure how fast tinted textures are created.
+    private static final Color[] PALETTE = {
+        Color.RED, Color.ORANGE, Color.YELLOW, Color.WHITE, Color.CYAN, Color.BLUE, Color.MAGENTA, Color.GREEN
+    };
+
+    public ParticleStormScenario() {
+        super(256, 640, 160, 80, 6 * 1024 * 1024);
+    }
+
+    @Override
+    public void setup(E e) {
+        e.addScene(new StormScene());
+    }
+
+    private static class StormScene extends GameScene {
+
+        private final Random random = new Random(42);
+
+        @Override
+        public void update(InputEntry input, long delta) {
+
+            E e = E.getE();
+
+            for(int i = 0; i < SPAWN_PER_TICK; i++) {
+                e.addComponent(new Particle(
+                    e.getLayers().first(),
+                    new Location(this.random.nextInt(1280), this.random.nextInt(720)),
+                    new Vector2D(this.random.nextDouble() - 0.5, this.random.nextDouble() - 0.5),
+                    (this.random.nextBoolean() ? ParticleTypes.CIRCLE : ParticleTypes.SQUARE),
+                    PALETTE[this.random.nextInt(PALETTE.length)],
+                    true,
+                    true,
+                    false,
+                    LIFE_SPAN,
+                    2 + this.random.nextInt(6)
+                ));
+            }
+
+        }
+
+        @Override
+        public void render(Layers layers) {}
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+    }
+
+}
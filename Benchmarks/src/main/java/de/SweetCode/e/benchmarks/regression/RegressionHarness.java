@@ -0,0 +1,306 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import de.SweetCode.e.E;
+import de.SweetCode.e.GameComponent;
+import de.SweetCode.e.Settings;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.rendering.Priority;
+import de.SweetCode.e.utils.Histogram;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *    The RegressionHarness runs {@link Scenario scenarios} end-to-end: it boots a headless engine with all its loops,
+ *    runs the scenario for a fixed amount of update ticks and checks the measured values against the budgets of the
+ *    scenario and its {@link Scenario#verify(E) outcome}. Unlike the micro-benchmarks this includes the interactions between the loops, e.g. the render thread
+ *    competing with the update loop or components being added while others are rendered.
+ * </p>
+ * <p>
+ *    The engine is a singleton and can't be stopped, so every scenario runs in its own JVM. The process exits with 1 if
+ *    any budget has been exceeded, so it fails the build when it runs in the <code>regression</code> profile:
+ * </p>
+ * <pre>
+ *     mvn verify -Pregression
+ * </pre>
+ * <p>
+ *    The budgets can be scaled for slower machines with <code>-Dregression.budgetScale=1.5</code>, and scenarios can
+ *    be selected by passing their class names as arguments.
+ * </p>
+ */
+public class RegressionHarness {
+
+    private static final String[] SCENARIOS = {
+        ParticleStormScenario.class.getName(),
+        EntitiesScenario.class.getName(),
+        EventTrafficScenario.class.getName(),
+        RetainedCameraScenario.class.getName()
+    };
+
+    private static final String RUN = "--run";
+
+    //--- Allocations: The heap freed by every garbage collection, counted as soon as the JVM reports it
+    private static final AtomicLong collected = new AtomicLong();
+    private static final AtomicLong collections = new AtomicLong();
+    //---
+
+    public static void main(String[] args) throws Exception {
+
+        if(args.length == 2 && args[0].equals(RUN)) {
+            System.exit(RegressionHarness.run(args[1]) ? 0 : 1);
+        }
+
+        List<String> scenarios = (args.length == 0 ? Arrays.asList(SCENARIOS) : Arrays.asList(args));
+        List<String> failed = new ArrayList<>();
+
+        for(String scenario : scenarios) {
+            if(!(RegressionHarness.fork(scenario))) {
+                failed.add(scenario);
+            }
+        }
+
+        if(failed.isEmpty()) {
+            System.out.printf("All %d scenarios stayed within their budgets.%n", scenarios.size());
+        } else {
+            System.out.printf("%d of %d scenarios exceeded their budgets: %s%n", failed.size(), scenarios.size(), failed);
+        }
+
+        System.exit(failed.isEmpty() ? 0 : 1);
+
+    }
+
+    /**
+     * <p>
+     *    Runs a scenario in a new JVM with the same classpath and settings.
+     * </p>
+     */
+    private static boolean fork(String scenario) throws Exception {
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(RegressionHarness.class.getName());
+        command.add(RUN);
+        command.add(scenario);
+
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        return (process.waitFor() == 0);
+
+    }
+
+    /**
+     * <p>
+     *    Runs a scenario in this JVM.
+     * </p>
+     */
+    private static boolean run(String name) throws Exception {
+
+        Scenario scenario = (Scenario) Class.forName(name).getConstructor().newInstance();
+
+        for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if(bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> RegressionHarness.collected(notification), null, null);
+            }
+        }
+        double scale = Double.parseDouble(System.getProperty("regression.budgetScale", "1"));
+
+        E e = new E(new Settings() {
+
+            @Override
+            public boolean isDebugging() {
+                return false;
+            }
+
+            @Override
+            public boolean isSoundEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isHeadless() {
+                return true;
+            }
+
+            @Override
+            public boolean isTimingEnabled() {
+                return true;
+            }
+
+        });
+
+        scenario.setup(e);
+
+        Ticker ticker = new Ticker(scenario.getWarmup(), scenario.getTicks());
+        e.addComponent(ticker, Priority.HIGH);
+        e.run();
+
+        long expected = TimeUnit.SECONDS.toMillis(scenario.getWarmup() + scenario.getTicks()) / e.getSettings().getTargetTicks();
+
+        if(!(ticker.done.await(expected * 10 + TimeUnit.SECONDS.toMillis(30), TimeUnit.MILLISECONDS))) {
+            System.out.printf("%s: timed out after %d of %d ticks.%n", scenario.getName(), ticker.ticks, scenario.getWarmup() + scenario.getTicks());
+            return false;
+        }
+
+        double frame = RegressionHarness.p99(e.getRenderLoop().getTickTimes());
+        double update = RegressionHarness.p99(e.getUpdateLoop().getTickTimes());
+        long allocation = (ticker.allocatedEnd - ticker.allocatedStart) / scenario.getTicks();
+        double rate = scenario.getTicks() / ((ticker.end - ticker.start) / 1E9);
+
+        boolean passed = true;
+        passed &= RegressionHarness.check(scenario, "frame p99", frame, scenario.getFrameBudget() * scale, "ms");
+        passed &= RegressionHarness.check(scenario, "update p99", update, scenario.getUpdateBudget() * scale, "ms");
+        passed &= RegressionHarness.check(scenario, "allocated/tick", allocation / 1024D, scenario.getAllocationBudget() * scale / 1024D, "KiB");
+
+        if(!(scenario.verify(e))) {
+            System.out.printf("%s: the outcome of the run is wrong.%n", scenario.getName());
+            passed = false;
+        }
+
+        System.out.printf(Locale.ROOT, "%s: %.1f ticks/s, %d components at the end, %s.%n",
+            scenario.getName(),
+            rate,
+            e.getGameComponents().size(),
+            (passed ? "passed" : "FAILED")
+        );
+
+        return passed;
+
+    }
+
+    private static boolean check(Scenario scenario, String name, double value, double budget, String unit) {
+
+        boolean passed = (value <= budget);
+
+        System.out.printf(Locale.ROOT, "%s: %-15s %10.2f %s (budget %.2f %s)%s%n",
+            scenario.getName(),
+            name,
+            value,
+            unit,
+            budget,
+            unit,
+            (passed ? "" : " <- exceeded")
+        );
+
+        return passed;
+
+    }
+
+    private static double p99(Histogram histogram) {
+        return (histogram == null ? 0 : histogram.getPercentile(99) / 1E6);
+    }
+
+    /**
+     * <p>
+     *    Bytes allocated by the whole process so far: the heap freed by all garbage collections plus the heap in use.
+     *    Unlike the counters of the threads this includes threads that ended in the meantime, e.g. idle workers of a
+     *    pool. The JVM reports collections asynchronously, so it waits until all collections so far have been counted.
+     * </p>
+     */
+    private static long allocated() {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+
+        while (collections.get() < RegressionHarness.collectionCount() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+
+        return collected.get() + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+    }
+
+    private static long collectionCount() {
+
+        long count = 0;
+
+        for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+
+        return count;
+
+    }
+
+    private static void collected(Notification notification) {
+
+        if(!(notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))) {
+            return;
+        }
+
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        Map<String, MemoryUsage> after = info.getGcInfo().getMemoryUsageAfterGc();
+        long freed = 0;
+
+        // Note: Summed over all pools, objects promoted from one pool to another don't count as freed.
+        for(Map.Entry<String, MemoryUsage> before : info.getGcInfo().getMemoryUsageBeforeGc().entrySet()) {
+            freed += before.getValue().getUsed() - after.get(before.getKey()).getUsed();
+        }
+
+        collected.addAndGet(freed);
+        collections.incrementAndGet();
+
+    }
+
+    /**
+     * <p>
+     *    Counts the update ticks, starts the measurement after the warm-up and ends it after the measured ticks.
+     * </p>
+     */
+    private static class Ticker implements GameComponent {
+
+        private final int warmup;
+        private final int total;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile int ticks = 0;
+        private long start;
+        private long end;
+        private long allocatedStart;
+        private long allocatedEnd;
+
+        private Ticker(int warmup, int ticks) {
+            this.warmup = warmup;
+            this.total = warmup + ticks;
+        }
+
+        @Override
+        public void update(InputEntry input, long delta) {
+
+            this.ticks++;
+
+            if(this.ticks == this.warmup) {
+                E.getE().getTimings().reset();
+                this.allocatedStart = RegressionHarness.allocated();
+                this.start = System.nanoTime();
+            } else if(this.ticks == this.total) {
+                this.allocatedEnd = RegressionHarness.allocated();
+                this.end = System.nanoTime();
+                this.done.countDown();
+            }
+
+        }
+
+        @Override
+        public boolean isActive() {
+            return (this.ticks < this.total);
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.Location;
+import de.SweetCode.e.rendering.GameScene;
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.rendering.layers.Layers;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    A retained layer using the camera, drawn directly through its graphics. The camera moves a few times during the
+ *    warm-up, so the layer gets cleared and drawn again, and then stays still, so the measured frames reuse it. The
+ *    last frame has to show the marker where the camera puts it, not where it would be in frame coordinates.
+ * </p>
+ */
+public class RetainedCameraScenario extends Scenario {
+
+    private static final int MARKER = 16;
+    private static final int MOVES = 12;
+    private static final int TICKS_PER_MOVE = 8;
+    private static final int STEP_X = 8;
+    private static final int STEP_Y = 4;
+
+    public RetainedCameraScenario() {
+        super(256, 640, 40, 4, 3 * 1024 * 1024);
+    }
+
+    @Override
+    public void setup(E e) {
+
+        Layer layer = e.getLayers().first();
+        layer.setUsingCamera(true);
+        layer.setRetained(true);
+
+        e.addScene(new PanningScene(layer));
+
+    }
+
+    @Override
+    public boolean verify(E e) {
+
+        // Note: The marker is in the center of the world, the camera has been moved away from it.
+        Location world = new Location(
+            e.getSettings().getFrameDimension().getWidth() / 2D + MARKER / 2D,
+            e.getSettings().getFrameDimension().getHeight() / 2D + MARKER / 2D
+        );
+        Location expected = e.getCamera().worldToScreen(world);
+
+        BufferedImage frame = RetainedCameraScenario.nextFrame(e);
+
+        if(frame == null) {
+            return false;
+        }
+
+        double scale = frame.getWidth() / (double) e.getSettings().getFrameDimension().getWidth();
+
+        return RetainedCameraScenario.isDrawn(frame, expected.getX() * scale, expected.getY() * scale)
+                && !(RetainedCameraScenario.isDrawn(frame, world.getX() * scale, world.getY() * scale));
+
+    }
+
+    /**
+     * <p>
+     *    Waits for a frame that has been rendered after the camera stopped moving.
+     * </p>
+     */
+    private static BufferedImage nextFrame(E e) {
+
+        long frames = e.getOffscreen().getFrames() + 2;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (e.getOffscreen().getFrames() < frames) {
+
+            if(System.nanoTime() > deadline) {
+                return null;
+            }
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+
+        }
+
+        return e.getOffscreen().getLastFrame();
+
+    }
+
+    private static boolean isDrawn(BufferedImage frame, double x, double y) {
+        return !((frame.getRGB((int) x, (int) y) >>> 24) == 0);
+    }
+
+    private static class PanningScene extends GameScene {
+
+        private final Layer layer;
+        private int ticks = 0;
+
+        private PanningScene(Layer layer) {
+            this.layer = layer;
+        }
+
+        @Override
+        public void update(InputEntry input, long delta) {
+
+            if(this.ticks < MOVES * TICKS_PER_MOVE && this.ticks % TICKS_PER_MOVE == 0) {
+                E.getE().getCamera().move(STEP_X, STEP_Y);
+            }
+
+            this.ticks++;
+
+        }
+
+        @Override
+        public void render(Layers layers) {
+
+            if(!(this.layer.needsRedraw())) {
+                return;
+            }
+
+            Graphics2D g = this.layer.g();
+            g.setColor(Color.WHITE);
+            g.fillRect(
+                E.getE().getSettings().getFrameDimension().getWidth() / 2,
+                E.getE().getSettings().getFrameDimension().getHeight() / 2,
+                MARKER,
+                MARKER
+            );
+
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.SweetCode.e.benchmarks.regression;
+
+import de.SweetCode.e.E;
+
+/**
+ * <p>
+ *    A Scenario is a scripted workload for the {@link RegressionHarness}: it sets up the engine, e.g. by adding a
+ *    {@link de.SweetCode.e.rendering.GameScene} that spawns particles, and defines the budgets the run has to stay in.
+ *    The engine runs with all its loops for a fixed amount of update ticks, the first ticks are a warm-up and are not
+ *    measured.
+ * </p>
+ * <p>
+ *    The budgets are about twice the values measured on a single core, where the loops compete the most, so they only
+ *    fail on real regressions and not on noise. Machines with more cores stay well below them.
+ * </p>
+ */
+public abstract class Scenario {
+
+    private final int warmup;
+    private final int ticks;
+    private final double frameBudget;
+    private final double updateBudget;
+    private final long allocationBudget;
+
+    /**
+     * @param warmup The amount of update ticks before the measurement starts.
+     * @param ticks The amount of measured update ticks.
+     * @param frameBudget The 99th percentile of the time rendering one frame may take, in milliseconds.
+     * @param updateBudget The 99th percentile of the time one update tick may take, in milliseconds.
+     * @param allocationBudget The bytes all threads of the process may allocate per update tick, on average.
+     */
+    protected Scenario(int warmup, int ticks, double frameBudget, double updateBudget, long allocationBudget) {
+        this.warmup = warmup;
+        this.ticks = ticks;
+        this.frameBudget = frameBudget;
+        this.updateBudget = updateBudget;
+        this.allocationBudget = allocationBudget;
+    }
+
+    public int getWarmup() {
+        return this.warmup;
+    }
+
+    public int getTicks() {
+        return this.ticks;
+    }
+
+    public double getFrameBudget() {
+        return this.frameBudget;
+    }
+
+    public double getUpdateBudget() {
+        return this.updateBudget;
+    }
+
+    public long getAllocationBudget() {
+        return this.allocationBudget;
+    }
+
+    /**
+     * @return The name shown in the report.
+     */
+    public String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    /**
+     * <p>
+     *    Sets up the workload, it is called before the loops are started.
+     * </p>
+     *
+     * @param e The engine.
+     */
+    public abstract void setup(E e);
+
+    /**
+     * <p>
+     *    Checks the outcome of the run after the measured ticks, e.g. the last rendered frame. Scenarios that only
+     *    measure don't have to override it.
+     * </p>
+     *
+     * @param e The engine, its loops are still running.
+     * @return True, if the outcome is correct.
+     */
+    public boolean verify(E e) {
+        return true;
+    }
+
+}
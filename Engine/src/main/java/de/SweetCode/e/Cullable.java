@@ -0,0 +1,27 @@
+package de.SweetCode.e;
+
+import de.SweetCode.e.math.BoundingBox;
+
+/**
+ * <p>
+ *    A {@link Renderable} implementing Cullable tells the engine where it draws, so the engine only calls
+ *    {@link Renderable#render(de.SweetCode.e.rendering.layers.Layers)} if the box intersects the viewport of the
+ *    {@link de.SweetCode.e.rendering.Camera}. Renderables not implementing it are always rendered.
+ * </p>
+ * <p>
+ *    The box is tracked by the engine: Moving it with {@link BoundingBox#move(double, double)} or
+ *    {@link BoundingBox#setCenter(double, double)} is noticed, replacing it is not.
+ * </p>
+ */
+public interface Cullable {
+
+    /**
+     * <p>
+     *    Gives the area the object draws in, in world coordinates.
+     * </p>
+     *
+     * @return The box containing everything the object draws, or null if it cannot be culled.
+     */
+    BoundingBox getBoundingBox();
+
+}
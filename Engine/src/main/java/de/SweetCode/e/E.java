@@ -1,23 +1,47 @@
 package de.SweetCode.e;
 
+import de.SweetCode.e.entity.Entity;
 import de.SweetCode.e.event.EventHandler;
 import de.SweetCode.e.input.Input;
 import de.SweetCode.e.input.InputEntry;
 import de.SweetCode.e.loop.*;
+import de.SweetCode.e.math.spatial.SpatialIndex;
+import de.SweetCode.e.math.spatial.UniformGrid;
+import de.SweetCode.e.metrics.Metrics;
+import de.SweetCode.e.metrics.MetricsBean;
+import de.SweetCode.e.metrics.MetricsWriter;
+import de.SweetCode.e.rendering.Camera;
 import de.SweetCode.e.rendering.DefaultGameScene;
 import de.SweetCode.e.rendering.GameScene;
 import de.SweetCode.e.rendering.GameSceneEntry;
 import de.SweetCode.e.rendering.Priority;
+import de.SweetCode.e.rendering.RenderIndex;
+import de.SweetCode.e.rendering.batch.GLBackend;
+import de.SweetCode.e.rendering.batch.Java2DBackend;
+import de.SweetCode.e.rendering.batch.SpriteBatch;
 import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.resources.routines.TaskRuntime;
+import de.SweetCode.e.resources.sounds.SoundMixer;
+import de.SweetCode.e.resources.sounds.sinks.LineSink;
+import de.SweetCode.e.resources.sounds.sinks.NullSink;
+import de.SweetCode.e.trace.Tracer;
 import de.SweetCode.e.utils.Assert;
 import de.SweetCode.e.utils.StringUtils;
 import de.SweetCode.e.utils.log.Log;
 import de.SweetCode.e.utils.log.LogEntry;
 import de.SweetCode.e.utils.log.LogPrefixes;
 
+import javax.management.JMException;
+import java.awt.*;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -30,12 +54,6 @@ import java.util.concurrent.TimeUnit;
  */
 public class E {
 
-    /**
-     * @TODO This is the pool size representing the number of threads to keep in the pool, even if they are idle, which are
-     * responsible for executing the loops. This should maybe be a changeable in the {@link Settings}.
-     */
-    public static int POOL_SIZE = 4;
-
     //--- Static & Final Variables
     private static E instance;
     private final static Random random = new Random();
@@ -52,20 +70,46 @@ public class E {
 
     //--- Loop & Render Related
     private final EScreen screen;
+    private final OffscreenTarget offscreen;
     private final Layers layers;
 
-    private final List<GameComponentEntry> gameComponents = new ArrayList<>();
+    private final Camera camera;
+    private final Timings timings;
+    private final Metrics metrics;
+    private final Tracer tracer;
+    private final TaskRuntime taskRuntime;
+    private final RenderIndex renderIndex;
+    private final SpriteBatch spriteBatch;
+
+    // Note: Components add and remove components while the update and render loop iterate over them, e.g. particles
+    // spawning and destroying themselves, so every iteration works on a snapshot. Changes are buffered and merged into
+    // a new snapshot the next time the components are requested, so a burst of them only copies the array once.
+    private volatile List<GameComponentEntry> gameComponents = Collections.emptyList();
+    private final Object componentsLock = new Object();
+    private final List<GameComponentEntry> addedComponents = new ArrayList<>();
+    private final Set<GameComponent> removedComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile boolean componentsChanged = false;
     private final Map<Class<? extends GameScene>, GameSceneEntry> scenes = new LinkedHashMap<>();
     //---
 
+    //--- Entities
+    private final SpatialIndex<Entity<?>> entities;
+    //---
+
     //--- Internals
     private final Settings settings;
     private final Log log;
     //---
 
+    //--- Sound
+    private SoundMixer soundMixer;
+    //---
+
     //--- Related To Loops
-    private final ScheduledExecutorService executorCore = Executors.newScheduledThreadPool(POOL_SIZE, new LoopThreadFactory("core", Thread.MAX_PRIORITY));
-    private final ScheduledExecutorService executorNormal = Executors.newScheduledThreadPool(POOL_SIZE, new LoopThreadFactory("normal", Thread.MIN_PRIORITY));
+    private final ScheduledExecutorService executorCore;
+    private final ScheduledExecutorService executorNormal;
+    private final ScheduledExecutorService executorUpdate;
+    private final ForkJoinPool updatePool;
 
     private RenderLoop renderLoop;
     private UpdateLoop updateLoop;
@@ -105,11 +149,38 @@ public class E {
         this.settings = settings;
 
         //--- Setting up internals
+        this.timings = new Timings(settings.isTimingEnabled());
+        this.metrics = new Metrics();
+        this.tracer = new Tracer(
+            settings.isTracingEnabled(),
+            settings.getTraceCapacity(),
+            TimeUnit.MILLISECONDS.toNanos(settings.getTraceSpikeThreshold()),
+            settings.getTraceDirectory()
+        );
+        this.taskRuntime = new TaskRuntime(settings.getTaskPoolSize());
         this.eventHandler = new EventHandler();
         this.log = new Log(settings.getLogCapacity());
-        this.screen = new EScreen();
+        this.screen = (settings.isHeadless() ? null : new EScreen());
+        this.offscreen = (settings.isHeadless() ? new OffscreenTarget() : null);
         this.input = new Input();
         this.layers = new Layers(settings.getAmountOfLayers());
+        this.entities = new UniformGrid<>(settings.getSpatialCellSize());
+        this.camera = new Camera();
+        this.renderIndex = new RenderIndex(settings.getSpatialCellSize());
+        this.spriteBatch = new SpriteBatch(settings.useOpenGL() ? new GLBackend() : new Java2DBackend());
+        //---
+
+        //--- Setting up executors
+        this.executorCore = Executors.newScheduledThreadPool(settings.getCorePoolSize(), new LoopThreadFactory("core", Thread.MAX_PRIORITY));
+        this.executorNormal = Executors.newScheduledThreadPool(settings.getNormalPoolSize(), new LoopThreadFactory("normal", Thread.MIN_PRIORITY));
+        this.executorUpdate = (
+            settings.isUpdateThreadDedicated() ?
+                Executors.newSingleThreadScheduledExecutor(new LoopThreadFactory("update", Thread.MAX_PRIORITY)) : this.executorCore
+        );
+        this.updatePool = (
+            settings.isParallelizingUpdate() ?
+                new ForkJoinPool(settings.getUpdateParallelism(), new LoopThreadFactory("update-worker", Thread.MAX_PRIORITY), null, false) : null
+        );
         //---
 
         //--- Setting up loops
@@ -127,6 +198,17 @@ public class E {
         }
         //---
 
+        //--- Sound
+        if(settings.isSoundEnabled()) {
+            this.soundMixer = new SoundMixer(
+                (settings.isHeadless() || GraphicsEnvironment.isHeadless() ? new NullSink() : new LineSink()),
+                settings.getSoundVoices()
+            );
+        }
+        //---
+
+        this.registerMetrics();
+
         //--- Modules
         if(settings.isDebugging() && !(settings.getDebugInformation().isEmpty())) {
             this.addComponent(new EDebug(), Priority.LOW);
@@ -173,12 +255,23 @@ public class E {
      *     Returns a reference to the {@link EScreen} used by the engine to render frames.
      * </p>
      *
-     * @return Gives the {@link EScreen} of the engine instance.
+     * @return Gives the {@link EScreen} of the engine instance, null if the engine runs {@link Settings#isHeadless() headless}.
      */
     public EScreen getScreen() {
         return this.screen;
     }
 
+    /**
+     * <p>
+     *     Returns a reference to the {@link OffscreenTarget} used by the engine to render frames without a window.
+     * </p>
+     *
+     * @return Gives the {@link OffscreenTarget} if the engine runs {@link Settings#isHeadless() headless}, otherwise null.
+     */
+    public OffscreenTarget getOffscreen() {
+        return this.offscreen;
+    }
+
     /**
      * <p>
      *     Gives an instance of the {@link Layers} of the engine, it contains all {@link de.SweetCode.e.rendering.layers.Layer}
@@ -213,6 +306,28 @@ public class E {
         return this.renderLoop;
     }
 
+    /**
+     * <p>
+     *     Gives an instance of the {@link UpdateLoop} used by the engine to update all game components.
+     * </p>
+     *
+     * @return Returns a {@link UpdateLoop} reference.
+     */
+    public UpdateLoop getUpdateLoop() {
+        return this.updateLoop;
+    }
+
+    /**
+     * <p>
+     *     Gives an instance of the {@link EventLoop} used by the engine to trigger queued events.
+     * </p>
+     *
+     * @return Returns a {@link EventLoop} reference.
+     */
+    public EventLoop getEventLoop() {
+        return this.eventLoop;
+    }
+
     /**
      * <p>
      *    Gives an instance of the {@link MouseMovingLoop} which is responsible for tracking the position of the mouse.
@@ -236,6 +351,164 @@ public class E {
     }
 
 
+    /**
+     * <p>
+     *    Gives the instance of the {@link SoundMixer} which is responsible for playing sounds.
+     * </p>
+     *
+     * @return Returns a {@link SoundMixer} reference if {@link Settings#isSoundEnabled()} is true, otherwise null.
+     */
+    public SoundMixer getSoundMixer() {
+        return this.soundMixer;
+    }
+
+    /**
+     * <p>
+     *    Gives the instrumentation recording how long the loops and the single game components take.
+     * </p>
+     *
+     * @return The timings, never null.
+     */
+    public Timings getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * <p>
+     *    Gives the metrics of the engine, e.g. tick rates, tick durations, queue depths and cache hits. Games can register
+     *    their own metrics here as well, they get exported together with the ones of the engine.
+     * </p>
+     *
+     * @return The metrics, never null.
+     */
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * <p>
+     *    Gives the flight recorder keeping the last spans of the loops, components, events and garbage collections.
+     * </p>
+     *
+     * @return The tracer, never null.
+     */
+    public Tracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * <p>
+     *    Gives the runtime that runs the children of {@link de.SweetCode.e.resources.routines.composite.TaskAsync async
+     *    tasks} and hands their results back to the {@link UpdateLoop}.
+     * </p>
+     *
+     * @return The task runtime, never null.
+     */
+    public TaskRuntime getTaskRuntime() {
+        return this.taskRuntime;
+    }
+
+    /**
+     * <p>
+     *    Gives all loops of the engine, the ones that are disabled by the settings are left out.
+     * </p>
+     *
+     * @return A new list of the loops.
+     */
+    public List<Loop> getLoops() {
+
+        List<Loop> loops = new ArrayList<>();
+        loops.add(this.renderLoop);
+        loops.add(this.updateLoop);
+        loops.add(this.mouseMovingLoop);
+        loops.add(this.eventLoop);
+
+        if(!(this.hotSwapLoop == null)) {
+            loops.add(this.hotSwapLoop);
+        }
+
+        if(!(this.profilerLoop == null)) {
+            loops.add(this.profilerLoop);
+        }
+
+        return loops;
+
+    }
+
+    /**
+     * <p>
+     *    Gives the camera defining which part of the world is visible.
+     * </p>
+     *
+     * @return The camera, never null.
+     */
+    public Camera getCamera() {
+        return this.camera;
+    }
+
+    /**
+     * <p>
+     *    Gives the index of all {@link Renderable renderables}, the {@link EScreen} uses it to only render the ones that
+     *    are visible.
+     * </p>
+     *
+     * @return The index, never null.
+     */
+    public RenderIndex getRenderIndex() {
+        return this.renderIndex;
+    }
+
+    /**
+     * <p>
+     *    Gives the batch renderables record their textured draws in. The {@link EScreen} flushes it after all
+     *    renderables have been rendered, so draws of different renderables get sorted together. If the engine uses
+     *    OpenGL the draws are executed by a {@link GLBackend}, otherwise by a {@link Java2DBackend}.
+     * </p>
+     *
+     * @return The batch, never null.
+     */
+    public SpriteBatch getSpriteBatch() {
+        return this.spriteBatch;
+    }
+
+    /**
+     * <p>
+     *    Gives the executor the engine runs its core loops on. Work submitted to it competes with the
+     *    {@link RenderLoop} and the {@link UpdateLoop}, so it should be short and is best split with
+     *    {@link de.SweetCode.e.utils.Parallel}, which doesn't block if the pool is busy.
+     * </p>
+     *
+     * @return The executor of the core loops.
+     */
+    public ScheduledExecutorService getCoreExecutor() {
+        return this.executorCore;
+    }
+
+    /**
+     * <p>
+     *    Gives the pool the {@link UpdateLoop} updates the components on, if {@link Settings#isParallelizingUpdate()} is
+     *    true. Its parallelism is {@link Settings#getUpdateParallelism()}.
+     * </p>
+     *
+     * @return The update pool, or null if the updates are sequential.
+     */
+    public ForkJoinPool getUpdatePool() {
+        return this.updatePool;
+    }
+
+    /**
+     * <p>
+     *    Gives the spatial index of all {@link Entity entities} added as components by {@link E#addComponent(GameComponent)}.
+     *    It can be used to find entities in an area or colliding entities without checking all of them against each
+     *    other.
+     * </p>
+     *
+     * @return The index, never null.
+     */
+    public SpatialIndex<Entity<?>> getEntities() {
+        return this.entities;
+    }
+
     /**
      * <p>
      *     Returns a {@link LinkedHashMap} of all scenes registered to the engine. The key is the {@link Class} of the
@@ -283,15 +556,22 @@ public class E {
 
     /**
      * <p>
-     *     Returns a {@link ArrayList} of all {@link GameComponentEntry GameComponent entries} that are
-     *     currently registered to the engine. This includes active and inactive components as well as {@link GameScene},
-     *     because they are a sub-class of {@link GameScene}.
+     *     Returns an unmodifiable snapshot of all {@link GameComponentEntry GameComponent entries} that are currently
+     *     registered to the engine, sorted by their priority. This includes active and inactive components as well as
+     *     {@link GameScene}, because they are a sub-class of {@link GameScene}. Iterating over it is safe while components
+     *     are added or removed, the iteration sees the components registered when the snapshot has been taken.
      * </p>
      *
-     * @return Returns {@link ArrayList} of {@link GameComponentEntry GameComponentEntries}.
+     * @return Returns a list of {@link GameComponentEntry GameComponentEntries}.
      */
     public List<GameComponentEntry> getGameComponents() {
+
+        if(this.componentsChanged) {
+            this.applyComponentChanges();
+        }
+
         return this.gameComponents;
+
     }
 
     /**
@@ -317,25 +597,26 @@ public class E {
      *
      * @param gameComponent The reference to the {@link GameComponent}.
      * @param priority The priority the component has in the {@link UpdateLoop update-loop}. If {@link Settings#isParallelizingUpdate()}
-     *                 is true then can the priority value only be {@link Priority#NORMAL}.
+     *                 is true then components with the same priority are updated in parallel.
      */
     public void addComponent(GameComponent gameComponent, Priority priority) {
 
-        if(!(priority == Priority.NORMAL) && this.settings.isParallelizingUpdate()) {
-            this.getLog().log(
-                    LogEntry.Builder.create(E.class)
-                        .prefix(LogPrefixes.ENGINE)
-                        .message(
-                            "If you enabled isParallelizingUpdate you cannot define the priority of a GameComponent and/or" +
-                            "the GameComponent that is tied to a GameScene, however the priority for the GameScene itself " +
-                            "will be set."
-                        )
-                    .build()
-            );
+        GameComponentEntry entry = new GameComponentEntry(gameComponent, priority);
+
+        synchronized (this.componentsLock) {
+            this.addedComponents.add(entry);
+            this.componentsChanged = true;
         }
 
-        this.gameComponents.add(new GameComponentEntry(gameComponent, priority));
-        Collections.sort(this.gameComponents, new GameComponentEntry.EntryComparator());
+        this.renderIndex.add(entry);
+
+        if(gameComponent instanceof Entity) {
+            Entity<?> entity = (Entity<?>) gameComponent;
+
+            if(!(entity.getBoundingBox() == null)) {
+                this.entities.insert(entity, entity.getBoundingBox());
+            }
+        }
     }
 
     /**
@@ -345,7 +626,72 @@ public class E {
      * @param gameComponent The component that should be removed.
      */
     public void removeComponent(GameComponent gameComponent) {
-        this.gameComponents.removeIf(e -> e.getGameComponent() == gameComponent);
+
+        // Note: The removal only applies to the entries that are already in the snapshot, so the component can be added
+        // again right away.
+        synchronized (this.componentsLock) {
+            this.addedComponents.removeIf(e -> e.getGameComponent() == gameComponent);
+            this.removedComponents.add(gameComponent);
+            this.componentsChanged = true;
+        }
+
+        this.renderIndex.remove(gameComponent);
+
+        if(gameComponent instanceof Entity) {
+            this.entities.remove((Entity<?>) gameComponent);
+        }
+    }
+
+    /**
+     * <p>
+     *    Merges the buffered additions and removals into a new snapshot of the components. The added entries are sorted
+     *    and merged with the remaining ones in one pass, entries with the same priority stay in the order they have been
+     *    added in.
+     * </p>
+     */
+    private void applyComponentChanges() {
+
+        synchronized (this.componentsLock) {
+
+            if(!(this.componentsChanged)) {
+                return;
+            }
+
+            Comparator<GameComponentEntry> order = new GameComponentEntry.EntryComparator();
+            this.addedComponents.sort(order);
+
+            List<GameComponentEntry> current = this.gameComponents;
+            GameComponentEntry[] next = new GameComponentEntry[current.size() + this.addedComponents.size()];
+
+            int size = 0;
+            int added = 0;
+
+            for(GameComponentEntry entry : current) {
+
+                if(this.removedComponents.contains(entry.getGameComponent())) {
+                    continue;
+                }
+
+                while (added < this.addedComponents.size() && order.compare(this.addedComponents.get(added), entry) < 0) {
+                    next[size++] = this.addedComponents.get(added++);
+                }
+
+                next[size++] = entry;
+
+            }
+
+            while (added < this.addedComponents.size()) {
+                next[size++] = this.addedComponents.get(added++);
+            }
+
+            this.gameComponents = Collections.unmodifiableList(Arrays.asList(size == next.length ? next : Arrays.copyOf(next, size)));
+
+            this.addedComponents.clear();
+            this.removedComponents.clear();
+            this.componentsChanged = false;
+
+        }
+
     }
 
     /**
@@ -401,7 +747,11 @@ public class E {
      */
     public void show(Class<?> scene) {
         Assert.assertTrue("The scene doesn't exist.", this.scenes.containsKey(scene));
-        this.screen.setScene(this.scenes.get(scene).getGameScene());
+
+        // Note: Without a window every renderable is rendered anyway, there is no scene to switch to.
+        if(!(this.screen == null)) {
+            this.screen.setScene(this.scenes.get(scene).getGameScene());
+        }
     }
 
 
@@ -421,25 +771,24 @@ public class E {
         //
 
         //--- Schedule Various Loops (Currently: Rendering & Update Loop)
-        this.executorCore.scheduleAtFixedRate(
-            this.renderLoop,
-            0,
-            this.renderLoop.getOptimalIterationTime(),
-            TimeUnit.NANOSECONDS
-        );
-        this.executorCore.scheduleAtFixedRate(
+        // Note: The render loop has its own thread, so its frames are paced independently of the other loops.
+        this.renderLoop.start();
+        this.executorUpdate.scheduleAtFixedRate(
             this.updateLoop,
             0,
             this.updateLoop.getOptimalIterationTime(),
             TimeUnit.NANOSECONDS
         );
 
-        this.executorNormal.scheduleAtFixedRate(
-            this.mouseMovingLoop,
-            0,
-            this.mouseMovingLoop.getOptimalIterationTime(),
-            TimeUnit.NANOSECONDS
-        );
+        // Note: There is no mouse without a window.
+        if(!(this.settings.isHeadless())) {
+            this.executorNormal.scheduleAtFixedRate(
+                this.mouseMovingLoop,
+                0,
+                this.mouseMovingLoop.getOptimalIterationTime(),
+                TimeUnit.NANOSECONDS
+            );
+        }
 
         this.executorNormal.scheduleAtFixedRate(
                 this.eventLoop,
@@ -466,6 +815,97 @@ public class E {
             );
         }
 
+        //--- Metrics
+        if(this.settings.isMetricsEnabled()) {
+            try {
+                new MetricsBean(this.metrics, this.settings.getName()).register();
+            } catch (JMException e) {
+                this.getLog().log(
+                    LogEntry.Builder.create(E.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("Failed to register the metrics as MBean: %s", e.getMessage())
+                    .build()
+                );
+            }
+        }
+
+        if(!(this.settings.getMetricsFile() == null)) {
+            this.executorNormal.scheduleAtFixedRate(
+                new MetricsWriter(this.metrics, this.settings.getMetricsFile(), this.settings.getMetricsFormat(), this.settings.getName()),
+                this.settings.getMetricsInterval(),
+                this.settings.getMetricsInterval(),
+                TimeUnit.SECONDS
+            );
+        }
+
+        if(this.settings.isSoundEnabled()) {
+            try {
+                this.soundMixer.start(new LoopThreadFactory("sound", Thread.MAX_PRIORITY));
+            } catch (IOException e) {
+                this.getLog().log(
+                    LogEntry.Builder.create(E.class)
+                        .prefix(LogPrefixes.SOUND)
+                        .message("Failed to open the audio device, no sounds will be played: %s", e.getMessage())
+                    .build()
+                );
+            }
+        }
+
+    }
+
+    /**
+     * <p>
+     *     Registers the metrics of the engine itself. Everything is read on demand, so they cost nothing unless they are
+     *     exported.
+     * </p>
+     */
+    private void registerMetrics() {
+
+        //--- Loops
+        for(Loop loop : this.getLoops()) {
+
+            String prefix = String.format("loop.%s.", loop.getClass().getSimpleName().replaceFirst("Loop$", "").toLowerCase());
+
+            this.metrics.gauge(prefix + "ticks", loop::getCurrentTicks);
+            this.metrics.gauge(prefix + "tick.p50", () -> (loop.getTickTimes() == null ? 0 : loop.getTickTimes().getPercentile(50)));
+            this.metrics.gauge(prefix + "tick.p99", () -> (loop.getTickTimes() == null ? 0 : loop.getTickTimes().getPercentile(99)));
+            this.metrics.gauge(prefix + "tick.max", () -> (loop.getTickTimes() == null ? 0 : loop.getTickTimes().getMax()));
+
+        }
+
+        //--- Rendering
+        this.metrics.gauge("render.frame.p50", () -> this.renderLoop.getFrameTimes().getPercentile(50));
+        this.metrics.gauge("render.frame.p99", () -> this.renderLoop.getFrameTimes().getPercentile(99));
+        this.metrics.gauge("render.scale", this.layers::getRenderScale);
+        this.metrics.gauge("render.batch.commands", this.spriteBatch::getLastCommands);
+        this.metrics.gauge("render.batch.textureSwitches", this.spriteBatch::getLastTextureSwitches);
+
+        if(this.spriteBatch.getBackend() instanceof GLBackend) {
+            GLBackend backend = (GLBackend) this.spriteBatch.getBackend();
+
+            this.metrics.gauge("render.gl.drawCalls", backend::getLastDrawCalls);
+            this.metrics.gauge("texture.gl.uploads", backend::getUploads);
+        }
+
+        //--- Game
+        this.metrics.gauge("components.total", () -> this.getGameComponents().size());
+        this.metrics.gauge("components.active", () -> this.getGameComponents().stream()
+                .filter(e -> e.getGameComponent().isActive())
+                .count()
+        );
+        this.metrics.gauge("events.queued", () -> this.eventHandler.getQueuedEvents().size());
+        this.metrics.gauge("tasks.running", this.taskRuntime::getRunning);
+
+        //--- JVM
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+        this.metrics.gauge("jvm.heap.used", () -> memoryBean.getHeapMemoryUsage().getUsed());
+        this.metrics.gauge("jvm.heap.max", () -> memoryBean.getHeapMemoryUsage().getMax());
+        this.metrics.gauge("jvm.gc.count", () -> gcBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum());
+        this.metrics.gauge("jvm.gc.time", () -> gcBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum());
+        this.metrics.gauge("jvm.threads", ManagementFactory.getThreadMXBean()::getThreadCount);
+
     }
 
     /**
@@ -17,7 +17,7 @@ public class EDebug implements GameComponent {
     @Override
     public void update(InputEntry inputEntry, long delta) {
 
-        if(inputEntry.has(InputCombinationEntry.class, e -> e.stream().anyMatch(f -> f.getInputCombination().getName().equals("_e_keys_debug_state")))) {
+        if(!(E.getE().getScreen() == null) && inputEntry.has(InputCombinationEntry.class, e -> e.stream().anyMatch(f -> f.getInputCombination().getName().equals("_e_keys_debug_state")))) {
             E.getE().getScreen().setDisplayDebuggingInformation(
                     !E.getE().getScreen().isDisplayDebuggingInformation()
             );
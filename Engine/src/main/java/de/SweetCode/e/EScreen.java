@@ -1,19 +1,25 @@
 package de.SweetCode.e;
 
-import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLEventListener;
-import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
-import com.jogamp.opengl.util.texture.Texture;
-import com.jogamp.opengl.util.texture.TextureData;
+import de.SweetCode.e.loop.FramePacing;
+import de.SweetCode.e.loop.FrameTimes;
+import de.SweetCode.e.loop.Loop;
 import de.SweetCode.e.loop.ProfilerLoop;
+import de.SweetCode.e.loop.ThreadSample;
 import de.SweetCode.e.math.IDimension;
 import de.SweetCode.e.math.ILocation;
+import de.SweetCode.e.rendering.AcceleratedImage;
 import de.SweetCode.e.rendering.AspectRatio;
+import de.SweetCode.e.rendering.DynamicResolution;
+import de.SweetCode.e.rendering.FrameScaler;
 import de.SweetCode.e.rendering.GameScene;
+import de.SweetCode.e.rendering.batch.GLBackend;
+import de.SweetCode.e.rendering.batch.SpriteBatch;
 import de.SweetCode.e.rendering.layers.Layer;
 import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.utils.Histogram;
 import de.SweetCode.e.utils.log.LogEntry;
 import de.SweetCode.e.utils.log.LogPrefixes;
 
@@ -21,13 +27,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferInt;
 import java.awt.image.VolatileImage;
 import java.lang.management.GarbageCollectorMXBean;
-import java.nio.IntBuffer;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -43,20 +46,15 @@ public class EScreen extends JFrame implements GLEventListener {
 
     private boolean displayDebuggingInformation = true;
 
-
-    /**
-     * @TODO:
-     * Experimental Feature - it will allocate VRAM instead of RAM
-     * to store and draw frames. This will also be used for the DynamicTextureLoader
-     * to reduce the used RAM.
-     *
-     * I am currently working on some bugs and on the implementation itself to ensure its
-     * performance.
-     */
-    public static final boolean USE_VRAM = false;
+    private final boolean useVRAM;
 
     private BufferStrategy bufferStrategy;
-    private GameScene current = null;
+    private volatile GameScene current = null;
+
+    private final FrameRenderer renderer = new FrameRenderer();
+    private final FrameScaler scaler;
+    private final DynamicResolution resolution;
+    private BufferedImage frame = null;
 
     private static GraphicsConfiguration graphicConfiguration;
 
@@ -75,7 +73,25 @@ public class EScreen extends JFrame implements GLEventListener {
 
         EScreen.graphicConfiguration = this.getGraphicsConfiguration();
 
+        this.scaler = new FrameScaler(settings.getFrameDimension(), settings.getScalingQuality());
+        this.resolution = (settings.isDynamicResolution() ?
+                new DynamicResolution(TimeUnit.SECONDS.toNanos(1) / settings.getTargetFPS(), settings.getMinimumRenderScale()) :
+                null
+        );
+        this.useVRAM = (settings.useVRAM() && !(settings.useOpenGL()) && AcceleratedImage.isSupported());
+
+        if(settings.useVRAM() && !(this.useVRAM)) {
+            E.getE().getLog().log(
+                    LogEntry.Builder.create(EScreen.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("VRAM has been requested, but accelerated images are not available. Falling back to RAM.")
+                    .build()
+            );
+        }
+
         if(!(settings.useOpenGL())) {
+            // Note: The render loop draws the frames itself, the paint requests of the system are ignored.
+            this.setIgnoreRepaint(true);
             this.setVisible(true);
 
             this.createBufferStrategy(3);
@@ -105,6 +121,25 @@ public class EScreen extends JFrame implements GLEventListener {
         return this.current;
     }
 
+    /**
+     * <p>
+     *    Checks if the screen draws its layers from VRAM. This is only the case if {@link Settings#useVRAM()} is true
+     *    and the system supports accelerated images.
+     * </p>
+     *
+     * @return True, if VRAM is in use, otherwise false.
+     */
+    public boolean isUsingVRAM() {
+        return this.useVRAM;
+    }
+
+    /**
+     * @return The controller of the render resolution, or null if {@link Settings#isDynamicResolution()} is false.
+     */
+    public DynamicResolution getDynamicResolution() {
+        return this.resolution;
+    }
+
     public boolean isDisplayDebuggingInformation() {
         return this.displayDebuggingInformation;
     }
@@ -129,47 +164,136 @@ public class EScreen extends JFrame implements GLEventListener {
     @Override
     public void paint(Graphics graphics) {
 
+        // Note: Without OpenGL the frames are rendered actively by the render loop, see EScreen#render().
+        if(E.getE().getSettings().useOpenGL()) {
+            super.paint(graphics);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Renders the next frame and presents it with the {@link BufferStrategy} of the window. It is called by the
+     *    {@link de.SweetCode.e.loop.RenderLoop} on the render thread, not by AWT. It has no effect with OpenGL.
+     * </p>
+     */
+    public void render() {
+
         Settings s = E.getE().getSettings();
 
-        if(s.useOpenGL()) {
-            super.paint(graphics);
+        if(s.useOpenGL() || this.current == null || this.bufferStrategy == null) {
             return;
         }
 
-        if (this.current == null) {
-            return;
+        // Note: Only the time to render the frame counts, presenting it waits for the display and would make the dynamic
+        // resolution lower the scale for frames that aren't actually slow.
+        long start = System.nanoTime();
+
+        // Note: The frame is rendered once, if the contents of the buffer strategy get lost, only the blit is repeated,
+        // rendering again would call every renderable twice in the same frame.
+        Image frame = null;
+
+        if(this.useVRAM) {
+            this.renderLayers();
+        } else {
+            frame = this.frame();
         }
 
+        long rendered = System.nanoTime() - start;
+        long blit;
+
         do {
 
+            long blitStart = System.nanoTime();
+
             Graphics2D g = (Graphics2D) this.bufferStrategy.getDrawGraphics();
             g.setRenderingHints(E.getE().getSettings().getRenderingHints());
 
-            Image frame = this.frame();
+            // Note: The graphics of the buffer strategy covers the whole window, including its decorations.
+            Insets insets = this.getInsets();
+            int windowWidth = this.getWidth() - insets.left - insets.right;
+            int windowHeight = this.getHeight() - insets.top - insets.bottom;
+
+            //--- VRAM: The layers get drawn directly from their VRAM copies, so we never combine them in RAM.
+            if(this.useVRAM) {
+
+                ILocation drawPosition = new ILocation(0, 0);
+                IDimension dimension = s.getFrameDimension();
+
+                if(s.fixAspectRatio()) {
+                    AspectRatio.Result aspectRatio = this.scaler.layout(windowWidth, windowHeight);
+                    drawPosition = aspectRatio.getPosition();
+                    dimension = aspectRatio.getDimension();
+
+                    this.scaler.drawBorders(g, insets.left, insets.top, windowWidth, windowHeight);
+                }
 
-            ILocation drawPosition = new ILocation(0, 0);
+                if(s.fixAspectRatio() || E.getE().getLayers().getRenderScale() < 1) {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, s.getScalingQuality().getInterpolation());
+                }
 
-            if(E.getE().getSettings().fixAspectRatio()) {
-                AspectRatio.Result aspectRatio = AspectRatio.calculateOptimal(s.getFrameDimension(), s.getWindowDimension());
+                E.getE().getLayers().draw(g, insets.left + drawPosition.getX(), insets.top + drawPosition.getY(), dimension.getWidth(), dimension.getHeight());
 
-                drawPosition = aspectRatio.getPosition();
-                IDimension dimension = aspectRatio.getDimension();
+            } else {
 
-                //Note: only rescale if necessary
-                if(!(frame.getWidth(null) == dimension.getWidth()) || !(frame.getHeight(null) == dimension.getHeight())) {
-                    frame = frame.getScaledInstance(dimension.getWidth(), dimension.getHeight(), Image.SCALE_AREA_AVERAGING);
+                if(s.fixAspectRatio()) {
+                    this.scaler.draw(g, frame, insets.left, insets.top, windowWidth, windowHeight);
+                } else if(E.getE().getLayers().getRenderScale() < 1) {
+                    // Note: Rendered in a lower resolution, it has to be scaled up to the frame size.
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, s.getScalingQuality().getInterpolation());
+                    g.drawImage(frame, insets.left, insets.top, s.getFrameDimension().getWidth(), s.getFrameDimension().getHeight(), null);
+                } else {
+                    g.drawImage(frame, insets.left, insets.top, null);
                 }
+
             }
 
-            g.drawImage(frame, drawPosition.getX(), drawPosition.getY(), null);
+            g.dispose();
+            blit = System.nanoTime() - blitStart;
 
             this.bufferStrategy.show();
-            g.dispose();
 
-            E.getE().getLayers().getLayers().forEach(Layer::clean);
+            // Note: Flushes the drawing commands, some window systems buffer them otherwise and present the frame late.
+            Toolkit.getDefaultToolkit().sync();
 
         } while(this.bufferStrategy.contentsLost());
 
+        E.getE().getLayers().getLayers().forEach(Layer::clean);
+
+        // Note: Only the last blit counts, a repeated one is caused by the display and not by a slow frame.
+        long frameTime = rendered + blit;
+
+        this.adaptResolution(frameTime);
+
+    }
+
+    /**
+     * <p>
+     *    Passes the time the last frame took to the {@link DynamicResolution}, if enabled, and changes the resolution of
+     *    the layers between two frames, if required.
+     * </p>
+     *
+     * @param frameTime The time in nanoseconds.
+     */
+    private void adaptResolution(long frameTime) {
+
+        if(this.resolution == null || !(this.resolution.sample(frameTime))) {
+            return;
+        }
+
+        E.getE().getLayers().setRenderScale(this.resolution.getScale());
+
+        E.getE().getLog().log(
+                LogEntry.Builder.create(EScreen.class)
+                    .prefix(LogPrefixes.ENGINE)
+                    .message(String.format(
+                            "Changed the render scale to %.2f, the average frame time was %.2f ms.",
+                            this.resolution.getScale(),
+                            this.resolution.getLastAverage() / 1E6
+                    ))
+                .build()
+        );
+
     }
 
     /**
@@ -183,7 +307,8 @@ public class EScreen extends JFrame implements GLEventListener {
         return EScreen.graphicConfiguration;
     }
 
-    /**     * <p>
+    /**
+     * <p>
      *     This method generates the next frame that is going to be rendered to the screen. It does this by calling
      *     all {@link GameScene#render(Layers)} methods of all active scenes. Then it checks if the frame should also
      *     contain debug information and calls {@link EScreen#drawDebugInformation()} to draw them if required, and then
@@ -194,26 +319,34 @@ public class EScreen extends JFrame implements GLEventListener {
      */
     private BufferedImage frame() {
 
-        E.getE().getGameComponents().forEach(k -> {
-            GameComponent e = k.getGameComponent();
+        this.renderLayers();
 
-            if (e instanceof Renderable && e.isActive()) {
-                ((Renderable) e).render(E.getE().getLayers());
-            }
+        // Note: The frame is drawn right away, so the same image can be reused as long as the frame size stays the same.
+        IDimension dimension = E.getE().getLayers().getRenderDimension();
+        if(this.frame == null || !(this.frame.getWidth() == dimension.getWidth()) || !(this.frame.getHeight() == dimension.getHeight())) {
+            this.frame = new BufferedImage(dimension.getWidth(), dimension.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        }
 
-        });
+        return E.getE().getLayers().combine(this.frame);
 
-        //--- Debugging
-        if(E.getE().getSettings().isDebugging() && !(E.getE().getSettings().getDebugInformation().isEmpty()) && this.displayDebuggingInformation) {
-            EScreen.drawDebugInformation();
-        }
-        //---
+    }
 
-        return E.getE().getLayers().combine();
+    /**
+     * <p>
+     *     Calls all {@link Renderable#render(Layers)} methods of all active renderables and draws the debug information,
+     *     if required, without combining the layers. With OpenGL the {@link SpriteBatch} is flushed in
+     *     {@link EScreen#display(GLAutoDrawable)} instead.
+     * </p>
+     */
+    private void renderLayers() {
+        this.renderer.render(this.displayDebuggingInformation, !(E.getE().getSettings().useOpenGL()));
     }
 
     @Override
-    public void init(GLAutoDrawable drawable) {}
+    public void init(GLAutoDrawable drawable) {
+        // Note: Sync-to-vertical-refresh only with the VSYNC pacing, otherwise the animator paces the frames.
+        drawable.getGL().setSwapInterval(E.getE().getSettings().getFramePacing() == FramePacing.VSYNC ? 1 : 0);
+    }
 
     @Override
     public void dispose(GLAutoDrawable glAutoDrawable) {}
@@ -223,109 +356,28 @@ public class EScreen extends JFrame implements GLEventListener {
 
         if(!(this.current == null)) {
 
-            drawable.swapBuffers();
-
-            // getting the new frame
-            BufferedImage frame = this.frame();
-
-            // Frame to Buffer
-            int[] data = ((DataBufferInt)frame.getRaster().getDataBuffer()).getData();
-
-            IntBuffer buffer = IntBuffer.allocate(data.length);
-
-            // Note: Well, in a normal case we just could have called IntBuffer#put and passed the as parameter the data
-            // int-array, however the RGB values in it have a wrong order, so we have to fix them. This is what we are doing
-            // below. The values stored in the image-object are in the following order: ARGB, however the OpenGL pipeline
-            // expects ABGR for some reason.
-            // Since bit-shifting is not a expensive operation it usually takes about 1ms (of course depending on the system,
-            // but still acceptable). I tried to implement a cache but even if the look-up time is O(1) it is too slow
-            // to make any sense.
-            Arrays.stream(data).forEachOrdered(e -> {
-
-                int alpha = (e >> 24) & 0xFF;
-                int red = (e >> 16) & 0xFF;
-                int green = (e >> 8) & 0xFF;
-                int blue = (e & 0xFF) & 0xFF;
-
-
-                buffer.put(
-                        ((alpha & 0xFF) << 24)  |
-                        ((blue & 0xFF)  << 16)  |
-                        ((green & 0xFF) << 8)   |
-                        ((red & 0xFF)   << 0)
-                );
-
-            });
-
-            buffer.flip();
-
+            long start = System.nanoTime();
             GL2 gl = drawable.getGL().getGL2();
 
-            // disables sync-to-vertical-refresh
-            gl.setSwapInterval(0);
-
-            // clear
-            gl.glClearColor(0F, 0F, 0F, 0F);
-            gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
-            gl.glLoadIdentity();
-
-            // generating & binding texture
-            TextureData textureData = new TextureData(
-                    E.getE().getRenderLoop().getGlProfile(),         //glp                   GLProfile
-                    GL.GL_RGBA,             //internalFormat        int
-                    frame.getWidth(),       //width                 int
-                    frame.getHeight(),      //height                int
-                    0,                      //border                int
-                    GL.GL_RGBA,             //pixelFormat           int
-                    GL2.GL_UNSIGNED_BYTE,   //pixelType             int
-                    false,                  //mipmap                boolean
-                    false,                  //dataIsCompressed      boolean
-                    false,                  //mustFlopVertically    boolean
-                    buffer,                 //buffer                Buffer
-                    null                    //flusher               TextureData.Flusher
-            );
-            Texture texture = new Texture(gl, textureData);
-            texture.enable(gl);
-            texture.bind(gl);
-
-            // viewport
-            gl.glViewport(0, 0, frame.getWidth(), frame.getHeight());
-
-            gl.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
-            gl.glLoadIdentity();
-            gl.glOrtho(0, frame.getWidth(), frame.getHeight(), 0, 0, 1);
-
-            gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
-            gl.glLoadIdentity();
+            this.renderLayers();
 
-            gl.glBegin(GL2.GL_QUADS);
+            // Note: The sprites are drawn by the GPU, interleaved with the layers, only the content drawn directly on
+            // the layers gets uploaded. The canvas swaps the buffers itself after this method returns.
+            SpriteBatch batch = E.getE().getSpriteBatch();
+            GLBackend backend = (GLBackend) batch.getBackend();
 
-            gl.glTexCoord2f(0, 0);
-            gl.glVertex2f(0, 0);
-
-            gl.glTexCoord2f(1, 0);
-            gl.glVertex2f(frame.getWidth(), 0);
-
-            gl.glTexCoord2f(1, 1);
-            gl.glVertex2f(frame.getWidth(), frame.getHeight());
-
-            gl.glTexCoord2f(0, 1);
-            gl.glVertex2f(0, frame.getHeight());
-
-            gl.glEnd();
-            gl.glFlush();
-
-            textureData.destroy();
-            textureData.flush();
-            texture.disable(gl);
-            texture.destroy(gl);
-
-            buffer.clear();
-
-            drawable.swapBuffers();
+            int width = drawable.getSurfaceWidth();
+            int height = drawable.getSurfaceHeight();
+            backend.frame(gl, E.getE().getLayers(), width, height, (E.getE().getSettings().fixAspectRatio() ? this.scaler.layout(width, height) : null));
+            batch.flush();
+            backend.finish();
 
             E.getE().getLayers().getLayers().forEach(Layer::clean);
 
+            // Note: This is only the time to submit the frame, the GPU works asynchronously.
+            this.adaptResolution(System.nanoTime() - start);
+            E.getE().getRenderLoop().presented();
+
         }
 
     }
@@ -338,7 +390,7 @@ public class EScreen extends JFrame implements GLEventListener {
      *     Draws all debug information to the {@link Layers#first()} layer, but only those which are in {@link Settings#getDebugInformation()}.
      * </p>
      */
-    private static void drawDebugInformation() {
+    static void drawDebugInformation() {
 
         Settings settings = E.getE().getSettings();
         Layer layer = E.getE().getLayers().first();
@@ -375,7 +427,10 @@ public class EScreen extends JFrame implements GLEventListener {
 
         layer.g().setColor(
                 EScreen.highContrast(
-                        new Color(layer.b().getRGB(width - xOffset / 2, (int) (yOffset * 1.5D)))
+                        new Color(layer.b().getRGB(
+                                (int) ((width - xOffset / 2) * layer.getScale()),
+                                (int) (yOffset * 1.5D * layer.getScale())
+                        ))
                 )
         );
 
@@ -412,16 +467,28 @@ public class EScreen extends JFrame implements GLEventListener {
             layer.g().drawString(
                     String.format(
                             "VRAM: %s | OpenGL: %s | Updates: %s",
-                            (EScreen.USE_VRAM ? "on" : "off"),
+                            (!(E.getE().getScreen() == null) && E.getE().getScreen().isUsingVRAM() ? "on" : "off"),
                             (settings.useOpenGL() ? "on" : "off"),
-                            (E.getE().getSettings().isParallelizingUpdate() ? String.format("parallelized (%d)", E.POOL_SIZE) : "sequential")
+                            (E.getE().getSettings().isParallelizingUpdate() ? String.format("parallelized (%d)", E.getE().getUpdatePool().getParallelism()) : "sequential")
                     ),
                     width - xOffset,
                     yOffset * (xStep + 1)
             );
 
+            FrameTimes frameTimes = E.getE().getRenderLoop().getFrameTimes();
+            layer.g().drawString(
+                    String.format(
+                            "Frame: p50 %.2f ms | p99 %.2f ms | max %.2f ms | %s",
+                            frameTimes.getPercentile(50) / 1E6,
+                            frameTimes.getPercentile(99) / 1E6,
+                            frameTimes.getPercentile(100) / 1E6,
+                            settings.getFramePacing()
+                    ),
+                    width - xOffset,
+                    yOffset * (xStep + 2)
+            );
 
-            xStep += 2;
+            xStep += 3;
         }
 
         //--- MEMORY_PROFILE
@@ -453,6 +520,56 @@ public class EScreen extends JFrame implements GLEventListener {
             xStep += 1;
         }
 
+        //--- TIMING_PROFILE
+        if(displays.contains(Settings.DebugDisplay.TIMING_PROFILE)) {
+
+            if(!(E.getE().getTimings().isEnabled())) {
+                layer.g().drawString("Timings: off", width - xOffset, yOffset * xStep);
+                xStep += 1;
+            } else {
+
+                for(Loop loop : new Loop[] { E.getE().getUpdateLoop(), E.getE().getRenderLoop() }) {
+                    Histogram times = loop.getTickTimes();
+
+                    if(!(times == null)) {
+                        layer.g().drawString(
+                                String.format(
+                                    "%s: p50 %.2f ms | p99 %.2f ms | max %.2f ms",
+                                        loop.getName(),
+                                        times.getPercentile(50) / 1E6,
+                                        times.getPercentile(99) / 1E6,
+                                        times.getMax() / 1E6
+                                ),
+                                width - xOffset,
+                                yOffset * xStep
+                        );
+                        xStep += 1;
+                    }
+                }
+
+                for(Timings.Phase phase : Timings.Phase.values()) {
+                    for(GameComponentEntry entry : E.getE().getTimings().getSlowest(phase, 99, 3)) {
+                        Histogram times = entry.getTimes(phase);
+                        Class<?> type = entry.getGameComponent().getClass();
+                        layer.g().drawString(
+                                String.format(
+                                    "%s %s: p99 %.3f ms | max %.3f ms",
+                                        phase,
+                                        (type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName()),
+                                        times.getPercentile(99) / 1E6,
+                                        times.getMax() / 1E6
+                                ),
+                                width - xOffset,
+                                yOffset * xStep
+                        );
+                        xStep += 1;
+                    }
+                }
+
+            }
+
+        }
+
         //--- GC_PROFILE
         if(displays.contains(Settings.DebugDisplay.GC_PROFILE)) {
             List<GarbageCollectorMXBean> gcBeans = profilerLoop.getGCBeans();
@@ -503,8 +620,8 @@ public class EScreen extends JFrame implements GLEventListener {
         }
 
         //--- THREAD_PROFILE
-        if(displays.contains(Settings.DebugDisplay.GC_PROFILE)) {
-            Map<ThreadGroup, List<Thread>> threads = profilerLoop.getThreads();
+        if(displays.contains(Settings.DebugDisplay.THREAD_PROFILE)) {
+            List<ThreadSample> threads = profilerLoop.getThreads();
             layer.g().drawString(
                     String.format(
                         "Threads: %d",
@@ -514,71 +631,42 @@ public class EScreen extends JFrame implements GLEventListener {
                     yOffset * xStep
             );
 
-            final int[] i = {0};
-            int finalXStep = xStep;
-
-            //--- Main Thread
-            final double[] waiting = {0D};
-            threads
-                .entrySet().stream()
-                .filter(e -> e.getKey().getName().equals("main"))
-                .findFirst().get()
-                .getValue().forEach(thread -> {
-                    if(thread.getState() == Thread.State.WAITING) {
-                        waiting[0]++;
-                    }
-                });
+            int i = 0;
 
-            if(waiting[0] / E.POOL_SIZE > 0.5D) {
-                //layer.g().drawString("WARNING Decrease the pool size.");
-            }
+            // Note: Only the threads of the engine, the others are mostly JVM internals.
+            for(ThreadSample t : threads) {
 
-            threads.forEach((threadGroup, threadList) -> {
+                if(!(t.isEngineThread())) {
+                    continue;
+                }
+
+                i++;
+
+                Color tmp = layer.g().getColor();
+                if(t.getCpuUsage() >= 0.9) {
+                    layer.g().setColor(Color.RED);
+                } else if(t.getCpuUsage() >= 0.6) {
+                    layer.g().setColor(Color.ORANGE);
+                }
 
-                //--- Group Name
                 layer.g().drawString(
                         String.format(
-                            "%s",
-                                threadGroup.getName()
+                            "%d - %s (%s) | CPU: %s | Alloc: %s",
+                                t.getId(),
+                                t.getName(),
+                                t.getState().name(),
+                                (t.getCpuUsage() < 0 ? "-" : String.format("%.1f%%", t.getCpuUsage() * 100)),
+                                (t.getAllocationRate() < 0 ? "-" : String.format("%.2f MB/s", t.getAllocationRate() / (1024D * 1024D)))
                         ),
                         (int) (width - xOffset * 0.95),
-                        yOffset * ((finalXStep + 1) + i[0]))
-                ;
-                i[0]++;
-
-                //--- Threads belonging to the group
-                threadList.forEach(t -> {
-                    Color tmp = layer.g().getColor();
-                    if(t.getName().startsWith("e-loop-thread-")) {
-                        double usage = waiting[0] / E.POOL_SIZE;
-                        if(usage < 0.31) {
-                            layer.g().setColor(Color.GREEN);
-                        } else if(usage > 0.3 && usage < 0.51) {
-                            layer.g().setColor(Color.ORANGE);
-                        } else {
-                            layer.g().setColor(Color.RED);
-                        }
-                    }
-
-                    layer.g().drawString(
-                            String.format(
-                                "%d - P: %d - %s (%s)",
-                                    t.getId(),
-                                    t.getPriority(),
-                                    t.getName(),
-                                    t.getState().name()
-                            ),
-                            (int) (width - xOffset * 0.9),
-                            yOffset * ((finalXStep + 1) + i[0])
-                    );
+                        yOffset * (xStep + i)
+                );
 
-                    layer.g().setColor(tmp);
-                    i[0]++;
-                });
+                layer.g().setColor(tmp);
 
-            });
+            }
 
-            xStep += i[0];
+            xStep += i;
             xStep++;
         }
 
@@ -0,0 +1,118 @@
+package de.SweetCode.e;
+
+import de.SweetCode.e.rendering.batch.SpriteBatch;
+import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.trace.TraceCategory;
+import de.SweetCode.e.trace.Tracer;
+
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *    The FrameRenderer renders all active {@link Renderable renderables} into the {@link Layers} of the engine. It is
+ *    shared by the {@link EScreen} and the {@link OffscreenTarget}, so a frame rendered without a window goes through
+ *    exactly the same steps as one shown on the screen.
+ * </p>
+ */
+class FrameRenderer {
+
+    private final List<GameComponentEntry> visible = new ArrayList<>();
+
+    FrameRenderer() {}
+
+    /**
+     * <p>
+     *     Calls all {@link Renderable#render(Layers)} methods of all active renderables, executes the recorded draws of
+     *     the {@link SpriteBatch} and draws the debug information, if required, without combining the layers.
+     * </p>
+     *
+     * @param debugging True, if the debug information should be drawn.
+     * @param flush True, if the {@link SpriteBatch} should be flushed, otherwise the caller has to do it.
+     */
+    void render(boolean debugging, boolean flush) {
+
+        //--- Camera: Snapshot of the transform, so all layers see the same view in this frame
+        AffineTransform view = E.getE().getCamera().getTransform();
+        E.getE().getLayers().getLayers().forEach(l -> {
+            l.applyCamera(view);
+            l.prepare();
+        });
+        //---
+
+        SpriteBatch batch = E.getE().getSpriteBatch();
+        boolean timing = E.getE().getTimings().isEnabled();
+        Tracer tracer = E.getE().getTracer();
+
+        //--- Culling: Only the renderables intersecting the viewport get rendered
+        if(E.getE().getSettings().isCullingEnabled()) {
+
+            E.getE().getRenderIndex().collect(E.getE().getCamera().getViewport(), this.visible);
+
+            for(int i = 0; i < this.visible.size(); i++) {
+                GameComponentEntry entry = this.visible.get(i);
+
+                if(entry.getGameComponent().isActive()) {
+                    this.render(entry, batch, timing, tracer);
+                }
+            }
+
+            this.visible.clear();
+
+        } else {
+
+            E.getE().getGameComponents().forEach(k -> {
+                GameComponent e = k.getGameComponent();
+
+                if (e instanceof Renderable && e.isActive()) {
+                    this.render(k, batch, timing, tracer);
+                }
+
+            });
+
+        }
+        //---
+
+        //--- Batch: Executing the recorded draws, sorted by layer, z-order and texture
+        if(flush) {
+            long start = System.nanoTime();
+            batch.flush();
+            tracer.span(TraceCategory.RENDER, "SpriteBatch#flush", start, System.nanoTime());
+        }
+        //---
+
+        //--- Debugging
+        if(E.getE().getSettings().isDebugging() && !(E.getE().getSettings().getDebugInformation().isEmpty()) && debugging) {
+            EScreen.drawDebugInformation();
+        }
+        //---
+
+    }
+
+    /**
+     * <p>
+     *    Renders one renderable. Its time only covers recording the draws of the {@link SpriteBatch}, not executing them.
+     * </p>
+     */
+    private void render(GameComponentEntry entry, SpriteBatch batch, boolean timing, Tracer tracer) {
+
+        boolean measuring = (timing || tracer.isEnabled());
+        long start = (measuring ? System.nanoTime() : 0);
+
+        batch.reset();
+        ((Renderable) entry.getGameComponent()).render(E.getE().getLayers());
+
+        if(measuring) {
+            long end = System.nanoTime();
+
+            if(timing) {
+                entry.recordRender(end - start);
+            }
+
+            tracer.span(TraceCategory.RENDER, entry.getGameComponent().getClass(), start, end);
+        }
+
+    }
+
+}
@@ -1,17 +1,27 @@
 package de.SweetCode.e;
 
 import de.SweetCode.e.rendering.Priority;
+import de.SweetCode.e.utils.Histogram;
 import de.SweetCode.e.utils.ToString.ToStringBuilder;
 
 import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A GameComponentEntry just makes storing a game-component more handy.
  */
 public class GameComponentEntry {
 
+    private final static AtomicLong sequences = new AtomicLong();
+
     private GameComponent gameComponent;
     private Priority priority;
+    private final long sequence = sequences.getAndIncrement();
+
+    //--- Timings, only created once something has been recorded, coarse since there is one pair per component
+    private volatile Histogram updateTimes = null;
+    private volatile Histogram renderTimes = null;
+    //---
 
     /**
      * @param gameComponent The game-component.
@@ -36,6 +46,96 @@ public class GameComponentEntry {
         return this.priority;
     }
 
+    /**
+     * @return Gives the number of the entry, entries created later have a higher number.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return The durations of the update calls in nanoseconds, or null if none have been recorded. They are only
+     *         recorded while {@link Timings#isEnabled()} is true.
+     */
+    public Histogram getUpdateTimes() {
+        return this.updateTimes;
+    }
+
+    /**
+     * @return The durations of the render calls in nanoseconds, or null if none have been recorded. They are only
+     *         recorded while {@link Timings#isEnabled()} is true.
+     */
+    public Histogram getRenderTimes() {
+        return this.renderTimes;
+    }
+
+    /**
+     * @param phase The phase.
+     * @return The durations of the phase, see {@link GameComponentEntry#getUpdateTimes()} and
+     *         {@link GameComponentEntry#getRenderTimes()}.
+     */
+    public Histogram getTimes(Timings.Phase phase) {
+        return (phase == Timings.Phase.UPDATE ? this.updateTimes : this.renderTimes);
+    }
+
+    /**
+     * <p>
+     *    Records the duration of an update call, called by the engine.
+     * </p>
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void recordUpdate(long nanos) {
+
+        Histogram histogram = this.updateTimes;
+
+        if(histogram == null) {
+            synchronized (this) {
+                if(this.updateTimes == null) {
+                    this.updateTimes = Histogram.coarse();
+                }
+                histogram = this.updateTimes;
+            }
+        }
+
+        histogram.record(nanos);
+
+    }
+
+    /**
+     * <p>
+     *    Records the duration of a render call, called by the engine.
+     * </p>
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void recordRender(long nanos) {
+
+        Histogram histogram = this.renderTimes;
+
+        if(histogram == null) {
+            synchronized (this) {
+                if(this.renderTimes == null) {
+                    this.renderTimes = Histogram.coarse();
+                }
+                histogram = this.renderTimes;
+            }
+        }
+
+        histogram.record(nanos);
+
+    }
+
+    /**
+     * <p>
+     *    Removes all recorded timings.
+     * </p>
+     */
+    void resetTimings() {
+        this.updateTimes = null;
+        this.renderTimes = null;
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.create(this)
@@ -0,0 +1,150 @@
+package de.SweetCode.e;
+
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * <p>
+ *    The OffscreenTarget renders frames into a {@link BufferedImage} instead of a window. The engine creates it instead
+ *    of the {@link EScreen} if {@link Settings#isHeadless()} is true. Frames go through the same pipeline as on the
+ *    screen: all renderables are rendered into the {@link de.SweetCode.e.rendering.layers.Layers}, which are then
+ *    combined with {@link de.SweetCode.e.rendering.layers.Layers#combine()}.
+ * </p>
+ * <p>
+ *    There are two ways to use it:
+ * </p>
+ * <ul>
+ *    <li>Calling {@link E#run()}: the render loop renders a frame into the target at the target FPS, the latest one is
+ *    available with {@link OffscreenTarget#getLastFrame()}. This is useful to benchmark the rendering on a server.</li>
+ *    <li>Stepping manually, without calling {@link E#run()}: {@link OffscreenTarget#step(int)} runs updates with the
+ *    optimal delta of the update loop and {@link OffscreenTarget#capture(long)} renders the frame at a given tick. As
+ *    long as the game itself is deterministic, so are the frames, which makes them usable for pixel-diff tests.</li>
+ * </ul>
+ * <p>
+ *    The two ways shouldn't be mixed. The debug information isn't drawn by default, because it changes from frame to
+ *    frame.
+ * </p>
+ */
+public class OffscreenTarget {
+
+    private final FrameRenderer renderer = new FrameRenderer();
+
+    private long ticks = 0;
+    private long frames = 0;
+    private BufferedImage lastFrame = null;
+    private boolean debugging = false;
+
+    OffscreenTarget() {}
+
+    /**
+     * @return The amount of ticks stepped with {@link OffscreenTarget#step(int)}.
+     */
+    public synchronized long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * @return The amount of frames rendered into the target.
+     */
+    public synchronized long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * @return The last rendered frame, or null if no frame has been rendered yet.
+     */
+    public synchronized BufferedImage getLastFrame() {
+        return this.lastFrame;
+    }
+
+    /**
+     * @return True, if the debug information is drawn into the frames.
+     */
+    public boolean isDebugging() {
+        return this.debugging;
+    }
+
+    /**
+     * @param debugging True, if the debug information should be drawn into the frames, if {@link Settings#isDebugging()}
+     *                  is true as well.
+     */
+    public void setDebugging(boolean debugging) {
+        this.debugging = debugging;
+    }
+
+    /**
+     * <p>
+     *    Runs the update loop and the event loop the amount of ticks, every tick with the optimal delta of the update
+     *    loop, independent of the time that really passed.
+     * </p>
+     *
+     * @param ticks The amount of ticks, cannot be negative.
+     */
+    public synchronized void step(int ticks) {
+
+        Assert.assertTrue("The amount of ticks cannot be negative.", ticks >= 0);
+
+        long delta = E.getE().getUpdateLoop().getOptimalIterationTime();
+
+        for(int i = 0; i < ticks; i++) {
+            E.getE().getEventLoop().tick(delta);
+            E.getE().getUpdateLoop().tick(delta);
+            this.ticks++;
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Steps to the tick and renders the frame.
+     * </p>
+     *
+     * @param tick The tick to render the frame at, it cannot be lower than {@link OffscreenTarget#getTicks()}.
+     * @return The frame.
+     */
+    public synchronized BufferedImage capture(long tick) {
+
+        Assert.assertTrue("The tick has already passed.", tick >= this.ticks);
+
+        while (this.ticks < tick) {
+            this.step((int) Math.min(Integer.MAX_VALUE, tick - this.ticks));
+        }
+
+        return this.render();
+
+    }
+
+    /**
+     * <p>
+     *    Renders the current state of the game into a new frame.
+     * </p>
+     *
+     * @return The frame, an image of the size of {@link Settings#getFrameDimension()}.
+     */
+    public synchronized BufferedImage render() {
+
+        this.renderer.render(this.debugging, true);
+
+        BufferedImage frame = E.getE().getLayers().combine();
+        E.getE().getLayers().getLayers().forEach(Layer::clean);
+
+        this.lastFrame = frame;
+        this.frames++;
+
+        return frame;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("ticks", this.ticks)
+                .append("frames", this.frames)
+                .append("debugging", this.debugging)
+            .build();
+    }
+
+}
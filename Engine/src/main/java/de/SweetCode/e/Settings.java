@@ -1,11 +1,16 @@
 package de.SweetCode.e;
 
 import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.loop.FramePacing;
 import de.SweetCode.e.math.IDimension;
+import de.SweetCode.e.metrics.MetricsFormat;
+import de.SweetCode.e.rendering.ScalingQuality;
 import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.trace.Tracer;
 import de.SweetCode.e.utils.Version;
 
 import java.awt.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -109,6 +114,55 @@ public interface Settings {
         return false;
     }
 
+    /**
+     * <p>
+     *     Defines how the frame gets scaled onto the window if {@link Settings#fixAspectRatio()} is true and the size of
+     *     the window differs from the size of the frame.
+     * </p>
+     *
+     * @return The interpolation used to scale the frame, by default {@link ScalingQuality#BILINEAR}.
+     */
+    default ScalingQuality getScalingQuality() {
+        return ScalingQuality.BILINEAR;
+    }
+
+    /**
+     * <p>
+     *     Defines when frames are presented: in sync with the display, at {@link Settings#getTargetFPS()} or as fast as
+     *     possible. With {@link FramePacing#VSYNC} the target FPS is ignored.
+     * </p>
+     *
+     * @return The pacing, by default {@link FramePacing#CAPPED}.
+     */
+    default FramePacing getFramePacing() {
+        return FramePacing.CAPPED;
+    }
+
+    /**
+     * <p>
+     *     Defines if the engine lowers the resolution the layers are rendered in when frames take longer than
+     *     {@link Settings#getTargetFPS()} allows, and raises it again when there is headroom. Renderables still draw in
+     *     the coordinates of {@link Settings#getFrameDimension()}, the frame gets scaled up when it is presented, using
+     *     {@link Settings#getScalingQuality()}. It has no effect in headless mode.
+     * </p>
+     *
+     * @return True, if the resolution should adapt to the frame times, by default false.
+     */
+    default boolean isDynamicResolution() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     The lowest resolution the engine uses with {@link Settings#isDynamicResolution()}, relative to the frame size.
+     * </p>
+     *
+     * @return The minimum scale in (0, 1], by default 0.5.
+     */
+    default double getMinimumRenderScale() {
+        return 0.5;
+    }
+
     /**
      * <p>
      *     This sets the max. amount of frames/second that can be drawn to the screen. The real value can vary by several
@@ -168,6 +222,31 @@ public interface Settings {
         return 4;
     }
 
+    /**
+     * <p>
+     *     Defines if the engine should start the {@link de.SweetCode.e.resources.sounds.SoundMixer}. It is disabled by
+     *     default, so games without sound don't start the mixer thread and don't open an audio line. If the engine or
+     *     the environment is headless, the mix is discarded instead of being played.
+     * </p>
+     *
+     * @return True, if the sound system is enabled, otherwise false.
+     */
+    default boolean isSoundEnabled() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Defines the max. amount of sounds the {@link de.SweetCode.e.resources.sounds.SoundMixer} plays at the same time.
+     *     If all voices are in use, sounds with a lower priority get replaced by new ones.
+     * </p>
+     *
+     * @return The amount of voices.
+     */
+    default int getSoundVoices() {
+        return 32;
+    }
+
     /**
      * <p>
      *     The maximum of elements the log can store. The log is used by the engine, but you can also send your own
@@ -216,8 +295,11 @@ public interface Settings {
 
     /**
      * <p>
-     *     If the update-loop should run updates parallel to each other, it is using internally a parallelized stream by
-     *     default it is sequential. You should only /consider using this if:
+     *     If the update-loop should run updates parallel to each other, by default it is sequential. The components
+     *     are updated in phases: all components with the same {@link de.SweetCode.e.rendering.Priority} form a phase,
+     *     the phases run one after another in the order of their priority, and the components inside a phase are updated
+     *     in parallel in chunks of {@link Settings#getUpdateChunkSize()} on a pool of their own, see
+     *     {@link Settings#getUpdateParallelism()}. You should only consider using this if:
      * </p>
      * <ul>
      *     <li>you have a massive amount of components to update</li>
@@ -225,8 +307,8 @@ public interface Settings {
      * </ul>
      * <p>
      *     <b>
- *         A parallel stream has a higher overhead than the sequential version of it!
-     *     A parallel stream IGNORES all set priorities.
+     *     The components of a phase have to be safe to update at the same time! Components that depend on the state
+     *     of others have to be in a later phase, i.e. have a lower priority.
      *     </b>
      * </p>
      *
@@ -234,6 +316,108 @@ public interface Settings {
      */
     default boolean isParallelizingUpdate() { return false; }
 
+    /**
+     * <p>
+     *     Defines the amount of threads of the core pool. It runs the {@link de.SweetCode.e.loop.UpdateLoop} unless it
+     *     has a {@link Settings#isUpdateThreadDedicated() dedicated thread}, and the work the engine splits with
+     *     {@link de.SweetCode.e.utils.Parallel}, e.g. the compositor and the physics islands. By default it leaves one
+     *     processor for the render thread.
+     * </p>
+     *
+     * @return The amount of core threads, at least 1.
+     */
+    default int getCorePoolSize() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * <p>
+     *     Defines the amount of threads of the normal pool. It runs the loops that only do little work per tick, e.g.
+     *     the event, mouse, hot swap and profiler loop and the metrics writer.
+     * </p>
+     *
+     * @return The amount of normal threads, at least 1.
+     */
+    default int getNormalPoolSize() {
+        return Math.min(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * <p>
+     *     Defines if the {@link de.SweetCode.e.loop.UpdateLoop} gets a thread of its own instead of sharing the core pool
+     *     with the work submitted to it. The render loop always has its own thread.
+     * </p>
+     *
+     * @return True, if the update loop runs on a dedicated thread, otherwise false.
+     */
+    default boolean isUpdateThreadDedicated() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Defines the amount of worker threads of the {@link java.util.concurrent.ForkJoinPool} the components are updated
+     *     on, if {@link Settings#isParallelizingUpdate()} is true. The pool belongs to the engine, so the updates don't
+     *     compete with other libraries using the common pool.
+     * </p>
+     *
+     * @return The parallelism of the update pool, at least 1.
+     */
+    default int getUpdateParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * <p>
+     *     Defines the max. amount of neighbouring components updated as one chunk by one thread, if
+     *     {@link Settings#isParallelizingUpdate()} is true. Phases with fewer components are updated by the update loop
+     *     itself. Larger chunks have less overhead, smaller chunks are spread more evenly over the threads.
+     * </p>
+     *
+     * @return The size of a chunk, at least 1.
+     */
+    default int getUpdateChunkSize() {
+        return 64;
+    }
+
+    /**
+     * <p>
+     *     Defines the amount of platform threads the children of
+     *     {@link de.SweetCode.e.resources.routines.composite.TaskAsync async tasks} run on, if the JVM has no virtual
+     *     threads. Children that block keep their thread busy, so it limits how many of them can run at the same time.
+     * </p>
+     *
+     * @return The amount of task threads, at least 1.
+     */
+    default int getTaskPoolSize() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * <p>
+     *     Defines if the engine should skip {@link Cullable} renderables whose box doesn't intersect the viewport of
+     *     the {@link de.SweetCode.e.rendering.Camera}.
+     * </p>
+     *
+     * @return True, if off-screen renderables are skipped, otherwise false.
+     */
+    default boolean isCullingEnabled() {
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Defines the size of the cells of the {@link de.SweetCode.e.math.spatial.UniformGrid grids} the engine uses to
+     *     index all {@link de.SweetCode.e.entity.Entity entities} and {@link Cullable} renderables. It should be about
+     *     the size of a typical entity.
+     * </p>
+     *
+     * @return The width and height of a cell in units.
+     */
+    default double getSpatialCellSize() {
+        return 64;
+    }
+
     /**
      * <pre>
      *     Defines if the engine should use OpenGL to render the scenes.
@@ -245,6 +429,41 @@ public interface Settings {
         return false;
     }
 
+    /**
+     * <p>
+     *     Defines if the engine should keep {@link de.SweetCode.e.rendering.layers.Layer layers} and cached textures in
+     *     VRAM, so Java2D can draw them with its accelerated pipeline instead of blitting them in software. The images
+     *     are still rendered into RAM first and the VRAM copies are restored from them if their contents get lost.
+     * </p>
+     * <p>
+     *     Only {@link de.SweetCode.e.rendering.layers.Layer#isRetained() retained} layers are kept in VRAM, and they are
+     *     only uploaded again after they have changed. All other layers are drawn again in every frame, so they are
+     *     presented from RAM, uploading them first would only add a copy per frame.
+     * </p>
+     * <p>
+     *     If the system doesn't support accelerated images the engine falls back to the normal mode. The setting has
+     *     no effect if {@link Settings#useOpenGL()} is true.
+     * </p>
+     *
+     * @return True, if the engine is supposed to use VRAM, otherwise false.
+     */
+    default boolean useVRAM() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Defines if the engine runs without a window. In headless mode no {@link EScreen} is created, frames are rendered
+     *     into the {@link OffscreenTarget} instead and there is no mouse or keyboard input. It is meant for servers, e.g.
+     *     to benchmark the rendering or to compare rendered frames with reference images.
+     * </p>
+     *
+     * @return True, if the engine should render offscreen. By default true, if {@link GraphicsEnvironment#isHeadless()}.
+     */
+    default boolean isHeadless() {
+        return GraphicsEnvironment.isHeadless();
+    }
+
     /**
      * <p>
      *     Defines {@link RenderingHints} used by the renderer to draw the screen.
@@ -256,6 +475,96 @@ public interface Settings {
         return new HashMap<>();
     }
 
+    /**
+     * <p>
+     *     Defines if the engine records how long every tick of its loops and every update and render call of every game
+     *     component takes, see {@link Timings}. It can also be enabled later with {@link Timings#setEnabled(boolean)}.
+     * </p>
+     *
+     * @return True, if the timings should be recorded from the start, by default false.
+     */
+    default boolean isTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Defines if the engine keeps the last spans of its loops, components, events and garbage collections in a ring
+     *     buffer, see {@link Tracer}. It can also be switched at runtime with {@link Tracer#setEnabled(boolean)}. While
+     *     it is on, every component update and render call gets measured.
+     * </p>
+     *
+     * @return True, if the spans should be recorded, by default false.
+     */
+    default boolean isTracingEnabled() {
+        return false;
+    }
+
+    /**
+     * @return The amount of spans the {@link Tracer} keeps, rounded up to the next power of two, by default 65536.
+     */
+    default int getTraceCapacity() {
+        return 1 << 16;
+    }
+
+    /**
+     * <p>
+     *     Defines how long a frame has to take, in milliseconds, so the {@link Tracer} writes its spans into the
+     *     {@link Settings#getTraceDirectory()}.
+     * </p>
+     *
+     * @return The threshold in milliseconds, by default 100.
+     */
+    default int getTraceSpikeThreshold() {
+        return 100;
+    }
+
+    /**
+     * @return The directory the {@link Tracer} writes a trace into when a frame spikes, or null if it should not write
+     *         any. By default null.
+     */
+    default Path getTraceDirectory() {
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Defines if the {@link E#getMetrics() metrics} of the engine are registered as MBean, so they can be read over
+     *     JMX, see {@link de.SweetCode.e.metrics.MetricsBean}.
+     * </p>
+     *
+     * @return True, if the metrics should be exported over JMX, by default false.
+     */
+    default boolean isMetricsEnabled() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Defines the file the {@link E#getMetrics() metrics} are appended to every {@link Settings#getMetricsInterval()}
+     *     seconds, see {@link de.SweetCode.e.metrics.MetricsWriter}.
+     * </p>
+     *
+     * @return The file, or null if no file should be written. By default null.
+     */
+    default Path getMetricsFile() {
+        return null;
+    }
+
+    /**
+     * @return The format of the {@link Settings#getMetricsFile()}, by default {@link MetricsFormat#CSV}.
+     */
+    default MetricsFormat getMetricsFormat() {
+        return MetricsFormat.CSV;
+    }
+
+    /**
+     * @return The seconds between two snapshots in the {@link Settings#getMetricsFile()}, by default 10.
+     */
+    default int getMetricsInterval() {
+        return 10;
+    }
+
     /**
      * <pre>
      *     Defines if the engine is in the debug mode or not. - If it is in the debug mode it will start to collect data
@@ -326,6 +635,54 @@ public interface Settings {
                 invalids.add("The amount of layers must be at least 1");
             }
 
+            if(settings.getFramePacing() == null) {
+                invalids.add("The getFramePacing cannot be null.");
+            }
+
+            if(settings.getScalingQuality() == null) {
+                invalids.add("The getScalingQuality cannot be null.");
+            }
+
+            if(settings.getMinimumRenderScale() <= 0 || settings.getMinimumRenderScale() > 1) {
+                invalids.add("The getMinimumRenderScale has to be in (0, 1]");
+            }
+
+            if(settings.getCorePoolSize() < 1) {
+                invalids.add("The getCorePoolSize cannot be negative or 0");
+            }
+
+            if(settings.getNormalPoolSize() < 1) {
+                invalids.add("The getNormalPoolSize cannot be negative or 0");
+            }
+
+            if(settings.getUpdateParallelism() < 1 || settings.getUpdateParallelism() > 32767) {
+                invalids.add("The getUpdateParallelism has to be in [1, 32767]");
+            }
+
+            if(settings.getUpdateChunkSize() < 1) {
+                invalids.add("The getUpdateChunkSize cannot be negative or 0");
+            }
+
+            if(settings.getTaskPoolSize() < 1) {
+                invalids.add("The getTaskPoolSize cannot be negative or 0");
+            }
+
+            if(settings.getTraceCapacity() < 1 || settings.getTraceCapacity() > (1 << 30)) {
+                invalids.add("The getTraceCapacity has to be in [1, 2^30]");
+            }
+
+            if(settings.getTraceSpikeThreshold() < 1) {
+                invalids.add("The getTraceSpikeThreshold cannot be negative or 0");
+            }
+
+            if(settings.getMetricsFormat() == null) {
+                invalids.add("The getMetricsFormat cannot be null.");
+            }
+
+            if(settings.getMetricsInterval() < 1) {
+                invalids.add("The getMetricsInterval cannot be negative or 0");
+            }
+
             if(settings.getDebugInformation() == null) {
                 invalids.add("The getDebugInformation cannot be null.");
             }
@@ -334,6 +691,18 @@ public interface Settings {
                 invalids.add("The getHotSwapTicks cannot be negative or 0");
             }
 
+            if(settings.getSoundVoices() < 1) {
+                invalids.add("The getSoundVoices cannot be negative or 0");
+            }
+
+            if(settings.getSpatialCellSize() <= 0) {
+                invalids.add("The getSpatialCellSize cannot be negative or 0");
+            }
+
+            if(settings.isHeadless() && settings.useOpenGL()) {
+                invalids.add("OpenGL cannot be used in headless mode");
+            }
+
             return invalids;
 
         }
@@ -351,6 +720,7 @@ public interface Settings {
         GC_PROFILE,
         THREAD_PROFILE,
         EVENT_PROFILE,
+        TIMING_PROFILE,
 
     }
 
@@ -0,0 +1,118 @@
+package de.SweetCode.e;
+
+import de.SweetCode.e.loop.Loop;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.Histogram;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ *    Timings is the opt-in instrumentation of the engine. While it is enabled, the loops record how long every tick takes
+ *    ({@link Loop#getTickTimes()}) and the update and render loop record how long every single game component takes
+ *    ({@link GameComponentEntry#getUpdateTimes()}, {@link GameComponentEntry#getRenderTimes()}), all in
+ *    {@link Histogram histograms}. While it is disabled, the only cost is one check per tick and component.
+ * </p>
+ * <p>
+ *    It is enabled from the start with {@link Settings#isTimingEnabled()}, but can also be switched on at runtime to
+ *    investigate a running game.
+ * </p>
+ */
+public class Timings {
+
+    /**
+     * The phases a game component is timed in.
+     */
+    public enum Phase {
+
+        UPDATE,
+        RENDER
+
+    }
+
+    private volatile boolean enabled;
+
+    Timings(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return True, if durations are recorded.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @param enabled True, if durations should be recorded.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * <p>
+     *    Gives the game components that took the longest in a phase.
+     * </p>
+     *
+     * @param phase The phase.
+     * @param percentile The percentile of the durations to compare, e.g. 99.
+     * @param limit The maximum amount of components.
+     * @return The components, the slowest first. Components without recorded durations are left out.
+     */
+    public List<GameComponentEntry> getSlowest(Phase phase, double percentile, int limit) {
+
+        Assert.assertNotNull("The phase cannot be null.", phase);
+        Assert.assertTrue("The limit cannot be negative.", limit >= 0);
+
+        List<GameComponentEntry> entries = new ArrayList<>();
+        for(GameComponentEntry entry : E.getE().getGameComponents()) {
+            if(!(entry.getTimes(phase) == null)) {
+                entries.add(entry);
+            }
+        }
+
+        // Note: The percentiles are computed once, the histograms may still change while sorting.
+        long[] values = new long[entries.size()];
+        Integer[] order = new Integer[entries.size()];
+
+        for(int i = 0; i < entries.size(); i++) {
+            values[i] = entries.get(i).getTimes(phase).getPercentile(percentile);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> values[i]).reversed());
+
+        List<GameComponentEntry> slowest = new ArrayList<>(Math.min(limit, entries.size()));
+        for(int i = 0; i < Math.min(limit, entries.size()); i++) {
+            slowest.add(entries.get(order[i]));
+        }
+
+        return slowest;
+
+    }
+
+    /**
+     * <p>
+     *    Removes the recorded durations of all loops and game components.
+     * </p>
+     */
+    public void reset() {
+
+        E.getE().getGameComponents().forEach(GameComponentEntry::resetTimings);
+        E.getE().getLoops().forEach(Loop::resetTimings);
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("enabled", this.enabled)
+            .build();
+    }
+
+}
@@ -1,5 +1,6 @@
 package de.SweetCode.e.entity;
 
+import de.SweetCode.e.Cullable;
 import de.SweetCode.e.GameComponent;
 import de.SweetCode.e.input.InputEntry;
 import de.SweetCode.e.math.BoundingBox;
@@ -17,7 +18,7 @@ import java.util.UUID;
  *
  * @param <T> identifier type
  */
-public abstract class Entity<T> implements GameComponent {
+public abstract class Entity<T> implements GameComponent, Cullable {
 
     private T identifier;
     private BoundingBox boundingBox;
@@ -64,6 +65,7 @@ public abstract class Entity<T> implements GameComponent {
      *
      * @return Gives the hit box.
      */
+    @Override
     public BoundingBox getBoundingBox() {
         return this.boundingBox;
     }
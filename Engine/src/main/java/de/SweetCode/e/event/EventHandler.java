@@ -1,8 +1,12 @@
 package de.SweetCode.e.event;
 
+import de.SweetCode.e.E;
+import de.SweetCode.e.trace.TraceCategory;
+
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 public class EventHandler {
 
@@ -10,6 +14,8 @@ public class EventHandler {
     private List<EventListener> eventListeners = new ArrayList<>();
     private Queue<Event> queuedEvents = new LinkedTransferQueue<>();
 
+    private final LongAdder dispatched = E.getE().getMetrics().counter("events.dispatched");
+
 
     public EventHandler() {}
 
@@ -26,7 +32,12 @@ public class EventHandler {
         if(queue) {
             this.queuedEvents.add(event);
         } else {
+            long start = System.nanoTime();
+
             this.events.get(event.getClass()).forEach(e -> e.execute(event));
+            this.dispatched.increment();
+
+            E.getE().getTracer().span(TraceCategory.EVENT, event.getClass(), start, System.nanoTime());
         }
 
         return true;
@@ -49,6 +49,11 @@ public final class Input extends KeyAdapter implements EventListener {
 
         E.getE().getEventHandler().registerListener(this);
 
+        // Note: Without a window there is no mouse or keyboard input.
+        if(E.getE().getScreen() == null) {
+            return;
+        }
+
         KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(e -> {
 
             if(e.getID() == KeyEvent.KEY_PRESSED) {
@@ -0,0 +1,100 @@
+package de.SweetCode.e.loop;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *    The FramePacer makes the render thread wait until the next frame is due. Deadlines are absolute, every frame is due
+ *    exactly one period after the last one, so short delays don't add up and frames are spaced evenly. If the thread
+ *    falls behind by more than a whole period, the pacer starts over from now instead of rendering the missed frames in a
+ *    burst.
+ * </p>
+ * <p>
+ *    Sleeping alone is too coarse for this, the scheduler may wake the thread up a millisecond late or more. The pacer
+ *    parks the thread until shortly before the deadline and spins for the rest.
+ * </p>
+ */
+public class FramePacer {
+
+    private static final long SPIN_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final FramePacing pacing;
+    private final long period;
+
+    private long next = -1;
+
+    /**
+     * @param pacing The pacing.
+     * @param period The time between two frames in nanoseconds, ignored if the pacing is {@link FramePacing#UNCAPPED}.
+     */
+    public FramePacer(FramePacing pacing, long period) {
+
+        Assert.assertNotNull("The pacing cannot be null.", pacing);
+        Assert.assertTrue("The period has to be greater than 0.", period > 0);
+
+        this.pacing = pacing;
+        this.period = period;
+
+    }
+
+    /**
+     * @return The pacing.
+     */
+    public FramePacing getPacing() {
+        return this.pacing;
+    }
+
+    /**
+     * @return The time between two frames in nanoseconds.
+     */
+    public long getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * <p>
+     *    Blocks until the next frame is due.
+     * </p>
+     */
+    public void await() {
+
+        if(this.pacing == FramePacing.UNCAPPED) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        if(this.next == -1 || now - this.next > this.period) {
+            this.next = now;
+        }
+
+        long remaining;
+        while ((remaining = this.next - now) > 0) {
+
+            if(remaining > SPIN_THRESHOLD) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+            } else {
+                Thread.onSpinWait();
+            }
+
+            now = System.nanoTime();
+
+        }
+
+        this.next += this.period;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("pacing", this.pacing)
+                .append("period", this.period)
+            .build();
+    }
+
+}
@@ -0,0 +1,32 @@
+package de.SweetCode.e.loop;
+
+/**
+ * <p>
+ * Defines when the {@link RenderLoop} presents the next frame.
+ * </p>
+ */
+public enum FramePacing {
+
+    /**
+     * <p>
+     *     Frames are presented in sync with the refresh rate of the display. With OpenGL the buffer swap waits for the
+     *     vertical blank, with Java2D the frames are paced to the refresh rate of the screen.
+     * </p>
+     */
+    VSYNC,
+
+    /**
+     * <p>
+     *     Frames are presented at {@link de.SweetCode.e.Settings#getTargetFPS()}, evenly spaced.
+     * </p>
+     */
+    CAPPED,
+
+    /**
+     * <p>
+     *     Frames are presented as fast as possible, e.g. for benchmarks.
+     * </p>
+     */
+    UNCAPPED
+
+}
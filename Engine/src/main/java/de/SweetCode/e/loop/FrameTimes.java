@@ -0,0 +1,115 @@
+package de.SweetCode.e.loop;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *    FrameTimes keeps the time between the last presented frames. An average FPS value hides stutter, a single frame
+ *    taking three times as long barely changes it, so the percentiles of the frame times are the better measure: the
+ *    99th percentile close to the median means the frames are delivered evenly.
+ * </p>
+ * <p>
+ *    The times are written by the render thread and can be read from any thread.
+ * </p>
+ */
+public class FrameTimes {
+
+    private final long[] times;
+    private final long[] sorted;
+
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param capacity The amount of frames to keep.
+     */
+    public FrameTimes(int capacity) {
+
+        Assert.assertTrue("The capacity has to be greater than 0.", capacity > 0);
+
+        this.times = new long[capacity];
+        this.sorted = new long[capacity];
+
+    }
+
+    /**
+     * <p>
+     *    Adds the time of a frame, replacing the oldest one if the history is full.
+     * </p>
+     *
+     * @param nanos The time since the last frame in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+
+        this.times[this.next] = nanos;
+        this.next = (this.next + 1) % this.times.length;
+
+        if(this.count < this.times.length) {
+            this.count++;
+        }
+
+    }
+
+    /**
+     * @return The amount of frames in the history.
+     */
+    public synchronized int getCount() {
+        return this.count;
+    }
+
+    /**
+     * <p>
+     *    Gives a percentile of the frame times in the history, using the nearest rank.
+     * </p>
+     *
+     * @param percentile The percentile in [0, 100].
+     * @return The frame time in nanoseconds, or 0 if there are no frames yet.
+     */
+    public synchronized long getPercentile(double percentile) {
+
+        Assert.assertTrue("The percentile has to be in [0, 100].", percentile >= 0 && percentile <= 100);
+
+        if(this.count == 0) {
+            return 0;
+        }
+
+        System.arraycopy(this.times, 0, this.sorted, 0, this.count);
+        Arrays.sort(this.sorted, 0, this.count);
+
+        int rank = (int) Math.ceil(percentile / 100D * this.count);
+        return this.sorted[Math.max(0, Math.min(this.count - 1, rank - 1))];
+
+    }
+
+    /**
+     * @return The average frame time in nanoseconds, or 0 if there are no frames yet.
+     */
+    public synchronized long getAverage() {
+
+        if(this.count == 0) {
+            return 0;
+        }
+
+        long sum = 0;
+        for(int i = 0; i < this.count; i++) {
+            sum += this.times[i];
+        }
+
+        return sum / this.count;
+
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ToStringBuilder.create(this)
+                .append("count", this.count)
+                .append("average", this.getAverage())
+                .append("p50", this.getPercentile(50))
+                .append("p99", this.getPercentile(99))
+            .build();
+    }
+
+}
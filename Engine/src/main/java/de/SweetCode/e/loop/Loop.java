@@ -1,6 +1,10 @@
 package de.SweetCode.e.loop;
 
 import de.SweetCode.e.E;
+import de.SweetCode.e.Timings;
+import de.SweetCode.e.trace.TraceCategory;
+import de.SweetCode.e.trace.Tracer;
+import de.SweetCode.e.utils.Histogram;
 
 /**
  * <p>
@@ -21,6 +25,9 @@ public abstract class Loop implements Runnable {
     private long lastIterationTime = 0;
 
     private int TMP_TICKS = 0;
+
+    // Note: Only created once the first tick has been timed.
+    private volatile Histogram tickTimes = null;
     //---
 
     /**
@@ -71,6 +78,23 @@ public abstract class Loop implements Runnable {
         return this.optimalIterationTime;
     }
 
+    /**
+     * @return The durations of the ticks in nanoseconds, or null if none have been recorded. They are only recorded
+     *         while {@link de.SweetCode.e.Timings#isEnabled()} is true.
+     */
+    public Histogram getTickTimes() {
+        return this.tickTimes;
+    }
+
+    /**
+     * <p>
+     *    Removes the recorded durations of the ticks.
+     * </p>
+     */
+    public void resetTimings() {
+        this.tickTimes = null;
+    }
+
     @Override
     public void run() {
 
@@ -87,7 +111,29 @@ public abstract class Loop implements Runnable {
             this.TMP_TICKS = 0;
         }
 
-        this.tick(updateLength);
+        Timings timings = E.getE().getTimings();
+        Tracer tracer = E.getE().getTracer();
+
+        if(timings.isEnabled() || tracer.isEnabled()) {
+
+            this.tick(updateLength);
+            long end = System.nanoTime();
+
+            if(timings.isEnabled()) {
+                Histogram histogram = this.tickTimes;
+                if(histogram == null) {
+                    histogram = new Histogram();
+                    this.tickTimes = histogram;
+                }
+
+                histogram.record(end - now);
+            }
+
+            tracer.span(TraceCategory.LOOP, this.name, now, end);
+
+        } else {
+            this.tick(updateLength);
+        }
 
     }
 
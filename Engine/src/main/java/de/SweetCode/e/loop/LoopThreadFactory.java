@@ -1,14 +1,18 @@
 package de.SweetCode.e.loop;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>
  *    The LoopThreadFactory is a {@link ThreadFactory} used by {@link de.SweetCode.e.E} to schedule {@link Loop Loops}.
+ *    It also creates the workers of {@link ForkJoinPool ForkJoinPools}, so they can be told apart from the workers of
+ *    the common pool.
  * </p>
  */
-public class LoopThreadFactory implements ThreadFactory {
+public class LoopThreadFactory implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThreadFactory {
 
     //---
     private final static String NAME_FORMAT = "e-%s-thread-%d";
@@ -57,4 +61,16 @@ public class LoopThreadFactory implements ThreadFactory {
 
     }
 
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+
+        // Note: Workers stay daemon threads, the pool lets them die when they are idle anyway.
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(String.format(NAME_FORMAT, this.name, this.threadNumber.getAndIncrement()));
+        thread.setPriority(this.priority);
+
+        return thread;
+
+    }
+
 }
@@ -9,9 +9,10 @@ import de.SweetCode.e.event.Event;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -19,15 +20,17 @@ import java.util.stream.Collectors;
  * The loop only gets registered if {@link Settings#isDebugging()} is true and only keeps track of values specified by
  * {@link Settings#getDebugInformation()}.
  * </p>
+ * <p>
+ *    The values are refreshed once a second. The CPU usage is calculated from the CPU time used in between, so a single
+ *    sample per refresh is enough. Threads are looked up by their ids with the {@link ThreadMXBean}, without capturing
+ *    their stacks, so the profiler doesn't stop the JVM at a safepoint like {@link Thread#getAllStackTraces()} does.
+ * </p>
  */
 public class ProfilerLoop extends Loop {
 
     private OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
     private MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-
-    private double TMP_CPU = 0;
-    private double TMP_MEMORY_HEAP_USED = 0;
-    private double TMP_MEMORY_JVM_USED = 0;
+    private ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
 
     private double averageCPU = 0;
     private double averageHeapMemoryUsed = 0;
@@ -39,11 +42,16 @@ public class ProfilerLoop extends Loop {
 
     private int EVENT_SIZE = 0;
 
-    private List<GarbageCollectorMXBean> GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
-    private Map<ThreadGroup, List<Thread>> THREAD_LIST = ProfilerLoop.getThreadsByGroup();
+    private final List<GarbageCollectorMXBean> GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
+    private volatile List<ThreadSample> THREAD_LIST = Collections.emptyList();
 
-    private double deltaTime = 0;
-    private double updates = 0;
+    //--- Previous Samples
+    private long lastRefresh = System.nanoTime();
+    private long lastProcessCpuTime = -1;
+
+    // Note: Thread id -> {CPU time, allocated bytes}, only threads that are still alive are kept.
+    private Map<Long, long[]> lastThreadTimes = new HashMap<>();
+    //---
 
     /**
      * <p>
@@ -51,7 +59,19 @@ public class ProfilerLoop extends Loop {
      * </p>
      */
     public ProfilerLoop() {
-        super("Profiler Loop", TimeUnit.MILLISECONDS.toNanos(100));
+        super("Profiler Loop", TimeUnit.SECONDS.toNanos(1));
+
+        // Note: Some JVMs support the measurements but have them disabled by default.
+        if(this.threadBean.isThreadCpuTimeSupported() && !(this.threadBean.isThreadCpuTimeEnabled())) {
+            this.threadBean.setThreadCpuTimeEnabled(true);
+        }
+
+        if(this.threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) this.threadBean;
+            if(bean.isThreadAllocatedMemorySupported() && !(bean.isThreadAllocatedMemoryEnabled())) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
     }
 
     /**
@@ -79,10 +99,10 @@ public class ProfilerLoop extends Loop {
 
     /**
      * <p>
-     *    The average amount of heap memory used by the application in bytes.
+     *    The amount of heap memory used by the application in bytes at the last refresh.
      * </p>
      *
-     * @return Average heap usage in bytes.
+     * @return Heap usage in bytes.
      */
     public double getAverageHeapMemoryUsed() {
         return this.averageHeapMemoryUsed;
@@ -101,7 +121,7 @@ public class ProfilerLoop extends Loop {
 
     /**
      * <p>
-     *     The average amount of memory used by the JVM (Java Runtime Environment) in the last full second in bytes.
+     *     The amount of memory used by the JVM (Java Runtime Environment) at the last refresh in bytes.
      * </p>
      *
      * @return JVM memory usage in bytes.
@@ -144,13 +164,13 @@ public class ProfilerLoop extends Loop {
 
     /**
      * <p>
-     *    Returns a map of all threads found by the engine. The key of the map is the {@link ThreadGroup} of a thread
-     *    and the value is a {@link List} of {@link Thread Threads}. The threads are sorted by their IDs.
+     *    Returns the threads sampled at the last refresh, sorted by their ids. Each sample contains the CPU usage and
+     *    allocation rate of the thread since the refresh before, so they are only meaningful from the second refresh on.
      * </p>
      *
      * @return All threads.
      */
-    public Map<ThreadGroup, List<Thread>> getThreads() {
+    public List<ThreadSample> getThreads() {
         return this.THREAD_LIST;
     }
 
@@ -159,90 +179,124 @@ public class ProfilerLoop extends Loop {
 
         List<Settings.DebugDisplay> displays = E.getE().getSettings().getDebugInformation();
 
-        this.deltaTime += updateLength;
-        this.updates++;
-
-        // We gonna update the display-values every: 1 second.
-        boolean updateRequired = (this.deltaTime >= E.C.SECOND_AS_NANO);
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - this.lastRefresh);
+        this.lastRefresh = now;
 
         //--- CPU
         if(displays.contains(Settings.DebugDisplay.CPU_PROFILE)) {
-            if(updateRequired) {
-                this.averageCPU = (this.TMP_CPU / this.updates);
-                this.CPU_PROCESSORS = this.osBean.getAvailableProcessors();
+            this.CPU_PROCESSORS = this.osBean.getAvailableProcessors();
 
-                this.TMP_CPU = 0;
-            } else {
-                this.TMP_CPU += this.osBean.getProcessCpuLoad();
+            long processCpuTime = this.osBean.getProcessCpuTime();
+            if(processCpuTime >= 0 && this.lastProcessCpuTime >= 0) {
+                this.averageCPU = Math.min(1D, (double) (processCpuTime - this.lastProcessCpuTime) / elapsed / this.CPU_PROCESSORS);
             }
+            this.lastProcessCpuTime = processCpuTime;
         }
 
         //--- Memory
         if(displays.contains(Settings.DebugDisplay.MEMORY_PROFILE)) {
-
-            if(updateRequired) {
-                this.MEMORY_HEAP_MAX = this.memoryBean.getHeapMemoryUsage().getMax();
-
-                this.averageHeapMemoryUsed = (this.TMP_MEMORY_HEAP_USED / this.updates);
-                this.averageJvmMemoryUsed = (this.TMP_MEMORY_JVM_USED / this.updates);
-
-                this.TMP_MEMORY_HEAP_USED = 0;
-                this.TMP_MEMORY_JVM_USED = 0;
-            } else {
-                this.TMP_MEMORY_HEAP_USED += this.memoryBean.getHeapMemoryUsage().getUsed();
-                this.TMP_MEMORY_JVM_USED += this.memoryBean.getNonHeapMemoryUsage().getUsed();
-            }
-
-        }
-
-        //--- GC
-        if(displays.contains(Settings.DebugDisplay.GC_PROFILE) && updateRequired) {
-            this.GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
+            this.MEMORY_HEAP_MAX = this.memoryBean.getHeapMemoryUsage().getMax();
+            this.averageHeapMemoryUsed = this.memoryBean.getHeapMemoryUsage().getUsed();
+            this.averageJvmMemoryUsed = this.memoryBean.getNonHeapMemoryUsage().getUsed();
         }
 
         //--- Threads
-        if(displays.contains(Settings.DebugDisplay.THREAD_PROFILE) && updateRequired) {
-            this.THREAD_LIST = ProfilerLoop.getThreadsByGroup();
+        if(displays.contains(Settings.DebugDisplay.THREAD_PROFILE)) {
+            this.THREAD_LIST = this.sampleThreads(elapsed);
         }
 
         //--- Profile
-        if(displays.contains(Settings.DebugDisplay.LOOP_PROFILE) && updateRequired) {
-            this.OBJECTS_ACTIVE = E.getE().getGameComponents().stream()
-                    .filter(e -> e.getGameComponent().isActive())
-                    .count();
+        if(displays.contains(Settings.DebugDisplay.LOOP_PROFILE)) {
+            long active = 0;
+            for(GameComponentEntry entry : E.getE().getGameComponents()) {
+                if(entry.getGameComponent().isActive()) {
+                    active++;
+                }
+            }
+            this.OBJECTS_ACTIVE = active;
         }
 
         //--- Event
-        if(displays.contains(Settings.DebugDisplay.EVENT_PROFILE) && updateRequired) {
+        if(displays.contains(Settings.DebugDisplay.EVENT_PROFILE)) {
             this.EVENT_SIZE = E.getE().getEventHandler().getQueuedEvents().size();
         }
 
-        //--- Reset
-        if(updateRequired) {
-            this.deltaTime = 0;
-            this.updates = 0;
-        }
-
     }
 
     /**
      * <p>
-     *    Generates a map with {@link ThreadGroup} as key and a {@link List} of {@link Thread Threads} as value. It grabs
-     *    the threads by calling {@link Thread#getAllStackTraces()}. It is also sorting the value by the ID of the threads,
-     *    and grouping the thread by their {@link ThreadGroup}.
+     *    Samples all live threads. The CPU times and allocated bytes are read in bulk if the JVM supports it, and compared
+     *    against the values of the previous refresh.
      * </p>
      *
-     * @return A map of threads and thread groups.
+     * @param elapsed The time in nanoseconds since the previous refresh.
+     * @return The samples, sorted by the ids of the threads.
      */
-    private static Map<ThreadGroup, List<Thread>> getThreadsByGroup() {
-        // get & sort by id
-        List<Thread> threads = new ArrayList<>(Thread.getAllStackTraces().keySet());
-        threads.sort(Comparator.comparing(Thread::getId));
-
-        // store by groups
-        return threads.stream().collect(
-                Collectors.groupingBy(Thread::getThreadGroup)
-        );
+    private List<ThreadSample> sampleThreads(long elapsed) {
+
+        long[] ids = this.threadBean.getAllThreadIds();
+
+        // Note: Without a max. depth no stack trace is captured, so the threads don't have to be stopped.
+        ThreadInfo[] infos = this.threadBean.getThreadInfo(ids);
+
+        long[] cpuTimes = null;
+        long[] allocated = null;
+
+        if(this.threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) this.threadBean;
+
+            if(bean.isThreadCpuTimeEnabled()) {
+                cpuTimes = bean.getThreadCpuTime(ids);
+            }
+
+            if(bean.isThreadAllocatedMemoryEnabled()) {
+                allocated = bean.getThreadAllocatedBytes(ids);
+            }
+        } else if(this.threadBean.isThreadCpuTimeEnabled()) {
+            cpuTimes = new long[ids.length];
+            for(int i = 0; i < ids.length; i++) {
+                cpuTimes[i] = this.threadBean.getThreadCpuTime(ids[i]);
+            }
+        }
+
+        Map<Long, long[]> times = new HashMap<>();
+        List<ThreadSample> samples = new ArrayList<>(ids.length);
+
+        for(int i = 0; i < ids.length; i++) {
+
+            // Note: The thread died between listing the ids and reading its info.
+            if(infos[i] == null) {
+                continue;
+            }
+
+            long cpuTime = (cpuTimes == null ? -1 : cpuTimes[i]);
+            long bytes = (allocated == null ? -1 : allocated[i]);
+            long[] last = this.lastThreadTimes.get(ids[i]);
+
+            double cpuUsage = -1;
+            double allocationRate = -1;
+
+            if(!(last == null)) {
+                if(cpuTime >= 0 && last[0] >= 0) {
+                    cpuUsage = Math.min(1D, (double) (cpuTime - last[0]) / elapsed);
+                }
+
+                if(bytes >= 0 && last[1] >= 0) {
+                    allocationRate = (double) (bytes - last[1]) / elapsed * E.C.SECOND_AS_NANO;
+                }
+            }
+
+            times.put(ids[i], new long[] { cpuTime, bytes });
+            samples.add(new ThreadSample(ids[i], infos[i].getThreadName(), infos[i].getThreadState(), cpuUsage, allocationRate));
+
+        }
+
+        this.lastThreadTimes = times;
+        samples.sort(Comparator.comparingLong(ThreadSample::getId));
+
+        return Collections.unmodifiableList(samples);
+
     }
 
 }
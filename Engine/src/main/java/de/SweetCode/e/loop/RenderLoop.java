@@ -3,23 +3,43 @@ package de.SweetCode.e.loop;
 import com.jogamp.opengl.GLCapabilities;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.awt.GLCanvas;
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.AnimatorBase;
 import com.jogamp.opengl.util.FPSAnimator;
 import de.SweetCode.e.E;
 import de.SweetCode.e.EScreen;
 import de.SweetCode.e.Settings;
 
+import java.awt.*;
+
 /**
  * <p>
- * The profiler loop is responsible for rendering the frames frequently.
+ * The render loop is responsible for rendering the frames frequently.
+ * </p>
+ * <p>
+ * Without OpenGL the loop renders actively: it runs on its own thread and renders and presents every frame itself, paced
+ * by a {@link FramePacer}, instead of asking AWT to repaint the window, which may delay or merge frames. With OpenGL the
+ * frames are driven by an animator of JOGL. In both cases the time between the presented frames is recorded in
+ * {@link RenderLoop#getFrameTimes()}.
  * </p>
  */
 public class RenderLoop extends Loop {
 
+    private static final int FRAME_HISTORY = 512;
+
     private final EScreen screen;
 
+    //--- Pacing
+    private final FramePacer pacer;
+    private final FrameTimes frameTimes = new FrameTimes(FRAME_HISTORY);
+    private long lastFrame = -1;
+    private volatile boolean running = false;
+    private Thread thread = null;
+    //---
+
     //--- OpenGL
     private GLProfile glProfile = null;
-    private FPSAnimator animator;
+    private AnimatorBase animator;
 
     /**
      * <p>
@@ -34,6 +54,12 @@ public class RenderLoop extends Loop {
 
         this.screen  = screen;
 
+        Settings settings = E.getE().getSettings();
+        this.pacer = new FramePacer(
+                settings.getFramePacing(),
+                (settings.getFramePacing() == FramePacing.VSYNC ? RenderLoop.getRefreshPeriod(optimalTime) : optimalTime)
+        );
+
         //--- If we use OpenGL, we are just going to setup JOGL's built-in support for running the loop. No need to do it
         // ourselves.
         if(E.getE().getSettings().useOpenGL()) {
@@ -48,7 +74,12 @@ public class RenderLoop extends Loop {
             canvas.addGLEventListener(E.getE().getScreen());
             canvas.setSize(s.getFrameDimension().getWidth(), s.getFrameDimension().getHeight());
 
-            this.animator = new FPSAnimator(canvas, s.getTargetFPS());
+            // Note: With vsync the buffer swap blocks until the vertical blank, so the animator doesn't have to pace.
+            if(s.getFramePacing() == FramePacing.CAPPED) {
+                this.animator = new FPSAnimator(canvas, s.getTargetFPS(), true);
+            } else {
+                this.animator = new Animator(canvas);
+            }
 
             //--- The rate at which we wanna update the FPS counter
             this.animator.setUpdateFPSFrames(Math.max(s.getTargetFPS() / 5, 1), null);
@@ -74,25 +105,112 @@ public class RenderLoop extends Loop {
 
     /**
      * <p>
-     *    Gives the FPSAnimator if the engine is using OpenGL to render the scene.
+     *    Gives the animator if the engine is using OpenGL to render the scene. It is a {@link FPSAnimator} with
+     *    {@link FramePacing#CAPPED}, otherwise an {@link Animator}.
      * </p>
      *
-     * @return Gives FPSAnimator, is null if OpenGL not active.
+     * @return Gives the animator, is null if OpenGL not active.
      */
-    public FPSAnimator getAnimator() {
+    public AnimatorBase getAnimator() {
         return this.animator;
     }
 
+    /**
+     * @return The pacer used by the render thread.
+     */
+    public FramePacer getPacer() {
+        return this.pacer;
+    }
+
+    /**
+     * @return The times between the last presented frames.
+     */
+    public FrameTimes getFrameTimes() {
+        return this.frameTimes;
+    }
+
+    /**
+     * <p>
+     *    Starts the render thread. It has no effect with OpenGL, the animator is already running.
+     * </p>
+     */
+    public synchronized void start() {
+
+        if(E.getE().getSettings().useOpenGL() || this.running) {
+            return;
+        }
+
+        this.running = true;
+        this.thread = new LoopThreadFactory("render", Thread.MAX_PRIORITY).newThread(() -> {
+            while (this.running) {
+                this.pacer.await();
+                this.run();
+            }
+        });
+        this.thread.start();
+
+    }
+
+    /**
+     * <p>
+     *    Stops the render thread after the current frame.
+     * </p>
+     */
+    public synchronized void stop() {
+        this.running = false;
+        this.thread = null;
+    }
+
+    /**
+     * <p>
+     *    Records the time since the last presented frame. It is called after every frame that reached the screen or the
+     *    offscreen target.
+     * </p>
+     */
+    public void presented() {
+
+        long now = System.nanoTime();
+
+        if(!(this.lastFrame == -1)) {
+            this.frameTimes.record(now - this.lastFrame);
+            E.getE().getTracer().frame(this.lastFrame, now);
+        }
+
+        this.lastFrame = now;
+
+    }
+
     @Override
     public void tick(long updateLength) {
 
-        //--- If we DO NOT use OpenGL, we have to call EScreen's update methods to make sure that we always get a fresh
-        // frame.
-        if(!(E.getE().getSettings().useOpenGL())) {
-            this.screen.invalidate();
-            this.screen.repaint();
+        //--- Without a window the frame is rendered into the offscreen target.
+        if(E.getE().getSettings().isHeadless()) {
+            E.getE().getOffscreen().render();
+        } else {
+            this.screen.render();
         }
 
+        this.presented();
+
+    }
+
+    /**
+     * <p>
+     *    Gives the time between two refreshes of the default screen.
+     * </p>
+     *
+     * @param fallback The period used if the refresh rate is unknown, e.g. without a screen.
+     * @return The period in nanoseconds.
+     */
+    private static long getRefreshPeriod(long fallback) {
+
+        if(GraphicsEnvironment.isHeadless()) {
+            return fallback;
+        }
+
+        int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? fallback : E.C.SECOND_AS_NANO / refreshRate);
+
     }
 
 
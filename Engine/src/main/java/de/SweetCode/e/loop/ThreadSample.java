@@ -0,0 +1,92 @@
+package de.SweetCode.e.loop;
+
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+/**
+ * <p>
+ *    A ThreadSample is what the {@link ProfilerLoop} knows about one thread after a refresh: its name and state, and how
+ *    much CPU time it used and how many bytes it allocated since the previous refresh.
+ * </p>
+ */
+public class ThreadSample {
+
+    private final long id;
+    private final String name;
+    private final Thread.State state;
+    private final double cpuUsage;
+    private final double allocationRate;
+
+    /**
+     * @param id The id of the thread.
+     * @param name The name of the thread.
+     * @param state The state of the thread.
+     * @param cpuUsage The CPU usage relative to one core, or -1 if it isn't supported by the JVM.
+     * @param allocationRate The allocated bytes per second, or -1 if it isn't supported by the JVM.
+     */
+    ThreadSample(long id, String name, Thread.State state, double cpuUsage, double allocationRate) {
+        this.id = id;
+        this.name = name;
+        this.state = state;
+        this.cpuUsage = cpuUsage;
+        this.allocationRate = allocationRate;
+    }
+
+    /**
+     * @return The id of the thread.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * @return The name of the thread.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return The state of the thread when it has been sampled.
+     */
+    public Thread.State getState() {
+        return this.state;
+    }
+
+    /**
+     * <p>
+     *    The CPU time the thread used since the previous refresh, relative to the wall time in between. A thread keeping
+     *    one core busy has a usage of 1.
+     * </p>
+     *
+     * @return The CPU usage in the range of [0; 1], or -1 if the JVM doesn't measure the CPU time of threads.
+     */
+    public double getCpuUsage() {
+        return this.cpuUsage;
+    }
+
+    /**
+     * @return The bytes allocated per second since the previous refresh, or -1 if the JVM doesn't measure them.
+     */
+    public double getAllocationRate() {
+        return this.allocationRate;
+    }
+
+    /**
+     * @return True, if it is one of the threads created by the engine.
+     */
+    public boolean isEngineThread() {
+        return this.name.startsWith("e-");
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("id", this.id)
+                .append("name", this.name)
+                .append("state", this.state)
+                .append("cpuUsage", this.cpuUsage)
+                .append("allocationRate", this.allocationRate)
+            .build();
+    }
+
+}
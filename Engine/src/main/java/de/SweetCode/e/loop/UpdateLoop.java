@@ -5,19 +5,33 @@ import de.SweetCode.e.GameComponentEntry;
 import de.SweetCode.e.Settings;
 import de.SweetCode.e.input.Input;
 import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.trace.TraceCategory;
+import de.SweetCode.e.trace.Tracer;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 /**
  * <p>
  * The update loop is responsible for updating all active {@link de.SweetCode.e.GameComponent GameComponents}.
+ * If {@link Settings#isParallelizingUpdate()} is true, the components are updated in parallel phases, one per priority.
  * </p>
  */
 public class UpdateLoop extends Loop {
 
     private final Input input;
 
+    //--- Phases: Built from the immutable snapshot of the components, so they only change along with it
+    private List<GameComponentEntry> snapshot = null;
+    private GameComponentEntry[] entries = new GameComponentEntry[0];
+    // Note: The start of every phase, followed by the end of the last one.
+    private int[] phases = { 0 };
+    //---
+
     /**
      * <p>
      *    Creates a new UpdateLoop.
@@ -44,27 +58,172 @@ public class UpdateLoop extends Loop {
                 (settings.roundDelta() ? 1 : 0)
         );
 
+        // hand the results of async tasks back to their trees
+        E.getE().getTaskRuntime().complete();
+
         // get the input
         InputEntry input = this.input.build();
         long now = System.currentTimeMillis();
 
-        //--- Depending on what the developer chose, we gonna use a sequential or parallelized stream.
-        Stream<GameComponentEntry> stream = (
-            settings.isParallelizingUpdate() ?
-                    E.getE().getGameComponents().parallelStream() : E.getE().getGameComponents().stream()
-        );
-        stream.forEach(k -> {
+        boolean timing = E.getE().getTimings().isEnabled();
+        Tracer tracer = E.getE().getTracer();
+        boolean measuring = (timing || tracer.isEnabled());
+
+        Consumer<GameComponentEntry> update = k -> {
 
             if(k.getGameComponent().isActive()) {
+
+                long start = (measuring ? System.nanoTime() : 0);
+
                 k.getGameComponent().update(
                     // the input since the last call
                     input,
                     // Delta + iterationTime -> We do this to make the delta more accurate
                     delta + (System.currentTimeMillis() - now)
                 );
+
+                if(measuring) {
+                    long end = System.nanoTime();
+
+                    if(timing) {
+                        k.recordUpdate(end - start);
+                    }
+
+                    tracer.span(TraceCategory.UPDATE, k.getGameComponent().getClass(), start, end);
+                }
+
+            }
+
+        };
+
+        //--- Depending on what the developer chose, we gonna update sequentially or in parallel phases.
+        ForkJoinPool pool = E.getE().getUpdatePool();
+
+        if(pool == null) {
+            E.getE().getGameComponents().forEach(update);
+        } else {
+            this.updatePhases(pool, settings.getUpdateChunkSize(), update);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Updates the components in phases: All components with the same {@link de.SweetCode.e.rendering.Priority} form
+     *    a phase, and the phases run one after another in the order of their priority. The components of a phase are
+     *    split into chunks of neighbouring components, and the chunks are updated in parallel. The next phase only starts
+     *    after all chunks of the current one are done.
+     * </p>
+     *
+     * @param pool The pool to update the chunks on.
+     * @param chunkSize The max. amount of components per chunk.
+     * @param update The update of a single component.
+     */
+    private void updatePhases(ForkJoinPool pool, int chunkSize, Consumer<GameComponentEntry> update) {
+
+        // Note: A snapshot, so the phases don't shift if components are added or removed by the updates.
+        List<GameComponentEntry> components = E.getE().getGameComponents();
+
+        if(!(components == this.snapshot)) {
+            this.group(components);
+        }
+
+        GameComponentEntry[] entries = this.entries;
+        int[] phases = this.phases;
+
+        for(int phase = 0; phase < phases.length - 1; phase++) {
+
+            int from = phases[phase];
+            int to = phases[phase + 1];
+
+            // Note: Small phases aren't worth handing over to the pool.
+            if(to - from <= chunkSize) {
+                for(int i = from; i < to; i++) {
+                    update.accept(entries[i]);
+                }
+            } else {
+                // Note: invoke only returns after all chunks are done, so it is the barrier between the phases.
+                pool.invoke(new UpdateChunk(entries, from, to, chunkSize, update));
+            }
+
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Groups the components into phases of the same priority. The components are sorted by their priority, so every
+     *    phase is a range of neighbouring components.
+     * </p>
+     *
+     * @param components The snapshot of the components.
+     */
+    private void group(List<GameComponentEntry> components) {
+
+        GameComponentEntry[] entries = components.toArray(new GameComponentEntry[0]);
+
+        int count = 0;
+        for(int i = 0; i < entries.length; i++) {
+            if(i == 0 || !(entries[i].getPriority().getPriority() == entries[i - 1].getPriority().getPriority())) {
+                count++;
+            }
+        }
+
+        int[] phases = new int[count + 1];
+        int phase = 0;
+        for(int i = 0; i < entries.length; i++) {
+            if(i == 0 || !(entries[i].getPriority().getPriority() == entries[i - 1].getPriority().getPriority())) {
+                phases[phase++] = i;
             }
+        }
+        phases[count] = entries.length;
+
+        this.entries = entries;
+        this.phases = phases;
+        this.snapshot = components;
+
+    }
+
+    /**
+     * <p>
+     *    Splits a range of components in halves until it is small enough to be updated as one chunk. The halves are
+     *    forked, so idle workers steal them from busy ones.
+     * </p>
+     */
+    @SuppressWarnings("serial")
+    private static class UpdateChunk extends RecursiveAction {
+
+        private final GameComponentEntry[] entries;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Consumer<GameComponentEntry> update;
+
+        private UpdateChunk(GameComponentEntry[] entries, int from, int to, int chunkSize, Consumer<GameComponentEntry> update) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.update = update;
+        }
+
+        @Override
+        protected void compute() {
+
+            if(this.to - this.from <= this.chunkSize) {
+                for(int i = this.from; i < this.to; i++) {
+                    this.update.accept(this.entries[i]);
+                }
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            ForkJoinTask.invokeAll(
+                new UpdateChunk(this.entries, this.from, middle, this.chunkSize, this.update),
+                new UpdateChunk(this.entries, middle, this.to, this.chunkSize, this.update)
+            );
 
-        });
+        }
 
     }
 
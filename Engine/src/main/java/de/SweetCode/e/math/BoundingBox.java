@@ -1,7 +1,10 @@
 package de.SweetCode.e.math;
 
+import de.SweetCode.e.utils.Assert;
 import de.SweetCode.e.utils.ToString.ToStringBuilder;
 
+import java.util.Arrays;
+
 /**
  * The BoundingBox is representing a square.
  */
@@ -13,6 +16,10 @@ public class BoundingBox {
     private final double width;
     private final double height;
 
+    // Note: The array is never modified, adding or removing a listener swaps it, so moved() can go through it without
+    // a lock while boxes are moved from several threads.
+    private volatile BoundingBoxListener[] listeners = null;
+
     /**
      * @param a One corner of the square.
      * @param b Another corner of the square.
@@ -55,6 +62,7 @@ public class BoundingBox {
     public void move(double x, double y) {
         this.max.add(x, y);
         this.min.add(x, y);
+        this.moved();
     }
 
     /**
@@ -74,6 +82,7 @@ public class BoundingBox {
             x + (this.getWidth() / 2),
             y + (this.getHeight() / 2)
         );
+        this.moved();
     }
 
     /**
@@ -87,6 +96,67 @@ public class BoundingBox {
         this.setCenter(center.getX(), center.getY());
     }
 
+    /**
+     * <p>
+     *    Adds a listener which gets notified every time the box gets moved by {@link BoundingBox#move(double, double)}
+     *    or {@link BoundingBox#setCenter(double, double)}. Changes made directly to {@link BoundingBox#getMin()} or
+     *    {@link BoundingBox#getMax()} are not noticed.
+     * </p>
+     *
+     * @param listener The listener to add.
+     */
+    public synchronized void addListener(BoundingBoxListener listener) {
+
+        Assert.assertNotNull("The listener cannot be null.", listener);
+
+        BoundingBoxListener[] listeners = this.listeners;
+
+        if(listeners == null) {
+            this.listeners = new BoundingBoxListener[] { listener };
+        } else {
+            listeners = Arrays.copyOf(listeners, listeners.length + 1);
+            listeners[listeners.length - 1] = listener;
+            this.listeners = listeners;
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Removes a listener added by {@link BoundingBox#addListener(BoundingBoxListener)}.
+     * </p>
+     *
+     * @param listener The listener to remove.
+     */
+    public synchronized void removeListener(BoundingBoxListener listener) {
+
+        BoundingBoxListener[] listeners = this.listeners;
+
+        if(listeners == null) {
+            return;
+        }
+
+        for(int i = 0; i < listeners.length; i++) {
+
+            if(listeners[i] == listener) {
+
+                if(listeners.length == 1) {
+                    this.listeners = null;
+                } else {
+                    BoundingBoxListener[] remaining = new BoundingBoxListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, remaining, 0, i);
+                    System.arraycopy(listeners, i + 1, remaining, i, listeners.length - i - 1);
+                    this.listeners = remaining;
+                }
+
+                return;
+
+            }
+
+        }
+
+    }
+
     /**
      * @return Gives the max. {@link Location}.
      */
@@ -172,6 +242,19 @@ public class BoundingBox {
         return this.contains(new Location(location));
     }
 
+    private void moved() {
+
+        BoundingBoxListener[] listeners = this.listeners;
+
+        if(listeners == null) {
+            return;
+        }
+
+        for(BoundingBoxListener listener : listeners) {
+            listener.moved(this);
+        }
+
+    }
 
     @Override
     public String toString() {
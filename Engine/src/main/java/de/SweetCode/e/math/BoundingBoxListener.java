@@ -0,0 +1,19 @@
+package de.SweetCode.e.math;
+
+/**
+ * <p>
+ *    A BoundingBoxListener gets notified if a {@link BoundingBox} it has been added to moves.
+ * </p>
+ */
+public interface BoundingBoxListener {
+
+    /**
+     * <p>
+     *    Gets called after the box has been moved.
+     * </p>
+     *
+     * @param boundingBox The box that moved.
+     */
+    void moved(BoundingBox boundingBox);
+
+}
@@ -41,7 +41,7 @@ public class CircleBox {
      * @return true, if they intersect, otherwise false.
      */
     public boolean intersects(double x, double y, double radius) {
-        return (Math.pow(radius - this.getRadius(), 2) >= (Math.pow(x - this.getCenter().getX(), 2) + Math.pow(y - this.getCenter().getY(), 2)));
+        return (Math.pow(radius + this.getRadius(), 2) >= (Math.pow(x - this.getCenter().getX(), 2) + Math.pow(y - this.getCenter().getY(), 2)));
     }
 
     /**
@@ -63,6 +63,20 @@ public class CircleBox {
         return this.intersects(circleBox.getCenter().getX(), circleBox.getCenter().getY(), circleBox.getRadius());
     }
 
+    /**
+     * Checks if a bounding box is intersecting this circle.
+     * @param boundingBox The bounding box.
+     * @return true, if they intersect, otherwise false.
+     */
+    public boolean intersects(BoundingBox boundingBox) {
+
+        double x = Math.max(boundingBox.getMin().getX(), Math.min(this.getCenter().getX(), boundingBox.getMax().getX()));
+        double y = Math.max(boundingBox.getMin().getY(), Math.min(this.getCenter().getY(), boundingBox.getMax().getY()));
+
+        return (Math.pow(this.getRadius(), 2) >= (Math.pow(x - this.getCenter().getX(), 2) + Math.pow(y - this.getCenter().getY(), 2)));
+
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.create(this)
@@ -0,0 +1,155 @@
+package de.SweetCode.e.math.spatial;
+
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.math.CircleBox;
+import de.SweetCode.e.math.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *    A SpatialIndex stores objects by their {@link BoundingBox} and answers queries about which of them are in a
+ *    certain area without checking all of them. The index listens to {@link BoundingBox#move(double, double)} and
+ *    {@link BoundingBox#setCenter(double, double)}, so moving objects don't have to be updated by hand.
+ * </p>
+ *
+ * @param <T> The type of the indexed objects.
+ */
+public interface SpatialIndex<T> {
+
+    /**
+     * <p>
+     *    Adds an object to the index. If the object is already indexed, it will be indexed by the new box.
+     * </p>
+     *
+     * @param item The object to add.
+     * @param boundingBox The box of the object.
+     */
+    void insert(T item, BoundingBox boundingBox);
+
+    /**
+     * <p>
+     *    Removes an object from the index.
+     * </p>
+     *
+     * @param item The object to remove.
+     * @return True, if the object was indexed, otherwise false.
+     */
+    boolean remove(T item);
+
+    /**
+     * <p>
+     *    Updates the position of an object in the index. This is only necessary if the box of the object has been
+     *    changed without {@link BoundingBox#move(double, double)} or {@link BoundingBox#setCenter(double, double)}.
+     * </p>
+     *
+     * @param item The object to update.
+     */
+    void update(T item);
+
+    /**
+     * @param item The object.
+     * @return True, if the object is indexed, otherwise false.
+     */
+    boolean contains(T item);
+
+    /**
+     * @return The amount of indexed objects.
+     */
+    int size();
+
+    /**
+     * <p>
+     *    Removes all objects from the index.
+     * </p>
+     */
+    void clear();
+
+    /**
+     * <p>
+     *    Calls the consumer once for every object intersecting the area.
+     * </p>
+     *
+     * @param area The area to search in.
+     * @param consumer The consumer to call.
+     */
+    void query(BoundingBox area, Consumer<? super T> consumer);
+
+    /**
+     * <p>
+     *    Calls the consumer once for every object containing the location.
+     * </p>
+     *
+     * @param location The location to search at.
+     * @param consumer The consumer to call.
+     */
+    void query(Location location, Consumer<? super T> consumer);
+
+    /**
+     * <p>
+     *    Calls the consumer once for every object intersecting the circle.
+     * </p>
+     *
+     * @param circle The circle to search in.
+     * @param consumer The consumer to call.
+     */
+    void query(CircleBox circle, Consumer<? super T> consumer);
+
+    /**
+     * <p>
+     *    Finds the objects closest to the location, the distance is measured to the closest point of their boxes.
+     * </p>
+     *
+     * @param location The location to search from.
+     * @param amount The max. amount of objects to find.
+     * @return The closest objects ordered by their distance, closest first.
+     */
+    List<T> nearest(Location location, int amount);
+
+    /**
+     * <p>
+     *    Calls the consumer once for every pair of objects whose boxes intersect each other. This is meant to be used
+     *    as broadphase of a collision detection, so the order of the objects in a pair is not defined.
+     * </p>
+     * <p>
+     *    Boxes moved by the consumer keep their old place in the index until all pairs have been reported.
+     * </p>
+     *
+     * @param consumer The consumer to call.
+     */
+    void pairs(BiConsumer<? super T, ? super T> consumer);
+
+    /**
+     * @param area The area to search in.
+     * @return All objects intersecting the area.
+     */
+    default List<T> query(BoundingBox area) {
+        List<T> result = new ArrayList<>();
+        this.query(area, result::add);
+        return result;
+    }
+
+    /**
+     * @param location The location to search at.
+     * @return All objects containing the location.
+     */
+    default List<T> query(Location location) {
+        List<T> result = new ArrayList<>();
+        this.query(location, result::add);
+        return result;
+    }
+
+    /**
+     * @param circle The circle to search in.
+     * @return All objects intersecting the circle.
+     */
+    default List<T> query(CircleBox circle) {
+        List<T> result = new ArrayList<>();
+        this.query(circle, result::add);
+        return result;
+    }
+
+}
@@ -0,0 +1,822 @@
+package de.SweetCode.e.math.spatial;
+
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.math.BoundingBoxListener;
+import de.SweetCode.e.math.CircleBox;
+import de.SweetCode.e.math.Location;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *    The UniformGrid is a {@link SpatialIndex} dividing the world into square cells of the same size. Every object is
+ *    stored in all cells its box overlaps, so a query only has to look at the objects in the cells the queried area
+ *    overlaps. The cells are stored in a hash table, so the world has no bounds and empty space costs no memory.
+ * </p>
+ * <p>
+ *    The cell size should be about the size of the typical object: If the cells are a lot smaller, objects are stored
+ *    in many cells, if they are a lot bigger, queries have to check many objects that aren't close at all.
+ * </p>
+ * <p>
+ *    All methods are synchronized, so the grid can be queried and updated from several threads. Objects moved, added
+ *    or removed while the grid calls a consumer, e.g. in {@link UniformGrid#pairs(BiConsumer)}, are updated after the
+ *    query finished.
+ * </p>
+ * <p>
+ *    Moving a box doesn't lock the grid: the moved object is only queued and put into its new cells by the next call to
+ *    the grid, so boxes can be moved from several threads at once and the grid never calls back into other code while
+ *    its lock is held by a moving box.
+ * </p>
+ *
+ * @param <T> The type of the indexed objects.
+ */
+public class UniformGrid<T> implements SpatialIndex<T> {
+
+    private final double cellSize;
+
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    //--- Hash table of the cells, the key is packed from the x and y coordinate of the cell
+    private long[] keys;
+    private Cell<T>[] cells;
+    private int cellCount = 0;
+    //---
+
+    //--- The range of cells that have been used, the nearest search doesn't look beyond it
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+    //---
+
+    //--- Queries & deferred updates
+    private int stamp = 0;
+    private int querying = 0;
+    private final List<Entry<T>> pending = new ArrayList<>();
+    //---
+
+    //--- Moved boxes, queued by the listeners and applied by the next call to the grid
+    private final Object movesLock = new Object();
+    private List<Entry<T>> moves = new ArrayList<>();
+    private List<Entry<T>> applying = new ArrayList<>();
+    //---
+
+    /**
+     * <p>
+     *    Creates a new UniformGrid.
+     * </p>
+     *
+     * @param cellSize The width and height of a cell, must be greater than 0.
+     */
+    public UniformGrid(double cellSize) {
+
+        Assert.assertTrue("The cell size has to be greater than 0.", cellSize > 0);
+
+        this.cellSize = cellSize;
+        this.allocate(64);
+
+    }
+
+    /**
+     * @return Gives the width and height of a cell.
+     */
+    public double getCellSize() {
+        return this.cellSize;
+    }
+
+    @Override
+    public synchronized void insert(T item, BoundingBox boundingBox) {
+
+        Assert.assertNotNull("The item cannot be null.", item);
+        Assert.assertNotNull("The bounding box cannot be null.", boundingBox);
+
+        this.applyMoves();
+
+        Entry<T> entry = this.entries.get(item);
+
+        if(!(entry == null)) {
+            if(entry.boundingBox == boundingBox) {
+                this.update(entry);
+                return;
+            }
+            this.remove(item);
+        }
+
+        entry = new Entry<>(this, item, boundingBox);
+        this.entries.put(item, entry);
+        boundingBox.addListener(entry);
+
+        this.update(entry);
+
+    }
+
+    @Override
+    public synchronized boolean remove(T item) {
+
+        this.applyMoves();
+
+        Entry<T> entry = this.entries.remove(item);
+
+        if(entry == null) {
+            return false;
+        }
+
+        entry.boundingBox.removeListener(entry);
+        entry.removed = true;
+
+        this.update(entry);
+        return true;
+
+    }
+
+    @Override
+    public synchronized void update(T item) {
+
+        this.applyMoves();
+
+        Entry<T> entry = this.entries.get(item);
+
+        if(!(entry == null)) {
+            this.update(entry);
+        }
+
+    }
+
+    @Override
+    public synchronized boolean contains(T item) {
+        return this.entries.containsKey(item);
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+
+        Assert.assertTrue("The grid cannot be cleared while it is being queried.", this.querying == 0);
+
+        this.entries.values().forEach(e -> e.boundingBox.removeListener(e));
+        this.entries.clear();
+        this.pending.clear();
+
+        synchronized (this.movesLock) {
+            this.moves.clear();
+        }
+
+        this.allocate(64);
+        this.cellCount = 0;
+
+        this.minCellX = Integer.MAX_VALUE;
+        this.minCellY = Integer.MAX_VALUE;
+        this.maxCellX = Integer.MIN_VALUE;
+        this.maxCellY = Integer.MIN_VALUE;
+
+    }
+
+    @Override
+    public synchronized void query(BoundingBox area, Consumer<? super T> consumer) {
+
+        Assert.assertNotNull("The area cannot be null.", area);
+        Assert.assertNotNull("The consumer cannot be null.", consumer);
+
+        this.applyMoves();
+
+        this.search(
+            area.getMin().getX(), area.getMin().getY(), area.getMax().getX(), area.getMax().getY(),
+            e -> e.boundingBox.intersects(area),
+            consumer
+        );
+
+    }
+
+    @Override
+    public synchronized void query(Location location, Consumer<? super T> consumer) {
+
+        Assert.assertNotNull("The location cannot be null.", location);
+        Assert.assertNotNull("The consumer cannot be null.", consumer);
+
+        this.applyMoves();
+
+        this.search(
+            location.getX(), location.getY(), location.getX(), location.getY(),
+            e -> e.boundingBox.contains(location),
+            consumer
+        );
+
+    }
+
+    @Override
+    public synchronized void query(CircleBox circle, Consumer<? super T> consumer) {
+
+        Assert.assertNotNull("The circle cannot be null.", circle);
+        Assert.assertNotNull("The consumer cannot be null.", consumer);
+
+        this.applyMoves();
+
+        double x = circle.getCenter().getX();
+        double y = circle.getCenter().getY();
+        double radius = circle.getRadius();
+
+        this.search(
+            x - radius, y - radius, x + radius, y + radius,
+            e -> UniformGrid.distanceSquared(e.boundingBox, x, y) <= radius * radius,
+            consumer
+        );
+
+    }
+
+    @Override
+    public synchronized List<T> nearest(Location location, int amount) {
+
+        Assert.assertNotNull("The location cannot be null.", location);
+        Assert.assertTrue("The amount has to be greater than 0.", amount > 0);
+
+        this.applyMoves();
+
+        double x = location.getX();
+        double y = location.getY();
+
+        //--- The closest objects found so far, ordered by their distance
+        Object[] items = new Object[amount];
+        double[] distances = new double[amount];
+        int found = 0;
+        //---
+
+        if(this.cellCount > 0 && !(this.entries.isEmpty())) {
+
+            int stamp = ++this.stamp;
+            int cellX = this.cell(x);
+            int cellY = this.cell(y);
+
+            int rings = Math.max(
+                Math.max(cellX - this.minCellX, this.maxCellX - cellX),
+                Math.max(cellY - this.minCellY, this.maxCellY - cellY)
+            );
+
+            for(int ring = 0; ring <= rings; ring++) {
+
+                // Note: All objects in the cells of this ring are at least (ring - 1) cells away, so if the worst object
+                // we found is closer than that, we are done.
+                if(found == amount) {
+                    double closest = Math.max(0, ring - 1) * this.cellSize;
+                    if(distances[amount - 1] < closest * closest) {
+                        break;
+                    }
+                }
+
+                for(int cx = cellX - ring; cx <= cellX + ring; cx++) {
+
+                    boolean edge = (cx == cellX - ring || cx == cellX + ring);
+                    int step = (edge || ring == 0 ? 1 : ring * 2);
+
+                    for(int cy = cellY - ring; cy <= cellY + ring; cy += step) {
+
+                        Cell<T> cell = this.getCell(cx, cy);
+
+                        if(cell == null) {
+                            continue;
+                        }
+
+                        for(int i = 0; i < cell.size; i++) {
+
+                            Entry<T> entry = cell.entries[i];
+
+                            if(entry.stamp == stamp || entry.removed) {
+                                continue;
+                            }
+                            entry.stamp = stamp;
+
+                            double distance = UniformGrid.distanceSquared(entry.boundingBox, x, y);
+
+                            if(found == amount && distance >= distances[amount - 1]) {
+                                continue;
+                            }
+
+                            //--- Insertion into the sorted arrays
+                            int index = (found == amount ? amount - 1 : found++);
+                            while (index > 0 && distances[index - 1] > distance) {
+                                distances[index] = distances[index - 1];
+                                items[index] = items[index - 1];
+                                index--;
+                            }
+                            distances[index] = distance;
+                            items[index] = entry.item;
+                            //---
+
+                        }
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        List<T> result = new ArrayList<>(found);
+        for(int i = 0; i < found; i++) {
+            @SuppressWarnings("unchecked")
+            T item = (T) items[i];
+            result.add(item);
+        }
+
+        return result;
+
+    }
+
+    @Override
+    public synchronized void pairs(BiConsumer<? super T, ? super T> consumer) {
+
+        Assert.assertNotNull("The consumer cannot be null.", consumer);
+
+        this.applyMoves();
+
+        this.querying++;
+
+        try {
+
+            for(Cell<T> cell : this.cells) {
+
+                if(cell == null || cell.size < 2) {
+                    continue;
+                }
+
+                for(int i = 0; i < cell.size; i++) {
+
+                    Entry<T> a = cell.entries[i];
+
+                    for(int j = i + 1; j < cell.size; j++) {
+
+                        Entry<T> b = cell.entries[j];
+
+                        if(a.removed || b.removed) {
+                            continue;
+                        }
+
+                        // Note: Two objects sharing several cells are only reported by the first cell they share, so
+                        // we don't need to remember which pairs we have already reported.
+                        if(!(Math.max(a.minX, b.minX) == cell.x && Math.max(a.minY, b.minY) == cell.y)) {
+                            continue;
+                        }
+
+                        if(a.boundingBox.intersects(b.boundingBox)) {
+                            consumer.accept(a.item, b.item);
+                        }
+
+                    }
+
+                }
+
+            }
+
+        } finally {
+            this.finishQuery();
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Calls the consumer for every object in the cells overlapping the given area that matches the filter.
+     * </p>
+     */
+    private void search(double minX, double minY, double maxX, double maxY, EntryFilter<T> filter, Consumer<? super T> consumer) {
+
+        int fromX = this.cell(minX);
+        int fromY = this.cell(minY);
+        int toX = this.cell(maxX);
+        int toY = this.cell(maxY);
+
+        int stamp = ++this.stamp;
+        this.querying++;
+
+        try {
+
+            // Note: If the area covers more cells than exist, it is cheaper to go through the existing ones.
+            if((long) (toX - fromX + 1) * (long) (toY - fromY + 1) > this.cellCount) {
+
+                for(Cell<T> cell : this.cells) {
+                    if(!(cell == null) && cell.x >= fromX && cell.x <= toX && cell.y >= fromY && cell.y <= toY) {
+                        this.search(cell, stamp, filter, consumer);
+                    }
+                }
+
+            } else {
+
+                for(int x = fromX; x <= toX; x++) {
+                    for(int y = fromY; y <= toY; y++) {
+
+                        Cell<T> cell = this.getCell(x, y);
+
+                        if(!(cell == null)) {
+                            this.search(cell, stamp, filter, consumer);
+                        }
+
+                    }
+                }
+
+            }
+
+        } finally {
+            this.finishQuery();
+        }
+
+    }
+
+    private void search(Cell<T> cell, int stamp, EntryFilter<T> filter, Consumer<? super T> consumer) {
+
+        for(int i = 0; i < cell.size; i++) {
+
+            Entry<T> entry = cell.entries[i];
+
+            if(entry.stamp == stamp || entry.removed) {
+                continue;
+            }
+            entry.stamp = stamp;
+
+            if(filter.test(entry)) {
+                consumer.accept(entry.item);
+            }
+
+        }
+
+    }
+
+    private void finishQuery() {
+
+        this.querying--;
+
+        if(this.querying == 0 && !(this.pending.isEmpty())) {
+
+            for(int i = 0; i < this.pending.size(); i++) {
+                Entry<T> entry = this.pending.get(i);
+                entry.pending = false;
+                this.relocate(entry);
+            }
+
+            this.pending.clear();
+
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Gets called by the listener of the entry if its box moved. The entry is only queued once until the moves are
+     *    applied, so it doesn't matter how often the box moves in between.
+     * </p>
+     */
+    private void moved(Entry<T> entry) {
+
+        if(entry.moved) {
+            return;
+        }
+
+        synchronized (this.movesLock) {
+            if(!(entry.moved)) {
+                entry.moved = true;
+                this.moves.add(entry);
+            }
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Puts all queued entries into the cells their boxes overlap now. Has to be called while holding the lock of the
+     *    grid.
+     * </p>
+     */
+    private void applyMoves() {
+
+        List<Entry<T>> moves;
+
+        synchronized (this.movesLock) {
+
+            if(this.moves.isEmpty()) {
+                return;
+            }
+
+            moves = this.moves;
+            this.moves = this.applying;
+            this.applying = moves;
+
+        }
+
+        for(int i = 0; i < moves.size(); i++) {
+
+            Entry<T> entry = moves.get(i);
+
+            // Note: The flag is cleared first, so a move happening right now is queued again instead of getting lost.
+            entry.moved = false;
+
+            if(!(entry.removed)) {
+                this.update(entry);
+            }
+
+        }
+
+        moves.clear();
+
+    }
+
+    private void update(Entry<T> entry) {
+
+        if(this.querying > 0) {
+            if(!(entry.pending)) {
+                entry.pending = true;
+                this.pending.add(entry);
+            }
+            return;
+        }
+
+        this.relocate(entry);
+
+    }
+
+    /**
+     * <p>
+     *    Moves the entry into the cells its box currently overlaps, or out of all cells if it has been removed.
+     * </p>
+     */
+    private void relocate(Entry<T> entry) {
+
+        if(entry.removed) {
+            if(entry.placed) {
+                this.detach(entry);
+            }
+            return;
+        }
+
+        BoundingBox box = entry.boundingBox;
+        int minX = this.cell(box.getMin().getX());
+        int minY = this.cell(box.getMin().getY());
+        int maxX = this.cell(box.getMax().getX());
+        int maxY = this.cell(box.getMax().getY());
+
+        if(entry.placed) {
+
+            if(entry.minX == minX && entry.minY == minY && entry.maxX == maxX && entry.maxY == maxY) {
+                return;
+            }
+
+            this.detach(entry);
+
+        }
+
+        entry.minX = minX;
+        entry.minY = minY;
+        entry.maxX = maxX;
+        entry.maxY = maxY;
+        entry.placed = true;
+
+        for(int x = minX; x <= maxX; x++) {
+            for(int y = minY; y <= maxY; y++) {
+                this.getOrCreateCell(x, y).add(entry);
+            }
+        }
+
+        this.minCellX = Math.min(this.minCellX, minX);
+        this.minCellY = Math.min(this.minCellY, minY);
+        this.maxCellX = Math.max(this.maxCellX, maxX);
+        this.maxCellY = Math.max(this.maxCellY, maxY);
+
+    }
+
+    private void detach(Entry<T> entry) {
+
+        for(int x = entry.minX; x <= entry.maxX; x++) {
+            for(int y = entry.minY; y <= entry.maxY; y++) {
+
+                Cell<T> cell = this.getCell(x, y);
+
+                if(!(cell == null)) {
+                    cell.remove(entry);
+                }
+
+            }
+        }
+
+        entry.placed = false;
+
+    }
+
+    private int cell(double value) {
+        return (int) Math.floor(value / this.cellSize);
+    }
+
+    //--- Hash Table
+    private Cell<T> getCell(int x, int y) {
+
+        long key = UniformGrid.key(x, y);
+        int mask = this.keys.length - 1;
+        int index = UniformGrid.hash(key) & mask;
+
+        while (!(this.cells[index] == null)) {
+            if(this.keys[index] == key) {
+                return this.cells[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+
+    }
+
+    private Cell<T> getOrCreateCell(int x, int y) {
+
+        Cell<T> cell = this.getCell(x, y);
+
+        if(!(cell == null)) {
+            return cell;
+        }
+
+        if((this.cellCount + 1) * 2 > this.keys.length) {
+            this.rehash();
+        }
+
+        cell = new Cell<>(x, y);
+        this.put(cell);
+        this.cellCount++;
+
+        return cell;
+
+    }
+
+    private void put(Cell<T> cell) {
+
+        long key = UniformGrid.key(cell.x, cell.y);
+        int mask = this.keys.length - 1;
+        int index = UniformGrid.hash(key) & mask;
+
+        while (!(this.cells[index] == null)) {
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = key;
+        this.cells[index] = cell;
+
+    }
+
+    /**
+     * <p>
+     *    Rebuilds the table. Empty cells are dropped, so cells left behind by moving objects don't pile up.
+     * </p>
+     */
+    private void rehash() {
+
+        Cell<T>[] old = this.cells;
+
+        int used = 0;
+        for(Cell<T> cell : old) {
+            if(!(cell == null) && cell.size > 0) {
+                used++;
+            }
+        }
+
+        int capacity = 64;
+        while (capacity < (used + 1) * 4) {
+            capacity <<= 1;
+        }
+
+        this.allocate(capacity);
+        this.cellCount = used;
+
+        for(Cell<T> cell : old) {
+            if(!(cell == null) && cell.size > 0) {
+                this.put(cell);
+            }
+        }
+
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.cells = (Cell<T>[]) new Cell[capacity];
+    }
+
+    private static long key(int x, int y) {
+        return (((long) x) << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+    //---
+
+    /**
+     * <p>
+     *    Gives the squared distance between the location and the closest point of the box, 0 if the box contains it.
+     * </p>
+     */
+    private static double distanceSquared(BoundingBox box, double x, double y) {
+
+        double dx = Math.max(Math.max(box.getMin().getX() - x, 0), x - box.getMax().getX());
+        double dy = Math.max(Math.max(box.getMin().getY() - y, 0), y - box.getMax().getY());
+
+        return dx * dx + dy * dy;
+
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ToStringBuilder.create(this)
+                .append("cellSize", this.cellSize)
+                .append("size", this.entries.size())
+                .append("cells", this.cellCount)
+            .build();
+    }
+
+    private interface EntryFilter<T> {
+
+        boolean test(Entry<T> entry);
+
+    }
+
+    /**
+     * <p>
+     *    An indexed object. The entry listens to the box of the object and keeps the range of cells it has been placed in.
+     * </p>
+     */
+    private static class Entry<T> implements BoundingBoxListener {
+
+        private final UniformGrid<T> grid;
+        private final T item;
+        private final BoundingBox boundingBox;
+
+        private int minX;
+        private int minY;
+        private int maxX;
+        private int maxY;
+
+        private boolean placed = false;
+        private boolean pending = false;
+        private boolean removed = false;
+        private volatile boolean moved = false;
+
+        private int stamp = 0;
+
+        private Entry(UniformGrid<T> grid, T item, BoundingBox boundingBox) {
+            this.grid = grid;
+            this.item = item;
+            this.boundingBox = boundingBox;
+        }
+
+        @Override
+        public void moved(BoundingBox boundingBox) {
+            this.grid.moved(this);
+        }
+
+    }
+
+    private static class Cell<T> {
+
+        private final int x;
+        private final int y;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Entry<T>[] entries = (Entry<T>[]) new Entry[4];
+        private int size = 0;
+
+        private Cell(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        private void add(Entry<T> entry) {
+
+            if(this.size == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+
+            this.entries[this.size++] = entry;
+
+        }
+
+        private void remove(Entry<T> entry) {
+
+            for(int i = 0; i < this.size; i++) {
+                if(this.entries[i] == entry) {
+                    this.entries[i] = this.entries[--this.size];
+                    this.entries[this.size] = null;
+                    return;
+                }
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package de.SweetCode.e.metrics;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *    Metrics is the registry of the numbers the engine, and the game, want to expose to the outside, e.g. tick rates,
+ *    queue depths or cache hits. Every metric has a unique, dot separated name like <code>loop.update.ticks</code>.
+ * </p>
+ * <p>
+ *    There are two kinds of metrics. Gauges are read on demand from a {@link Supplier}, so they cost nothing until
+ *    somebody asks for them. Counters are {@link LongAdder LongAdders} which can be incremented from any thread without
+ *    contention, callers should keep the reference instead of looking it up every time.
+ * </p>
+ * <p>
+ *    The registry is exported with {@link MetricsBean} over JMX and with {@link MetricsWriter} into a file.
+ * </p>
+ */
+public class Metrics {
+
+    private final Map<String, Supplier<? extends Number>> metrics = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public Metrics() {}
+
+    /**
+     * <p>
+     *    Registers a gauge, replacing the metric with the same name if there is one.
+     * </p>
+     *
+     * @param name The name of the metric.
+     * @param supplier Gives the current value.
+     */
+    public void gauge(String name, Supplier<? extends Number> supplier) {
+
+        Assert.assertNotNull("The name cannot be null.", name);
+        Assert.assertNotNull("The supplier cannot be null.", supplier);
+
+        this.counters.remove(name);
+        this.metrics.put(name, supplier);
+
+    }
+
+    /**
+     * <p>
+     *    Gives the counter with the name, creating it if it doesn't exist yet.
+     * </p>
+     *
+     * @param name The name of the metric.
+     * @return The counter.
+     */
+    public LongAdder counter(String name) {
+
+        Assert.assertNotNull("The name cannot be null.", name);
+
+        return this.counters.computeIfAbsent(name, key -> {
+            LongAdder counter = new LongAdder();
+            this.metrics.put(key, counter::sum);
+            return counter;
+        });
+
+    }
+
+    /**
+     * <p>
+     *    Removes a metric.
+     * </p>
+     *
+     * @param name The name of the metric.
+     */
+    public void remove(String name) {
+
+        Assert.assertNotNull("The name cannot be null.", name);
+
+        this.counters.remove(name);
+        this.metrics.remove(name);
+
+    }
+
+    /**
+     * @return The names of all metrics, in alphabetical order.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.metrics.keySet());
+    }
+
+    /**
+     * <p>
+     *    Reads the current value of a metric.
+     * </p>
+     *
+     * @param name The name of the metric.
+     * @return The value, or null if there is no metric with the name or it failed to read.
+     */
+    public Number get(String name) {
+
+        Supplier<? extends Number> supplier = this.metrics.get(name);
+        return (supplier == null ? null : Metrics.read(supplier));
+
+    }
+
+    /**
+     * <p>
+     *    Reads the current values of all metrics. Metrics that fail to read, e.g. because the collection they are counting
+     *    got modified at the same time, are left out.
+     * </p>
+     *
+     * @return The values by name, in alphabetical order.
+     */
+    public Map<String, Number> snapshot() {
+
+        Map<String, Number> values = new LinkedHashMap<>();
+
+        this.metrics.forEach((name, supplier) -> {
+            Number value = Metrics.read(supplier);
+
+            if(!(value == null)) {
+                values.put(name, value);
+            }
+        });
+
+        return values;
+
+    }
+
+    private static Number read(Supplier<? extends Number> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("metrics", this.metrics.size())
+                .append("counters", this.counters.size())
+            .build();
+    }
+
+}
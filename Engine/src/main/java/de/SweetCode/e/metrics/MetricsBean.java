@@ -0,0 +1,159 @@
+package de.SweetCode.e.metrics;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * <p>
+ *    The MetricsBean exports {@link Metrics} over JMX, every metric is a read-only attribute of one MBean, so tools like
+ *    JConsole, VisualVM or a JMX exporter can read them from a running game. The attributes are built from the registry
+ *    every time they are requested, so metrics registered later show up as well.
+ * </p>
+ */
+public class MetricsBean implements DynamicMBean {
+
+    private final Metrics metrics;
+    private final ObjectName objectName;
+
+    /**
+     * @param metrics The metrics to export.
+     * @param name The name of the instance, e.g. the name of the game, to tell multiple instances apart.
+     */
+    public MetricsBean(Metrics metrics, String name) {
+
+        Assert.assertNotNull("The metrics cannot be null.", metrics);
+        Assert.assertNotNull("The name cannot be null.", name);
+
+        this.metrics = metrics;
+
+        try {
+            this.objectName = new ObjectName(String.format("de.SweetCode.e:type=Metrics,name=%s", ObjectName.quote(name)));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+    }
+
+    /**
+     * @return The name the bean is registered with.
+     */
+    public ObjectName getObjectName() {
+        return this.objectName;
+    }
+
+    /**
+     * <p>
+     *    Registers the bean in the platform MBean server.
+     * </p>
+     *
+     * @throws JMException If the bean couldn't be registered, e.g. because there is one with the same name already.
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.objectName);
+    }
+
+    /**
+     * <p>
+     *    Removes the bean from the platform MBean server, if it is registered.
+     * </p>
+     */
+    public void unregister() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            if(server.isRegistered(this.objectName)) {
+                server.unregisterMBean(this.objectName);
+            }
+        } catch (JMException e) {
+            // Note: Someone else removed it in the meantime.
+        }
+
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+
+        Number value = this.metrics.get(attribute);
+
+        if(value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        return value;
+
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+
+        AttributeList list = new AttributeList();
+
+        for(String attribute : attributes) {
+            Number value = this.metrics.get(attribute);
+
+            if(!(value == null)) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+
+        return list;
+
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(String.format("The metric %s is read-only.", attribute.getName()));
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+
+        Map<String, Number> values = this.metrics.snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+
+        int index = 0;
+        for(Map.Entry<String, Number> entry : values.entrySet()) {
+            attributes[index++] = new MBeanAttributeInfo(
+                entry.getKey(),
+                entry.getValue().getClass().getName(),
+                entry.getKey(),
+                true,
+                false,
+                false
+            );
+        }
+
+        return new MBeanInfo(
+            MetricsBean.class.getName(),
+            "The metrics of the engine.",
+            attributes,
+            null,
+            null,
+            null
+        );
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("objectName", this.objectName)
+            .build();
+    }
+
+}
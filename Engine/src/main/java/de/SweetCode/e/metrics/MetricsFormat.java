@@ -0,0 +1,25 @@
+package de.SweetCode.e.metrics;
+
+/**
+ * <p>
+ * The formats the {@link MetricsWriter} can write.
+ * </p>
+ */
+public enum MetricsFormat {
+
+    /**
+     * <p>
+     *     Comma separated values, one row per interval with the time in milliseconds as first column. The header is
+     *     written again whenever the set of metrics changes.
+     * </p>
+     */
+    CSV,
+
+    /**
+     * <p>
+     *     The InfluxDB line protocol, one line per interval with all metrics as fields and the time in nanoseconds.
+     * </p>
+     */
+    LINE_PROTOCOL
+
+}
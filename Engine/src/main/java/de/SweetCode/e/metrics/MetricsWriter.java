@@ -0,0 +1,169 @@
+package de.SweetCode.e.metrics;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+import de.SweetCode.e.utils.log.LogEntry;
+import de.SweetCode.e.utils.log.LogPrefixes;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    The MetricsWriter appends a snapshot of the {@link Metrics} to a file every time it runs, so the metrics of headless
+ *    instances can be collected by tools that tail files. The file is opened and closed for every snapshot, so it can be
+ *    rotated or truncated from the outside at any time.
+ * </p>
+ */
+public class MetricsWriter implements Runnable {
+
+    private final Metrics metrics;
+    private final Path path;
+    private final MetricsFormat format;
+    private final String name;
+
+    private List<String> header = null;
+    private boolean failed = false;
+
+    /**
+     * @param metrics The metrics to write.
+     * @param path The file to append to.
+     * @param format The format of the lines.
+     * @param name The name of the instance, written as tag in the line protocol.
+     */
+    public MetricsWriter(Metrics metrics, Path path, MetricsFormat format, String name) {
+
+        Assert.assertNotNull("The metrics cannot be null.", metrics);
+        Assert.assertNotNull("The path cannot be null.", path);
+        Assert.assertNotNull("The format cannot be null.", format);
+        Assert.assertNotNull("The name cannot be null.", name);
+
+        this.metrics = metrics;
+        this.path = path;
+        this.format = format;
+        this.name = name;
+
+    }
+
+    @Override
+    public void run() {
+
+        Map<String, Number> values = this.metrics.snapshot();
+        long now = System.currentTimeMillis();
+
+        try (Writer writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            switch (this.format) {
+
+                case CSV:
+                    this.writeCSV(writer, values, now);
+                    break;
+
+                case LINE_PROTOCOL:
+                    this.writeLineProtocol(writer, values, now);
+                    break;
+
+            }
+
+            this.failed = false;
+
+        } catch (IOException e) {
+
+            // Note: Only logged once, until it works again, otherwise the log gets flooded every interval.
+            if(!(this.failed)) {
+                this.failed = true;
+                E.getE().getLog().log(
+                    LogEntry.Builder.create(MetricsWriter.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("Failed to write the metrics to %s: %s", this.path, e.getMessage())
+                    .build()
+                );
+            }
+
+        }
+
+    }
+
+    private void writeCSV(Writer writer, Map<String, Number> values, long now) throws IOException {
+
+        List<String> names = new ArrayList<>(values.keySet());
+
+        if(!(names.equals(this.header)) || Files.size(this.path) == 0) {
+            this.header = names;
+
+            writer.write("time");
+            for(String name : names) {
+                writer.write(',');
+                writer.write(name);
+            }
+            writer.write('\n');
+        }
+
+        writer.write(Long.toString(now));
+        for(Number value : values.values()) {
+            writer.write(',');
+            writer.write(value.toString());
+        }
+        writer.write('\n');
+
+    }
+
+    private void writeLineProtocol(Writer writer, Map<String, Number> values, long now) throws IOException {
+
+        StringBuilder line = new StringBuilder("e,instance=").append(MetricsWriter.escape(this.name)).append(' ');
+        boolean first = true;
+
+        for(Map.Entry<String, Number> entry : values.entrySet()) {
+
+            Number value = entry.getValue();
+            boolean integer = (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte);
+
+            // Note: The line protocol has no representation for them.
+            if(!(integer) && (Double.isNaN(value.doubleValue()) || Double.isInfinite(value.doubleValue()))) {
+                continue;
+            }
+
+            if(!(first)) {
+                line.append(',');
+            }
+            first = false;
+
+            line.append(MetricsWriter.escape(entry.getKey())).append('=').append(value);
+
+            if(integer) {
+                line.append('i');
+            }
+
+        }
+
+        if(first) {
+            return;
+        }
+
+        line.append(' ').append(TimeUnit.MILLISECONDS.toNanos(now)).append('\n');
+        writer.write(line.toString());
+
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace(",", "\\,").replace("=", "\\=").replace(" ", "\\ ");
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("path", this.path)
+                .append("format", this.format)
+            .build();
+    }
+
+}
@@ -0,0 +1,24 @@
+package de.SweetCode.e.physics;
+
+/**
+ * <p>
+ *    A CollisionListener gets notified by the {@link PhysicsWorld} about every contact after each step.
+ * </p>
+ */
+public interface CollisionListener {
+
+    /**
+     * <p>
+     *    Gets called for every pair of bodies touching each other. The normal points from the first to the second body.
+     *    Bodies must not be created or destroyed by the listener.
+     * </p>
+     *
+     * @param bodyA The handle of the first body.
+     * @param bodyB The handle of the second body.
+     * @param normalX The x component of the contact normal.
+     * @param normalY The y component of the contact normal.
+     * @param depth How deep the bodies penetrated each other, when the contact has been detected.
+     */
+    void collided(int bodyA, int bodyB, double normalX, double normalY, double depth);
+
+}
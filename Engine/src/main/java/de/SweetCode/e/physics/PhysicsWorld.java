@@ -0,0 +1,1487 @@
+package de.SweetCode.e.physics;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.GameComponent;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.Parallel;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *    The PhysicsWorld simulates rigid bodies made of axis-aligned boxes and circles. It is a {@link GameComponent}, so
+ *    after adding it with {@link E#addComponent(GameComponent)} it steps with a fixed timestep on the
+ *    {@link de.SweetCode.e.loop.UpdateLoop}, independent of the tick rate.
+ * </p>
+ * <p>
+ *    Bodies are referenced by int handles and all of their state is stored in primitive arrays, so a step doesn't
+ *    allocate anything once the arrays are large enough, apart from what the core pool needs to queue the helpers when
+ *    islands are solved in parallel. A step goes through the following phases:
+ * </p>
+ * <ul>
+ *     <li>Integrate the forces and the gravity into the velocities of all awake bodies.</li>
+ *     <li>Broadphase: Put the boxes into a spatial hash and test only bodies sharing a cell.</li>
+ *     <li>Narrowphase: Create a contact for every pair of touching boxes and/or circles.</li>
+ *     <li>Group the bodies into islands, bodies that touch each other directly or indirectly. Islands containing an
+ *     awake body wake up all of their bodies.</li>
+ *     <li>Solve every island with sequential impulses, move its bodies and push them out of each other. Islands share
+ *     no dynamic bodies, so they can be solved in parallel on the {@link E#getCoreExecutor() core pool}.</li>
+ *     <li>Put islands to sleep that have been resting long enough. Sleeping islands cost nothing until an awake body
+ *     touches them.</li>
+ * </ul>
+ * <p>
+ *    Bodies don't rotate. A body with a mass of 0 is static and never moves by itself. The world is not thread-safe, it
+ *    is supposed to be used from the update loop.
+ * </p>
+ */
+public class PhysicsWorld implements GameComponent {
+
+    private final static byte SHAPE_BOX = 0;
+    private final static byte SHAPE_CIRCLE = 1;
+
+    //--- Packing of the broadphase entries: 21 bits cell x, 21 bits cell y, 22 bits body
+    private final static int BODY_BITS = 22;
+    private final static int CELL_BITS = 21;
+    private final static int MAX_BODIES = 1 << BODY_BITS;
+    private final static int CELL_OFFSET = 1 << (CELL_BITS - 1);
+    private final static long CELL_MASK = (1L << CELL_BITS) - 1;
+    //---
+
+    //--- Configuration
+    private final double gravityX;
+    private final double gravityY;
+    private final long timestep;
+    private final double dt;
+    private final int maxSubSteps;
+    private final int iterations;
+    private final double cellSize;
+    private final double linearDamping;
+    private final double sleepVelocity;
+    private final double sleepTime;
+    private final double slop;
+    private final double correction;
+    private final boolean parallel;
+    //---
+
+    //--- Bodies
+    private int bodyCapacity;
+    private int bodyCount = 0;
+
+    private double[] x;
+    private double[] y;
+    private double[] previousX;
+    private double[] previousY;
+    private double[] velocityX;
+    private double[] velocityY;
+    private double[] forceX;
+    private double[] forceY;
+    private double[] inverseMass;
+    private double[] halfWidth;
+    private double[] halfHeight;
+    private double[] restitution;
+    private double[] friction;
+    private double[] restingTime;
+    private byte[] shape;
+    private boolean[] alive;
+    private boolean[] sleeping;
+    private BoundingBox[] bound;
+
+    private int[] free;
+    private int freeCount = 0;
+    //---
+
+    //--- Broadphase
+    private long[] cellEntries = new long[256];
+    private int[] cellMinX;
+    private int[] cellMinY;
+    //---
+
+    //--- Contacts
+    private int contactCapacity = 256;
+    private int contactCount = 0;
+
+    private int[] contactA = new int[256];
+    private int[] contactB = new int[256];
+    private double[] contactNormalX = new double[256];
+    private double[] contactNormalY = new double[256];
+    private double[] contactDepth = new double[256];
+    private double[] contactSeparation = new double[256];
+    private double[] contactBias = new double[256];
+    private double[] contactMass = new double[256];
+    private double[] contactFriction = new double[256];
+    private double[] contactNormalImpulse = new double[256];
+    private double[] contactTangentImpulse = new double[256];
+    private int[] contactOrder = new int[256];
+    //---
+
+    //--- Contacts of the last step, looked up by the handles of their bodies to warm start the solver
+    private int previousCount = 0;
+    private long[] previousKeys = new long[256];
+    private double[] previousNormalX = new double[256];
+    private double[] previousNormalY = new double[256];
+    private double[] previousNormalImpulse = new double[256];
+    private double[] previousTangentImpulse = new double[256];
+    private long[] previousTableKeys = new long[512];
+    private int[] previousTable = new int[512];
+    //---
+
+    //--- Islands
+    private int islandCount = 0;
+    private int[] parent;
+    private int[] bodyIsland;
+    private int[] rootIsland;
+    private boolean[] rootAwake;
+    private int[] islandBodyStart;
+    private int[] islandBodies;
+    private int[] islandContactStart;
+    //---
+
+    private final Parallel.Task solveIslands = Parallel.task(this::solveIsland);
+
+    private CollisionListener collisionListener = null;
+    private long accumulator = 0;
+    private boolean active = true;
+
+    private PhysicsWorld(Builder builder) {
+
+        this.gravityX = builder.gravityX;
+        this.gravityY = builder.gravityY;
+        this.timestep = builder.timestep;
+        this.dt = builder.timestep / (double) TimeUnit.SECONDS.toNanos(1);
+        this.maxSubSteps = builder.maxSubSteps;
+        this.iterations = builder.iterations;
+        this.cellSize = builder.cellSize;
+        this.linearDamping = builder.linearDamping;
+        this.sleepVelocity = builder.sleepVelocity;
+        this.sleepTime = builder.sleepTime;
+        this.slop = builder.slop;
+        this.correction = builder.correction;
+        this.parallel = builder.parallel;
+
+        this.allocateBodies(builder.capacity);
+
+    }
+
+    //--- Bodies
+    /**
+     * <p>
+     *    Creates a new box.
+     * </p>
+     *
+     * @param x The x coordinate of the center.
+     * @param y The y coordinate of the center.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     * @param mass The mass of the box, 0 creates a static box.
+     * @return The handle of the body.
+     */
+    public int createBox(double x, double y, double width, double height, double mass) {
+
+        Assert.assertTrue("The width and height have to be greater than 0.", width > 0 && height > 0);
+
+        return this.create(SHAPE_BOX, x, y, width / 2D, height / 2D, mass);
+
+    }
+
+    /**
+     * <p>
+     *    Creates a new circle.
+     * </p>
+     *
+     * @param x The x coordinate of the center.
+     * @param y The y coordinate of the center.
+     * @param radius The radius of the circle.
+     * @param mass The mass of the circle, 0 creates a static circle.
+     * @return The handle of the body.
+     */
+    public int createCircle(double x, double y, double radius, double mass) {
+
+        Assert.assertTrue("The radius has to be greater than 0.", radius > 0);
+
+        return this.create(SHAPE_CIRCLE, x, y, radius, radius, mass);
+
+    }
+
+    /**
+     * <p>
+     *    Destroys the body. The handle might be reused by bodies created later.
+     * </p>
+     *
+     * @param body The handle of the body.
+     */
+    public void destroy(int body) {
+
+        this.assertAlive(body);
+
+        this.alive[body] = false;
+        this.bound[body] = null;
+        this.free[this.freeCount++] = body;
+
+        this.forgetContacts(body);
+
+    }
+
+    /**
+     * <p>
+     *    Binds a {@link BoundingBox} to the body. The center of the box is set to the center of the body after every
+     *    step the body moved in, so e.g. the {@link de.SweetCode.e.entity.Entity} owning the box and the
+     *    {@link E#getEntities() spatial index} follow the body.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param boundingBox The box to move, or null to remove the binding.
+     */
+    public void bind(int body, BoundingBox boundingBox) {
+
+        this.assertAlive(body);
+
+        this.bound[body] = boundingBox;
+
+        if(!(boundingBox == null)) {
+            boundingBox.setCenter(this.x[body], this.y[body]);
+        }
+
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return True, if the handle belongs to a body that hasn't been destroyed, otherwise false.
+     */
+    public boolean isAlive(int body) {
+        return (body >= 0 && body < this.bodyCount && this.alive[body]);
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return The x coordinate of the center of the body.
+     */
+    public double getX(int body) {
+        return this.x[body];
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return The y coordinate of the center of the body.
+     */
+    public double getY(int body) {
+        return this.y[body];
+    }
+
+    /**
+     * <p>
+     *    Gives the x coordinate of the body interpolated between the last two steps by the time that has passed since
+     *    the last step, so bodies move smoothly even if the tick rate doesn't match the timestep.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @return The interpolated x coordinate of the center of the body.
+     */
+    public double getInterpolatedX(int body) {
+        return this.previousX[body] + (this.x[body] - this.previousX[body]) * this.getAlpha();
+    }
+
+    /**
+     * <p>
+     *    Gives the y coordinate of the body interpolated between the last two steps, see {@link PhysicsWorld#getInterpolatedX(int)}.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @return The interpolated y coordinate of the center of the body.
+     */
+    public double getInterpolatedY(int body) {
+        return this.previousY[body] + (this.y[body] - this.previousY[body]) * this.getAlpha();
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return The velocity of the body on the x axis in units/second.
+     */
+    public double getVelocityX(int body) {
+        return this.velocityX[body];
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return The velocity of the body on the y axis in units/second.
+     */
+    public double getVelocityY(int body) {
+        return this.velocityY[body];
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return True, if the body has a mass of 0, otherwise false.
+     */
+    public boolean isStatic(int body) {
+        return (this.inverseMass[body] == 0);
+    }
+
+    /**
+     * @param body The handle of the body.
+     * @return True, if the body is sleeping, otherwise false.
+     */
+    public boolean isSleeping(int body) {
+        return this.sleeping[body];
+    }
+
+    /**
+     * <p>
+     *    Moves the body to the location and wakes it up.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param x The x coordinate of the new center.
+     * @param y The y coordinate of the new center.
+     */
+    public void setPosition(int body, double x, double y) {
+
+        this.assertAlive(body);
+
+        this.x[body] = x;
+        this.y[body] = y;
+        this.previousX[body] = x;
+        this.previousY[body] = y;
+        this.wake(body);
+
+    }
+
+    /**
+     * <p>
+     *    Sets the velocity of the body and wakes it up.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param velocityX The velocity on the x axis in units/second.
+     * @param velocityY The velocity on the y axis in units/second.
+     */
+    public void setVelocity(int body, double velocityX, double velocityY) {
+
+        this.assertAlive(body);
+
+        if(this.inverseMass[body] > 0) {
+            this.velocityX[body] = velocityX;
+            this.velocityY[body] = velocityY;
+            this.wake(body);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Changes the velocity of the body immediately by impulse / mass and wakes it up.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param impulseX The impulse on the x axis.
+     * @param impulseY The impulse on the y axis.
+     */
+    public void applyImpulse(int body, double impulseX, double impulseY) {
+
+        this.assertAlive(body);
+
+        if(this.inverseMass[body] > 0) {
+            this.velocityX[body] += impulseX * this.inverseMass[body];
+            this.velocityY[body] += impulseY * this.inverseMass[body];
+            this.wake(body);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Applies a force to the body during the next step and wakes it up.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param forceX The force on the x axis.
+     * @param forceY The force on the y axis.
+     */
+    public void applyForce(int body, double forceX, double forceY) {
+
+        this.assertAlive(body);
+
+        if(this.inverseMass[body] > 0) {
+            this.forceX[body] += forceX;
+            this.forceY[body] += forceY;
+            this.wake(body);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Sets the material of the body. For a contact the higher restitution and the geometric mean of the friction
+     *    of both bodies is used.
+     * </p>
+     *
+     * @param body The handle of the body.
+     * @param restitution How bouncy the body is, 0 doesn't bounce at all, 1 bounces back with the same velocity.
+     * @param friction The friction coefficient of the body.
+     */
+    public void setMaterial(int body, double restitution, double friction) {
+
+        this.assertAlive(body);
+        Assert.assertTrue("The restitution and friction cannot be negative.", restitution >= 0 && friction >= 0);
+
+        this.restitution[body] = restitution;
+        this.friction[body] = friction;
+
+    }
+
+    /**
+     * <p>
+     *    Wakes the body up.
+     * </p>
+     *
+     * @param body The handle of the body.
+     */
+    public void wake(int body) {
+        this.sleeping[body] = false;
+        this.restingTime[body] = 0;
+    }
+    //---
+
+    /**
+     * @param collisionListener The listener to notify about contacts, or null.
+     */
+    public void setCollisionListener(CollisionListener collisionListener) {
+        this.collisionListener = collisionListener;
+    }
+
+    /**
+     * @param active If false, the world doesn't step when the update loop calls it.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * @return The amount of time that passed since the last step as fraction of the timestep in [0, 1).
+     */
+    public double getAlpha() {
+        return this.accumulator / (double) this.timestep;
+    }
+
+    /**
+     * @return The amount of contacts found by the last step.
+     */
+    public int getContactCount() {
+        return this.contactCount;
+    }
+
+    /**
+     * @return The amount of awake islands solved by the last step.
+     */
+    public int getIslandCount() {
+        return this.islandCount;
+    }
+
+    @Override
+    public void update(InputEntry inputEntry, long delta) {
+
+        this.accumulator += E.getE().getSettings().getDeltaUnit().toNanos(delta);
+
+        int steps = 0;
+        while (this.accumulator >= this.timestep && steps < this.maxSubSteps) {
+            this.step();
+            this.accumulator -= this.timestep;
+            steps++;
+        }
+
+        // Note: If we couldn't catch up, we drop the time instead of trying to catch up in the next ticks which would
+        // only make things worse.
+        if(this.accumulator >= this.timestep) {
+            this.accumulator %= this.timestep;
+        }
+
+    }
+
+    @Override
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * <p>
+     *    Advances the simulation by one timestep. This is called by {@link PhysicsWorld#update(InputEntry, long)}, but
+     *    it can also be called directly to drive the world manually.
+     * </p>
+     */
+    public void step() {
+
+        //--- Forces
+        for(int body = 0; body < this.bodyCount; body++) {
+
+            if(!(this.alive[body])) {
+                continue;
+            }
+
+            this.previousX[body] = this.x[body];
+            this.previousY[body] = this.y[body];
+
+            if(this.inverseMass[body] > 0 && !(this.sleeping[body])) {
+
+                double damping = 1D / (1D + this.dt * this.linearDamping);
+                this.velocityX[body] = (this.velocityX[body] + (this.gravityX + this.forceX[body] * this.inverseMass[body]) * this.dt) * damping;
+                this.velocityY[body] = (this.velocityY[body] + (this.gravityY + this.forceY[body] * this.inverseMass[body]) * this.dt) * damping;
+
+            }
+
+            this.forceX[body] = 0;
+            this.forceY[body] = 0;
+
+        }
+        //---
+
+        this.broadphase();
+        this.buildIslands();
+
+        //--- Solve
+        Executor executor = (this.parallel && this.islandCount > 1 ? E.getE().getCoreExecutor() : null);
+        this.solveIslands.run(executor, this.islandCount, 16);
+
+        this.storeContacts();
+        //---
+
+        //--- Bound boxes & listener
+        for(int body = 0; body < this.bodyCount; body++) {
+
+            BoundingBox boundingBox = this.bound[body];
+
+            if(!(boundingBox == null) && !(this.x[body] == this.previousX[body] && this.y[body] == this.previousY[body])) {
+                boundingBox.setCenter(this.x[body], this.y[body]);
+            }
+
+        }
+
+        if(!(this.collisionListener == null)) {
+            for(int contact = 0; contact < this.contactCount; contact++) {
+                this.collisionListener.collided(
+                    this.contactA[contact], this.contactB[contact],
+                    this.contactNormalX[contact], this.contactNormalY[contact],
+                    this.contactDepth[contact]
+                );
+            }
+        }
+        //---
+
+    }
+
+    //--- Broadphase & Narrowphase
+    private void broadphase() {
+
+        this.contactCount = 0;
+        int entries = 0;
+
+        for(int body = 0; body < this.bodyCount; body++) {
+
+            if(!(this.alive[body])) {
+                continue;
+            }
+
+            int minX = this.cell(this.x[body] - this.halfWidth[body]);
+            int minY = this.cell(this.y[body] - this.halfHeight[body]);
+            int maxX = this.cell(this.x[body] + this.halfWidth[body]);
+            int maxY = this.cell(this.y[body] + this.halfHeight[body]);
+
+            this.cellMinX[body] = minX;
+            this.cellMinY[body] = minY;
+
+            int required = entries + (maxX - minX + 1) * (maxY - minY + 1);
+            if(required > this.cellEntries.length) {
+                this.cellEntries = Arrays.copyOf(this.cellEntries, Math.max(required, this.cellEntries.length * 2));
+            }
+
+            for(int cx = minX; cx <= maxX; cx++) {
+                for(int cy = minY; cy <= maxY; cy++) {
+                    this.cellEntries[entries++] = ((long) cx << (CELL_BITS + BODY_BITS)) | ((long) cy << BODY_BITS) | body;
+                }
+            }
+
+        }
+
+        // Note: Sorting puts all bodies of the same cell next to each other, ordered by their handle, so the contacts
+        // are always created in the same order.
+        Arrays.sort(this.cellEntries, 0, entries);
+
+        int start = 0;
+        while (start < entries) {
+
+            long cell = this.cellEntries[start] >>> BODY_BITS;
+            int end = start + 1;
+
+            while (end < entries && (this.cellEntries[end] >>> BODY_BITS) == cell) {
+                end++;
+            }
+
+            if(end - start > 1) {
+
+                int cx = (int) (cell >>> CELL_BITS);
+                int cy = (int) (cell & CELL_MASK);
+
+                for(int i = start; i < end; i++) {
+
+                    int a = (int) (this.cellEntries[i] & (MAX_BODIES - 1));
+                    boolean awakeA = (this.inverseMass[a] > 0 && !(this.sleeping[a]));
+
+                    for(int j = i + 1; j < end; j++) {
+
+                        int b = (int) (this.cellEntries[j] & (MAX_BODIES - 1));
+
+                        if(!(awakeA || (this.inverseMass[b] > 0 && !(this.sleeping[b])))) {
+                            continue;
+                        }
+
+                        // Note: Bodies sharing several cells are only tested in the first cell they share.
+                        if(!(Math.max(this.cellMinX[a], this.cellMinX[b]) == cx && Math.max(this.cellMinY[a], this.cellMinY[b]) == cy)) {
+                            continue;
+                        }
+
+                        this.narrowphase(a, b);
+
+                    }
+
+                }
+
+            }
+
+            start = end;
+
+        }
+
+    }
+
+    private void narrowphase(int a, int b) {
+
+        double dx = this.x[b] - this.x[a];
+        double dy = this.y[b] - this.y[a];
+
+        double overlapX = this.halfWidth[a] + this.halfWidth[b] - Math.abs(dx);
+        double overlapY = this.halfHeight[a] + this.halfHeight[b] - Math.abs(dy);
+
+        if(overlapX <= 0 || overlapY <= 0) {
+            return;
+        }
+
+        byte shapeA = this.shape[a];
+        byte shapeB = this.shape[b];
+
+        if(shapeA == SHAPE_BOX && shapeB == SHAPE_BOX) {
+
+            if(overlapX < overlapY) {
+                this.addContact(a, b, (dx < 0 ? -1 : 1), 0, overlapX);
+            } else {
+                this.addContact(a, b, 0, (dy < 0 ? -1 : 1), overlapY);
+            }
+
+        } else if(shapeA == SHAPE_CIRCLE && shapeB == SHAPE_CIRCLE) {
+
+            double radii = this.halfWidth[a] + this.halfWidth[b];
+            double distanceSquared = dx * dx + dy * dy;
+
+            if(distanceSquared >= radii * radii) {
+                return;
+            }
+
+            double distance = Math.sqrt(distanceSquared);
+
+            if(distance == 0) {
+                this.addContact(a, b, 0, 1, radii);
+            } else {
+                this.addContact(a, b, dx / distance, dy / distance, radii - distance);
+            }
+
+        } else if(shapeA == SHAPE_BOX) {
+            this.boxCircle(a, b, 1);
+        } else {
+            this.boxCircle(b, a, -1);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Tests a box against a circle, the sign flips the normal if the circle is the first body of the contact.
+     * </p>
+     */
+    private void boxCircle(int box, int circle, int sign) {
+
+        double dx = this.x[circle] - this.x[box];
+        double dy = this.y[circle] - this.y[box];
+        double halfWidth = this.halfWidth[box];
+        double halfHeight = this.halfHeight[box];
+        double radius = this.halfWidth[circle];
+
+        double closestX = Math.max(-halfWidth, Math.min(dx, halfWidth));
+        double closestY = Math.max(-halfHeight, Math.min(dy, halfHeight));
+
+        double normalX;
+        double normalY;
+        double depth;
+
+        if(closestX == dx && closestY == dy) {
+
+            //--- The center of the circle is inside of the box, so we push it out along the closest side
+            double overlapX = halfWidth - Math.abs(dx);
+            double overlapY = halfHeight - Math.abs(dy);
+
+            if(overlapX < overlapY) {
+                normalX = (dx < 0 ? -1 : 1);
+                normalY = 0;
+                depth = overlapX + radius;
+            } else {
+                normalX = 0;
+                normalY = (dy < 0 ? -1 : 1);
+                depth = overlapY + radius;
+            }
+            //---
+
+        } else {
+
+            double distanceX = dx - closestX;
+            double distanceY = dy - closestY;
+            double distanceSquared = distanceX * distanceX + distanceY * distanceY;
+
+            if(distanceSquared >= radius * radius) {
+                return;
+            }
+
+            double distance = Math.sqrt(distanceSquared);
+            normalX = distanceX / distance;
+            normalY = distanceY / distance;
+            depth = radius - distance;
+
+        }
+
+        if(sign > 0) {
+            this.addContact(box, circle, normalX, normalY, depth);
+        } else {
+            this.addContact(circle, box, -normalX, -normalY, depth);
+        }
+
+    }
+
+    private void addContact(int a, int b, double normalX, double normalY, double depth) {
+
+        if(this.contactCount == this.contactCapacity) {
+            this.allocateContacts(this.contactCapacity * 2);
+        }
+
+        int contact = this.contactCount++;
+        this.contactA[contact] = a;
+        this.contactB[contact] = b;
+        this.contactNormalX[contact] = normalX;
+        this.contactNormalY[contact] = normalY;
+        this.contactDepth[contact] = depth;
+
+        // Note: depth + distance along the normal stays constant while the bodies move, so the solver can compute the
+        // current depth from the positions.
+        this.contactSeparation[contact] = depth + (this.x[b] - this.x[a]) * normalX + (this.y[b] - this.y[a]) * normalY;
+
+    }
+    //---
+
+    //--- Islands
+    private void buildIslands() {
+
+        int bodies = this.bodyCount;
+
+        for(int body = 0; body < bodies; body++) {
+            this.parent[body] = body;
+            this.rootIsland[body] = -1;
+            this.rootAwake[body] = false;
+            this.bodyIsland[body] = -1;
+        }
+
+        //--- Static bodies don't connect islands, since the solver never changes them
+        for(int contact = 0; contact < this.contactCount; contact++) {
+
+            int a = this.contactA[contact];
+            int b = this.contactB[contact];
+
+            if(this.inverseMass[a] > 0 && this.inverseMass[b] > 0) {
+                this.union(a, b);
+            }
+
+        }
+        //---
+
+        for(int body = 0; body < bodies; body++) {
+            if(this.alive[body] && this.inverseMass[body] > 0 && !(this.sleeping[body])) {
+                this.rootAwake[this.find(body)] = true;
+            }
+        }
+
+        //--- Count the bodies of every awake island
+        this.islandCount = 0;
+
+        for(int body = 0; body < bodies; body++) {
+
+            if(!(this.alive[body] && this.inverseMass[body] > 0)) {
+                continue;
+            }
+
+            int root = this.find(body);
+
+            if(!(this.rootAwake[root])) {
+                continue;
+            }
+
+            if(this.rootIsland[root] == -1) {
+                this.rootIsland[root] = this.islandCount;
+                this.islandBodyStart[this.islandCount] = 0;
+                this.islandContactStart[this.islandCount] = 0;
+                this.islandCount++;
+            }
+
+            int island = this.rootIsland[root];
+            this.bodyIsland[body] = island;
+            this.islandBodyStart[island]++;
+
+            // Note: A sleeping body touched by an awake island wakes up.
+            if(this.sleeping[body]) {
+                this.wake(body);
+            }
+
+        }
+        //---
+
+        //--- Group bodies and contacts by island with a counting sort
+        for(int contact = 0; contact < this.contactCount; contact++) {
+            int a = this.contactA[contact];
+            int island = this.bodyIsland[(this.inverseMass[a] > 0 ? a : this.contactB[contact])];
+            this.islandContactStart[island]++;
+        }
+
+        PhysicsWorld.prefixSum(this.islandBodyStart, this.islandCount);
+        PhysicsWorld.prefixSum(this.islandContactStart, this.islandCount);
+
+        for(int body = bodies - 1; body >= 0; body--) {
+            int island = this.bodyIsland[body];
+            if(island >= 0) {
+                this.islandBodies[--this.islandBodyStart[island]] = body;
+            }
+        }
+
+        for(int contact = this.contactCount - 1; contact >= 0; contact--) {
+            int a = this.contactA[contact];
+            int island = this.bodyIsland[(this.inverseMass[a] > 0 ? a : this.contactB[contact])];
+            this.contactOrder[--this.islandContactStart[island]] = contact;
+        }
+        //---
+
+    }
+
+    /**
+     * <p>
+     *    Turns the counts at [group] into the end offsets of the groups. Walking the elements backwards and decrementing
+     *    the offset of their group leaves the start of every group at [group] and its end at [group + 1].
+     * </p>
+     */
+    private static void prefixSum(int[] offsets, int count) {
+
+        int sum = 0;
+        for(int i = 0; i < count; i++) {
+            sum += offsets[i];
+            offsets[i] = sum;
+        }
+
+        offsets[count] = sum;
+
+    }
+
+    private int find(int body) {
+
+        while (!(this.parent[body] == body)) {
+            this.parent[body] = this.parent[this.parent[body]];
+            body = this.parent[body];
+        }
+
+        return body;
+
+    }
+
+    private void union(int a, int b) {
+
+        int rootA = this.find(a);
+        int rootB = this.find(b);
+
+        if(rootA < rootB) {
+            this.parent[rootB] = rootA;
+        } else if(rootB < rootA) {
+            this.parent[rootA] = rootB;
+        }
+
+    }
+    //---
+
+    //--- Solver
+    private void solveIsland(int island) {
+
+        int contactFrom = this.islandContactStart[island];
+        int contactTo = this.islandContactStart[island + 1];
+        int bodyFrom = this.islandBodyStart[island];
+        int bodyTo = this.islandBodyStart[island + 1];
+
+        //--- Prepare the contacts
+        for(int i = contactFrom; i < contactTo; i++) {
+
+            int contact = this.contactOrder[i];
+            int a = this.contactA[contact];
+            int b = this.contactB[contact];
+
+            double normalVelocity = (this.velocityX[b] - this.velocityX[a]) * this.contactNormalX[contact] +
+                                    (this.velocityY[b] - this.velocityY[a]) * this.contactNormalY[contact];
+
+            // Note: Only bounce if the bodies hit each other fast enough, otherwise resting bodies would jitter.
+            double bounce = Math.max(this.restitution[a], this.restitution[b]);
+            this.contactBias[contact] = (normalVelocity < -this.sleepVelocity * 2 ? -bounce * normalVelocity : 0);
+            this.contactMass[contact] = 1D / (this.inverseMass[a] + this.inverseMass[b]);
+            this.contactFriction[contact] = Math.sqrt(this.friction[a] * this.friction[b]);
+
+            //--- Warm start with the impulses of the same contact in the last step
+            int previous = this.findPreviousContact(a, b);
+
+            // Note: The impulses are only reused, if the normal barely changed since the last step.
+            if(previous >= 0 && (this.contactNormalX[contact] * this.previousNormalX[previous] + this.contactNormalY[contact] * this.previousNormalY[previous]) > 0.95) {
+
+                double normalImpulse = this.previousNormalImpulse[previous];
+                double tangentImpulse = this.previousTangentImpulse[previous];
+
+                this.contactNormalImpulse[contact] = normalImpulse;
+                this.contactTangentImpulse[contact] = tangentImpulse;
+
+                this.applyVelocity(
+                    a, b,
+                    this.contactNormalX[contact] * normalImpulse - this.contactNormalY[contact] * tangentImpulse,
+                    this.contactNormalY[contact] * normalImpulse + this.contactNormalX[contact] * tangentImpulse
+                );
+
+            } else {
+                this.contactNormalImpulse[contact] = 0;
+                this.contactTangentImpulse[contact] = 0;
+            }
+            //---
+
+        }
+        //---
+
+        //--- Sequential impulses
+        for(int iteration = 0; iteration < this.iterations; iteration++) {
+            for(int i = contactFrom; i < contactTo; i++) {
+
+                int contact = this.contactOrder[i];
+                int a = this.contactA[contact];
+                int b = this.contactB[contact];
+
+                double mass = this.contactMass[contact];
+
+                double normalX = this.contactNormalX[contact];
+                double normalY = this.contactNormalY[contact];
+
+                double relativeX = this.velocityX[b] - this.velocityX[a];
+                double relativeY = this.velocityY[b] - this.velocityY[a];
+
+                //--- Normal impulse, the accumulated impulse cannot pull the bodies together
+                double normalVelocity = relativeX * normalX + relativeY * normalY;
+                double accumulated = this.contactNormalImpulse[contact];
+                double normalImpulse = Math.max(accumulated + (this.contactBias[contact] - normalVelocity) * mass, 0);
+                double impulse = normalImpulse - accumulated;
+                this.contactNormalImpulse[contact] = normalImpulse;
+
+                this.applyVelocity(a, b, normalX * impulse, normalY * impulse);
+                //---
+
+                //--- Friction impulse along the tangent, limited by the normal impulse
+                relativeX = this.velocityX[b] - this.velocityX[a];
+                relativeY = this.velocityY[b] - this.velocityY[a];
+
+                double tangentX = -normalY;
+                double tangentY = normalX;
+                double limit = this.contactFriction[contact] * normalImpulse;
+
+                accumulated = this.contactTangentImpulse[contact];
+                double tangentImpulse = Math.max(-limit, Math.min(accumulated - (relativeX * tangentX + relativeY * tangentY) * mass, limit));
+                impulse = tangentImpulse - accumulated;
+                this.contactTangentImpulse[contact] = tangentImpulse;
+
+                this.applyVelocity(a, b, tangentX * impulse, tangentY * impulse);
+                //---
+
+            }
+        }
+        //---
+
+        //--- Integrate the positions
+        for(int i = bodyFrom; i < bodyTo; i++) {
+            int body = this.islandBodies[i];
+            this.x[body] += this.velocityX[body] * this.dt;
+            this.y[body] += this.velocityY[body] * this.dt;
+        }
+        //---
+
+        //--- Push the bodies out of each other, the depth is recomputed from the current positions every iteration
+        for(int iteration = 0; iteration < this.iterations; iteration++) {
+            for(int i = contactFrom; i < contactTo; i++) {
+
+                int contact = this.contactOrder[i];
+                int a = this.contactA[contact];
+                int b = this.contactB[contact];
+
+                double normalX = this.contactNormalX[contact];
+                double normalY = this.contactNormalY[contact];
+
+                double depth = this.contactSeparation[contact] - ((this.x[b] - this.x[a]) * normalX + (this.y[b] - this.y[a]) * normalY);
+                double inverseMassA = this.inverseMass[a];
+                double inverseMassB = this.inverseMass[b];
+
+                double amount = Math.max(depth - this.slop, 0) * this.correction * this.contactMass[contact];
+
+                if(amount > 0) {
+
+                    if(inverseMassA > 0) {
+                        this.x[a] -= normalX * amount * inverseMassA;
+                        this.y[a] -= normalY * amount * inverseMassA;
+                    }
+
+                    if(inverseMassB > 0) {
+                        this.x[b] += normalX * amount * inverseMassB;
+                        this.y[b] += normalY * amount * inverseMassB;
+                    }
+
+                }
+
+            }
+        }
+        //---
+
+        //--- Sleep, if the whole island has been resting long enough
+        double resting = Double.MAX_VALUE;
+        double limit = this.sleepVelocity * this.sleepVelocity;
+
+        for(int i = bodyFrom; i < bodyTo; i++) {
+
+            int body = this.islandBodies[i];
+            double speed = this.velocityX[body] * this.velocityX[body] + this.velocityY[body] * this.velocityY[body];
+
+            this.restingTime[body] = (speed > limit ? 0 : this.restingTime[body] + this.dt);
+            resting = Math.min(resting, this.restingTime[body]);
+
+        }
+
+        if(resting >= this.sleepTime) {
+            for(int i = bodyFrom; i < bodyTo; i++) {
+                int body = this.islandBodies[i];
+                this.sleeping[body] = true;
+                this.velocityX[body] = 0;
+                this.velocityY[body] = 0;
+            }
+        }
+        //---
+
+    }
+
+    /**
+     * <p>
+     *    Remembers the contacts and their impulses of this step, so the solver can start with them in the next step.
+     * </p>
+     */
+    private void storeContacts() {
+
+        if(this.contactCount > this.previousKeys.length) {
+            int capacity = this.contactCapacity;
+            this.previousKeys = new long[capacity];
+            this.previousNormalX = new double[capacity];
+            this.previousNormalY = new double[capacity];
+            this.previousNormalImpulse = new double[capacity];
+            this.previousTangentImpulse = new double[capacity];
+        }
+
+        int tableSize = Math.max(512, Integer.highestOneBit(Math.max(1, this.contactCount)) << 2);
+        if(!(this.previousTable.length == tableSize)) {
+            this.previousTableKeys = new long[tableSize];
+            this.previousTable = new int[tableSize];
+        }
+        Arrays.fill(this.previousTable, -1);
+
+        int mask = tableSize - 1;
+
+        for(int contact = 0; contact < this.contactCount; contact++) {
+
+            long key = PhysicsWorld.key(this.contactA[contact], this.contactB[contact]);
+
+            this.previousKeys[contact] = key;
+            this.previousNormalX[contact] = this.contactNormalX[contact];
+            this.previousNormalY[contact] = this.contactNormalY[contact];
+            this.previousNormalImpulse[contact] = this.contactNormalImpulse[contact];
+            this.previousTangentImpulse[contact] = this.contactTangentImpulse[contact];
+
+            int index = PhysicsWorld.hash(key) & mask;
+            while (!(this.previousTable[index] == -1)) {
+                index = (index + 1) & mask;
+            }
+
+            this.previousTableKeys[index] = key;
+            this.previousTable[index] = contact;
+
+        }
+
+        this.previousCount = this.contactCount;
+
+    }
+
+    /**
+     * <p>
+     *    Removes the contacts of the last step the body was part of, so a body reusing its handle doesn't get warm
+     *    started with them.
+     * </p>
+     */
+    private void forgetContacts(int body) {
+
+        if(this.previousCount == 0) {
+            return;
+        }
+
+        // Note: The slots are kept as tombstones with a key no contact has, so the probing of the other keys still works.
+        for(int index = 0; index < this.previousTable.length; index++) {
+
+            if(this.previousTable[index] == -1) {
+                continue;
+            }
+
+            long key = this.previousTableKeys[index];
+
+            if((int) (key >>> 32) == body || (int) key == body) {
+                this.previousTableKeys[index] = PhysicsWorld.key(-1, -1);
+            }
+
+        }
+
+    }
+
+    private int findPreviousContact(int a, int b) {
+
+        if(this.previousCount == 0) {
+            return -1;
+        }
+
+        long key = PhysicsWorld.key(a, b);
+        int mask = this.previousTable.length - 1;
+        int index = PhysicsWorld.hash(key) & mask;
+
+        while (!(this.previousTable[index] == -1)) {
+            if(this.previousTableKeys[index] == key) {
+                return this.previousTable[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+
+    }
+
+    private static long key(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * <p>
+     *    Applies the impulse to b and the opposite impulse to a. Static bodies are never written, because several
+     *    islands might touch them at the same time.
+     * </p>
+     */
+    private void applyVelocity(int a, int b, double impulseX, double impulseY) {
+
+        if(this.inverseMass[a] > 0) {
+            this.velocityX[a] -= impulseX * this.inverseMass[a];
+            this.velocityY[a] -= impulseY * this.inverseMass[a];
+        }
+
+        if(this.inverseMass[b] > 0) {
+            this.velocityX[b] += impulseX * this.inverseMass[b];
+            this.velocityY[b] += impulseY * this.inverseMass[b];
+        }
+
+    }
+    //---
+
+    //--- Memory
+    private int create(byte shape, double x, double y, double halfWidth, double halfHeight, double mass) {
+
+        Assert.assertTrue("The mass cannot be negative.", mass >= 0);
+
+        int body;
+
+        if(this.freeCount > 0) {
+            body = this.free[--this.freeCount];
+        } else {
+
+            Assert.assertTrue("The world cannot have more than " + MAX_BODIES + " bodies.", this.bodyCount < MAX_BODIES);
+
+            if(this.bodyCount == this.bodyCapacity) {
+                this.allocateBodies(Math.min(this.bodyCapacity * 2, MAX_BODIES));
+            }
+
+            body = this.bodyCount++;
+
+        }
+
+        this.shape[body] = shape;
+        this.x[body] = x;
+        this.y[body] = y;
+        this.previousX[body] = x;
+        this.previousY[body] = y;
+        this.velocityX[body] = 0;
+        this.velocityY[body] = 0;
+        this.forceX[body] = 0;
+        this.forceY[body] = 0;
+        this.halfWidth[body] = halfWidth;
+        this.halfHeight[body] = halfHeight;
+        this.inverseMass[body] = (mass == 0 ? 0 : 1D / mass);
+        this.restitution[body] = 0;
+        this.friction[body] = 0.4;
+        this.restingTime[body] = 0;
+        this.sleeping[body] = false;
+        this.bound[body] = null;
+        this.alive[body] = true;
+
+        return body;
+
+    }
+
+    private void allocateBodies(int capacity) {
+
+        this.bodyCapacity = capacity;
+
+        this.x = PhysicsWorld.grow(this.x, capacity);
+        this.y = PhysicsWorld.grow(this.y, capacity);
+        this.previousX = PhysicsWorld.grow(this.previousX, capacity);
+        this.previousY = PhysicsWorld.grow(this.previousY, capacity);
+        this.velocityX = PhysicsWorld.grow(this.velocityX, capacity);
+        this.velocityY = PhysicsWorld.grow(this.velocityY, capacity);
+        this.forceX = PhysicsWorld.grow(this.forceX, capacity);
+        this.forceY = PhysicsWorld.grow(this.forceY, capacity);
+        this.inverseMass = PhysicsWorld.grow(this.inverseMass, capacity);
+        this.halfWidth = PhysicsWorld.grow(this.halfWidth, capacity);
+        this.halfHeight = PhysicsWorld.grow(this.halfHeight, capacity);
+        this.restitution = PhysicsWorld.grow(this.restitution, capacity);
+        this.friction = PhysicsWorld.grow(this.friction, capacity);
+        this.restingTime = PhysicsWorld.grow(this.restingTime, capacity);
+
+        this.shape = (this.shape == null ? new byte[capacity] : Arrays.copyOf(this.shape, capacity));
+        this.alive = (this.alive == null ? new boolean[capacity] : Arrays.copyOf(this.alive, capacity));
+        this.sleeping = (this.sleeping == null ? new boolean[capacity] : Arrays.copyOf(this.sleeping, capacity));
+        this.bound = (this.bound == null ? new BoundingBox[capacity] : Arrays.copyOf(this.bound, capacity));
+        this.free = (this.free == null ? new int[capacity] : Arrays.copyOf(this.free, capacity));
+
+        //--- Scratch arrays, their content doesn't survive a step
+        this.cellMinX = new int[capacity];
+        this.cellMinY = new int[capacity];
+        this.parent = new int[capacity];
+        this.bodyIsland = new int[capacity];
+        this.rootIsland = new int[capacity];
+        this.rootAwake = new boolean[capacity];
+        this.islandBodyStart = new int[capacity + 1];
+        this.islandBodies = new int[capacity];
+        this.islandContactStart = new int[capacity + 1];
+        //---
+
+    }
+
+    private void allocateContacts(int capacity) {
+
+        this.contactCapacity = capacity;
+
+        this.contactA = Arrays.copyOf(this.contactA, capacity);
+        this.contactB = Arrays.copyOf(this.contactB, capacity);
+        this.contactNormalX = Arrays.copyOf(this.contactNormalX, capacity);
+        this.contactNormalY = Arrays.copyOf(this.contactNormalY, capacity);
+        this.contactDepth = Arrays.copyOf(this.contactDepth, capacity);
+        this.contactSeparation = Arrays.copyOf(this.contactSeparation, capacity);
+        this.contactBias = Arrays.copyOf(this.contactBias, capacity);
+        this.contactMass = Arrays.copyOf(this.contactMass, capacity);
+        this.contactFriction = Arrays.copyOf(this.contactFriction, capacity);
+        this.contactNormalImpulse = Arrays.copyOf(this.contactNormalImpulse, capacity);
+        this.contactTangentImpulse = Arrays.copyOf(this.contactTangentImpulse, capacity);
+        this.contactOrder = Arrays.copyOf(this.contactOrder, capacity);
+
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return (array == null ? new double[capacity] : Arrays.copyOf(array, capacity));
+    }
+    //---
+
+    private int cell(double value) {
+        long cell = (long) Math.floor(value / this.cellSize) + CELL_OFFSET;
+        return (int) Math.max(0, Math.min(cell, CELL_MASK));
+    }
+
+    private void assertAlive(int body) {
+        Assert.assertTrue("The body doesn't exist.", this.isAlive(body));
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("bodies", this.bodyCount - this.freeCount)
+                .append("contacts", this.contactCount)
+                .append("islands", this.islandCount)
+                .append("timestep", this.timestep)
+            .build();
+    }
+
+    /**
+     * <p>
+     *    The Builder creates {@link PhysicsWorld PhysicsWorlds}.
+     * </p>
+     */
+    public static class Builder {
+
+        private double gravityX = 0;
+        private double gravityY = 981;
+        private long timestep = TimeUnit.SECONDS.toNanos(1) / 60;
+        private int maxSubSteps = 4;
+        private int iterations = 8;
+        private double cellSize = 64;
+        private int capacity = 256;
+        private double linearDamping = 0;
+        private double sleepVelocity = 2;
+        private double sleepTime = 0.5;
+        private double slop = 0.05;
+        private double correction = 0.2;
+        private boolean parallel = false;
+
+        public Builder() {}
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param x The gravity on the x axis in units/second².
+         * @param y The gravity on the y axis in units/second², by default 981.
+         * @return The builder.
+         */
+        public Builder gravity(double x, double y) {
+            this.gravityX = x;
+            this.gravityY = y;
+            return this;
+        }
+
+        /**
+         * @param timestep The amount of time simulated by one step, by default 1/60 second.
+         * @param unit The unit of the timestep.
+         * @return The builder.
+         */
+        public Builder timestep(long timestep, TimeUnit unit) {
+            Assert.assertTrue("The timestep has to be greater than 0.", timestep > 0);
+            this.timestep = unit.toNanos(timestep);
+            return this;
+        }
+
+        /**
+         * @param maxSubSteps The max. amount of steps per update call, if the world falls further behind the time
+         *                    gets dropped. By default 4.
+         * @return The builder.
+         */
+        public Builder maxSubSteps(int maxSubSteps) {
+            Assert.assertTrue("The maxSubSteps have to be greater than 0.", maxSubSteps > 0);
+            this.maxSubSteps = maxSubSteps;
+            return this;
+        }
+
+        /**
+         * @param iterations The amount of solver iterations per step, more iterations make stacks more stable. By
+         *                   default 8.
+         * @return The builder.
+         */
+        public Builder iterations(int iterations) {
+            Assert.assertTrue("The iterations have to be greater than 0.", iterations > 0);
+            this.iterations = iterations;
+            return this;
+        }
+
+        /**
+         * @param cellSize The size of the cells of the broadphase, it should be about the size of a typical body. By
+         *                 default 64.
+         * @return The builder.
+         */
+        public Builder cellSize(double cellSize) {
+            Assert.assertTrue("The cell size has to be greater than 0.", cellSize > 0);
+            this.cellSize = cellSize;
+            return this;
+        }
+
+        /**
+         * @param capacity The amount of bodies to allocate memory for, the world grows if necessary. By default 256.
+         * @return The builder.
+         */
+        public Builder capacity(int capacity) {
+            Assert.assertTrue("The capacity has to be greater than 0.", capacity > 0 && capacity <= MAX_BODIES);
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param linearDamping How fast bodies slow down without touching anything, by default 0.
+         * @return The builder.
+         */
+        public Builder linearDamping(double linearDamping) {
+            Assert.assertTrue("The linear damping cannot be negative.", linearDamping >= 0);
+            this.linearDamping = linearDamping;
+            return this;
+        }
+
+        /**
+         * @param velocity The velocity in units/second bodies have to stay below to fall asleep, by default 2.
+         * @param time The time in seconds a whole island has to stay below the velocity, by default 0.5.
+         * @return The builder.
+         */
+        public Builder sleep(double velocity, double time) {
+            Assert.assertTrue("The sleep velocity and time cannot be negative.", velocity >= 0 && time >= 0);
+            this.sleepVelocity = velocity;
+            this.sleepTime = time;
+            return this;
+        }
+
+        /**
+         * @param slop The penetration depth that is allowed without correcting it, by default 0.05.
+         * @param correction The fraction of the remaining penetration corrected per solver iteration in [0, 1], by default 0.2.
+         * @return The builder.
+         */
+        public Builder correction(double slop, double correction) {
+            Assert.assertTrue("The slop cannot be negative.", slop >= 0);
+            Assert.assertTrue("The correction has to be in [0, 1].", correction >= 0 && correction <= 1);
+            this.slop = slop;
+            this.correction = correction;
+            return this;
+        }
+
+        /**
+         * @param parallel If true, islands are solved in parallel on the {@link E#getCoreExecutor() core pool}. By
+         *                 default false.
+         * @return The builder.
+         */
+        public Builder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        public PhysicsWorld build() {
+            return new PhysicsWorld(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package de.SweetCode.e.rendering;
+
+import de.SweetCode.e.EScreen;
+import de.SweetCode.e.utils.Assert;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * <p>
+ *    An AcceleratedImage keeps a copy of a {@link BufferedImage} in a {@link VolatileImage}, so Java2D can draw it with
+ *    its accelerated pipeline. The {@link BufferedImage} stays the source of truth: if the VRAM copy gets lost (e.g.
+ *    because the display mode changed) or the source changed it gets restored from the source the next time it is
+ *    requested.
+ * </p>
+ * <p>
+ *    If no acceleration is available, e.g. in a headless environment, the image falls back to the source itself.
+ * </p>
+ */
+public class AcceleratedImage {
+
+    private final BufferedImage source;
+    private VolatileImage volatileImage = null;
+
+    private boolean dirty = true;
+    private boolean failed = false;
+
+    /**
+     * <p>
+     *    Creates a new AcceleratedImage.
+     * </p>
+     *
+     * @param source The image to copy into VRAM, cannot be null.
+     */
+    public AcceleratedImage(BufferedImage source) {
+        Assert.assertNotNull("The source cannot be null.", source);
+        this.source = source;
+    }
+
+    /**
+     * <p>
+     *    Gives the image the VRAM copy gets restored from.
+     * </p>
+     *
+     * @return The source image, never null.
+     */
+    public BufferedImage getSource() {
+        return this.source;
+    }
+
+    /**
+     * <p>
+     *    Marks the VRAM copy as outdated. This has to be called every time the source has been modified, the copy will
+     *    then be refreshed the next time {@link #get()} gets called.
+     * </p>
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * <p>
+     *    Gives the image to draw. It validates the VRAM copy and restores it from the source if its contents got lost
+     *    or the source has been invalidated.
+     * </p>
+     *
+     * @return The VRAM copy, or the source if acceleration is not available.
+     */
+    public Image get() {
+
+        if(this.failed || !(AcceleratedImage.isSupported())) {
+            return this.source;
+        }
+
+        GraphicsConfiguration configuration = EScreen.getGraphicConfiguration();
+
+        try {
+
+            if(this.volatileImage == null) {
+                this.volatileImage = this.create(configuration);
+            }
+
+            int state = this.volatileImage.validate(configuration);
+
+            if(state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                this.volatileImage.flush();
+                this.volatileImage = this.create(configuration);
+                this.restore();
+            } else if(state == VolatileImage.IMAGE_RESTORED || this.dirty) {
+                this.restore();
+            }
+
+        } catch (RuntimeException e) {
+            // Note: Some pipelines refuse to create translucent volatile images, in that case we just stay with the
+            // source and never try it again.
+            this.failed = true;
+            this.flush();
+            return this.source;
+        }
+
+        return this.volatileImage;
+
+    }
+
+    /**
+     * <p>
+     *    Checks if the VRAM copy lost its contents since the last call of {@link #get()}.
+     * </p>
+     *
+     * @return True, if the contents got lost and the image has to be drawn again, otherwise false.
+     */
+    public boolean contentsLost() {
+        return !(this.volatileImage == null) && this.volatileImage.contentsLost();
+    }
+
+    /**
+     * <p>
+     *    Draws the image and repeats the draw call if the contents got lost while drawing.
+     * </p>
+     *
+     * @param g The graphics to draw on.
+     * @param x The x coordinate of the upper-left corner.
+     * @param y The y coordinate of the upper-left corner.
+     * @param width The width of the drawn image.
+     * @param height The height of the drawn image.
+     */
+    public void draw(Graphics2D g, int x, int y, int width, int height) {
+        do {
+            g.drawImage(this.get(), x, y, width, height, null);
+        } while (this.contentsLost());
+    }
+
+    /**
+     * <p>
+     *    Releases the VRAM copy. It will be recreated the next time {@link #get()} gets called.
+     * </p>
+     */
+    public void flush() {
+
+        if(!(this.volatileImage == null)) {
+            this.volatileImage.flush();
+            this.volatileImage = null;
+        }
+
+        this.dirty = true;
+
+    }
+
+    private VolatileImage create(GraphicsConfiguration configuration) {
+
+        VolatileImage image = configuration.createCompatibleVolatileImage(
+                this.source.getWidth(),
+                this.source.getHeight(),
+                Transparency.TRANSLUCENT
+        );
+        image.setAccelerationPriority(1);
+
+        return image;
+
+    }
+
+    private void restore() {
+
+        Graphics2D g = this.volatileImage.createGraphics();
+
+        // Note: Src instead of SrcOver, otherwise the transparent parts of the source would not clear the old content.
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(this.source, 0, 0, null);
+        g.dispose();
+
+        this.dirty = false;
+
+    }
+
+    /**
+     * <p>
+     *    Checks if the current environment is able to store images in VRAM.
+     * </p>
+     *
+     * @return True, if images can be accelerated, otherwise false.
+     */
+    public static boolean isSupported() {
+
+        if(GraphicsEnvironment.isHeadless()) {
+            return false;
+        }
+
+        GraphicsConfiguration configuration = EScreen.getGraphicConfiguration();
+        return !(configuration == null) && configuration.getImageCapabilities().isAccelerated();
+
+    }
+
+}
@@ -3,7 +3,6 @@ package de.SweetCode.e.rendering;
 import de.SweetCode.e.math.IDimension;
 import de.SweetCode.e.math.ILocation;
 
-import java.awt.*;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -18,10 +17,10 @@ public class AspectRatio {
 
     private final static int CACHE_SIZE = 10;
 
-    private final static Map<Integer, Result> cache = new LinkedHashMap<Integer, Result>(CACHE_SIZE) {
+    private final static Map<Long, Result> cache = new LinkedHashMap<Long, Result>(CACHE_SIZE) {
 
         @Override
-        protected boolean removeEldestEntry(Map.Entry<Integer, Result> eldest) {
+        protected boolean removeEldestEntry(Map.Entry<Long, Result> eldest) {
             return this.size() > CACHE_SIZE;
         }
 
@@ -43,17 +42,16 @@ public class AspectRatio {
     public static Result calculateOptimal(IDimension image, IDimension window) {
 
         //--- Key for the cache
-        int key = 59 * (31 + image.hashCode()) * (31 + window.hashCode());
+        long key = AspectRatio.key(image, window);
 
-        if(AspectRatio.cache.containsKey(key)) {
-            return AspectRatio.cache.get(key);
+        Result cached = AspectRatio.cache.get(key);
+        if(!(cached == null)) {
+            return cached;
         }
 
-        Dimension d;
-
         //--- Some basic math to scale the image correctly
-        double imageRatio = image.getWidth() / image.getHeight();
-        double screenRation = window.getWidth() / window.getHeight();
+        double imageRatio = (double) image.getWidth() / image.getHeight();
+        double screenRation = (double) window.getWidth() / window.getHeight();
 
         double fixedWidth;
         double fixedHeight;
@@ -81,6 +79,43 @@ public class AspectRatio {
         return result;
     }
 
+    /**
+     * <p>
+     *    Same as {@link AspectRatio#calculateOptimal(IDimension, IDimension)}, but the image only gets scaled by the
+     *    largest whole number that still fits into the window, so all pixels of the image have the same size. If the
+     *    window is smaller than the image, the optimal result is used instead.
+     * </p>
+     *
+     * @param image The dimensions of the image aka. frame.
+     * @param window The dimensions of the window.
+     * @return A {@link AspectRatio.Result} with the position and the size of the image.
+     */
+    public static Result calculateInteger(IDimension image, IDimension window) {
+
+        int scale = Math.min(window.getWidth() / image.getWidth(), window.getHeight() / image.getHeight());
+
+        if(scale < 1) {
+            return AspectRatio.calculateOptimal(image, window);
+        }
+
+        int width = image.getWidth() * scale;
+        int height = image.getHeight() * scale;
+
+        return new Result(
+                new ILocation((window.getWidth() - width) / 2, (window.getHeight() - height) / 2),
+                new IDimension(width, height)
+        );
+
+    }
+
+    // Note: Every dimension fits into 16 bits, so the key is unique, unlike a combination of the hash codes.
+    private static long key(IDimension image, IDimension window) {
+        return ((long) (image.getWidth() & 0xFFFF) << 48)
+                | ((long) (image.getHeight() & 0xFFFF) << 32)
+                | ((long) (window.getWidth() & 0xFFFF) << 16)
+                | (window.getHeight() & 0xFFFF);
+    }
+
     /**
      * <p>
      * A wrapper class for the results of the calculations.
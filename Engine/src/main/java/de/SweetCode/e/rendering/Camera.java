@@ -0,0 +1,213 @@
+package de.SweetCode.e.rendering;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.math.IDimension;
+import de.SweetCode.e.math.Location;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+
+/**
+ * <p>
+ *    The Camera defines which part of the world is visible. By default it looks at the area of the frame, so world and
+ *    frame coordinates are the same until the camera moves.
+ * </p>
+ * <p>
+ *    The camera is applied to every {@link de.SweetCode.e.rendering.layers.Layer} that has been set to
+ *    {@link de.SweetCode.e.rendering.layers.Layer#setUsingCamera(boolean) use it}, renderables drawing on such a layer
+ *    draw in world coordinates and the layer transforms them to the frame.
+ * </p>
+ */
+public class Camera {
+
+    private double x;
+    private double y;
+    private double zoom = 1;
+    private double rotation = 0;
+
+    /**
+     * <p>
+     *    Creates a new Camera looking at the area of the frame.
+     * </p>
+     */
+    public Camera() {
+        IDimension frame = E.getE().getSettings().getFrameDimension();
+        this.x = frame.getWidth() / 2D;
+        this.y = frame.getHeight() / 2D;
+    }
+
+    /**
+     * @return The x coordinate of the center of the view in world coordinates.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * @return The y coordinate of the center of the view in world coordinates.
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * <p>
+     *    Moves the center of the view to the location.
+     * </p>
+     *
+     * @param x The x coordinate in world coordinates.
+     * @param y The y coordinate in world coordinates.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * <p>
+     *    Moves the center of the view to the location.
+     * </p>
+     *
+     * @param location The location in world coordinates.
+     */
+    public void setPosition(Location location) {
+        this.setPosition(location.getX(), location.getY());
+    }
+
+    /**
+     * <p>
+     *    Moves the view by x and y.
+     * </p>
+     *
+     * @param x The units to move on the x axis.
+     * @param y The units to move on the y axis.
+     */
+    public void move(double x, double y) {
+        this.x += x;
+        this.y += y;
+    }
+
+    /**
+     * @return The zoom factor, 2 shows everything twice as big.
+     */
+    public double getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * @param zoom The zoom factor, must be greater than 0.
+     */
+    public void setZoom(double zoom) {
+        Assert.assertTrue("The zoom has to be greater than 0.", zoom > 0);
+        this.zoom = zoom;
+    }
+
+    /**
+     * @return The rotation of the camera in radians.
+     */
+    public double getRotation() {
+        return this.rotation;
+    }
+
+    /**
+     * @param rotation The rotation of the camera in radians, the world appears rotated the other way.
+     */
+    public void setRotation(double rotation) {
+        this.rotation = rotation;
+    }
+
+    /**
+     * <p>
+     *    Gives the transform from world to frame coordinates.
+     * </p>
+     *
+     * @return A new transform.
+     */
+    public AffineTransform getTransform() {
+
+        IDimension frame = E.getE().getSettings().getFrameDimension();
+
+        AffineTransform transform = new AffineTransform();
+        transform.translate(frame.getWidth() / 2D, frame.getHeight() / 2D);
+        transform.rotate(-this.rotation);
+        transform.scale(this.zoom, this.zoom);
+        transform.translate(-this.x, -this.y);
+
+        return transform;
+
+    }
+
+    /**
+     * <p>
+     *    Transforms a location in the world to the frame.
+     * </p>
+     *
+     * @param location The location in world coordinates.
+     * @return The location in frame coordinates.
+     */
+    public Location worldToScreen(Location location) {
+        Point2D point = this.getTransform().transform(new Point2D.Double(location.getX(), location.getY()), null);
+        return new Location(point.getX(), point.getY());
+    }
+
+    /**
+     * <p>
+     *    Transforms a location in the frame to the world, e.g. to find out where the mouse points at.
+     * </p>
+     *
+     * @param location The location in frame coordinates.
+     * @return The location in world coordinates.
+     */
+    public Location screenToWorld(Location location) {
+
+        try {
+            Point2D point = this.getTransform().inverseTransform(new Point2D.Double(location.getX(), location.getY()), null);
+            return new Location(point.getX(), point.getY());
+        } catch (NoninvertibleTransformException e) {
+            // Note: Cannot happen, since the zoom is always greater than 0.
+            throw new IllegalStateException(e);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Gives the area of the world that is visible. If the camera is rotated, it is the smallest box containing the
+     *    rotated view.
+     * </p>
+     *
+     * @return The visible area in world coordinates.
+     */
+    public BoundingBox getViewport() {
+
+        IDimension frame = E.getE().getSettings().getFrameDimension();
+        double halfWidth = frame.getWidth() / 2D / this.zoom;
+        double halfHeight = frame.getHeight() / 2D / this.zoom;
+
+        if(!(this.rotation == 0)) {
+            double cos = Math.abs(Math.cos(this.rotation));
+            double sin = Math.abs(Math.sin(this.rotation));
+            double width = halfWidth * cos + halfHeight * sin;
+            halfHeight = halfWidth * sin + halfHeight * cos;
+            halfWidth = width;
+        }
+
+        return new BoundingBox(this.x - halfWidth, this.y - halfHeight, this.x + halfWidth, this.y + halfHeight);
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("x", this.x)
+                .append("y", this.y)
+                .append("zoom", this.zoom)
+                .append("rotation", this.rotation)
+            .build();
+    }
+
+}
@@ -0,0 +1,145 @@
+package de.SweetCode.e.rendering;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+/**
+ * <p>
+ *    DynamicResolution decides the resolution the layers are rendered in, based on the measured frame times. The frame
+ *    times are averaged over a window of frames. If the average exceeds the budget, the scale drops right away to the
+ *    value that is expected to fit into the budget again, assuming the costs grow with the amount of pixels. If there is
+ *    plenty of headroom for two windows in a row, the scale is raised by one step.
+ * </p>
+ * <p>
+ *    The scale only takes multiples of {@link DynamicResolution#STEP}, so the layers don't get reallocated for tiny
+ *    changes, and the window after a change is ignored, because it contains the costs of the reallocation.
+ * </p>
+ */
+public class DynamicResolution {
+
+    /**
+     * The smallest change of the scale.
+     */
+    public static final double STEP = 0.05;
+
+    private static final int LEVELS = (int) Math.round(1 / STEP);
+
+    //--- Frames per average
+    private static final int WINDOW = 30;
+    // Note: The scale is lowered to hit this part of the budget, so it doesn't exceed it again right away.
+    private static final double TARGET = 0.9;
+    private static final double HEADROOM = 0.7;
+    //---
+
+    private final long budget;
+    private final int minimum;
+
+    private int level = LEVELS;
+
+    private long sum = 0;
+    private int samples = 0;
+    private long lastAverage = 0;
+    private int headroom = 0;
+    private boolean cooldown = false;
+
+    /**
+     * @param budget The time one frame may take in nanoseconds.
+     * @param minimumScale The lowest scale, in (0, 1].
+     */
+    public DynamicResolution(long budget, double minimumScale) {
+
+        Assert.assertTrue("The budget has to be greater than 0.", budget > 0);
+        Assert.assertTrue("The minimum scale has to be in (0, 1].", minimumScale > 0 && minimumScale <= 1);
+
+        this.budget = budget;
+        this.minimum = Math.max(1, (int) Math.ceil(minimumScale * LEVELS - 1E-9));
+
+    }
+
+    /**
+     * @return The current scale in (0, 1].
+     */
+    public double getScale() {
+        return this.level / (double) LEVELS;
+    }
+
+    /**
+     * @return The average frame time of the last full window in nanoseconds.
+     */
+    public long getLastAverage() {
+        return this.lastAverage;
+    }
+
+    /**
+     * <p>
+     *    Adds the time a frame took.
+     * </p>
+     *
+     * @param frameTime The time in nanoseconds.
+     * @return True, if the scale changed and should be applied before the next frame.
+     */
+    public boolean sample(long frameTime) {
+
+        this.sum += frameTime;
+        this.samples++;
+
+        if(this.samples < WINDOW) {
+            return false;
+        }
+
+        long average = this.sum / this.samples;
+        this.sum = 0;
+        this.samples = 0;
+        this.lastAverage = average;
+
+        if(this.cooldown) {
+            this.cooldown = false;
+            return false;
+        }
+
+        int level = this.level;
+
+        if(average > this.budget) {
+
+            this.headroom = 0;
+
+            // Note: The costs scale with the amount of pixels, i.e. the square of the scale.
+            double target = this.getScale() * Math.sqrt(this.budget * TARGET / average);
+            level = Math.min(this.level - 1, (int) Math.floor(target * LEVELS));
+
+        } else if(average < this.budget * HEADROOM) {
+
+            this.headroom++;
+
+            if(this.headroom >= 2) {
+                this.headroom = 0;
+                level = this.level + 1;
+            }
+
+        } else {
+            this.headroom = 0;
+        }
+
+        level = Math.max(this.minimum, Math.min(LEVELS, level));
+
+        if(level == this.level) {
+            return false;
+        }
+
+        this.level = level;
+        this.cooldown = true;
+
+        return true;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("scale", this.getScale())
+                .append("budget", this.budget)
+                .append("lastAverage", this.lastAverage)
+            .build();
+    }
+
+}
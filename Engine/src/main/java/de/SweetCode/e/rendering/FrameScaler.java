@@ -0,0 +1,162 @@
+package de.SweetCode.e.rendering;
+
+import de.SweetCode.e.math.IDimension;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+
+/**
+ * <p>
+ *    The FrameScaler draws the frame onto the window while keeping its aspect ratio. The frame is scaled by
+ *    {@link Graphics2D#drawImage(Image, int, int, int, int, java.awt.image.ImageObserver)} straight into the target,
+ *    usually the back buffer of the window, which is reused for every frame, so no scaled copy of the frame is ever
+ *    allocated. The placement only gets calculated again if the size of the window changes.
+ * </p>
+ * <p>
+ *    The area of the window not covered by the frame is filled with black, otherwise it would show whatever the back
+ *    buffer contained before.
+ * </p>
+ */
+public class FrameScaler {
+
+    private final IDimension frame;
+    private final ScalingQuality quality;
+
+    //--- Placement of the last window size
+    private int windowWidth = -1;
+    private int windowHeight = -1;
+    private AspectRatio.Result placement = null;
+    //---
+
+    /**
+     * @param frame The size of the frames.
+     * @param quality The interpolation used to scale them.
+     */
+    public FrameScaler(IDimension frame, ScalingQuality quality) {
+
+        Assert.assertNotNull("The frame cannot be null.", frame);
+        Assert.assertNotNull("The quality cannot be null.", quality);
+
+        this.frame = frame;
+        this.quality = quality;
+
+    }
+
+    /**
+     * @return The interpolation used to scale the frames.
+     */
+    public ScalingQuality getQuality() {
+        return this.quality;
+    }
+
+    /**
+     * <p>
+     *    Gives the position and size of the frame in a window.
+     * </p>
+     *
+     * @param width The width of the window.
+     * @param height The height of the window.
+     * @return The placement, relative to the upper-left corner of the window.
+     */
+    public AspectRatio.Result layout(int width, int height) {
+
+        if(!(this.placement == null) && this.windowWidth == width && this.windowHeight == height) {
+            return this.placement;
+        }
+
+        IDimension window = new IDimension(width, height);
+
+        this.windowWidth = width;
+        this.windowHeight = height;
+        this.placement = (this.quality == ScalingQuality.PIXEL_PERFECT ?
+                AspectRatio.calculateInteger(this.frame, window) :
+                AspectRatio.calculateOptimal(this.frame, window)
+        );
+
+        return this.placement;
+
+    }
+
+    /**
+     * <p>
+     *    Scales the frame onto the area of the window.
+     * </p>
+     *
+     * @param g The graphics of the target.
+     * @param image The frame.
+     * @param x The x coordinate of the window area in the target.
+     * @param y The y coordinate of the window area in the target.
+     * @param width The width of the window area.
+     * @param height The height of the window area.
+     */
+    public void draw(Graphics2D g, Image image, int x, int y, int width, int height) {
+
+        AspectRatio.Result placement = this.layout(width, height);
+
+        int frameX = x + placement.getPosition().getX();
+        int frameY = y + placement.getPosition().getY();
+        int frameWidth = placement.getDimension().getWidth();
+        int frameHeight = placement.getDimension().getHeight();
+
+        this.drawBorders(g, x, y, width, height);
+
+        Object interpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, this.quality.getInterpolation());
+
+        // Note: Only scale if necessary, an unscaled copy is a plain blit.
+        if(frameWidth == image.getWidth(null) && frameHeight == image.getHeight(null)) {
+            g.drawImage(image, frameX, frameY, null);
+        } else {
+            g.drawImage(image, frameX, frameY, frameWidth, frameHeight, null);
+        }
+
+        if(!(interpolation == null)) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Fills the parts of the window area around the frame with black.
+     * </p>
+     *
+     * @param g The graphics of the target.
+     * @param x The x coordinate of the window area in the target.
+     * @param y The y coordinate of the window area in the target.
+     * @param width The width of the window area.
+     * @param height The height of the window area.
+     */
+    public void drawBorders(Graphics2D g, int x, int y, int width, int height) {
+
+        AspectRatio.Result placement = this.layout(width, height);
+
+        int frameX = x + placement.getPosition().getX();
+        int frameY = y + placement.getPosition().getY();
+        int frameWidth = placement.getDimension().getWidth();
+        int frameHeight = placement.getDimension().getHeight();
+
+        Color color = g.getColor();
+        g.setColor(Color.BLACK);
+
+        // top, bottom, left, right
+        g.fillRect(x, y, width, frameY - y);
+        g.fillRect(x, frameY + frameHeight, width, y + height - frameY - frameHeight);
+        g.fillRect(x, frameY, frameX - x, frameHeight);
+        g.fillRect(frameX + frameWidth, frameY, x + width - frameX - frameWidth, frameHeight);
+
+        g.setColor(color);
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("frame", this.frame)
+                .append("quality", this.quality)
+                .append("placement", this.placement)
+            .build();
+    }
+
+}
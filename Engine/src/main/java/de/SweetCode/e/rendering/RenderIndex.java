@@ -0,0 +1,137 @@
+package de.SweetCode.e.rendering;
+
+import de.SweetCode.e.Cullable;
+import de.SweetCode.e.GameComponent;
+import de.SweetCode.e.GameComponentEntry;
+import de.SweetCode.e.Renderable;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.math.spatial.UniformGrid;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *    The RenderIndex keeps track of all {@link Renderable Renderables} registered to the engine. {@link Cullable}
+ *    renderables are stored in a {@link UniformGrid}, so the renderables visible in a viewport can be found without
+ *    looking at the ones that are off-screen.
+ * </p>
+ */
+public class RenderIndex {
+
+    /**
+     * The order the renderables get rendered in, the same order the engine keeps its components in.
+     */
+    private final static Comparator<GameComponentEntry> ORDER = (a, b) -> {
+
+        if(!(a.getPriority().getPriority() == b.getPriority().getPriority())) {
+            return (a.getPriority().getPriority() < b.getPriority().getPriority() ? 1 : -1);
+        }
+
+        return Long.compare(a.getSequence(), b.getSequence());
+
+    };
+
+    private final UniformGrid<GameComponentEntry> cullables;
+    private final Map<GameComponent, GameComponentEntry> entries = new IdentityHashMap<>();
+    private final List<GameComponentEntry> others = new ArrayList<>();
+
+    private int culled = 0;
+
+    /**
+     * @param cellSize The size of the cells of the grid.
+     */
+    public RenderIndex(double cellSize) {
+        this.cullables = new UniformGrid<>(cellSize);
+    }
+
+    /**
+     * <p>
+     *    Adds the entry, if its component is a {@link Renderable}. If the component has already been added, its old
+     *    entry is replaced.
+     * </p>
+     *
+     * @param entry The entry to add.
+     */
+    public synchronized void add(GameComponentEntry entry) {
+
+        GameComponent component = entry.getGameComponent();
+
+        if(!(component instanceof Renderable)) {
+            return;
+        }
+
+        this.remove(component);
+
+        BoundingBox boundingBox = (component instanceof Cullable ? ((Cullable) component).getBoundingBox() : null);
+
+        if(boundingBox == null) {
+            this.others.add(entry);
+        } else {
+            this.cullables.insert(entry, boundingBox);
+            this.entries.put(component, entry);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Removes all entries of the component.
+     * </p>
+     *
+     * @param component The component to remove.
+     */
+    public synchronized void remove(GameComponent component) {
+
+        this.others.removeIf(e -> e.getGameComponent() == component);
+
+        GameComponentEntry entry = this.entries.remove(component);
+
+        if(!(entry == null)) {
+            this.cullables.remove(entry);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Collects all renderables that are visible in the viewport in the order they should be rendered in.
+     * </p>
+     *
+     * @param viewport The visible area in world coordinates.
+     * @param target The list to add the entries to, it gets cleared first.
+     */
+    public synchronized void collect(BoundingBox viewport, List<GameComponentEntry> target) {
+
+        target.clear();
+        target.addAll(this.others);
+
+        int cullables = this.cullables.size();
+        this.cullables.query(viewport, target::add);
+        this.culled = cullables - (target.size() - this.others.size());
+
+        target.sort(ORDER);
+
+    }
+
+    /**
+     * @return The amount of renderables that have been skipped by the last call of {@link RenderIndex#collect(BoundingBox, List)}.
+     */
+    public synchronized int getCulled() {
+        return this.culled;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ToStringBuilder.create(this)
+                .append("cullables", this.cullables.size())
+                .append("others", this.others.size())
+                .append("culled", this.culled)
+            .build();
+    }
+
+}
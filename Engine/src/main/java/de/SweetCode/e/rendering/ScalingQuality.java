@@ -0,0 +1,48 @@
+package de.SweetCode.e.rendering;
+
+import java.awt.*;
+
+/**
+ * <p>
+ * The interpolation used by the {@link FrameScaler} to scale the frame onto the window.
+ * </p>
+ */
+public enum ScalingQuality {
+
+    /**
+     * <p>
+     *     Every pixel of the window takes the nearest pixel of the frame. Fastest, but uneven for non-integer scales.
+     * </p>
+     */
+    NEAREST(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR),
+
+    /**
+     * <p>
+     *     Every pixel of the window is interpolated between the four nearest pixels of the frame.
+     * </p>
+     */
+    BILINEAR(RenderingHints.VALUE_INTERPOLATION_BILINEAR),
+
+    /**
+     * <p>
+     *     The frame is only scaled by whole numbers, so every pixel of the frame becomes a square of exactly the same size
+     *     on the window. The remaining space stays empty. If the window is smaller than the frame it falls back to
+     *     {@link ScalingQuality#NEAREST}.
+     * </p>
+     */
+    PIXEL_PERFECT(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+
+    private final Object interpolation;
+
+    ScalingQuality(Object interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    /**
+     * @return The value for {@link RenderingHints#KEY_INTERPOLATION}.
+     */
+    public Object getInterpolation() {
+        return this.interpolation;
+    }
+
+}
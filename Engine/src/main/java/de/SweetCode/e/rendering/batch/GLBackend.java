@@ -0,0 +1,553 @@
+package de.SweetCode.e.rendering.batch;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+import de.SweetCode.e.E;
+import de.SweetCode.e.math.IDimension;
+import de.SweetCode.e.rendering.AspectRatio;
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>
+ *    The GLBackend executes the draws of a {@link SpriteBatch} with OpenGL. Textures are uploaded to the GPU the first
+ *    time they are drawn and stay there until they are {@link SpriteBatch#invalidate(Image) invalidated} or collected.
+ *    Sprites are written into a streamed vertex buffer and drawn with one call per texture run, using a static index
+ *    buffer shared by all quads.
+ * </p>
+ * <p>
+ *    The content renderables draw directly on a {@link Layer} with its {@link Graphics2D} is still rendered by the CPU.
+ *    Every layer has its own texture which is only updated with {@code glTexSubImage2D} if something could have been
+ *    drawn on it, {@link Layer#isTouched() untouched} layers are skipped completely. The sprites of a layer are drawn
+ *    on top of its CPU content, before the next layer. They are drawn in every frame, even on
+ *    {@link Layer#isRetained() retained} layers, whose textures are only updated if they {@link Layer#isChanged() changed}.
+ * </p>
+ * <p>
+ *    All methods have to be called from the thread owning the OpenGL context, except for
+ *    {@link GLBackend#invalidate(Image)}.
+ * </p>
+ */
+public class GLBackend implements SpriteBatch.Backend {
+
+    //--- x, y, u, v, r, g, b, a
+    private static final int FLOATS_PER_VERTEX = 8;
+    private static final int STRIDE = FLOATS_PER_VERTEX * Buffers.SIZEOF_FLOAT;
+    // Note: 4 vertices per quad, so all indices fit into an unsigned short.
+    private static final int MAX_QUADS = 8192;
+    //---
+
+    private GL2 gl = null;
+    private Layers layers = null;
+    private int width;
+    private int height;
+
+    //--- Buffers
+    private int vertexBuffer = 0;
+    private int indexBuffer = 0;
+    private final FloatBuffer vertices = Buffers.newDirectFloatBuffer(MAX_QUADS * 4 * FLOATS_PER_VERTEX);
+    private int quads = 0;
+    private int drawCalls = 0;
+    private int lastDrawCalls = 0;
+    //---
+
+    //--- Textures
+    private final Map<Image, TextureEntry> textures = new WeakHashMap<>();
+    private final ReferenceQueue<Image> collected = new ReferenceQueue<>();
+    private final List<Image> invalidated = new ArrayList<>();
+    private TextureEntry texture = null;
+    private int filter = GL.GL_NEAREST;
+    private int uploads = 0;
+    //---
+
+    //--- Layers
+    private int[] layerTextures = new int[0];
+    // Note: The size each layer texture has been allocated with, 0 if nothing has been uploaded yet.
+    private int[] layerWidths = new int[0];
+    private int[] layerHeights = new int[0];
+    private int nextLayer = 0;
+    private boolean visible = true;
+    private final float[] matrix = new float[16];
+    //---
+
+    public GLBackend() {}
+
+    /**
+     * @return The amount of textures uploaded to the GPU since the backend has been created, not counting the layers.
+     */
+    public int getUploads() {
+        return this.uploads;
+    }
+
+    /**
+     * @return The amount of draw calls issued in the last frame.
+     */
+    public int getLastDrawCalls() {
+        return this.lastDrawCalls;
+    }
+
+    /**
+     * <p>
+     *    Starts a new frame. It sets up the buffers, the projection from frame coordinates to the surface, clears it
+     *    and releases the textures of images that have been collected. It has to be called before
+     *    {@link SpriteBatch#flush()}.
+     * </p>
+     *
+     * @param gl The OpenGL context.
+     * @param layers The layers composed to the frame.
+     * @param surfaceWidth The width of the surface in pixels.
+     * @param surfaceHeight The height of the surface in pixels.
+     */
+    public void frame(GL2 gl, Layers layers, int surfaceWidth, int surfaceHeight) {
+        this.frame(gl, layers, surfaceWidth, surfaceHeight, null);
+    }
+
+    /**
+     * <p>
+     *    Same as {@link GLBackend#frame(GL2, Layers, int, int)}, but the frame is only drawn into a part of the
+     *    surface, e.g. to keep its aspect ratio.
+     * </p>
+     *
+     * @param gl The OpenGL context.
+     * @param layers The layers composed to the frame.
+     * @param surfaceWidth The width of the surface in pixels.
+     * @param surfaceHeight The height of the surface in pixels.
+     * @param placement The position and size of the frame on the surface, from the upper-left corner, or null to fill the
+     *                  surface.
+     */
+    public void frame(GL2 gl, Layers layers, int surfaceWidth, int surfaceHeight, AspectRatio.Result placement) {
+
+        Assert.assertNotNull("The gl cannot be null.", gl);
+        Assert.assertNotNull("The layers cannot be null.", layers);
+
+        this.gl = gl;
+        this.layers = layers;
+
+        IDimension frame = E.getE().getSettings().getFrameDimension();
+        this.width = frame.getWidth();
+        this.height = frame.getHeight();
+
+        if(this.vertexBuffer == 0) {
+            this.setup();
+        }
+
+        this.release();
+
+        this.nextLayer = 0;
+
+        Object interpolation = E.getE().getSettings().getRenderingHints().get(RenderingHints.KEY_INTERPOLATION);
+        if(!(placement == null)) {
+            interpolation = E.getE().getSettings().getScalingQuality().getInterpolation();
+        }
+        this.filter = (interpolation == null || interpolation == RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR ? GL.GL_NEAREST : GL.GL_LINEAR);
+
+        if(placement == null) {
+            gl.glViewport(0, 0, surfaceWidth, surfaceHeight);
+        } else {
+            // Note: The origin of the viewport is the lower-left corner of the surface.
+            int x = placement.getPosition().getX();
+            int y = surfaceHeight - placement.getPosition().getY() - placement.getDimension().getHeight();
+            gl.glViewport(x, y, placement.getDimension().getWidth(), placement.getDimension().getHeight());
+        }
+
+        gl.glMatrixMode(GLMatrixFunc.GL_PROJECTION);
+        gl.glLoadIdentity();
+        gl.glOrtho(0, this.width, this.height, 0, -1, 1);
+
+        gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+        gl.glLoadIdentity();
+
+        // Note: Clearing ignores the viewport, so the borders around a placed frame are cleared as well.
+        gl.glClearColor(0F, 0F, 0F, 0F);
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        gl.glEnable(GL.GL_BLEND);
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, GL2.GL_MODULATE);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.vertexBuffer);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.indexBuffer);
+
+        gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+        gl.glEnableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+        gl.glVertexPointer(2, GL.GL_FLOAT, STRIDE, 0);
+        gl.glTexCoordPointer(2, GL.GL_FLOAT, STRIDE, 2 * Buffers.SIZEOF_FLOAT);
+        gl.glColorPointer(4, GL.GL_FLOAT, STRIDE, 4 * Buffers.SIZEOF_FLOAT);
+
+        this.drawCalls = 0;
+
+    }
+
+    /**
+     * <p>
+     *    Finishes the frame by drawing the layers that had no sprites and resetting the state of OpenGL. It has to be
+     *    called after {@link SpriteBatch#flush()}.
+     * </p>
+     */
+    public void finish() {
+
+        this.drawLayers(this.layers.getLayers().size());
+
+        this.gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+        this.gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+        this.gl.glDisableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+        this.gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        this.gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+        this.gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+        this.gl.glDisable(GL.GL_BLEND);
+        this.gl.glDisable(GL.GL_TEXTURE_2D);
+
+        this.lastDrawCalls = this.drawCalls;
+        this.texture = null;
+        this.gl = null;
+        this.layers = null;
+
+    }
+
+    @Override
+    public void begin(Layer layer) {
+
+        int index = this.layers.getLayers().indexOf(layer);
+
+        //--- CPU content of all layers up to this one, the sprites are drawn on top of it
+        if(!(index == -1)) {
+            this.drawLayers(index + 1);
+        }
+        //---
+
+        this.visible = (index == -1 || this.isVisible(index));
+
+        //--- Sprites are drawn in the coordinates the layer is using, e.g. world coordinates if it uses the camera
+        AffineTransform transform = layer.getTransform();
+        this.matrix[0] = (float) transform.getScaleX();
+        this.matrix[1] = (float) transform.getShearY();
+        this.matrix[4] = (float) transform.getShearX();
+        this.matrix[5] = (float) transform.getScaleY();
+        this.matrix[10] = 1F;
+        this.matrix[12] = (float) transform.getTranslateX();
+        this.matrix[13] = (float) transform.getTranslateY();
+        this.matrix[15] = 1F;
+        this.gl.glLoadMatrixf(this.matrix, 0);
+        //---
+
+    }
+
+    @Override
+    public void texture(Image texture) {
+
+        this.flush();
+
+        TextureEntry entry = this.textures.get(texture);
+
+        if(entry == null) {
+            entry = new TextureEntry(texture, this.collected, this.generateTexture());
+            this.textures.put(texture, entry);
+        }
+
+        this.gl.glBindTexture(GL.GL_TEXTURE_2D, entry.id);
+
+        if(entry.dirty) {
+            this.upload(texture, entry);
+        }
+
+        this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, this.filter);
+        this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, this.filter);
+
+        this.texture = entry;
+
+    }
+
+    @Override
+    public void draw(int srcX, int srcY, int srcWidth, int srcHeight, float m00, float m10, float m01, float m11, float m02, float m12, int tint, float alpha) {
+
+        if(!(this.visible)) {
+            return;
+        }
+
+        if(this.quads == MAX_QUADS) {
+            this.flush();
+        }
+
+        float u1 = srcX / (float) this.texture.width;
+        float v1 = srcY / (float) this.texture.height;
+        float u2 = (srcX + srcWidth) / (float) this.texture.width;
+        float v2 = (srcY + srcHeight) / (float) this.texture.height;
+
+        float r = ((tint >> 16) & 0xFF) / 255F;
+        float g = ((tint >> 8) & 0xFF) / 255F;
+        float b = (tint & 0xFF) / 255F;
+        float a = ((tint >>> 24) & 0xFF) / 255F * alpha;
+
+        this.vertex(m02, m12, u1, v1, r, g, b, a);
+        this.vertex(m00 * srcWidth + m02, m10 * srcWidth + m12, u2, v1, r, g, b, a);
+        this.vertex(m00 * srcWidth + m01 * srcHeight + m02, m10 * srcWidth + m11 * srcHeight + m12, u2, v2, r, g, b, a);
+        this.vertex(m01 * srcHeight + m02, m11 * srcHeight + m12, u1, v2, r, g, b, a);
+
+        this.quads++;
+
+    }
+
+    @Override
+    public void end() {
+        this.flush();
+        this.gl.glLoadIdentity();
+    }
+
+    @Override
+    public void invalidate(Image texture) {
+        synchronized (this.invalidated) {
+            this.invalidated.add(texture);
+        }
+    }
+
+    @Override
+    public boolean isDrawingOnLayers() {
+        return false;
+    }
+
+    /**
+     * <p>
+     *    Draws the CPU content of all layers before the index that haven't been drawn yet in this frame.
+     * </p>
+     */
+    private void drawLayers(int to) {
+
+        List<Layer> layers = this.layers.getLayers();
+
+        if(this.layerTextures.length < layers.size()) {
+            this.setupLayers(layers.size());
+        }
+
+        this.flush();
+
+        for(; this.nextLayer < to; this.nextLayer++) {
+
+            Layer layer = layers.get(this.nextLayer);
+
+            // Note: Untouched layers are empty, so there is nothing to upload or to draw.
+            if(!(this.isVisible(this.nextLayer)) || !(layer.isTouched())) {
+                continue;
+            }
+
+            this.gl.glLoadIdentity();
+            this.gl.glBindTexture(GL.GL_TEXTURE_2D, this.layerTextures[this.nextLayer]);
+
+            // Note: The ARGB ints of the image are uploaded as they are, BGRA with reversed byte order is the same
+            // memory layout, so no conversion is needed. The texture of a retained layer that hasn't changed is still
+            // up to date. The image is taken without touching the layer, that would mark it as changed.
+            BufferedImage image = layer.raster();
+            boolean resized = (!(this.layerWidths[this.nextLayer] == image.getWidth()) || !(this.layerHeights[this.nextLayer] == image.getHeight()));
+
+            if(resized || layer.isChanged()) {
+
+                int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                this.gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 4);
+
+                if(resized) {
+                    // Note: The resolution of the layer changed, the texture needs new storage.
+                    this.gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, image.getWidth(), image.getHeight(), 0, GL.GL_BGRA, GL2.GL_UNSIGNED_INT_8_8_8_8_REV, IntBuffer.wrap(data));
+                    this.layerWidths[this.nextLayer] = image.getWidth();
+                    this.layerHeights[this.nextLayer] = image.getHeight();
+                } else {
+                    this.gl.glTexSubImage2D(GL.GL_TEXTURE_2D, 0, 0, 0, image.getWidth(), image.getHeight(), GL.GL_BGRA, GL2.GL_UNSIGNED_INT_8_8_8_8_REV, IntBuffer.wrap(data));
+                }
+
+            }
+            this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, this.filter);
+            this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, this.filter);
+
+            float alpha = layer.getAlpha();
+            this.vertex(0, 0, 0, 0, 1, 1, 1, alpha);
+            this.vertex(this.width, 0, 1, 0, 1, 1, 1, alpha);
+            this.vertex(this.width, this.height, 1, 1, 1, 1, 1, alpha);
+            this.vertex(0, this.height, 0, 1, 1, 1, 1, alpha);
+            this.quads++;
+            this.flush();
+
+        }
+
+        // Note: The bound texture changed, so the next sprite has to bind its texture again.
+        if(!(this.texture == null)) {
+            this.gl.glBindTexture(GL.GL_TEXTURE_2D, this.texture.id);
+        }
+
+    }
+
+    private boolean isVisible(int index) {
+        return this.layers.getLayers().get(index).getAlpha() > 0;
+    }
+
+    private void vertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+        this.vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+    }
+
+    /**
+     * <p>
+     *    Draws all quads written since the last flush with one draw call.
+     * </p>
+     */
+    private void flush() {
+
+        if(this.quads == 0) {
+            return;
+        }
+
+        this.vertices.flip();
+
+        // Note: Orphaning the buffer lets the driver hand us fresh memory instead of waiting for the last draw to finish.
+        this.gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) this.vertices.capacity() * Buffers.SIZEOF_FLOAT, null, GL2.GL_STREAM_DRAW);
+        this.gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 0, (long) this.vertices.limit() * Buffers.SIZEOF_FLOAT, this.vertices);
+        this.gl.glDrawElements(GL.GL_TRIANGLES, this.quads * 6, GL.GL_UNSIGNED_SHORT, 0);
+
+        this.vertices.clear();
+        this.quads = 0;
+        this.drawCalls++;
+
+    }
+
+    private void setup() {
+
+        int[] buffers = new int[2];
+        this.gl.glGenBuffers(2, buffers, 0);
+        this.vertexBuffer = buffers[0];
+        this.indexBuffer = buffers[1];
+
+        ShortBuffer indices = Buffers.newDirectShortBuffer(MAX_QUADS * 6);
+        for(int i = 0; i < MAX_QUADS; i++) {
+            int vertex = i * 4;
+            indices.put((short) vertex).put((short) (vertex + 1)).put((short) (vertex + 2));
+            indices.put((short) vertex).put((short) (vertex + 2)).put((short) (vertex + 3));
+        }
+        indices.flip();
+
+        this.gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.indexBuffer);
+        this.gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) indices.capacity() * Buffers.SIZEOF_SHORT, indices, GL.GL_STATIC_DRAW);
+        this.gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+    }
+
+    private void setupLayers(int amount) {
+
+        int from = this.layerTextures.length;
+        int[] textures = new int[amount];
+        System.arraycopy(this.layerTextures, 0, textures, 0, from);
+
+        // Note: The storage of the textures is allocated with their first upload, in the resolution of the layer.
+        for(int i = from; i < amount; i++) {
+            textures[i] = this.generateTexture();
+        }
+
+        this.layerTextures = textures;
+        this.layerWidths = Arrays.copyOf(this.layerWidths, amount);
+        this.layerHeights = Arrays.copyOf(this.layerHeights, amount);
+
+    }
+
+    private int generateTexture() {
+
+        int[] id = new int[1];
+        this.gl.glGenTextures(1, id, 0);
+        this.gl.glBindTexture(GL.GL_TEXTURE_2D, id[0]);
+        this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+        this.gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+
+        return id[0];
+
+    }
+
+    private void upload(Image texture, TextureEntry entry) {
+
+        int width = texture.getWidth(null);
+        int height = texture.getHeight(null);
+        int[] pixels;
+
+        if(texture instanceof BufferedImage) {
+            pixels = ((BufferedImage) texture).getRGB(0, 0, width, height, null, 0, width);
+        } else {
+            BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = copy.createGraphics();
+            g.drawImage(texture, 0, 0, null);
+            g.dispose();
+            pixels = ((DataBufferInt) copy.getRaster().getDataBuffer()).getData();
+        }
+
+        this.gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 4);
+        this.gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, width, height, 0, GL.GL_BGRA, GL2.GL_UNSIGNED_INT_8_8_8_8_REV, IntBuffer.wrap(pixels));
+
+        entry.width = width;
+        entry.height = height;
+        entry.dirty = false;
+        this.uploads++;
+
+    }
+
+    /**
+     * <p>
+     *    Deletes the textures of collected images and marks invalidated textures for a new upload.
+     * </p>
+     */
+    private void release() {
+
+        Reference<? extends Image> reference;
+        while (!((reference = this.collected.poll()) == null)) {
+            this.gl.glDeleteTextures(1, new int[] { ((TextureEntry) reference).id }, 0);
+        }
+
+        synchronized (this.invalidated) {
+            for(Image image : this.invalidated) {
+                TextureEntry entry = this.textures.get(image);
+                if(!(entry == null)) {
+                    entry.dirty = true;
+                }
+            }
+            this.invalidated.clear();
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("textures", this.textures.size())
+                .append("uploads", this.uploads)
+                .append("lastDrawCalls", this.lastDrawCalls)
+            .build();
+    }
+
+    private static class TextureEntry extends WeakReference<Image> {
+
+        private final int id;
+        private int width;
+        private int height;
+        private boolean dirty = true;
+
+        private TextureEntry(Image image, ReferenceQueue<Image> queue, int id) {
+            super(image, queue);
+            this.id = id;
+        }
+
+    }
+
+}
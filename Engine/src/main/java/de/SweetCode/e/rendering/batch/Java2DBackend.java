@@ -0,0 +1,226 @@
+package de.SweetCode.e.rendering.batch;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *    The Java2DBackend executes the draws of a {@link SpriteBatch} with the {@link Graphics2D} of the layers. It draws
+ *    in the coordinates the layer is currently using, so on a layer {@link Layer#isUsingCamera() using the camera}
+ *    sprites are drawn in world coordinates.
+ * </p>
+ * <p>
+ *    Draws that only translate and scale are drawn without touching the transform of the graphics. The composite only
+ *    changes if the alpha value changes. Java2D can't tint images while drawing them, so tinted textures are created
+ *    once per texture and tint and kept in a small cache. The tints are rounded to 16 levels per channel first, so
+ *    e.g. particles fading through slightly different colors share their tinted textures.
+ * </p>
+ */
+public class Java2DBackend implements SpriteBatch.Backend {
+
+    private static final int TINT_CACHE_SIZE = 256;
+
+    private Graphics2D graphics = null;
+    private AffineTransform transform = null;
+    private Composite composite = null;
+    private float alpha = 1F;
+
+    private Image texture = null;
+    private final AffineTransform sprite = new AffineTransform();
+
+    // Note: In access order, so the least recently used tinted texture gets dropped first.
+    private final Map<TintKey, BufferedImage> tinted = new LinkedHashMap<TintKey, BufferedImage>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TintKey, BufferedImage> eldest) {
+            return this.size() > TINT_CACHE_SIZE;
+        }
+    };
+    private final TintKey lookup = new TintKey();
+
+    private final LongAdder hits = E.getE().getMetrics().counter("texture.tinted.hits");
+    private final LongAdder misses = E.getE().getMetrics().counter("texture.tinted.misses");
+
+    public Java2DBackend() {}
+
+    @Override
+    public void begin(Layer layer) {
+        this.graphics = layer.g();
+        this.transform = this.graphics.getTransform();
+        this.composite = this.graphics.getComposite();
+        this.alpha = 1F;
+        this.graphics.setComposite(AlphaComposite.SrcOver);
+    }
+
+    @Override
+    public void texture(Image texture) {
+        this.texture = texture;
+    }
+
+    @Override
+    public void draw(int srcX, int srcY, int srcWidth, int srcHeight, float m00, float m10, float m01, float m11, float m02, float m12, int tint, float alpha) {
+
+        tint = Java2DBackend.quantize(tint);
+        Image image = (tint == SpriteBatch.NO_TINT ? this.texture : this.tinted(this.texture, tint));
+
+        if(!(alpha == this.alpha)) {
+            this.graphics.setComposite(AlphaComposite.SrcOver.derive(alpha));
+            this.alpha = alpha;
+        }
+
+        if(m10 == 0 && m01 == 0) {
+
+            int x1 = Math.round(m02);
+            int y1 = Math.round(m12);
+            int x2 = Math.round(m02 + m00 * srcWidth);
+            int y2 = Math.round(m12 + m11 * srcHeight);
+
+            this.graphics.drawImage(image, x1, y1, x2, y2, srcX, srcY, srcX + srcWidth, srcY + srcHeight, null);
+
+        } else {
+
+            this.sprite.setTransform(m00, m10, m01, m11, m02, m12);
+            this.graphics.transform(this.sprite);
+            this.graphics.drawImage(image, 0, 0, srcWidth, srcHeight, srcX, srcY, srcX + srcWidth, srcY + srcHeight, null);
+            this.graphics.setTransform(this.transform);
+
+        }
+
+    }
+
+    @Override
+    public void end() {
+        this.graphics.setComposite(this.composite);
+        this.graphics.setTransform(this.transform);
+        this.graphics = null;
+        this.transform = null;
+        this.composite = null;
+        this.texture = null;
+    }
+
+    @Override
+    public void invalidate(Image texture) {
+        synchronized (this.tinted) {
+            this.tinted.keySet().removeIf(key -> key.texture == texture);
+        }
+    }
+
+    /**
+     * <p>
+     *    Gives a copy of the texture with its channels multiplied by the tint.
+     * </p>
+     */
+    private BufferedImage tinted(Image texture, int tint) {
+
+        this.lookup.texture = texture;
+        this.lookup.tint = tint;
+
+        BufferedImage image;
+
+        synchronized (this.tinted) {
+            image = this.tinted.get(this.lookup);
+        }
+
+        if(image == null) {
+
+            this.misses.increment();
+
+            // Note: Only textures the RescaleOp can't filter directly have to be copied first.
+            BufferedImage source;
+            if(texture instanceof BufferedImage && ((BufferedImage) texture).getType() == BufferedImage.TYPE_INT_ARGB) {
+                source = (BufferedImage) texture;
+            } else {
+                source = new BufferedImage(texture.getWidth(null), texture.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = source.createGraphics();
+                g.drawImage(texture, 0, 0, null);
+                g.dispose();
+            }
+
+            float[] scales = {
+                ((tint >> 16) & 0xFF) / 255F,
+                ((tint >> 8) & 0xFF) / 255F,
+                (tint & 0xFF) / 255F,
+                ((tint >>> 24) & 0xFF) / 255F
+            };
+
+            image = new RescaleOp(scales, new float[4], null).filter(source, null);
+
+            synchronized (this.tinted) {
+                this.tinted.put(new TintKey(texture, tint), image);
+            }
+
+        } else {
+            this.hits.increment();
+        }
+
+        this.lookup.texture = null;
+
+        return image;
+
+    }
+
+    /**
+     * <p>
+     *    Rounds every channel of the tint to one of 16 levels, the difference is at most 8 of 255.
+     * </p>
+     */
+    private static int quantize(int tint) {
+
+        int quantized = 0;
+
+        for(int shift = 0; shift < 32; shift += 8) {
+            int channel = (tint >>> shift) & 0xFF;
+            quantized |= (((channel + 8) / 17) * 17) << shift;
+        }
+
+        return quantized;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("tinted", this.tinted.size())
+            .build();
+    }
+
+    private static class TintKey {
+
+        private Image texture;
+        private int tint;
+
+        private TintKey() {}
+
+        private TintKey(Image texture, int tint) {
+            this.texture = texture;
+            this.tint = tint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if(!(o instanceof TintKey)) {
+                return false;
+            }
+
+            TintKey other = (TintKey) o;
+            return this.texture == other.texture && this.tint == other.tint;
+
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.texture) * 31 + this.tint;
+        }
+
+    }
+
+}
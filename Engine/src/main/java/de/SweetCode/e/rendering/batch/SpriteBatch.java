@@ -0,0 +1,602 @@
+package de.SweetCode.e.rendering.batch;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *    The SpriteBatch records textured draws instead of executing them right away. Every draw is stored as a command in
+ *    primitive arrays: the {@link Layer} it targets, a region of a texture, the transform from the region to the layer,
+ *    a tint, an alpha value and a z-order. When the batch gets {@link SpriteBatch#flush() flushed} the commands are
+ *    sorted by layer, z-order and texture and handed to a {@link Backend}, which only has to change its state when the
+ *    layer, texture or alpha value actually changes. The layers of the engine are handed over in the order they are
+ *    composed to a frame.
+ * </p>
+ * <p>
+ *    The z-order decides the order of overlapping sprites on the same layer. Sprites with the same z-order are grouped
+ *    by their texture, so their order is only kept among sprites sharing a texture. The engine flushes its batch, see
+ *    {@link de.SweetCode.e.E#getSpriteBatch()}, after all renderables have been rendered. If something gets drawn on a
+ *    layer directly while the batch holds sprites for it, the batch is {@link SpriteBatch#flushBefore(Layer) flushed}
+ *    first, so the sprites end up below it, like they would without the batch.
+ * </p>
+ * <p>
+ *    The z-order, tint and alpha value are part of the state of the batch and apply to all following draws. The engine
+ *    {@link SpriteBatch#reset() resets} the state before every renderable, so renderables don't inherit each others
+ *    state. The SpriteBatch is not thread-safe, it is meant to be used by the render thread only.
+ * </p>
+ */
+public class SpriteBatch {
+
+    /**
+     * <p>
+     *    The tint that doesn't change the colors of the texture.
+     * </p>
+     */
+    public static final int NO_TINT = 0xFFFFFFFF;
+
+    //--- Layout of the sort key: layer (7 bits) | z-order (16 bits) | texture (18 bits) | command (22 bits)
+    private static final int MAX_LAYERS = 1 << 7;
+    private static final int MAX_TEXTURES = 1 << 18;
+    private static final int MAX_COMMANDS = 1 << 22;
+    private static final long COMMAND_MASK = MAX_COMMANDS - 1;
+    private static final long TEXTURE_MASK = MAX_TEXTURES - 1;
+    //---
+
+    private final Backend backend;
+
+    //--- Commands
+    private int count = 0;
+    private long[] keys = new long[256];
+    private int[] regions = new int[256 * 4];
+    private float[] transforms = new float[256 * 6];
+    private int[] tints = new int[256];
+    private float[] alphas = new float[256];
+    //---
+
+    //--- Layers & textures of the current frame, the layers are stored at their position in the key
+    private final Layer[] layers = new Layer[MAX_LAYERS];
+    private final int[] layerOrders = new int[MAX_LAYERS];
+    private int layerCount = 0;
+
+    private Image[] textures = new Image[64];
+    private int textureCount = 0;
+    private final Map<Image, Integer> textureIds = new IdentityHashMap<>();
+    private Image lastTexture = null;
+    private int lastTextureId = -1;
+    //---
+
+    //--- State
+    private int z = 0;
+    private int tint = NO_TINT;
+    private float alpha = 1F;
+    //---
+
+    private boolean flushing = false;
+
+    //--- Statistics of the last flush
+    private int lastCommands = 0;
+    private int lastTextureSwitches = 0;
+    //---
+
+    /**
+     * <p>
+     *    Creates a new SpriteBatch.
+     * </p>
+     *
+     * @param backend The backend executing the draws, cannot be null.
+     */
+    public SpriteBatch(Backend backend) {
+        Assert.assertNotNull("The backend cannot be null.", backend);
+        this.backend = backend;
+    }
+
+    /**
+     * @return The backend executing the draws.
+     */
+    public Backend getBackend() {
+        return this.backend;
+    }
+
+    /**
+     * @return The amount of draws recorded since the last flush.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return The amount of draws executed by the last flush.
+     */
+    public int getLastCommands() {
+        return this.lastCommands;
+    }
+
+    /**
+     * @return The amount of times the backend had to bind another texture in the last flush.
+     */
+    public int getLastTextureSwitches() {
+        return this.lastTextureSwitches;
+    }
+
+    /**
+     * <p>
+     *    Sets the z-order of the following draws. Sprites with a higher z-order are drawn on top of sprites with a lower
+     *    one.
+     * </p>
+     *
+     * @param z The z-order, in [-32768, 32767]. By default 0.
+     */
+    public void setZ(int z) {
+        Assert.assertTrue("The z-order has to be in [-32768, 32767].", z >= Short.MIN_VALUE && z <= Short.MAX_VALUE);
+        this.z = z;
+    }
+
+    /**
+     * <p>
+     *    Sets the tint of the following draws. The color channels of the texture get multiplied with the channels of the
+     *    tint.
+     * </p>
+     *
+     * @param tint The tint as ARGB value. By default {@link SpriteBatch#NO_TINT}.
+     */
+    public void setTint(int tint) {
+        this.tint = tint;
+    }
+
+    /**
+     * <p>
+     *    Sets the tint of the following draws.
+     * </p>
+     *
+     * @param tint The tint, cannot be null.
+     */
+    public void setTint(Color tint) {
+        Assert.assertNotNull("The tint cannot be null.", tint);
+        this.tint = tint.getRGB();
+    }
+
+    /**
+     * <p>
+     *    Sets the alpha value of the following draws.
+     * </p>
+     *
+     * @param alpha The alpha value, in [0, 1]. By default 1.
+     */
+    public void setAlpha(float alpha) {
+        Assert.assertTrue("The alpha value must be => 0 and <= 1.", (alpha >= 0 && alpha <= 1));
+        this.alpha = alpha;
+    }
+
+    /**
+     * <p>
+     *    Resets the z-order, tint and alpha value to their defaults.
+     * </p>
+     */
+    public void reset() {
+        this.z = 0;
+        this.tint = NO_TINT;
+        this.alpha = 1F;
+    }
+
+    /**
+     * <p>
+     *    Records a draw of the whole texture at its original size.
+     * </p>
+     *
+     * @param layer The layer to draw on.
+     * @param texture The texture.
+     * @param x The x coordinate of the upper-left corner.
+     * @param y The y coordinate of the upper-left corner.
+     */
+    public void draw(Layer layer, Image texture, double x, double y) {
+        Assert.assertNotNull("The texture cannot be null.", texture);
+        this.draw(layer, texture, x, y, texture.getWidth(null), texture.getHeight(null));
+    }
+
+    /**
+     * <p>
+     *    Records a draw of the whole texture, scaled to the area.
+     * </p>
+     *
+     * @param layer The layer to draw on.
+     * @param texture The texture.
+     * @param x The x coordinate of the upper-left corner.
+     * @param y The y coordinate of the upper-left corner.
+     * @param width The width of the drawn texture.
+     * @param height The height of the drawn texture.
+     */
+    public void draw(Layer layer, Image texture, double x, double y, double width, double height) {
+        Assert.assertNotNull("The texture cannot be null.", texture);
+        this.draw(layer, texture, 0, 0, texture.getWidth(null), texture.getHeight(null), x, y, width, height);
+    }
+
+    /**
+     * <p>
+     *    Records a draw of a region of the texture, e.g. one tile of a sprite sheet, scaled to the area.
+     * </p>
+     *
+     * @param layer The layer to draw on.
+     * @param texture The texture.
+     * @param srcX The x coordinate of the region in the texture.
+     * @param srcY The y coordinate of the region in the texture.
+     * @param srcWidth The width of the region.
+     * @param srcHeight The height of the region.
+     * @param x The x coordinate of the upper-left corner.
+     * @param y The y coordinate of the upper-left corner.
+     * @param width The width of the drawn region.
+     * @param height The height of the drawn region.
+     */
+    public void draw(Layer layer, Image texture, int srcX, int srcY, int srcWidth, int srcHeight, double x, double y, double width, double height) {
+        Assert.assertTrue("The region has to have a size.", srcWidth > 0 && srcHeight > 0);
+        this.record(layer, texture, srcX, srcY, srcWidth, srcHeight, width / srcWidth, 0, 0, height / srcHeight, x, y);
+    }
+
+    /**
+     * <p>
+     *    Records a draw of a region of the texture with an arbitrary transform, e.g. to rotate it.
+     * </p>
+     *
+     * @param layer The layer to draw on.
+     * @param texture The texture.
+     * @param srcX The x coordinate of the region in the texture.
+     * @param srcY The y coordinate of the region in the texture.
+     * @param srcWidth The width of the region.
+     * @param srcHeight The height of the region.
+     * @param transform The transform from the region, with its upper-left corner at (0, 0), to the coordinates of the
+     *                  layer. It is copied, so it can be reused.
+     */
+    public void draw(Layer layer, Image texture, int srcX, int srcY, int srcWidth, int srcHeight, AffineTransform transform) {
+        Assert.assertTrue("The region has to have a size.", srcWidth > 0 && srcHeight > 0);
+        Assert.assertNotNull("The transform cannot be null.", transform);
+        this.record(
+            layer, texture, srcX, srcY, srcWidth, srcHeight,
+            transform.getScaleX(), transform.getShearY(), transform.getShearX(), transform.getScaleY(),
+            transform.getTranslateX(), transform.getTranslateY()
+        );
+    }
+
+    /**
+     * <p>
+     *    Tells the backend that the content of a texture changed. Backends may keep copies of textures, e.g. in VRAM or
+     *    tinted versions of them, which get refreshed the next time the texture is drawn.
+     * </p>
+     *
+     * @param texture The texture that has been modified.
+     */
+    public void invalidate(Image texture) {
+        Assert.assertNotNull("The texture cannot be null.", texture);
+        this.backend.invalidate(texture);
+    }
+
+    /**
+     * <p>
+     *    Sorts all recorded draws and executes them with the backend. Afterwards the batch is empty and its state has
+     *    been {@link SpriteBatch#reset() reset}.
+     * </p>
+     */
+    public void flush() {
+        this.execute();
+        this.reset();
+    }
+
+    /**
+     * <p>
+     *    Executes the recorded draws if some of them target the layer, because something is about to be drawn on the
+     *    layer directly. Unlike {@link SpriteBatch#flush()} the state of the batch is kept, so the renderable drawing
+     *    can go on recording sprites. It has no effect while the batch is being flushed or if the backend doesn't
+     *    {@link Backend#isDrawingOnLayers() draw on the layers}.
+     * </p>
+     *
+     * @param layer The layer that is about to be drawn on.
+     */
+    public void flushBefore(Layer layer) {
+
+        if(this.flushing || this.count == 0 || !(this.backend.isDrawingOnLayers())) {
+            return;
+        }
+
+        for(int i = 0; i < this.layerCount; i++) {
+            if(this.layers[this.layerOrders[i]] == layer) {
+                this.execute();
+                return;
+            }
+        }
+
+    }
+
+    private void execute() {
+
+        this.flushing = true;
+
+        try {
+            this.draw();
+        } finally {
+            this.flushing = false;
+        }
+
+        //--- Releasing the references of this frame, so textures that are not used anymore can be collected
+        for(int i = 0; i < this.layerCount; i++) {
+            this.layers[this.layerOrders[i]] = null;
+        }
+        Arrays.fill(this.textures, 0, this.textureCount, null);
+        this.textureIds.clear();
+        this.layerCount = 0;
+        this.textureCount = 0;
+        this.lastTexture = null;
+        this.lastTextureId = -1;
+        this.count = 0;
+        //---
+
+    }
+
+    private void draw() {
+
+        Arrays.sort(this.keys, 0, this.count);
+
+        int currentLayer = -1;
+        int currentTexture = -1;
+        int textureSwitches = 0;
+
+        for(int i = 0; i < this.count; i++) {
+
+            long key = this.keys[i];
+            int command = (int) (key & COMMAND_MASK);
+            int texture = (int) ((key >>> 22) & TEXTURE_MASK);
+            int layer = (int) (key >>> 56);
+
+            if(!(layer == currentLayer)) {
+
+                if(!(currentLayer == -1)) {
+                    this.backend.end();
+                }
+
+                this.backend.begin(this.layers[layer]);
+                currentLayer = layer;
+                currentTexture = -1;
+
+            }
+
+            if(!(texture == currentTexture)) {
+                this.backend.texture(this.textures[texture]);
+                currentTexture = texture;
+                textureSwitches++;
+            }
+
+            int region = command * 4;
+            int transform = command * 6;
+
+            this.backend.draw(
+                this.regions[region], this.regions[region + 1], this.regions[region + 2], this.regions[region + 3],
+                this.transforms[transform], this.transforms[transform + 1], this.transforms[transform + 2],
+                this.transforms[transform + 3], this.transforms[transform + 4], this.transforms[transform + 5],
+                this.tints[command], this.alphas[command]
+            );
+
+        }
+
+        if(!(currentLayer == -1)) {
+            this.backend.end();
+        }
+
+        this.lastCommands = this.count;
+        this.lastTextureSwitches = textureSwitches;
+
+    }
+
+    private void record(Layer layer, Image texture, int srcX, int srcY, int srcWidth, int srcHeight,
+                        double m00, double m10, double m01, double m11, double m02, double m12) {
+
+        Assert.assertNotNull("The layer cannot be null.", layer);
+        Assert.assertNotNull("The texture cannot be null.", texture);
+        Assert.assertTrue("The batch is full, it has to be flushed.", this.count < MAX_COMMANDS);
+
+        if(this.alpha == 0) {
+            return;
+        }
+
+        // Note: The sprite is still part of the retained content of the layer, drawing it again would draw it twice.
+        if(!(layer.needsRedraw()) && this.backend.isDrawingOnLayers()) {
+            return;
+        }
+
+        int command = this.count;
+
+        if(command == this.tints.length) {
+            int capacity = Math.min(MAX_COMMANDS, command * 2);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.regions = Arrays.copyOf(this.regions, capacity * 4);
+            this.transforms = Arrays.copyOf(this.transforms, capacity * 6);
+            this.tints = Arrays.copyOf(this.tints, capacity);
+            this.alphas = Arrays.copyOf(this.alphas, capacity);
+        }
+
+        int region = command * 4;
+        this.regions[region] = srcX;
+        this.regions[region + 1] = srcY;
+        this.regions[region + 2] = srcWidth;
+        this.regions[region + 3] = srcHeight;
+
+        int transform = command * 6;
+        this.transforms[transform] = (float) m00;
+        this.transforms[transform + 1] = (float) m10;
+        this.transforms[transform + 2] = (float) m01;
+        this.transforms[transform + 3] = (float) m11;
+        this.transforms[transform + 4] = (float) m02;
+        this.transforms[transform + 5] = (float) m12;
+
+        this.tints[command] = this.tint;
+        this.alphas[command] = this.alpha;
+
+        // Note: The command index in the lowest bits keeps the sort stable, so draws with the same layer, z-order and
+        // texture are executed in the order they were recorded.
+        this.keys[command] = ((long) this.layerId(layer) << 56)
+                | ((long) (this.z - Short.MIN_VALUE) << 40)
+                | ((long) this.textureId(texture) << 22)
+                | command;
+
+        this.count++;
+
+    }
+
+    private int layerId(Layer layer) {
+
+        // Note: There are only a few layers, so a linear search is faster than any map.
+        for(int i = 0; i < this.layerCount; i++) {
+            if(this.layers[this.layerOrders[i]] == layer) {
+                return this.layerOrders[i];
+            }
+        }
+
+        Assert.assertTrue("Too many layers in one batch.", this.layerCount < MAX_LAYERS);
+
+        // Note: The layers of the engine are sorted by their position, so a backend sees them in the order they are
+        // composed. Other layers come after them in the order they have been used first.
+        List<Layer> engineLayers = E.getE().getLayers().getLayers();
+        int order = engineLayers.indexOf(layer);
+
+        if(order == -1) {
+            order = engineLayers.size();
+            while (order < MAX_LAYERS && !(this.layers[order] == null)) {
+                order++;
+            }
+        }
+
+        Assert.assertTrue("Too many layers in one batch.", order < MAX_LAYERS);
+
+        this.layers[order] = layer;
+        this.layerOrders[this.layerCount++] = order;
+
+        return order;
+
+    }
+
+    private int textureId(Image texture) {
+
+        // Note: Consecutive draws usually share their texture, so we skip the lookup for them.
+        if(texture == this.lastTexture) {
+            return this.lastTextureId;
+        }
+
+        Integer id = this.textureIds.get(texture);
+
+        if(id == null) {
+
+            Assert.assertTrue("Too many textures in one batch.", this.textureCount < MAX_TEXTURES);
+
+            if(this.textureCount == this.textures.length) {
+                this.textures = Arrays.copyOf(this.textures, this.textures.length * 2);
+            }
+
+            id = this.textureCount++;
+            this.textures[id] = texture;
+            this.textureIds.put(texture, id);
+
+        }
+
+        this.lastTexture = texture;
+        this.lastTextureId = id;
+
+        return id;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("backend", this.backend.getClass().getSimpleName())
+                .append("size", this.count)
+                .append("lastCommands", this.lastCommands)
+                .append("lastTextureSwitches", this.lastTextureSwitches)
+            .build();
+    }
+
+    /**
+     * <p>
+     *    A Backend executes the sorted draws of a {@link SpriteBatch}. The calls of one flush are always nested the same
+     *    way: {@link Backend#begin(Layer)}, then for every texture {@link Backend#texture(Image)} followed by its
+     *    {@link Backend#draw(int, int, int, int, float, float, float, float, float, float, int, float) draws}, and
+     *    finally {@link Backend#end()}, repeated for every layer.
+     * </p>
+     */
+    public interface Backend {
+
+        /**
+         * <p>
+         *    Starts the draws targeting a layer.
+         * </p>
+         *
+         * @param layer The layer.
+         */
+        void begin(Layer layer);
+
+        /**
+         * <p>
+         *    Binds the texture of the following draws.
+         * </p>
+         *
+         * @param texture The texture.
+         */
+        void texture(Image texture);
+
+        /**
+         * <p>
+         *    Draws a region of the bound texture. The transform maps the region, with its upper-left corner at (0, 0), to
+         *    the coordinates of the layer, its components are in the order of {@link AffineTransform#AffineTransform(float[])}.
+         * </p>
+         *
+         * @param srcX The x coordinate of the region in the texture.
+         * @param srcY The y coordinate of the region in the texture.
+         * @param srcWidth The width of the region.
+         * @param srcHeight The height of the region.
+         * @param m00 The x scale.
+         * @param m10 The y shear.
+         * @param m01 The x shear.
+         * @param m11 The y scale.
+         * @param m02 The x translation.
+         * @param m12 The y translation.
+         * @param tint The tint as ARGB value.
+         * @param alpha The alpha value.
+         */
+        void draw(int srcX, int srcY, int srcWidth, int srcHeight, float m00, float m10, float m01, float m11, float m02, float m12, int tint, float alpha);
+
+        /**
+         * <p>
+         *    Ends the draws targeting the layer passed to the last {@link Backend#begin(Layer)} call.
+         * </p>
+         */
+        void end();
+
+        /**
+         * <p>
+         *    Drops every copy the backend keeps of the texture, because its content changed. It can be called from any
+         *    thread.
+         * </p>
+         *
+         * @param texture The texture.
+         */
+        default void invalidate(Image texture) {}
+
+        /**
+         * <p>
+         *    Tells if the backend draws the sprites into the images of the layers. If it doesn't, sprites aren't part
+         *    of the content of a {@link Layer#isRetained() retained} layer and have to be drawn in every frame.
+         * </p>
+         *
+         * @return True, if the sprites are drawn into the layers.
+         */
+        default boolean isDrawingOnLayers() {
+            return true;
+        }
+
+    }
+
+}
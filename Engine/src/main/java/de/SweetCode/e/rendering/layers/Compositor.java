@@ -0,0 +1,303 @@
+package de.SweetCode.e.rendering.layers;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.Parallel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ *    The Compositor blends the {@link Layer layers} into one frame by working on {@code int[]} rows of their rasters
+ *    instead of drawing them with {@link java.awt.AlphaComposite}. The layers are stored as non-premultiplied ARGB, the
+ *    frame is premultiplied ARGB, so every source pixel is premultiplied while it is blended.
+ * </p>
+ * <p>
+ *    For every row the compositor first determines the coverage of each layer: the span between its first and last
+ *    visible pixel and if the row is completely opaque. Rows are then blended from the topmost layer that covers the row
+ *    completely, everything below it is hidden, and each layer only within its span. Layers that haven't been
+ *    {@link Layer#isTouched() touched} are known to be empty and skipped completely. The rows are split into batches
+ *    that run on the core pool of the engine.
+ * </p>
+ * <p>
+ *    The rows are copied in and out of the rasters with {@link java.awt.image.WritableRaster#getDataElements(int, int,
+ *    int, int, Object)} and {@link java.awt.image.WritableRaster#setDataElements(int, int, int, int, Object)}, into
+ *    buffers every batch keeps across frames. Taking the arrays of the rasters directly would stop Java2D from
+ *    accelerating the images of the layers and the frame for good.
+ * </p>
+ * <p>
+ *    If the target is the same as in the last call and none of the layers {@link Layer#isChanged() changed}, e.g.
+ *    because all of them are {@link Layer#isRetained() retained}, the target already contains the frame and nothing gets
+ *    blended at all.
+ * </p>
+ */
+public class Compositor {
+
+    private static final int ROWS_PER_BATCH = 16;
+
+    private BufferedImage[] sources = new BufferedImage[0];
+    private int[] alphas = new int[0];
+    private int sourceCount = 0;
+    private BufferedImage lastTarget = null;
+
+    //--- The frame that is currently blended, read by the batches
+    private final Parallel.Task batches = Parallel.task(this::batch);
+    private BufferedImage target = null;
+    private int width = 0;
+    private int height = 0;
+    private Rows[] rows = new Rows[0];
+    //---
+
+    public Compositor() {}
+
+    /**
+     * <p>
+     *    Blends the layers into the target.
+     * </p>
+     *
+     * @param layers The layers from the bottom to the top.
+     * @param target The frame, a {@link BufferedImage#TYPE_INT_ARGB_PRE} image of the size of the layers.
+     */
+    public void composite(List<Layer> layers, BufferedImage target) {
+
+        Assert.assertNotNull("The layers cannot be null.", layers);
+        Assert.assertNotNull("The target cannot be null.", target);
+        Assert.assertTrue("The target has to be of the type TYPE_INT_ARGB_PRE.", target.getType() == BufferedImage.TYPE_INT_ARGB_PRE);
+
+        int width = target.getWidth();
+        int height = target.getHeight();
+
+        //--- Collecting the layers that can contribute anything
+        if(this.sources.length < layers.size()) {
+            this.sources = new BufferedImage[layers.size()];
+            this.alphas = new int[layers.size()];
+        }
+
+        int lastCount = this.sourceCount;
+        boolean changed = !(target == this.lastTarget);
+
+        this.sourceCount = 0;
+        this.lastTarget = target;
+
+        for(Layer layer : layers) {
+
+            int alpha = Math.round(layer.getAlpha() * 256);
+
+            if(alpha == 0 || !(layer.isTouched())) {
+                continue;
+            }
+
+            BufferedImage image = layer.raster();
+            Assert.assertTrue("The layers have to be as large as the target.", image.getWidth() == width && image.getHeight() == height);
+
+            if(layer.isChanged() || !(this.sources[this.sourceCount] == image) || !(this.alphas[this.sourceCount] == alpha)) {
+                changed = true;
+            }
+
+            this.sources[this.sourceCount] = image;
+            this.alphas[this.sourceCount] = alpha;
+            this.sourceCount++;
+
+        }
+        //---
+
+        if(!(changed) && this.sourceCount == lastCount) {
+            return;
+        }
+
+        if(this.sourceCount == 0) {
+            Graphics2D g = target.createGraphics();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, height);
+            g.dispose();
+            return;
+        }
+
+        int batches = (height + ROWS_PER_BATCH - 1) / ROWS_PER_BATCH;
+
+        //--- Buffers: One set per batch, so the batches don't have to allocate or share anything
+        if(this.rows.length < batches) {
+            this.rows = Arrays.copyOf(this.rows, batches);
+        }
+
+        for(int i = 0; i < batches; i++) {
+            if(this.rows[i] == null || !(this.rows[i].fits(this.sourceCount, width))) {
+                this.rows[i] = new Rows(Math.max(this.sourceCount, this.sources.length), width);
+            }
+        }
+        //---
+
+        this.target = target;
+        this.width = width;
+        this.height = height;
+
+        try {
+            this.batches.run(E.getE().getCoreExecutor(), batches, 1);
+        } finally {
+            this.target = null;
+        }
+
+    }
+
+    private void batch(int batch) {
+
+        Rows rows = this.rows[batch];
+        WritableRaster destination = this.target.getRaster();
+
+        int to = Math.min(this.height, (batch + 1) * ROWS_PER_BATCH);
+        for(int y = batch * ROWS_PER_BATCH; y < to; y++) {
+            Compositor.row(this.sources, this.alphas, this.sourceCount, y, this.width, rows);
+            destination.setDataElements(0, y, this.width, 1, rows.destination);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Blends one row of all layers into the destination row of the buffers.
+     * </p>
+     */
+    private static void row(BufferedImage[] sources, int[] alphas, int sourceCount, int y, int width, Rows rows) {
+
+        int[] destination = rows.destination;
+        int[] starts = rows.starts;
+        int[] ends = rows.ends;
+
+        //--- Coverage, from the top to the bottom until a layer hides everything below it
+        int base = -1;
+
+        for(int i = sourceCount - 1; i >= 0; i--) {
+
+            int[] source = rows.sources[i];
+            sources[i].getRaster().getDataElements(0, y, width, 1, source);
+
+            int start = 0;
+            int end = width;
+
+            while (start < end && (source[start] >>> 24) == 0) {
+                start++;
+            }
+
+            while (end > start && (source[end - 1] >>> 24) == 0) {
+                end--;
+            }
+
+            starts[i] = start;
+            ends[i] = end;
+
+            if(alphas[i] == 256 && start == 0 && end == width && Compositor.isOpaque(source, start, end)) {
+                base = i;
+                break;
+            }
+
+        }
+        //---
+
+        //--- Base: either an opaque layer, which is premultiplied already, or nothing
+        int from;
+
+        if(base == -1) {
+            Arrays.fill(destination, 0, width, 0);
+            from = 0;
+        } else {
+            System.arraycopy(rows.sources[base], 0, destination, 0, width);
+            from = base + 1;
+        }
+        //---
+
+        for(int i = from; i < sourceCount; i++) {
+            if(starts[i] < ends[i]) {
+                Compositor.blend(rows.sources[i], destination, starts[i], ends[i], alphas[i]);
+            }
+        }
+
+    }
+
+    private static boolean isOpaque(int[] source, int from, int to) {
+
+        int and = -1;
+
+        for(int i = from; i < to; i++) {
+            and &= source[i];
+        }
+
+        return (and >>> 24) == 0xFF;
+
+    }
+
+    /**
+     * <p>
+     *    Blends a span of a non-premultiplied source over a premultiplied destination. Two channels are processed with
+     *    one multiplication each, red and blue as well as alpha and green, which are 16 bits apart, so there is enough
+     *    room for the products. The loop has no branches, so the JIT can unroll it: transparent source pixels simply
+     *    leave the destination unchanged.
+     * </p>
+     *
+     * @param alpha The alpha of the layer in [0, 256].
+     */
+    private static void blend(int[] source, int[] destination, int from, int to, int alpha) {
+
+        for(int i = from; i < to; i++) {
+
+            int s = source[i];
+            int d = destination[i];
+
+            int a = ((s >>> 24) * alpha) >> 8;
+            int inverse = 255 - a;
+
+            //--- Source, premultiplied with its alpha
+            int rb = Compositor.div255Lanes((s & 0xFF00FF) * a + 0x800080);
+            int g = (Compositor.div255Lanes(((s >>> 8) & 0xFF) * a + 0x80)) << 8;
+            //---
+
+            //--- Destination, scaled by the part that is still visible
+            int destinationRB = Compositor.div255Lanes((d & 0xFF00FF) * inverse + 0x800080);
+            int destinationAG = Compositor.div255Lanes(((d >>> 8) & 0xFF00FF) * inverse + 0x800080) << 8;
+            //---
+
+            // Note: Every channel sums up to at most a + inverse = 255, so the channels can't carry into each other.
+            destination[i] = ((a << 24) | g | rb) + destinationAG + destinationRB;
+
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Divides two 8 bit products, 16 bits apart and already rounded with 0x80 added, by 255.
+     * </p>
+     */
+    private static int div255Lanes(int x) {
+        return ((x + ((x >>> 8) & 0xFF00FF)) >>> 8) & 0xFF00FF;
+    }
+
+    /**
+     * <p>
+     *    The buffers of one batch: a row of every layer, the blended row and the coverage of the layers.
+     * </p>
+     */
+    private static class Rows {
+
+        private final int[][] sources;
+        private final int[] destination;
+        private final int[] starts;
+        private final int[] ends;
+
+        private Rows(int sourceCount, int width) {
+            this.sources = new int[sourceCount][width];
+            this.destination = new int[width];
+            this.starts = new int[sourceCount];
+            this.ends = new int[sourceCount];
+        }
+
+        private boolean fits(int sourceCount, int width) {
+            return this.sources.length >= sourceCount && this.destination.length == width;
+        }
+
+    }
+
+}
@@ -2,20 +2,37 @@ package de.SweetCode.e.rendering.layers;
 
 import de.SweetCode.e.E;
 import de.SweetCode.e.Settings;
+import de.SweetCode.e.rendering.AcceleratedImage;
+import de.SweetCode.e.rendering.batch.SpriteBatch;
 import de.SweetCode.e.utils.Assert;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * <p>
  * This class represents one rendering layer. The engine allows you to have multiple layers at once will be combined and
  * then rendered on the screen.
  * </p>
+ * <p>
+ *    By default a layer is {@link Layer#clean() cleaned} after every frame and has to be drawn again from scratch. A
+ *    {@link Layer#setRetained(boolean) retained} layer keeps its content across frames instead, until it gets
+ *    {@link Layer#invalidate() invalidated}, one of its {@link Layer#dependsOn(Supplier) dependencies} changes or, if
+ *    it {@link Layer#isUsingCamera() uses the camera}, the camera moves. Renderables drawing on it directly should check
+ *    {@link Layer#needsRedraw()} first, draws through the {@link de.SweetCode.e.rendering.batch.SpriteBatch} are
+ *    skipped automatically.
+ * </p>
  */
 public class Layer {
 
+    private final static AffineTransform IDENTITY = new AffineTransform();
+
     private float alpha = 1F;
 
     private BufferedImage bufferedImage = new BufferedImage(
@@ -26,6 +43,31 @@ public class Layer {
 
     private Graphics2D graphics2D = this.bufferedImage.createGraphics();
 
+    private AcceleratedImage acceleratedImage = null;
+
+    private boolean usingCamera = false;
+
+    //--- Resolution: The image can be smaller than the frame, the base transform maps frame coordinates onto it
+    private double scale = 1;
+    private AffineTransform base = new AffineTransform();
+    //---
+
+    // Note: Set by every accessor that allows to draw on the layer, so an untouched layer is known to be empty.
+    private boolean touched = false;
+    // Note: Same as touched, but reset after every frame, even if the content of the layer is retained.
+    private boolean changed = false;
+
+    //--- Retained
+    private boolean retained = false;
+    // Note: Incremented by every invalidation, the layer is valid as long as it has been drawn for the current version.
+    private final AtomicInteger version = new AtomicInteger(0);
+    private int validVersion = -1;
+    private int drawingVersion = -1;
+    private boolean redrawing = false;
+    private final List<Dependency> dependencies = new ArrayList<>();
+    private AffineTransform view = null;
+    //---
+
     /**
      * <p>
      *    Creates a new Layer and setting the {@link RenderingHints} provided by {@link Settings#getRenderingHints()}.
@@ -43,6 +85,7 @@ public class Layer {
      * @return Returns a BufferedImage used by the layer to draw on.
      */
     public BufferedImage getBufferedImage() {
+        this.touch();
         return this.bufferedImage;
     }
 
@@ -55,9 +98,47 @@ public class Layer {
      * @return Returns the same as {@link #getBufferedImage()}.
      */
     public BufferedImage b() {
+        this.touch();
         return this.bufferedImage;
     }
 
+    /**
+     * <p>
+     *    Gives the image of the layer without {@link Layer#isTouched() touching} it, for code that only reads the layer,
+     *    e.g. the {@link Compositor} or a {@link de.SweetCode.e.rendering.batch.SpriteBatch.Backend} uploading it. Drawing
+     *    on the image returned by it is not noticed by the layer.
+     * </p>
+     *
+     * @return The image of the layer.
+     */
+    public BufferedImage raster() {
+        return this.bufferedImage;
+    }
+
+    /**
+     * <p>
+     *    Gives the image that should be used to present the layer. If the {@link de.SweetCode.e.EScreen} is using VRAM
+     *    and the layer is {@link Layer#isRetained() retained} this is the accelerated copy of the {@link BufferedImage}
+     *    of the layer, otherwise the BufferedImage itself. A layer that isn't retained is drawn again in every frame, its
+     *    copy would have to be uploaded in every frame as well.
+     * </p>
+     *
+     * @return Returns the image to draw the layer with.
+     */
+    public Image getImage() {
+
+        if(!(this.retained) || E.getE().getScreen() == null || !(E.getE().getScreen().isUsingVRAM())) {
+            return this.bufferedImage;
+        }
+
+        if(this.acceleratedImage == null) {
+            this.acceleratedImage = new AcceleratedImage(this.bufferedImage);
+        }
+
+        return this.acceleratedImage.get();
+
+    }
+
     /**
      * <p>
      *    Gets the {@link Graphics2D} which is also related to the {@link BufferedImage} of the layer.
@@ -66,6 +147,7 @@ public class Layer {
      * @return Returns a Graphics2D object used by the layer to draw on.
      */
     public Graphics2D getGraphics2D() {
+        this.touch();
         return this.graphics2D;
     }
 
@@ -77,9 +159,29 @@ public class Layer {
      * @return Returns the same as {@link #getGraphics2D()}
      */
     public Graphics2D g() {
+        this.touch();
         return this.graphics2D;
     }
 
+    /**
+     * <p>
+     *    Marks the layer as drawn on. Sprites that have been recorded for it are drawn first, so they stay below
+     *    whatever gets drawn on it now.
+     * </p>
+     */
+    private void touch() {
+
+        this.touched = true;
+        this.changed = true;
+
+        SpriteBatch batch = E.getE().getSpriteBatch();
+
+        if(!(batch == null)) {
+            batch.flushBefore(this);
+        }
+
+    }
+
     /**
      * <p>
      *    Returns the alpha value of the layer. The value is in the interval of [0, 1].
@@ -103,31 +205,331 @@ public class Layer {
         this.alpha = alpha;
     }
 
+    /**
+     * @return True, if renderables draw on this layer in world coordinates, otherwise false.
+     */
+    public boolean isUsingCamera() {
+        return this.usingCamera;
+    }
+
+    /**
+     * <p>
+     *    Defines if the {@link de.SweetCode.e.rendering.Camera} is applied to the layer. If it is, the engine sets the
+     *    transform of {@link Layer#g()} to {@link de.SweetCode.e.rendering.Camera#getTransform()} before every frame, so
+     *    renderables draw in world coordinates. Layers not using the camera, e.g. for the HUD, draw in frame coordinates.
+     * </p>
+     *
+     * @param usingCamera True, if the layer should use the camera.
+     */
+    public void setUsingCamera(boolean usingCamera) {
+        this.usingCamera = usingCamera;
+    }
+
+    /**
+     * <p>
+     *    Gives the current transform of the {@link Graphics2D} of the layer from the coordinates renderables draw in to
+     *    frame coordinates, without {@link Layer#isTouched() touching} the layer. The {@link Layer#getScale() scale} of
+     *    the layer is not part of it.
+     * </p>
+     *
+     * @return A copy of the transform.
+     */
+    public AffineTransform getTransform() {
+
+        AffineTransform transform = this.graphics2D.getTransform();
+
+        if(!(this.scale == 1)) {
+            transform.preConcatenate(AffineTransform.getScaleInstance(1 / this.scale, 1 / this.scale));
+        }
+
+        return transform;
+
+    }
+
+    /**
+     * @return The ratio between the size of the image of the layer and the size of the frame, in (0, 1].
+     */
+    public double getScale() {
+        return this.scale;
+    }
+
+    /**
+     * <p>
+     *    Changes the resolution of the layer. The image gets replaced by one of the frame size multiplied by the scale,
+     *    the {@link Graphics2D} of the layer scales everything drawn on it accordingly, so renderables still draw in frame
+     *    coordinates. The content of the layer is lost and a retained layer gets invalidated.
+     * </p>
+     *
+     * @param scale The new scale in (0, 1].
+     */
+    void resize(double scale) {
+
+        Assert.assertTrue("The scale has to be in (0, 1].", scale > 0 && scale <= 1);
+
+        this.scale = scale;
+        this.base = AffineTransform.getScaleInstance(scale, scale);
+
+        this.graphics2D.dispose();
+        this.bufferedImage = new BufferedImage(
+                Math.max(1, (int) Math.round(E.getE().getSettings().getFrameDimension().getWidth() * scale)),
+                Math.max(1, (int) Math.round(E.getE().getSettings().getFrameDimension().getHeight() * scale)),
+                BufferedImage.TYPE_INT_ARGB
+        );
+        this.graphics2D = this.bufferedImage.createGraphics();
+        this.graphics2D.setRenderingHints(E.getE().getSettings().getRenderingHints());
+        this.graphics2D.setTransform(this.base);
+
+        this.acceleratedImage = null;
+        this.touched = false;
+        this.changed = true;
+        this.invalidate();
+
+    }
+
+    /**
+     * <p>
+     *    Sets the transform of the layer to the transform of the camera, if the layer {@link Layer#isUsingCamera() uses it}.
+     * </p>
+     *
+     * @param transform The transform from world to frame coordinates.
+     */
+    public void applyCamera(AffineTransform transform) {
+        if(this.usingCamera) {
+
+            // Note: The content of a retained layer is only valid for the view it has been drawn with.
+            if(this.retained && !(transform.equals(this.view))) {
+                this.view = new AffineTransform(transform);
+                this.invalidate();
+            }
+
+            AffineTransform scaled = new AffineTransform(this.base);
+            scaled.concatenate(transform);
+            this.graphics2D.setTransform(scaled);
+
+        }
+    }
+
+    /**
+     * @return True, if the content of the layer is kept across frames until it gets invalidated.
+     */
+    public boolean isRetained() {
+        return this.retained;
+    }
+
+    /**
+     * <p>
+     *    Defines if the content of the layer is retained. A retained layer gets drawn in the first frame and then reused
+     *    by every following frame until it gets invalidated. This is meant for layers that rarely change, like the
+     *    background or the HUD.
+     * </p>
+     *
+     * @param retained True, if the layer should be retained.
+     */
+    public void setRetained(boolean retained) {
+        this.retained = retained;
+        this.view = null;
+        this.invalidate();
+
+        // Note: Only retained layers are kept in VRAM, see getImage().
+        if(!(retained) && !(this.acceleratedImage == null)) {
+            this.acceleratedImage.flush();
+            this.acceleratedImage = null;
+        }
+    }
+
+    /**
+     * <p>
+     *    Marks the content of a retained layer as outdated, so it gets cleared and drawn again in the next frame. It can
+     *    be called from any thread.
+     * </p>
+     */
+    public void invalidate() {
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * <p>
+     *    Adds a dependency to the layer. The dependency is queried before every frame and the layer gets
+     *    {@link Layer#invalidate() invalidated} whenever its value isn't {@link Object#equals(Object) equal} to the value
+     *    of the frame before, e.g. {@code layer.dependsOn(player::getHealth)} for a HUD.
+     * </p>
+     *
+     * @param dependency The dependency, it is called by the render thread.
+     */
+    public void dependsOn(Supplier<?> dependency) {
+        Assert.assertNotNull("The dependency cannot be null.", dependency);
+        this.dependencies.add(new Dependency(dependency));
+        this.invalidate();
+    }
+
+    /**
+     * @return True, if the layer is retained and its content is up to date.
+     */
+    public boolean isValid() {
+        return this.retained && this.validVersion == this.version.get();
+    }
+
+    /**
+     * <p>
+     *    Checks if renderables have to draw on the layer in the current frame. This is always the case for layers that
+     *    aren't retained. A retained layer only needs to be drawn in the frame after it has been invalidated, in all other
+     *    frames drawing on it would draw on top of its retained content.
+     * </p>
+     *
+     * @return True, if the layer has to be drawn in this frame.
+     */
+    public boolean needsRedraw() {
+        return !(this.retained) || this.redrawing;
+    }
+
+    /**
+     * <p>
+     *    Prepares the layer for the next frame. It is called by the engine before the renderables get rendered, after
+     *    {@link Layer#applyCamera(AffineTransform)}. It queries the dependencies and, if the layer is retained and
+     *    outdated, clears it, so it can be drawn again.
+     * </p>
+     */
+    public void prepare() {
+
+        if(!(this.retained)) {
+            return;
+        }
+
+        for(Dependency dependency : this.dependencies) {
+            if(dependency.changed()) {
+                this.invalidate();
+            }
+        }
+
+        if(this.isValid()) {
+            return;
+        }
+
+        this.drawingVersion = this.version.get();
+        this.redrawing = true;
+
+        if(this.touched) {
+            this.clear();
+            this.touched = false;
+            this.changed = true;
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Checks if anything could have been drawn on the layer since it has been {@link Layer#clean() cleaned} the last
+     *    time, i.e. if its graphics or image have been requested.
+     * </p>
+     *
+     * @return True, if the layer might contain something, false if it is guaranteed to be empty.
+     */
+    public boolean isTouched() {
+        return this.touched;
+    }
+
+    /**
+     * <p>
+     *    Checks if the content of the layer could have changed in the current frame. Unlike {@link Layer#isTouched()}
+     *    this is false for a retained layer that has been reused, so copies of the layer, e.g. in VRAM or on the GPU,
+     *    don't have to be updated.
+     * </p>
+     *
+     * @return True, if the layer could have changed.
+     */
+    public boolean isChanged() {
+        return this.changed;
+    }
+
     /**
      * <p>
      *    Clears the layer by:
      * </p>
      * <ul>
+     *    <li>setting the transform to the identity, only scaled by the {@link Layer#getScale() scale} of the layer</li>
      *    <li>resetting he clip by calling {@link Graphics2D#setClip(int, int, int, int)}</li>
-     *    <li>setting the transform to {@link AffineTransform}</li>
-     *    <li>clearing the frame by calling {@link Graphics2D#clearRect(int, int, int, int)}</li>
+     *    <li>clearing the frame to transparent pixels, if the layer has been {@link Layer#isTouched() touched}</li>
      *    <li>setting the rendering hints provided by {@link Settings#getRenderingHints()}</li>
+     *    <li>marking the VRAM copy of a retained layer as outdated, if it has changed</li>
      * </ul>
+     * <p>
+     *    The content of a {@link Layer#isRetained() retained} layer isn't cleared, it is marked as valid instead if it
+     *    has been drawn in this frame.
+     * </p>
      */
     public void clean() {
+        this.graphics2D.setTransform(this.base);
         this.graphics2D.setClip(
                 0,
                 0,
                 E.getE().getSettings().getFrameDimension().getWidth(),
                 E.getE().getSettings().getFrameDimension().getHeight()
         );
-        this.graphics2D.setTransform(new AffineTransform());
-        this.graphics2D.clearRect(
-                0,
-                0,
-                E.getE().getSettings().getFrameDimension().getWidth(),
-                E.getE().getSettings().getFrameDimension().getHeight()
-        );
+
+        if(this.retained) {
+
+            if(this.changed && !(this.acceleratedImage == null)) {
+                this.acceleratedImage.invalidate();
+            }
+
+            if(this.redrawing) {
+                this.validVersion = this.drawingVersion;
+                this.redrawing = false;
+            }
+
+        } else if(this.touched) {
+            this.clear();
+            this.touched = false;
+        }
+
+        this.changed = false;
         this.graphics2D.setRenderingHints(E.getE().getSettings().getRenderingHints());
     }
+
+    /**
+     * <p>
+     *    Sets all pixels of the layer to transparent. {@link Graphics2D#clearRect(int, int, int, int)} can't be used for
+     *    this, it fills with the background color of the graphics, which is opaque black by default. The pixels aren't
+     *    cleared through the array of the raster, taking it would stop Java2D from accelerating the image. The transform
+     *    is kept, a retained layer gets cleared after the camera has already been applied to it.
+     * </p>
+     */
+    private void clear() {
+
+        Composite composite = this.graphics2D.getComposite();
+        AffineTransform transform = this.graphics2D.getTransform();
+
+        this.graphics2D.setTransform(IDENTITY);
+        this.graphics2D.setComposite(AlphaComposite.Clear);
+        this.graphics2D.fillRect(0, 0, this.bufferedImage.getWidth(), this.bufferedImage.getHeight());
+        this.graphics2D.setComposite(composite);
+        this.graphics2D.setTransform(transform);
+
+    }
+
+    private static class Dependency {
+
+        private final Supplier<?> supplier;
+        private Object last;
+
+        private Dependency(Supplier<?> supplier) {
+            this.supplier = supplier;
+            this.last = supplier.get();
+        }
+
+        private boolean changed() {
+
+            Object value = this.supplier.get();
+
+            if(Objects.equals(value, this.last)) {
+                return false;
+            }
+
+            this.last = value;
+            return true;
+
+        }
+
+    }
+
 }
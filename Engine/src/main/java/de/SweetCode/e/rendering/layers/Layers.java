@@ -1,10 +1,11 @@
 package de.SweetCode.e.rendering.layers;
 
-import de.SweetCode.e.E;
+import de.SweetCode.e.math.IDimension;
 import de.SweetCode.e.utils.Assert;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -17,6 +18,8 @@ import java.util.stream.IntStream;
 public class Layers {
 
     private final List<Layer> layers = new LinkedList<>();
+    private final Compositor compositor = new Compositor();
+    private double scale = 1;
 
     /**
      * <p>
@@ -94,48 +97,129 @@ public class Layers {
         Assert.assertNotNull("The layer cannot be null.", layer);
         Assert.assertFalse("The layer already exists.", this.layers.contains(layer));
 
+        if(!(layer.getScale() == this.scale)) {
+            layer.resize(this.scale);
+        }
+
         this.layers.add(layer);
     }
 
+    /**
+     * @return The ratio between the resolution the layers are rendered in and the frame, in (0, 1].
+     */
+    public double getRenderScale() {
+        return this.scale;
+    }
+
+    /**
+     * <p>
+     *    Changes the resolution the layers are rendered in, relative to {@link de.SweetCode.e.Settings#getFrameDimension()}.
+     *    Renderables still draw in frame coordinates, but every layer gets a new, smaller image and loses its content, so
+     *    it should only be called between two frames. The combined frame has to be scaled up to be presented.
+     * </p>
+     *
+     * @param scale The new scale in (0, 1].
+     */
+    public void setRenderScale(double scale) {
+
+        Assert.assertTrue("The scale has to be in (0, 1].", scale > 0 && scale <= 1);
+
+        if(this.scale == scale) {
+            return;
+        }
+
+        this.scale = scale;
+        this.layers.forEach(l -> l.resize(scale));
+
+    }
+
+    /**
+     * @return The size of the images of the layers and the combined frame.
+     */
+    public IDimension getRenderDimension() {
+        BufferedImage image = this.layers.get(0).raster();
+        return new IDimension(image.getWidth(), image.getHeight());
+    }
+
     /**
      * <p>
      *    Combines all layers to a single {@link BufferedImage} used in the final render process. The BufferedImage is
-     *    using the ARGB color space. - If the alpha value of {@link Layers#last()} is equals to one, it will render only
-     *    the frame of it, because no others would be visible. The method also avoids images where the alpha value is
-     *    equals to 0.
+     *    using the premultiplied ARGB color space. The layers are blended by the {@link Compositor}, which only blends
+     *    the parts of the layers that are visible and skips layers with an alpha value of 0.
      * </p>
      *
-     * @return Returns a {@link BufferedImage}.
+     * @return Returns a new {@link BufferedImage} of the size of {@link Layers#getRenderDimension()}.
      */
     public BufferedImage combine() {
 
-        BufferedImage img = new BufferedImage(
-                E.getE().getSettings().getFrameDimension().getWidth(),
-                E.getE().getSettings().getFrameDimension().getHeight(),
-                BufferedImage.TYPE_INT_ARGB_PRE
-        );
-        Graphics2D g2 = img.createGraphics();
+        IDimension dimension = this.getRenderDimension();
+        return this.combine(new BufferedImage(dimension.getWidth(), dimension.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE));
+
+    }
 
-        g2.setRenderingHints(E.getE().getSettings().getRenderingHints());
+    /**
+     * <p>
+     *    Combines all layers into an existing image, so the same image can be reused for every frame.
+     * </p>
+     *
+     * @param target A {@link BufferedImage#TYPE_INT_ARGB_PRE} image of the size of {@link Layers#getRenderDimension()},
+     *               its content gets replaced.
+     * @return Returns the target.
+     */
+    public BufferedImage combine(BufferedImage target) {
+        this.compositor.composite(this.layers, target);
+        return target;
+    }
 
-        if(this.last().getAlpha() == 1) {
-            g2.drawImage(this.last().getBufferedImage(), 0, 0, null);
-        } else {
-            this.layers.forEach(l -> {
+    /**
+     * <p>
+     *    Draws all layers directly onto the provided graphics, following the same rules as {@link Layers#combine()}.
+     *    The layers are drawn with {@link Layer#getImage()}, so they come from VRAM if the engine is using it. If the
+     *    VRAM contents got lost while drawing, the layers will be drawn again.
+     * </p>
+     *
+     * @param g The graphics to draw on.
+     * @param x The x coordinate of the upper-left corner.
+     * @param y The y coordinate of the upper-left corner.
+     * @param width The width the frame is scaled to.
+     * @param height The height the frame is scaled to.
+     */
+    public void draw(Graphics2D g, int x, int y, int width, int height) {
+        this.compose(g, x, y, width, height, true);
+    }
 
-                // If the Alpha-Value is equals to 0 we don't have to
-                // setScene the layer at all.
-                if (l.getAlpha() > 0) {
-                    g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, l.getAlpha()));
-                    g2.drawImage(l.getBufferedImage(), 0, 0, null);
-                }
+    private void compose(Graphics2D g, int x, int y, int width, int height, boolean accelerated) {
 
-            });
-        }
+        Composite composite = g.getComposite();
+
+        this.layers.forEach(l -> {
 
-        g2.dispose();
+            // If the Alpha-Value is equals to 0 we don't have to
+            // setScene the layer at all, the same goes for layers nobody has drawn on.
+            if (l.getAlpha() > 0 && l.isTouched()) {
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, l.getAlpha()));
+                this.drawLayer(g, l, x, y, width, height, accelerated);
+            }
 
-        return img;
+        });
+
+        g.setComposite(composite);
 
     }
+
+    private void drawLayer(Graphics2D g, Layer layer, int x, int y, int width, int height, boolean accelerated) {
+
+        if(!(accelerated)) {
+            g.drawImage(layer.getBufferedImage(), x, y, width, height, null);
+            return;
+        }
+
+        Image image;
+        do {
+            image = layer.getImage();
+            g.drawImage(image, x, y, width, height, null);
+        } while (image instanceof VolatileImage && ((VolatileImage) image).contentsLost());
+
+    }
+
 }
@@ -0,0 +1,347 @@
+package de.SweetCode.e.rendering.layers;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.Renderable;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *    A ScrollingLayer caches static content of the world, e.g. a tile map, in a backing buffer which is larger than the
+ *    viewport of the {@link de.SweetCode.e.rendering.Camera}. Every frame it only copies the visible part of the buffer
+ *    to its {@link Layer}. If the camera moves, only the strips of the world that become exposed are painted, so
+ *    scrolling doesn't repaint the whole content.
+ * </p>
+ * <p>
+ *    The buffer wraps around: A world location is always stored at the same place of the buffer, modulo its size. So
+ *    nothing has to be copied inside of the buffer when the camera moves, the visible part is drawn with up to four
+ *    blits instead.
+ * </p>
+ * <p>
+ *    The content is cached at a zoom of 1, the zoom and rotation of the camera are applied when it is drawn. The layer
+ *    can be {@link Layer#isRetained() retained}, it gets invalidated whenever the camera changes.
+ * </p>
+ */
+public class ScrollingLayer implements Renderable {
+
+    private final Layer layer;
+    private final int margin;
+    private final Painter painter;
+
+    private BufferedImage buffer = null;
+    private Graphics2D graphics = null;
+
+    //--- The area of the world currently stored in the buffer, it is always as large as the buffer
+    private boolean valid = false;
+    private int validX;
+    private int validY;
+    //---
+
+    private final List<Rectangle> dirty = new ArrayList<>();
+    private long paintedPixels = 0;
+    private boolean active = true;
+
+    /**
+     * <p>
+     *    Creates a new ScrollingLayer, it has to be added with {@link E#addComponent(de.SweetCode.e.GameComponent)} to
+     *    be rendered.
+     * </p>
+     *
+     * @param layer The layer to draw on.
+     * @param margin The amount of pixels the buffer extends beyond the viewport on every side, the camera can move that
+     *               far before anything has to be painted.
+     * @param painter The painter drawing the content.
+     */
+    public ScrollingLayer(Layer layer, int margin, Painter painter) {
+
+        Assert.assertNotNull("The layer cannot be null.", layer);
+        Assert.assertTrue("The margin cannot be negative.", margin >= 0);
+        Assert.assertNotNull("The painter cannot be null.", painter);
+
+        this.layer = layer;
+        this.margin = margin;
+        this.painter = painter;
+
+        // Note: The visible part depends on the camera even if the layer doesn't use it, so a retained layer has to be
+        // drawn again whenever the camera moves.
+        this.layer.dependsOn(() -> E.getE().getCamera().getTransform());
+
+    }
+
+    /**
+     * <p>
+     *    Marks the whole content as outdated, it gets painted again before the next frame.
+     * </p>
+     */
+    public synchronized void invalidate() {
+        this.valid = false;
+        this.dirty.clear();
+        this.layer.invalidate();
+    }
+
+    /**
+     * <p>
+     *    Marks an area of the world as outdated, e.g. because a tile changed. It gets painted again before the next frame,
+     *    if it is stored in the buffer.
+     * </p>
+     *
+     * @param x The x coordinate of the area in world coordinates.
+     * @param y The y coordinate of the area in world coordinates.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    public synchronized void invalidate(int x, int y, int width, int height) {
+        this.dirty.add(new Rectangle(x, y, width, height));
+        this.layer.invalidate();
+    }
+
+    /**
+     * @return The amount of pixels painted by the painter in the last frame.
+     */
+    public synchronized long getPaintedPixels() {
+        return this.paintedPixels;
+    }
+
+    /**
+     * @param active If false, the layer doesn't draw anything.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public void update(InputEntry inputEntry, long delta) {}
+
+    @Override
+    public boolean isActive() {
+        return this.active;
+    }
+
+    @Override
+    public synchronized void render(Layers layers) {
+
+        this.paintedPixels = 0;
+
+        // Note: The visible area is still part of the retained content of the layer.
+        if(!(this.layer.needsRedraw())) {
+            return;
+        }
+
+        BoundingBox viewport = E.getE().getCamera().getViewport();
+        int x = (int) Math.floor(viewport.getMin().getX());
+        int y = (int) Math.floor(viewport.getMin().getY());
+        int width = (int) Math.ceil(viewport.getMax().getX()) - x;
+        int height = (int) Math.ceil(viewport.getMax().getY()) - y;
+
+        this.ensure(x, y, width, height);
+
+        //--- Dirty areas
+        for(Rectangle area : this.dirty) {
+            Rectangle intersection = area.intersection(new Rectangle(this.validX, this.validY, this.buffer.getWidth(), this.buffer.getHeight()));
+            if(!(intersection.isEmpty())) {
+                this.paint(intersection.x, intersection.y, intersection.width, intersection.height);
+            }
+        }
+        this.dirty.clear();
+        //---
+
+        //--- Copy the visible part, the layer draws it in world coordinates
+        Graphics2D g = this.layer.g();
+        AffineTransform previous = g.getTransform();
+
+        if(!(this.layer.isUsingCamera())) {
+            g.transform(E.getE().getCamera().getTransform());
+        }
+
+        this.forEachPart(x, y, width, height, (worldX, worldY, bufferX, bufferY, partWidth, partHeight) -> g.drawImage(
+            this.buffer,
+            worldX, worldY, worldX + partWidth, worldY + partHeight,
+            bufferX, bufferY, bufferX + partWidth, bufferY + partHeight,
+            null
+        ));
+
+        g.setTransform(previous);
+        //---
+
+    }
+
+    /**
+     * <p>
+     *    Makes sure the buffer contains the area, moving the stored area and painting the exposed strips if necessary.
+     * </p>
+     */
+    private void ensure(int x, int y, int width, int height) {
+
+        //--- The viewport grew, e.g. because of the zoom, so we need a bigger buffer
+        if(this.buffer == null || width > this.buffer.getWidth() || height > this.buffer.getHeight()) {
+
+            if(!(this.graphics == null)) {
+                this.graphics.dispose();
+            }
+
+            this.buffer = new BufferedImage(width + this.margin * 2, height + this.margin * 2, BufferedImage.TYPE_INT_ARGB);
+            this.graphics = this.buffer.createGraphics();
+            this.valid = false;
+
+        }
+        //---
+
+        int bufferWidth = this.buffer.getWidth();
+        int bufferHeight = this.buffer.getHeight();
+
+        if(this.valid && x >= this.validX && y >= this.validY && x + width <= this.validX + bufferWidth && y + height <= this.validY + bufferHeight) {
+            return;
+        }
+
+        // Note: We center the stored area around the viewport, so the camera can move in every direction.
+        int newX = x - (bufferWidth - width) / 2;
+        int newY = y - (bufferHeight - height) / 2;
+
+        int overlapFromX = Math.max(newX, this.validX);
+        int overlapToX = Math.min(newX + bufferWidth, this.validX + bufferWidth);
+        int overlapFromY = Math.max(newY, this.validY);
+        int overlapToY = Math.min(newY + bufferHeight, this.validY + bufferHeight);
+
+        if(!(this.valid) || overlapFromX >= overlapToX || overlapFromY >= overlapToY) {
+
+            this.paint(newX, newY, bufferWidth, bufferHeight);
+
+        } else {
+
+            //--- The columns that became visible, over the full height
+            if(newX < this.validX) {
+                this.paint(newX, newY, this.validX - newX, bufferHeight);
+            } else if(newX > this.validX) {
+                this.paint(this.validX + bufferWidth, newY, newX - this.validX, bufferHeight);
+            }
+            //---
+
+            //--- The rows that became visible, only where the columns didn't cover them already
+            if(newY < this.validY) {
+                this.paint(overlapFromX, newY, overlapToX - overlapFromX, this.validY - newY);
+            } else if(newY > this.validY) {
+                this.paint(overlapFromX, this.validY + bufferHeight, overlapToX - overlapFromX, newY - this.validY);
+            }
+            //---
+
+        }
+
+        this.validX = newX;
+        this.validY = newY;
+        this.valid = true;
+
+    }
+
+    /**
+     * <p>
+     *    Clears an area of the world in the buffer and lets the painter paint it.
+     * </p>
+     */
+    private void paint(int x, int y, int width, int height) {
+
+        this.paintedPixels += (long) width * height;
+
+        this.forEachPart(x, y, width, height, (worldX, worldY, bufferX, bufferY, partWidth, partHeight) -> {
+
+            this.graphics.setTransform(new AffineTransform());
+            this.graphics.setClip(bufferX, bufferY, partWidth, partHeight);
+
+            this.graphics.setComposite(AlphaComposite.Clear);
+            this.graphics.fillRect(bufferX, bufferY, partWidth, partHeight);
+            this.graphics.setComposite(AlphaComposite.SrcOver);
+
+            this.graphics.translate(bufferX - worldX, bufferY - worldY);
+            this.painter.paint(this.graphics, worldX, worldY, partWidth, partHeight);
+
+        });
+
+    }
+
+    /**
+     * <p>
+     *    Splits an area of the world into the parts that don't wrap around the edges of the buffer.
+     * </p>
+     */
+    private void forEachPart(int x, int y, int width, int height, PartConsumer consumer) {
+
+        int bufferWidth = this.buffer.getWidth();
+        int bufferHeight = this.buffer.getHeight();
+
+        int worldY = y;
+        int remainingHeight = height;
+
+        while (remainingHeight > 0) {
+
+            int bufferY = Math.floorMod(worldY, bufferHeight);
+            int partHeight = Math.min(remainingHeight, bufferHeight - bufferY);
+
+            int worldX = x;
+            int remainingWidth = width;
+
+            while (remainingWidth > 0) {
+
+                int bufferX = Math.floorMod(worldX, bufferWidth);
+                int partWidth = Math.min(remainingWidth, bufferWidth - bufferX);
+
+                consumer.accept(worldX, worldY, bufferX, bufferY, partWidth, partHeight);
+
+                worldX += partWidth;
+                remainingWidth -= partWidth;
+
+            }
+
+            worldY += partHeight;
+            remainingHeight -= partHeight;
+
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("margin", this.margin)
+                .append("valid", this.valid)
+                .append("validX", this.validX)
+                .append("validY", this.validY)
+            .build();
+    }
+
+    private interface PartConsumer {
+
+        void accept(int worldX, int worldY, int bufferX, int bufferY, int width, int height);
+
+    }
+
+    /**
+     * <p>
+     *    The Painter draws the static content of a {@link ScrollingLayer}.
+     * </p>
+     */
+    public interface Painter {
+
+        /**
+         * <p>
+         *    Draws everything intersecting the area. The graphics is translated, so the painter draws in world
+         *    coordinates, and clipped to the area.
+         * </p>
+         *
+         * @param g The graphics to draw with.
+         * @param x The x coordinate of the area in world coordinates.
+         * @param y The y coordinate of the area in world coordinates.
+         * @param width The width of the area.
+         * @param height The height of the area.
+         */
+        void paint(Graphics2D g, int x, int y, int width, int height);
+
+    }
+
+}
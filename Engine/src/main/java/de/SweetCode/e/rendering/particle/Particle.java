@@ -1,23 +1,34 @@
 package de.SweetCode.e.rendering.particle;
 
+import de.SweetCode.e.Cullable;
 import de.SweetCode.e.E;
 import de.SweetCode.e.Renderable;
 import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.BoundingBox;
 import de.SweetCode.e.math.Location;
 import de.SweetCode.e.math.Vector2D;
+import de.SweetCode.e.rendering.batch.SpriteBatch;
 import de.SweetCode.e.rendering.layers.Layer;
 import de.SweetCode.e.rendering.layers.Layers;
 import de.SweetCode.e.utils.Assert;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 /**
  * Representing one particle
  */
-public class Particle implements Renderable {
+public class Particle implements Renderable, Cullable {
+
+    private static final int CIRCLE_SIZE = 64;
+
+    // Note: Only touched by the render thread, so we don't need any synchronization.
+    private static BufferedImage square = null;
+    private static BufferedImage circle = null;
 
     private final Layer layer;
     private final Location location;
+    private final BoundingBox boundingBox;
     private final Color color;
     private final int width;
     private final boolean mixType;
@@ -76,6 +87,9 @@ public class Particle implements Renderable {
 
         this.lifeSpan = lifeSpan;
         this.endless = (lifeSpan == -1);
+
+        this.boundingBox = new BoundingBox(0, 0, width, width);
+        this.updateBoundingBox();
     }
 
     /**
@@ -92,6 +106,14 @@ public class Particle implements Renderable {
         return this.location;
     }
 
+    /**
+     * @return The area the particle is drawn in, it follows the {@link Location} of the particle on every update.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return this.boundingBox;
+    }
+
     /**
      * Destroys the particle if the value is true.
      * @param destroy True if the particle should be destroyed, and false if not.
@@ -106,6 +128,7 @@ public class Particle implements Renderable {
     public void update(InputEntry input, long delta) {
 
         this.location.add(this.vector2D.getX() * delta, this.vector2D.getY() * delta);
+        this.updateBoundingBox();
         if(!(this.lifeSpan == -1) && !(this.endless)) {
             this.lifeSpan -= delta;
         }
@@ -146,20 +169,22 @@ public class Particle implements Renderable {
     @Override
     public void render(Layers layers) {
 
-        Graphics2D value = this.layer.getGraphics2D();
+        // Note: The particle is recorded in the sprite batch, so all particles of a frame get drawn together with the
+        // same texture instead of toggling the composite and color of the layer for every single one.
+        SpriteBatch batch = E.getE().getSpriteBatch();
 
         if(this.fadeInAndOut) {
-            value.setComposite(AlphaComposite.SrcOver.derive(this.fadeAlpha));
+            batch.setAlpha(Math.max(0, Math.min(1, this.fadeAlpha)));
         }
 
         int x = (int) (this.location.getX() + this.width / 2);
         int y = (int) (this.location.getY() + this.width / 2);
 
-        value.setColor(this.color);
+        batch.setTint(this.color);
         switch (this.particleType) {
 
             case CIRCLE:
-                value.fillOval(x, y, this.width, this.width);
+                batch.draw(this.layer, Particle.circle(), x, y, this.width, this.width);
 
                 if(this.mixType) {
                     this.particleType = ParticleTypes.RANDOM;
@@ -167,7 +192,7 @@ public class Particle implements Renderable {
                 break;
 
             case SQUARE:
-                value.fillRect(x, y, this.width, this.width);
+                batch.draw(this.layer, Particle.square(), x, y, this.width, this.width);
 
                 if(this.mixType) {
                     this.particleType = ParticleTypes.RANDOM;
@@ -181,10 +206,51 @@ public class Particle implements Renderable {
 
         }
 
-        if(this.fadeInAndOut) {
-            value.setComposite(AlphaComposite.SrcOver.derive(1));
+        batch.reset();
+
+    }
+
+    /**
+     * @return The white texture drawn for {@link ParticleTypes#SQUARE square} particles.
+     */
+    private static BufferedImage square() {
+
+        if(Particle.square == null) {
+            BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, 0xFFFFFFFF);
+            Particle.square = image;
         }
 
+        return Particle.square;
+
+    }
+
+    /**
+     * @return The white texture drawn for {@link ParticleTypes#CIRCLE circle} particles.
+     */
+    private static BufferedImage circle() {
+
+        if(Particle.circle == null) {
+            BufferedImage image = new BufferedImage(CIRCLE_SIZE, CIRCLE_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillOval(0, 0, CIRCLE_SIZE, CIRCLE_SIZE);
+            g.dispose();
+            Particle.circle = image;
+        }
+
+        return Particle.circle;
+
+    }
+
+    /**
+     * <p>
+     *    Moves the box to the area {@link Particle#render(Layers)} draws in.
+     * </p>
+     */
+    private void updateBoundingBox() {
+        this.boundingBox.setCenter(this.location.getX() + this.width, this.location.getY() + this.width);
     }
 
     /**
@@ -0,0 +1,572 @@
+package de.SweetCode.e.rendering.tiles;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.Renderable;
+import de.SweetCode.e.input.InputEntry;
+import de.SweetCode.e.math.BoundingBox;
+import de.SweetCode.e.rendering.AcceleratedImage;
+import de.SweetCode.e.rendering.layers.Layer;
+import de.SweetCode.e.rendering.layers.Layers;
+import de.SweetCode.e.resources.textures.TextureLoader;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *    A TileMap stores a grid of tiles with multiple map layers and draws them in world coordinates. The textures of the
+ *    tiles are provided by a {@link TextureLoader}, the id of a tile is the index of its texture.
+ * </p>
+ * <p>
+ *    The map is split into square chunks. Each chunk stores the tile ids of all its map layers in one {@code short[]}
+ *    and is pre-rendered into a cached image, so drawing a visible chunk is a single blit, no matter how many tiles and
+ *    map layers it has. Changing a tile only marks its chunk as dirty, the chunk gets rendered again the next time it
+ *    is visible. Chunks that don't contain any tile are never allocated, and the images of chunks that haven't been
+ *    visible for a while are released once more than {@link Builder#maxCachedChunks(int)} chunks are cached. Chunks
+ *    visible in the current frame are never released, so the limit only applies to the ones outside of the view.
+ * </p>
+ */
+public class TileMap implements Renderable {
+
+    /**
+     * <p>
+     *    The id of an empty tile.
+     * </p>
+     */
+    public static final short EMPTY = -1;
+
+    private final Layer layer;
+    private final TextureLoader textures;
+
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int columns;
+    private final int rows;
+    private final int mapLayers;
+    private final int chunkSize;
+    private final double x;
+    private final double y;
+    private final int maxCachedChunks;
+
+    private final int chunkColumns;
+    private final int chunkRows;
+    private final Chunk[] chunks;
+
+    // Note: In access order, so the first chunk is the one that has not been drawn for the longest time.
+    private final LinkedHashMap<Integer, Chunk> cached = new LinkedHashMap<>(16, 0.75F, true);
+
+    private int rebuilds = 0;
+    private boolean active = true;
+
+    private TileMap(Builder builder) {
+
+        Assert.assertNotNull("The layer cannot be null.", builder.layer);
+        Assert.assertNotNull("The textures cannot be null.", builder.textures);
+
+        this.layer = builder.layer;
+        this.textures = builder.textures;
+        this.tileWidth = builder.tileWidth;
+        this.tileHeight = builder.tileHeight;
+        this.columns = builder.columns;
+        this.rows = builder.rows;
+        this.mapLayers = builder.mapLayers;
+        this.chunkSize = builder.chunkSize;
+        this.x = builder.x;
+        this.y = builder.y;
+        this.maxCachedChunks = builder.maxCachedChunks;
+
+        this.chunkColumns = (this.columns + this.chunkSize - 1) / this.chunkSize;
+        this.chunkRows = (this.rows + this.chunkSize - 1) / this.chunkSize;
+        this.chunks = new Chunk[this.chunkColumns * this.chunkRows];
+
+    }
+
+    /**
+     * @return The amount of columns of the map.
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return The amount of rows of the map.
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return The amount of map layers.
+     */
+    public int getMapLayers() {
+        return this.mapLayers;
+    }
+
+    /**
+     * @return The width of a tile in world coordinates.
+     */
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    /**
+     * @return The height of a tile in world coordinates.
+     */
+    public int getTileHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * @return The amount of chunks that have been rendered into their image, since the map has been created.
+     */
+    public synchronized int getRebuilds() {
+        return this.rebuilds;
+    }
+
+    /**
+     * @return The amount of chunks currently holding a cached image.
+     */
+    public synchronized int getCachedChunks() {
+        return this.cached.size();
+    }
+
+    /**
+     * <p>
+     *    Gives the id of a tile.
+     * </p>
+     *
+     * @param mapLayer The map layer.
+     * @param column The column of the tile.
+     * @param row The row of the tile.
+     * @return The id of the tile, or {@link TileMap#EMPTY}.
+     */
+    public synchronized short get(int mapLayer, int column, int row) {
+
+        this.check(mapLayer, column, row);
+
+        Chunk chunk = this.chunks[this.chunkIndex(column, row)];
+        return (chunk == null ? EMPTY : chunk.tiles[this.tileIndex(mapLayer, column, row)]);
+
+    }
+
+    /**
+     * <p>
+     *    Sets the id of a tile and marks its chunk as dirty, if the id changed.
+     * </p>
+     *
+     * @param mapLayer The map layer.
+     * @param column The column of the tile.
+     * @param row The row of the tile.
+     * @param id The id of the texture, or {@link TileMap#EMPTY} to clear the tile.
+     */
+    public synchronized void set(int mapLayer, int column, int row, int id) {
+
+        this.check(mapLayer, column, row);
+        Assert.assertTrue("The id has to be EMPTY or in [0, 32767].", id >= EMPTY && id <= Short.MAX_VALUE);
+
+        int index = this.chunkIndex(column, row);
+        Chunk chunk = this.chunks[index];
+
+        if(chunk == null) {
+
+            if(id == EMPTY) {
+                return;
+            }
+
+            chunk = new Chunk(index);
+            this.chunks[index] = chunk;
+
+        }
+
+        int tile = this.tileIndex(mapLayer, column, row);
+
+        if(!(chunk.tiles[tile] == id)) {
+            chunk.tiles[tile] = (short) id;
+            chunk.dirty = true;
+            this.layer.invalidate();
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Sets the ids of a rectangular area of a map layer at once.
+     * </p>
+     *
+     * @param mapLayer The map layer.
+     * @param column The column of the upper-left tile.
+     * @param row The row of the upper-left tile.
+     * @param width The width of the area in tiles, the amount of rows is {@code ids.length / width}.
+     * @param ids The ids in row-major order.
+     */
+    public synchronized void set(int mapLayer, int column, int row, int width, short[] ids) {
+
+        Assert.assertNotNull("The ids cannot be null.", ids);
+        Assert.assertTrue("The width has to be greater than 0.", width > 0);
+        Assert.assertTrue("The length of the ids has to be a multiple of the width.", ids.length % width == 0);
+
+        int height = ids.length / width;
+
+        for(int j = 0; j < height; j++) {
+            for(int i = 0; i < width; i++) {
+                this.set(mapLayer, column + i, row + j, ids[j * width + i]);
+            }
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Marks every chunk as dirty, e.g. because the textures have been reloaded.
+     * </p>
+     */
+    public synchronized void invalidate() {
+        for(Chunk chunk : this.chunks) {
+            if(!(chunk == null)) {
+                chunk.dirty = true;
+            }
+        }
+        this.layer.invalidate();
+    }
+
+    /**
+     * @param active If false, the map doesn't draw anything.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public void update(InputEntry inputEntry, long delta) {}
+
+    @Override
+    public boolean isActive() {
+        return this.active;
+    }
+
+    @Override
+    public synchronized void render(Layers layers) {
+
+        // Note: The map is still part of the retained content of the layer.
+        if(!(this.layer.needsRedraw())) {
+            return;
+        }
+
+        BoundingBox viewport = E.getE().getCamera().getViewport();
+
+        int chunkWidth = this.chunkSize * this.tileWidth;
+        int chunkHeight = this.chunkSize * this.tileHeight;
+
+        int fromX = Math.max(0, (int) Math.floor((viewport.getMin().getX() - this.x) / chunkWidth));
+        int fromY = Math.max(0, (int) Math.floor((viewport.getMin().getY() - this.y) / chunkHeight));
+        int toX = Math.min(this.chunkColumns - 1, (int) Math.floor((viewport.getMax().getX() - this.x) / chunkWidth));
+        int toY = Math.min(this.chunkRows - 1, (int) Math.floor((viewport.getMax().getY() - this.y) / chunkHeight));
+
+        if(fromX > toX || fromY > toY) {
+            return;
+        }
+
+        Graphics2D g = this.layer.g();
+        AffineTransform previous = g.getTransform();
+
+        if(!(this.layer.isUsingCamera())) {
+            g.transform(E.getE().getCamera().getTransform());
+        }
+
+        g.translate(this.x, this.y);
+
+        int drawn = 0;
+
+        for(int chunkY = fromY; chunkY <= toY; chunkY++) {
+            for(int chunkX = fromX; chunkX <= toX; chunkX++) {
+
+                int index = chunkY * this.chunkColumns + chunkX;
+                Chunk chunk = this.chunks[index];
+
+                if(chunk == null) {
+                    continue;
+                }
+
+                if(chunk.image == null || chunk.dirty) {
+                    this.rebuild(chunk);
+                }
+
+                // Note: get also moves the chunk to the end of the access order.
+                this.cached.get(index);
+                drawn++;
+
+                int drawX = chunkX * chunkWidth;
+                int drawY = chunkY * chunkHeight;
+
+                if(chunk.acceleratedImage == null) {
+                    g.drawImage(chunk.image, drawX, drawY, null);
+                } else {
+                    chunk.acceleratedImage.draw(g, drawX, drawY, chunk.image.getWidth(), chunk.image.getHeight());
+                }
+
+            }
+        }
+
+        g.setTransform(previous);
+
+        this.evict(drawn);
+
+    }
+
+    /**
+     * <p>
+     *    Renders all tiles of the chunk into its image, allocating the image if the chunk has none.
+     * </p>
+     */
+    private void rebuild(Chunk chunk) {
+
+        int chunkX = chunk.index % this.chunkColumns;
+        int chunkY = chunk.index / this.chunkColumns;
+
+        // Note: Chunks at the right and bottom edge only get an image as large as the tiles they really contain.
+        int width = Math.min(this.chunkSize, this.columns - chunkX * this.chunkSize);
+        int height = Math.min(this.chunkSize, this.rows - chunkY * this.chunkSize);
+
+        if(chunk.image == null) {
+
+            chunk.image = new BufferedImage(width * this.tileWidth, height * this.tileHeight, BufferedImage.TYPE_INT_ARGB);
+
+            if(!(E.getE().getScreen() == null) && E.getE().getScreen().isUsingVRAM()) {
+                chunk.acceleratedImage = new AcceleratedImage(chunk.image);
+            }
+
+            this.cached.put(chunk.index, chunk);
+
+        }
+
+        Graphics2D g = chunk.image.createGraphics();
+
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, chunk.image.getWidth(), chunk.image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+
+        int area = this.chunkSize * this.chunkSize;
+
+        for(int mapLayer = 0; mapLayer < this.mapLayers; mapLayer++) {
+            for(int row = 0; row < height; row++) {
+                for(int column = 0; column < width; column++) {
+
+                    short id = chunk.tiles[mapLayer * area + row * this.chunkSize + column];
+
+                    if(!(id == EMPTY)) {
+                        g.drawImage(this.textures.get(id), column * this.tileWidth, row * this.tileHeight, this.tileWidth, this.tileHeight, null);
+                    }
+
+                }
+            }
+        }
+
+        g.dispose();
+
+        if(!(chunk.acceleratedImage == null)) {
+            chunk.acceleratedImage.invalidate();
+        }
+
+        chunk.dirty = false;
+        this.rebuilds++;
+
+    }
+
+    /**
+     * <p>
+     *    Releases the images of the chunks that haven't been drawn for the longest time, until no more than
+     *    maxCachedChunks are cached. A released chunk keeps its tiles and gets rendered again once it is visible.
+     * </p>
+     *
+     * @param drawn The amount of chunks drawn in this frame, they are at the end of the access order and are kept even
+     *              if there are more of them than maxCachedChunks, otherwise they would be rebuilt in every frame.
+     */
+    private void evict(int drawn) {
+
+        int limit = Math.max(this.maxCachedChunks, drawn);
+        Iterator<Map.Entry<Integer, Chunk>> iterator = this.cached.entrySet().iterator();
+
+        while (this.cached.size() > limit && iterator.hasNext()) {
+
+            Chunk chunk = iterator.next().getValue();
+
+            if(!(chunk.acceleratedImage == null)) {
+                chunk.acceleratedImage.flush();
+                chunk.acceleratedImage = null;
+            }
+
+            chunk.image = null;
+            iterator.remove();
+
+        }
+
+    }
+
+    private void check(int mapLayer, int column, int row) {
+        Assert.assertTrue("The map layer is out of bounds.", mapLayer >= 0 && mapLayer < this.mapLayers);
+        Assert.assertTrue("The column is out of bounds.", column >= 0 && column < this.columns);
+        Assert.assertTrue("The row is out of bounds.", row >= 0 && row < this.rows);
+    }
+
+    private int chunkIndex(int column, int row) {
+        return (row / this.chunkSize) * this.chunkColumns + (column / this.chunkSize);
+    }
+
+    private int tileIndex(int mapLayer, int column, int row) {
+        return (mapLayer * this.chunkSize + (row % this.chunkSize)) * this.chunkSize + (column % this.chunkSize);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("columns", this.columns)
+                .append("rows", this.rows)
+                .append("mapLayers", this.mapLayers)
+                .append("tileWidth", this.tileWidth)
+                .append("tileHeight", this.tileHeight)
+                .append("chunkSize", this.chunkSize)
+                .append("cachedChunks", this.cached.size())
+            .build();
+    }
+
+    private class Chunk {
+
+        private final int index;
+        private final short[] tiles;
+
+        private BufferedImage image = null;
+        private AcceleratedImage acceleratedImage = null;
+        private boolean dirty = true;
+
+        private Chunk(int index) {
+            this.index = index;
+            this.tiles = new short[TileMap.this.mapLayers * TileMap.this.chunkSize * TileMap.this.chunkSize];
+            Arrays.fill(this.tiles, EMPTY);
+        }
+
+    }
+
+    public static class Builder {
+
+        private Layer layer = null;
+        private TextureLoader textures = null;
+        private int tileWidth = 32;
+        private int tileHeight = 32;
+        private int columns = 0;
+        private int rows = 0;
+        private int mapLayers = 1;
+        private int chunkSize = 16;
+        private double x = 0;
+        private double y = 0;
+        private int maxCachedChunks = 64;
+
+        public Builder() {}
+
+        public static Builder create() {
+            return new Builder();
+        }
+
+        /**
+         * @param layer The layer to draw on.
+         * @return The builder.
+         */
+        public Builder layer(Layer layer) {
+            Assert.assertNotNull("The layer cannot be null.", layer);
+            this.layer = layer;
+            return this;
+        }
+
+        /**
+         * @param textures The textures of the tiles, the id of a tile is the index of its texture.
+         * @return The builder.
+         */
+        public Builder textures(TextureLoader textures) {
+            Assert.assertNotNull("The textures cannot be null.", textures);
+            this.textures = textures;
+            return this;
+        }
+
+        /**
+         * @param width The width of a tile in world coordinates, by default 32.
+         * @param height The height of a tile in world coordinates, by default 32.
+         * @return The builder.
+         */
+        public Builder tileSize(int width, int height) {
+            Assert.assertTrue("The tile width has to be greater than 0.", width > 0);
+            Assert.assertTrue("The tile height has to be greater than 0.", height > 0);
+            this.tileWidth = width;
+            this.tileHeight = height;
+            return this;
+        }
+
+        /**
+         * @param columns The amount of columns of the map.
+         * @param rows The amount of rows of the map.
+         * @return The builder.
+         */
+        public Builder size(int columns, int rows) {
+            Assert.assertTrue("The amount of columns has to be greater than 0.", columns > 0);
+            Assert.assertTrue("The amount of rows has to be greater than 0.", rows > 0);
+            this.columns = columns;
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * @param mapLayers The amount of map layers, drawn from the first to the last. By default 1.
+         * @return The builder.
+         */
+        public Builder mapLayers(int mapLayers) {
+            Assert.assertTrue("The amount of map layers has to be greater than 0.", mapLayers > 0);
+            this.mapLayers = mapLayers;
+            return this;
+        }
+
+        /**
+         * @param chunkSize The amount of tiles per side of a chunk, by default 16.
+         * @return The builder.
+         */
+        public Builder chunkSize(int chunkSize) {
+            Assert.assertTrue("The chunk size has to be greater than 0.", chunkSize > 0);
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param x The x coordinate of the upper-left corner of the map in world coordinates, by default 0.
+         * @param y The y coordinate of the upper-left corner of the map in world coordinates, by default 0.
+         * @return The builder.
+         */
+        public Builder position(double x, double y) {
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
+        /**
+         * @param maxCachedChunks The max. amount of chunk images kept in memory, it should be larger than the amount
+         *                        of chunks visible at once. Visible chunks are always kept, even if there are more of
+         *                        them. By default 64.
+         * @return The builder.
+         */
+        public Builder maxCachedChunks(int maxCachedChunks) {
+            Assert.assertTrue("The max. amount of cached chunks has to be greater than 0.", maxCachedChunks > 0);
+            this.maxCachedChunks = maxCachedChunks;
+            return this;
+        }
+
+        public TileMap build() {
+            Assert.assertTrue("The size of the map has to be set.", this.columns > 0 && this.rows > 0);
+            return new TileMap(this);
+        }
+
+    }
+
+}
@@ -114,6 +114,7 @@ public class HotSwapFile extends File {
      */
     public void refresh() {
         if(this.loadContent()) {
+            E.getE().getMetrics().counter("hotswap.reloads").increment();
             E.getE().getLog().log(
                 LogEntry.Builder.create(this.getClass())
                     .prefix(LogPrefixes.HOT_SWAP)
@@ -121,6 +122,7 @@ public class HotSwapFile extends File {
                 .build()
             );
         } else {
+            E.getE().getMetrics().counter("hotswap.failures").increment();
             E.getE().getLog().log(
                 LogEntry.Builder.create(this.getClass())
                     .prefix(LogPrefixes.HOT_SWAP)
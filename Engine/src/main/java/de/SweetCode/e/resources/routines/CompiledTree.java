@@ -0,0 +1,314 @@
+package de.SweetCode.e.resources.routines;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ *    A CompiledTree is a behaviour tree for a large amount of agents. The shape of the tree is flattened into arrays once
+ *    by the {@link CompiledTreeBuilder} and shared by all agents, every agent only has a {@link TreeState} with one int
+ *    per node. A tick walks the tree with a stack instead of recursion and callbacks, and doesn't allocate.
+ * </p>
+ * <p>
+ *    The nodes behave like their {@link Task} counterparts in {@link de.SweetCode.e.resources.routines.composite}, with
+ *    two differences: the until-decorators repeat their child on the next tick instead of right away, so they can't
+ *    end up in an endless loop, and the leaves are {@link TaskLeaf TaskLeaves} returning their status.
+ * </p>
+ * <p>
+ *    The tree itself is immutable, so agents can be ticked on different threads at the same time, as long as every
+ *    agent is only ticked by one thread at a time.
+ * </p>
+ *
+ * @param <A> The type of the agents.
+ */
+public class CompiledTree<A> {
+
+    //--- Node Types
+    static final byte LEAF = 0;
+    static final byte SEQUENCE = 1;
+    static final byte SELECTOR = 2;
+    static final byte RANDOM_SEQUENCE = 3;
+    static final byte RANDOM_SELECTOR = 4;
+    static final byte INVERTER = 5;
+    static final byte ALWAYS_SUCCEED = 6;
+    static final byte ALWAYS_FAIL = 7;
+    static final byte UNTIL_FAILS = 8;
+    static final byte UNTIL_SUCCEEDS = 9;
+    static final byte LOOP = 10;
+    //---
+
+    //--- Results
+    private static final int NONE = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int RUNNING = 3;
+
+    private static final TaskStatus[] STATUSES = { null, TaskStatus.SUCCEEDED, TaskStatus.FAILED, TaskStatus.RUNNING };
+    //---
+
+    //--- Nodes, indexed in pre-order, the root is 0.
+    private final byte[] types;
+    private final int[] params;
+    private final int[] childOffsets;
+    private final int[] childCounts;
+    private final int[] children;
+    private final int[] slots;
+    private final TaskLeaf<A>[] leaves;
+    private final Predicate<? super A>[] filters;
+    private final String[] names;
+    //---
+
+    private final int stateSize;
+    private final int depth;
+
+    CompiledTree(byte[] types, int[] params, int[] childOffsets, int[] childCounts, int[] children, int[] slots,
+                 TaskLeaf<A>[] leaves, Predicate<? super A>[] filters, String[] names, int stateSize, int depth) {
+        this.types = types;
+        this.params = params;
+        this.childOffsets = childOffsets;
+        this.childCounts = childCounts;
+        this.children = children;
+        this.slots = slots;
+        this.leaves = leaves;
+        this.filters = filters;
+        this.names = names;
+        this.stateSize = stateSize;
+        this.depth = depth;
+    }
+
+    /**
+     * @return The amount of nodes.
+     */
+    public int getNodeCount() {
+        return this.types.length;
+    }
+
+    /**
+     * @return The amount of ints in the state of one agent.
+     */
+    public int getStateSize() {
+        return this.stateSize;
+    }
+
+    /**
+     * @param node The index of the node, the root is 0.
+     * @return The name of the node, or null if it has none.
+     */
+    public String getName(int node) {
+        return this.names[node];
+    }
+
+    /**
+     * <p>
+     *    Creates the state for a new agent.
+     * </p>
+     *
+     * @return A new state, nothing is running yet.
+     */
+    public TreeState createState() {
+        return new TreeState(this, this.stateSize, this.depth);
+    }
+
+    /**
+     * <p>
+     *    Ticks the tree for one agent. Running nodes are resumed where they stopped on the last tick, once the root
+     *    succeeded or failed, the next tick starts the tree from scratch. Filters are tested when a node starts.
+     * </p>
+     *
+     * @param agent The agent, passed to the leaves and filters.
+     * @param state The state of the agent, created by this tree.
+     * @return The status of the root: {@link TaskStatus#SUCCEEDED}, {@link TaskStatus#FAILED} or {@link TaskStatus#RUNNING}.
+     */
+    public TaskStatus tick(A agent, TreeState state) {
+
+        Assert.assertTrue("The state has been created by another tree.", state.tree == this);
+
+        int[] data = state.data;
+        int[] stack = state.stack;
+
+        int top = 0;
+        int result = NONE;
+        stack[0] = 0;
+
+        while (top >= 0) {
+
+            int node = stack[top];
+            int slot = this.slots[node];
+            byte type = this.types[node];
+
+            //--- Entering the node, or continuing with its current child.
+            if(result == NONE) {
+
+                if(data[slot] == TreeState.IDLE) {
+                    Predicate<? super A> filter = this.filters[node];
+
+                    if(!(filter == null) && !(filter.test(agent))) {
+                        result = FAILED;
+                        top--;
+                        continue;
+                    }
+
+                    data[slot] = 0;
+
+                    if(type == RANDOM_SEQUENCE || type == RANDOM_SELECTOR) {
+                        CompiledTree.shuffle(data, slot + 1, this.childCounts[node]);
+                    }
+                }
+
+                if(type == LEAF) {
+                    result = this.status(node, this.leaves[node].run(agent));
+
+                    if(!(result == RUNNING)) {
+                        data[slot] = TreeState.IDLE;
+                    }
+
+                    top--;
+                } else {
+                    stack[++top] = this.child(node, type, data, slot);
+                }
+
+                continue;
+
+            }
+
+            //--- A child returned, a running child keeps all its ancestors running.
+            if(result == RUNNING) {
+                top--;
+                continue;
+            }
+
+            switch (type) {
+
+                case SEQUENCE:
+                case RANDOM_SEQUENCE:
+                    if(result == SUCCEEDED && ++data[slot] < this.childCounts[node]) {
+                        result = NONE;
+                        continue;
+                    }
+                break;
+
+                case SELECTOR:
+                case RANDOM_SELECTOR:
+                    if(result == FAILED && ++data[slot] < this.childCounts[node]) {
+                        result = NONE;
+                        continue;
+                    }
+                break;
+
+                case INVERTER:
+                    result = (result == SUCCEEDED ? FAILED : SUCCEEDED);
+                break;
+
+                case ALWAYS_SUCCEED:
+                    result = SUCCEEDED;
+                break;
+
+                case ALWAYS_FAIL:
+                    result = FAILED;
+                break;
+
+                case UNTIL_FAILS:
+                    if(result == SUCCEEDED) {
+                        result = RUNNING;
+                        top--;
+                        continue;
+                    }
+                break;
+
+                case UNTIL_SUCCEEDS:
+                    if(result == FAILED) {
+                        result = RUNNING;
+                        top--;
+                        continue;
+                    }
+                break;
+
+                case LOOP:
+                    if(++data[slot] < this.params[node]) {
+                        result = NONE;
+                        continue;
+                    }
+                    result = SUCCEEDED;
+                break;
+
+            }
+
+            data[slot] = TreeState.IDLE;
+            top--;
+
+        }
+
+        return STATUSES[result];
+
+    }
+
+    private int child(int node, byte type, int[] data, int slot) {
+
+        int offset = this.childOffsets[node];
+
+        switch (type) {
+
+            case SEQUENCE:
+            case SELECTOR:
+                return this.children[offset + data[slot]];
+
+            // Note: The order of the children is stored behind the position.
+            case RANDOM_SEQUENCE:
+            case RANDOM_SELECTOR:
+                return this.children[offset + data[slot + 1 + data[slot]]];
+
+            default:
+                return this.children[offset];
+
+        }
+
+    }
+
+    private int status(int node, TaskStatus status) {
+
+        if(status == TaskStatus.SUCCEEDED) {
+            return SUCCEEDED;
+        } else if(status == TaskStatus.FAILED) {
+            return FAILED;
+        } else if(status == TaskStatus.RUNNING) {
+            return RUNNING;
+        }
+
+        throw new IllegalStateException(String.format(
+            "The leaf %s returned %s, it has to return SUCCEEDED, FAILED or RUNNING.",
+            (this.names[node] == null ? node : this.names[node]),
+            status
+        ));
+
+    }
+
+    private static void shuffle(int[] data, int from, int count) {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for(int i = 0; i < count; i++) {
+            data[from + i] = i;
+        }
+
+        for(int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = data[from + i];
+            data[from + i] = data[from + j];
+            data[from + j] = tmp;
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("nodes", this.getNodeCount())
+                .append("stateSize", this.stateSize)
+                .append("depth", this.depth)
+            .build();
+    }
+
+}
@@ -0,0 +1,359 @@
+package de.SweetCode.e.resources.routines;
+
+import de.SweetCode.e.utils.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ *    The CompiledTreeBuilder builds a {@link CompiledTree} the same way the {@link TaskTreeBuilder} builds a tree of
+ *    {@link Task tasks}: composites and decorators are added as the current node, {@link CompiledTreeBuilder#end()} goes
+ *    back to the parent and {@link CompiledTreeBuilder#leaf(String, TaskLeaf)} adds a leaf to the current node. The first
+ *    node is the root.
+ * </p>
+ *
+ * @param <A> The type of the agents.
+ */
+public class CompiledTreeBuilder<A> {
+
+    private Node<A> root = null;
+    private Node<A> currentNode = null;
+
+    private CompiledTreeBuilder() {}
+
+    /**
+     * Adds a sequence, see {@link de.SweetCode.e.resources.routines.composite.TaskSequence}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> sequence(String name) {
+        return this.add(new Node<>(CompiledTree.SEQUENCE, name), true);
+    }
+
+    /**
+     * Adds a selector, see {@link de.SweetCode.e.resources.routines.composite.TaskSelector}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> selector(String name) {
+        return this.add(new Node<>(CompiledTree.SELECTOR, name), true);
+    }
+
+    /**
+     * Adds a sequence running its children in a random order, see
+     * {@link de.SweetCode.e.resources.routines.composite.TaskRandomSequence}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> randomSequence(String name) {
+        return this.add(new Node<>(CompiledTree.RANDOM_SEQUENCE, name), true);
+    }
+
+    /**
+     * Adds a selector running its children in a random order, see
+     * {@link de.SweetCode.e.resources.routines.composite.TaskRandomSelector}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> randomSelector(String name) {
+        return this.add(new Node<>(CompiledTree.RANDOM_SELECTOR, name), true);
+    }
+
+    /**
+     * Adds an inverter, see {@link de.SweetCode.e.resources.routines.composite.TaskInverter}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> inverter(String name) {
+        return this.add(new Node<>(CompiledTree.INVERTER, name), true);
+    }
+
+    /**
+     * Adds a decorator that always succeeds, see {@link de.SweetCode.e.resources.routines.composite.TaskAlwaysSucceed}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> alwaysSucceed(String name) {
+        return this.add(new Node<>(CompiledTree.ALWAYS_SUCCEED, name), true);
+    }
+
+    /**
+     * Adds a decorator that always fails, see {@link de.SweetCode.e.resources.routines.composite.TaskAlwaysFail}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> alwaysFail(String name) {
+        return this.add(new Node<>(CompiledTree.ALWAYS_FAIL, name), true);
+    }
+
+    /**
+     * Adds a decorator repeating its child until it fails, see
+     * {@link de.SweetCode.e.resources.routines.composite.TaskUntilFails}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> untilFails(String name) {
+        return this.add(new Node<>(CompiledTree.UNTIL_FAILS, name), true);
+    }
+
+    /**
+     * Adds a decorator repeating its child until it succeeds, see
+     * {@link de.SweetCode.e.resources.routines.composite.TaskUntilSucceeds}.
+     * @param name The name of the node.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> untilSucceeds(String name) {
+        return this.add(new Node<>(CompiledTree.UNTIL_SUCCEEDS, name), true);
+    }
+
+    /**
+     * Adds a decorator running its child n times, see {@link de.SweetCode.e.resources.routines.composite.TaskLoop}.
+     * @param name The name of the node.
+     * @param n The amount of iterations.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> loop(String name, int n) {
+
+        Assert.assertTrue("n cannot be less than 1.", n > 0);
+
+        Node<A> node = new Node<>(CompiledTree.LOOP, name);
+        node.param = n;
+
+        return this.add(node, true);
+
+    }
+
+    /**
+     * Adds a leaf to the current node.
+     * @param name The name of the leaf.
+     * @param leaf The work of the leaf.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> leaf(String name, TaskLeaf<A> leaf) {
+
+        Assert.assertNotNull("The leaf cannot be null.", leaf);
+
+        Node<A> node = new Node<>(CompiledTree.LEAF, name);
+        node.leaf = leaf;
+
+        return this.add(node, false);
+
+    }
+
+    /**
+     * Adds a leaf with a filter to the current node, the leaf fails without running if the filter doesn't match.
+     * @param name The name of the leaf.
+     * @param leaf The work of the leaf.
+     * @param predicate The filter of the leaf.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> leaf(String name, TaskLeaf<A> leaf, Predicate<? super A> predicate) {
+
+        Assert.assertNotNull("The leaf cannot be null.", leaf);
+        Assert.assertNotNull("The predicate cannot be null.", predicate);
+
+        Node<A> node = new Node<>(CompiledTree.LEAF, name);
+        node.leaf = leaf;
+        node.filters.add(predicate);
+
+        return this.add(node, false);
+
+    }
+
+    /**
+     * Adds a {@link Predicate} as filter to the current node, the node fails without running if it doesn't match. The
+     * current node is always a composite or decorator, leaves get their filter by
+     * {@link CompiledTreeBuilder#leaf(String, TaskLeaf, Predicate)}.
+     * @param predicate The predicate.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> filter(Predicate<? super A> predicate) {
+
+        Assert.assertNotNull("The predicate cannot be null.", predicate);
+        Assert.assertNotNull("There is no node to add the filter to.", this.currentNode);
+
+        this.currentNode.filters.add(predicate);
+        return this;
+
+    }
+
+    /**
+     * Goes one step end in the tree.
+     * @return The reference to the used builder.
+     */
+    public CompiledTreeBuilder<A> end() {
+
+        Assert.assertNotNull("You can't go further end.", this.currentNode);
+        Assert.assertNotNull("You can't go further end.", this.currentNode.parent);
+        this.currentNode = this.currentNode.parent;
+
+        return this;
+
+    }
+
+    /**
+     * <p>
+     *    Flattens the tree into the arrays of a {@link CompiledTree}.
+     * </p>
+     *
+     * @return The compiled tree.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CompiledTree<A> build() {
+
+        Assert.assertNotNull("The tree has no nodes.", this.root);
+
+        List<Node<A>> nodes = new ArrayList<>();
+        int depth = CompiledTreeBuilder.index(this.root, nodes, 1);
+        int size = nodes.size();
+
+        byte[] types = new byte[size];
+        int[] params = new int[size];
+        int[] childOffsets = new int[size];
+        int[] childCounts = new int[size];
+        int[] children = new int[size - 1];
+        int[] slots = new int[size];
+        TaskLeaf<A>[] leaves = new TaskLeaf[size];
+        Predicate<? super A>[] filters = new Predicate[size];
+        String[] names = new String[size];
+
+        int childIndex = 0;
+        int stateSize = 0;
+
+        for(int i = 0; i < size; i++) {
+
+            Node<A> node = nodes.get(i);
+            int count = node.children.size();
+
+            switch (node.type) {
+
+                case CompiledTree.LEAF:
+                    break;
+
+                case CompiledTree.SEQUENCE:
+                case CompiledTree.SELECTOR:
+                case CompiledTree.RANDOM_SEQUENCE:
+                case CompiledTree.RANDOM_SELECTOR:
+                    Assert.assertTrue(String.format("The composite %s needs at least one child.", node), count > 0);
+                    break;
+
+                default:
+                    Assert.assertTrue(String.format("The decorator %s needs exactly one child.", node), count == 1);
+                    break;
+
+            }
+
+            types[i] = node.type;
+            params[i] = node.param;
+            leaves[i] = node.leaf;
+            filters[i] = CompiledTreeBuilder.combine(node.filters);
+            names[i] = node.name;
+
+            childOffsets[i] = childIndex;
+            childCounts[i] = count;
+            for(Node<A> child : node.children) {
+                children[childIndex++] = child.index;
+            }
+
+            // Note: Random composites keep the order of their children behind their position.
+            slots[i] = stateSize;
+            stateSize += 1 + (node.type == CompiledTree.RANDOM_SEQUENCE || node.type == CompiledTree.RANDOM_SELECTOR ? count : 0);
+
+        }
+
+        return new CompiledTree<>(types, params, childOffsets, childCounts, children, slots, leaves, filters, names, stateSize, depth);
+
+    }
+
+    private CompiledTreeBuilder<A> add(Node<A> node, boolean descend) {
+
+        if(this.root == null) {
+            Assert.assertTrue("A leaf cannot be the root, add a composite or decorator first.", descend);
+            this.root = node;
+        } else {
+            Assert.assertNotNull("The tree can only have one root.", this.currentNode);
+
+            node.parent = this.currentNode;
+            this.currentNode.children.add(node);
+        }
+
+        if(descend) {
+            this.currentNode = node;
+        }
+
+        return this;
+
+    }
+
+    /**
+     * Assigns the pre-order indices and returns the depth of the subtree.
+     */
+    private static <A> int index(Node<A> node, List<Node<A>> nodes, int depth) {
+
+        node.index = nodes.size();
+        nodes.add(node);
+
+        int max = depth;
+        for(Node<A> child : node.children) {
+            max = Math.max(max, CompiledTreeBuilder.index(child, nodes, depth + 1));
+        }
+
+        return max;
+
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <A> Predicate<? super A> combine(List<Predicate<? super A>> filters) {
+
+        if(filters.isEmpty()) {
+            return null;
+        }
+
+        if(filters.size() == 1) {
+            return filters.get(0);
+        }
+
+        Predicate<? super A>[] all = filters.toArray(new Predicate[0]);
+        return agent -> {
+            for(Predicate<? super A> filter : all) {
+                if(!(filter.test(agent))) {
+                    return false;
+                }
+            }
+            return true;
+        };
+
+    }
+
+    public static <A> CompiledTreeBuilder<A> create() {
+        return new CompiledTreeBuilder<>();
+    }
+
+    private static class Node<A> {
+
+        private final byte type;
+        private final String name;
+
+        private int param = 0;
+        private TaskLeaf<A> leaf = null;
+        private final List<Predicate<? super A>> filters = new ArrayList<>();
+
+        private Node<A> parent = null;
+        private final List<Node<A>> children = new ArrayList<>();
+        private int index;
+
+        private Node(byte type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return (this.name == null ? "#" + this.index : this.name);
+        }
+
+    }
+
+}
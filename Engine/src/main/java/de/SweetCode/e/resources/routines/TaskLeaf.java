@@ -0,0 +1,25 @@
+package de.SweetCode.e.resources.routines;
+
+/**
+ * <p>
+ *    A TaskLeaf is the work of a leaf in a {@link CompiledTree}. Unlike a {@link Task} it doesn't keep any state, it is
+ *    shared by all agents running the tree, so everything it needs to remember belongs into the agent.
+ * </p>
+ *
+ * @param <A> The type of the agents.
+ */
+@FunctionalInterface
+public interface TaskLeaf<A> {
+
+    /**
+     * <p>
+     *    Runs the leaf for one agent.
+     * </p>
+     *
+     * @param agent The agent.
+     * @return {@link TaskStatus#SUCCEEDED}, {@link TaskStatus#FAILED} or {@link TaskStatus#RUNNING} if it has to run
+     *         again on the next tick.
+     */
+    TaskStatus run(A agent);
+
+}
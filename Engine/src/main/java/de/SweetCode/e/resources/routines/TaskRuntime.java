@@ -0,0 +1,184 @@
+package de.SweetCode.e.resources.routines;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.loop.LoopThreadFactory;
+import de.SweetCode.e.resources.routines.composite.TaskAsync;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+import de.SweetCode.e.utils.log.LogEntry;
+import de.SweetCode.e.utils.log.LogPrefixes;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *    The TaskRuntime runs the work of {@link TaskAsync async tasks} off the update loop and hands their results back to
+ *    it. The work may block, e.g. sleep, wait for a path to be found or read a file, so every piece of work gets a
+ *    virtual thread if the JVM has them (Java 21 and later). Otherwise it falls back to a pool of
+ *    {@link de.SweetCode.e.Settings#getTaskPoolSize()} platform threads, and work waits in a queue while all of them are
+ *    busy.
+ * </p>
+ * <p>
+ *    Results are posted with {@link TaskRuntime#post(Runnable)} and run by the {@link de.SweetCode.e.loop.UpdateLoop}
+ *    at the start of its next tick, so the task trees themselves are only ever touched by the update loop.
+ * </p>
+ */
+public class TaskRuntime {
+
+    private final int poolSize;
+
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    // Note: Only created once the first work has been submitted, most games never use it.
+    private volatile ExecutorService executor = null;
+    private volatile boolean virtual = false;
+
+    /**
+     * @param poolSize The amount of platform threads to use if the JVM has no virtual threads.
+     */
+    public TaskRuntime(int poolSize) {
+
+        Assert.assertTrue("The pool size has to be greater than 0.", poolSize > 0);
+        this.poolSize = poolSize;
+
+    }
+
+    /**
+     * @return True, if the work runs on virtual threads. It is false until the first work has been submitted.
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    /**
+     * @return The amount of work that has been submitted and hasn't finished yet.
+     */
+    public int getRunning() {
+        return this.running.get();
+    }
+
+    /**
+     * <p>
+     *    Runs the work on a thread of the runtime.
+     * </p>
+     *
+     * @param work The work, it may block.
+     */
+    public void submit(Runnable work) {
+
+        Assert.assertNotNull("The work cannot be null.", work);
+
+        this.running.incrementAndGet();
+        this.getExecutor().execute(() -> {
+            try {
+                work.run();
+            } finally {
+                this.running.decrementAndGet();
+            }
+        });
+
+    }
+
+    /**
+     * <p>
+     *    Queues a completion, it is run by the update loop at the start of its next tick.
+     * </p>
+     *
+     * @param completion The completion.
+     */
+    public void post(Runnable completion) {
+
+        Assert.assertNotNull("The completion cannot be null.", completion);
+        this.completions.add(completion);
+
+    }
+
+    /**
+     * <p>
+     *    Runs all queued completions, called by the {@link de.SweetCode.e.loop.UpdateLoop}. Completions queued while it
+     *    runs wait for the next call, so a task that keeps finishing instantly can't stall the tick.
+     * </p>
+     */
+    public void complete() {
+
+        for(int i = this.completions.size(); i > 0; i--) {
+            Runnable completion = this.completions.poll();
+
+            if(completion == null) {
+                break;
+            }
+
+            completion.run();
+        }
+
+    }
+
+    private ExecutorService getExecutor() {
+
+        ExecutorService executor = this.executor;
+
+        if(executor == null) {
+            synchronized (this) {
+                if(this.executor == null) {
+                    this.executor = this.createExecutor();
+                }
+                executor = this.executor;
+            }
+        }
+
+        return executor;
+
+    }
+
+    private ExecutorService createExecutor() {
+
+        // Note: Looked up by reflection, because the engine still targets Java 9.
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+
+            this.virtual = true;
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            E.getE().getLog().log(
+                LogEntry.Builder.create(TaskRuntime.class)
+                    .prefix(LogPrefixes.ENGINE)
+                    .message("Virtual threads are not available, async tasks run on %d platform threads.", this.poolSize)
+                .build()
+            );
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            this.poolSize,
+            this.poolSize,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new LoopThreadFactory("task", Thread.NORM_PRIORITY)
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("virtual", this.virtual)
+                .append("poolSize", this.poolSize)
+                .append("running", this.running.get())
+                .append("completions", this.completions.size())
+            .build();
+    }
+
+}
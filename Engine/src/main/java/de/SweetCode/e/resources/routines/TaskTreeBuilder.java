@@ -120,13 +120,16 @@ public class TaskTreeBuilder {
     }
 
     /**
-     * Adds a {@link Task}.
+     * Adds a {@link Task}. If {@link TaskTreeBuilder#async(boolean)} is enabled, it is wrapped in a {@link TaskAsync}.
      * @param child The child to add.
      * @return The reference to the used builder.
      */
     public TaskTreeBuilder child(Task child) {
-        this.currentNode.addChild(child);
-        child.setParent(this.currentNode);
+
+        Task task = (this.async ? new TaskAsync(child.getName(), child) : child);
+
+        this.currentNode.addChild(task);
+        task.setParent(this.currentNode);
         return this;
     }
 
@@ -140,6 +143,12 @@ public class TaskTreeBuilder {
         return this;
     }
 
+    /**
+     * Defines if the tasks added with {@link TaskTreeBuilder#child(Task)} from now on run on the {@link TaskRuntime},
+     * see {@link TaskAsync}. Their blocking doesn't hold up the update loop.
+     * @param async True, if the following children should run async.
+     * @return The reference to the used builder.
+     */
     public TaskTreeBuilder async(boolean async) {
         this.async = async;
         return this;
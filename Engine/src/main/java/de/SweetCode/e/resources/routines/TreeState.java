@@ -0,0 +1,54 @@
+package de.SweetCode.e.resources.routines;
+
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *    A TreeState is the state of one agent running a {@link CompiledTree}: the position of every node, e.g. the child a
+ *    sequence is at or the iteration of a loop, in a single int array. It is created by {@link CompiledTree#createState()}
+ *    and can only be used with the tree that created it.
+ * </p>
+ */
+public class TreeState {
+
+    static final int IDLE = -1;
+
+    final CompiledTree<?> tree;
+    final int[] data;
+    final int[] stack;
+
+    TreeState(CompiledTree<?> tree, int size, int depth) {
+        this.tree = tree;
+        this.data = new int[size];
+        this.stack = new int[depth];
+
+        this.reset();
+    }
+
+    /**
+     * <p>
+     *    Resets the state, so the next tick starts the tree from scratch. Leaves that are running are not notified.
+     * </p>
+     */
+    public void reset() {
+        Arrays.fill(this.data, IDLE);
+    }
+
+    /**
+     * @return True, if at least one node is running, i.e. the next tick resumes the tree instead of starting it.
+     */
+    public boolean isRunning() {
+        return !(this.data[0] == IDLE);
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("size", this.data.length)
+                .append("running", this.isRunning())
+            .build();
+    }
+
+}
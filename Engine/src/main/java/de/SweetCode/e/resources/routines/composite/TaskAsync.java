@@ -0,0 +1,182 @@
+package de.SweetCode.e.resources.routines.composite;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.resources.routines.Task;
+import de.SweetCode.e.resources.routines.TaskDecorator;
+import de.SweetCode.e.resources.routines.TaskRuntime;
+import de.SweetCode.e.resources.routines.TaskStatus;
+import de.SweetCode.e.utils.log.LogEntry;
+import de.SweetCode.e.utils.log.LogPrefixes;
+
+/**
+ * <p>
+ *    The TaskAsync task runs its child on the {@link TaskRuntime} instead of the thread that runs the tree, so the child
+ *    can be written blocking-style: e.g. walk to a point, sleep for a second and then call {@link Task#success()}. The
+ *    task stays {@link TaskStatus#RUNNING} until the child reported its status, and the status is passed on to the parent
+ *    by the {@link de.SweetCode.e.loop.UpdateLoop}, so the rest of the tree never runs on the thread of the child.
+ * </p>
+ * <p>
+ *    If the child finishes without reporting a status, or reports {@link TaskStatus#RUNNING}, it is run again the next
+ *    time this task runs. If this task is reset while the child runs, the thread of the child is interrupted and its
+ *    result is dropped. The child is only reset and started again once its thread finished, so it never runs twice at
+ *    the same time.
+ * </p>
+ */
+public class TaskAsync extends TaskDecorator {
+
+    private boolean inFlight = false;
+    private int generation = 0;
+
+    // Note: Written by the thread of the child, read by the update loop after the completion has been posted.
+    private TaskStatus reported = null;
+    private Thread worker = null;
+
+    public TaskAsync() {}
+
+    public TaskAsync(String name) {
+        this(name, null);
+    }
+
+    public TaskAsync(String name, Task child) {
+        super(name);
+
+        if(!(child == null)) {
+            this.addChild(child);
+        }
+    }
+
+    /**
+     * @return True, if the child is currently running on the {@link TaskRuntime} or its completion hasn't been handed
+     *         back yet.
+     */
+    public boolean isInFlight() {
+        return this.inFlight;
+    }
+
+    @Override
+    public void addChild(Task child) {
+        super.addChild(child);
+        child.setParent(this);
+    }
+
+    @Override
+    public void run() {
+
+        // Note: The child is still busy, there is nothing to do until it reported back. If this task has been reset in
+        // the meantime, the child is started again as soon as its old run handed back its completion.
+        if(this.inFlight) {
+            if(!(this.is(TaskStatus.RUNNING))) {
+                this.running();
+            }
+            return;
+        }
+
+        this.submit();
+        this.running();
+
+    }
+
+    private void submit() {
+
+        this.inFlight = true;
+        this.reported = null;
+
+        Task child = this.getChild(0);
+        int generation = this.generation;
+        TaskRuntime runtime = E.getE().getTaskRuntime();
+
+        runtime.submit(() -> {
+
+            synchronized (this) {
+                this.worker = Thread.currentThread();
+            }
+
+            try {
+                if(child.is(TaskStatus.RUNNING)) {
+                    child.run();
+                } else {
+                    child.start();
+                }
+            } catch (RuntimeException e) {
+                this.reported = TaskStatus.FAILED;
+                E.getE().getLog().log(
+                    LogEntry.Builder.create(TaskAsync.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("The async task %s failed: %s", (this.getName() == null ? child : this.getName()), e)
+                    .build()
+                );
+            } finally {
+                // Note: An interrupt from a reset that came too late must not leak into the next work of a pooled thread.
+                synchronized (this) {
+                    this.worker = null;
+                    Thread.interrupted();
+                }
+            }
+
+            TaskStatus status = this.reported;
+            runtime.post(() -> this.completed(generation, status));
+
+        });
+
+    }
+
+    @Override
+    public void child(TaskStatus taskStatus, Task task) {
+        // Note: Called on the thread of the child, it is passed on by completed(...) on the update loop.
+        this.reported = taskStatus;
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        this.generation++;
+
+        synchronized (this) {
+            if(!(this.worker == null)) {
+                this.worker.interrupt();
+            }
+        }
+
+        // Note: A child that is still in flight is reset by completed(...), once its thread doesn't touch it anymore.
+        if(!(this.inFlight) && this.getChildAmount() > 0) {
+            this.getChild(0).reset();
+        }
+
+    }
+
+    private void completed(int generation, TaskStatus status) {
+
+        this.inFlight = false;
+
+        // Note: The task has been reset while the child was running, so the result is dropped. If the task has been
+        // started again in the meantime, the child starts from scratch now.
+        if(!(generation == this.generation)) {
+
+            this.getChild(0).reset();
+
+            if(this.is(TaskStatus.RUNNING)) {
+                this.submit();
+            }
+
+            return;
+
+        }
+
+        // Note: The task has been cancelled while the child was running.
+        if(!(this.is(TaskStatus.RUNNING))) {
+            return;
+        }
+
+        if(status == TaskStatus.SUCCEEDED) {
+            this.success();
+        } else if(status == TaskStatus.FAILED) {
+            this.fail();
+        } else {
+            this.running();
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package de.SweetCode.e.resources.sounds;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+/**
+ * <p>
+ *    A SampledSound keeps all of its samples decoded in memory. The samples are stored interleaved as floats in the
+ *    interval of [-1, 1] at {@link SoundMixer#SAMPLE_RATE}, so the {@link SoundMixer} can mix them without converting
+ *    anything. The same SampledSound can be played by any amount of voices at the same time.
+ * </p>
+ */
+public class SampledSound implements Sound {
+
+    private final float[] samples;
+    private final int channels;
+    private final int frames;
+
+    /**
+     * <p>
+     *    Creates a new SampledSound.
+     * </p>
+     *
+     * @param samples The interleaved samples at {@link SoundMixer#SAMPLE_RATE}.
+     * @param channels The amount of channels, 1 or 2.
+     */
+    public SampledSound(float[] samples, int channels) {
+
+        Assert.assertNotNull("The samples cannot be null.", samples);
+        Assert.assertTrue("Only mono and stereo sounds are supported.", (channels == 1 || channels == 2));
+
+        this.samples = samples;
+        this.channels = channels;
+        this.frames = samples.length / channels;
+
+    }
+
+    /**
+     * <p>
+     *    Gives the interleaved samples of the sound.
+     * </p>
+     *
+     * @return The samples, never null.
+     */
+    public float[] getSamples() {
+        return this.samples;
+    }
+
+    @Override
+    public int getChannels() {
+        return this.channels;
+    }
+
+    @Override
+    public long getFrames() {
+        return this.frames;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("channels", this.channels)
+                .append("frames", this.frames)
+            .build();
+    }
+
+}
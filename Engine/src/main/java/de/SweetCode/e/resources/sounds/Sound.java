@@ -0,0 +1,35 @@
+package de.SweetCode.e.resources.sounds;
+
+/**
+ * <p>
+ *    A Sound is anything the {@link SoundMixer} can play. The engine comes with two kinds of sounds:
+ * </p>
+ * <ul>
+ *     <li>{@link SampledSound}: fully decoded into memory, the right choice for short effects</li>
+ *     <li>{@link StreamingSound}: decoded while it is being played, the right choice for long music tracks</li>
+ * </ul>
+ * <p>
+ *    Both can be created by the {@link SoundLoader}.
+ * </p>
+ */
+public interface Sound {
+
+    /**
+     * <p>
+     *    The amount of channels of the sound, either 1 (mono) or 2 (stereo).
+     * </p>
+     *
+     * @return The amount of channels.
+     */
+    int getChannels();
+
+    /**
+     * <p>
+     *    The length of the sound in frames at {@link SoundMixer#SAMPLE_RATE}.
+     * </p>
+     *
+     * @return The amount of frames.
+     */
+    long getFrames();
+
+}
@@ -1,5 +1,226 @@
 package de.SweetCode.e.resources.sounds;
 
+import de.SweetCode.e.utils.Assert;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *    The SoundLoader creates {@link Sound Sounds} from files:
+ * </p>
+ * <ul>
+ *     <li>{@link SoundLoader#load(File)} decodes the whole file into a {@link SampledSound}, every format supported by
+ *     {@link AudioSystem} can be used.</li>
+ *     <li>{@link SoundLoader#stream(File)} creates a {@link StreamingSound} which decodes the file while playing, it
+ *     requires a 16-bit PCM WAVE file with a sample rate of {@link SoundMixer#SAMPLE_RATE}.</li>
+ * </ul>
+ */
 public class SoundLoader {
 
+    private SoundLoader() {}
+
+    /**
+     * <p>
+     *    Loads the file and decodes it completely into memory. The samples get resampled to {@link SoundMixer#SAMPLE_RATE}
+     *    if necessary.
+     * </p>
+     *
+     * @param file The file to load.
+     * @return The decoded sound.
+     * @throws IOException If the file cannot be read or its format isn't supported.
+     */
+    public static SampledSound load(File file) throws IOException {
+
+        Assert.assertNotNull("The file cannot be null.", file);
+        Assert.assertTrue("The file does not exist.", file.exists());
+
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file)) {
+
+            AudioFormat sourceFormat = source.getFormat();
+            int channels = sourceFormat.getChannels();
+
+            if(!(channels == 1 || channels == 2)) {
+                throw new IOException(String.format("%s has %d channels, only mono and stereo are supported.", file.getName(), channels));
+            }
+
+            AudioFormat pcmFormat = new AudioFormat(
+                    AudioFormat.Encoding.PCM_SIGNED,
+                    sourceFormat.getSampleRate(),
+                    16,
+                    channels,
+                    channels * 2,
+                    sourceFormat.getSampleRate(),
+                    false
+            );
+
+            byte[] data;
+            try (AudioInputStream pcm = AudioSystem.getAudioInputStream(pcmFormat, source)) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = pcm.read(chunk)) > 0) {
+                    outputStream.write(chunk, 0, read);
+                }
+                data = outputStream.toByteArray();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            float[] samples = new float[data.length / 2];
+            for(int i = 0; i < samples.length; i++) {
+                samples[i] = buffer.getShort() / 32768F;
+            }
+
+            return new SampledSound(SoundLoader.resample(samples, channels, sourceFormat.getSampleRate()), channels);
+
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IOException(String.format("The format of %s is not supported.", file.getName()), e);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Opens the file for streaming. Only the header gets read, the samples will be decoded while the sound is playing.
+     * </p>
+     *
+     * @param file A 16-bit PCM WAVE file with a sample rate of {@link SoundMixer#SAMPLE_RATE}.
+     * @return The sound streaming from the file.
+     * @throws IOException If the file cannot be read or its format isn't supported.
+     */
+    public static StreamingSound stream(File file) throws IOException {
+
+        Assert.assertNotNull("The file cannot be null.", file);
+        Assert.assertTrue("The file does not exist.", file.exists());
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try {
+
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            SoundLoader.readFully(channel, header, 0);
+
+            if(!(header.getInt(0) == 0x46464952 && header.getInt(8) == 0x45564157)) {
+                throw new IOException(String.format("%s is not a WAVE file.", file.getName()));
+            }
+
+            //--- Walk through the chunks until we have the format and the data
+            ByteBuffer chunk = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            long position = 12;
+            int channels = -1;
+
+            while (position + 8 <= channel.size()) {
+
+                chunk.clear().limit(8);
+                SoundLoader.readFully(channel, chunk, position);
+
+                int id = chunk.getInt(0);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+
+                // "fmt "
+                if(id == 0x20746D66) {
+
+                    chunk.clear();
+                    SoundLoader.readFully(channel, chunk, position + 8);
+
+                    int audioFormat = chunk.getShort(0);
+                    int sampleRate = chunk.getInt(4);
+                    int bitsPerSample = chunk.getShort(14);
+                    channels = chunk.getShort(2);
+
+                    if(!(audioFormat == 1 && bitsPerSample == 16)) {
+                        throw new IOException(String.format("%s has to be 16-bit PCM to be streamed.", file.getName()));
+                    }
+
+                    if(!(sampleRate == SoundMixer.SAMPLE_RATE)) {
+                        throw new IOException(String.format(
+                            "%s has a sample rate of %dHz, but streaming requires %dHz.", file.getName(), sampleRate, SoundMixer.SAMPLE_RATE
+                        ));
+                    }
+
+                    if(!(channels == 1 || channels == 2)) {
+                        throw new IOException(String.format("%s has %d channels, only mono and stereo are supported.", file.getName(), channels));
+                    }
+
+                }
+                // "data"
+                else if(id == 0x61746164) {
+
+                    if(channels == -1) {
+                        throw new IOException(String.format("%s has no format chunk before its data.", file.getName()));
+                    }
+
+                    return new StreamingSound(channel, position + 8, Math.min(size, channel.size() - position - 8), channels);
+
+                }
+
+                // Note: Chunks are padded to an even size.
+                position += 8 + size + (size % 2);
+
+            }
+
+            throw new IOException(String.format("%s has no data chunk.", file.getName()));
+
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file.");
+            }
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Resamples the interleaved samples to {@link SoundMixer#SAMPLE_RATE} by linear interpolation.
+     * </p>
+     */
+    private static float[] resample(float[] samples, int channels, float sampleRate) {
+
+        if(sampleRate == SoundMixer.SAMPLE_RATE || samples.length == 0) {
+            return samples;
+        }
+
+        int sourceFrames = samples.length / channels;
+        int targetFrames = (int) Math.max(1, (long) sourceFrames * SoundMixer.SAMPLE_RATE / (long) sampleRate);
+        double step = (double) sourceFrames / targetFrames;
+
+        float[] result = new float[targetFrames * channels];
+
+        for(int frame = 0; frame < targetFrames; frame++) {
+
+            double position = frame * step;
+            int index = (int) position;
+            int next = Math.min(index + 1, sourceFrames - 1);
+            float fraction = (float) (position - index);
+
+            for(int channel = 0; channel < channels; channel++) {
+                float a = samples[index * channels + channel];
+                float b = samples[next * channels + channel];
+                result[frame * channels + channel] = a + (b - a) * fraction;
+            }
+
+        }
+
+        return result;
+
+    }
+
 }
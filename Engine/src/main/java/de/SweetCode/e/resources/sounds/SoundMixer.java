@@ -0,0 +1,675 @@
+package de.SweetCode.e.resources.sounds;
+
+import de.SweetCode.e.E;
+import de.SweetCode.e.resources.sounds.sinks.AudioSink;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+import de.SweetCode.e.utils.log.LogEntry;
+import de.SweetCode.e.utils.log.LogPrefixes;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *    The SoundMixer mixes a limited amount of voices into an {@link AudioSink}. It either runs on its own thread, started
+ *    by {@link SoundMixer#start(ThreadFactory)}, or renders offline by calling {@link SoundMixer#render(int)}.
+ * </p>
+ * <p>
+ *    All buffers are allocated when the mixer gets created and the voices are only touched by the mixing thread. Calls
+ *    like {@link SoundMixer#play(Sound)} or {@link SoundMixer#stop(int)} are just queued into a pre-allocated command
+ *    ring and applied before the next buffer gets mixed, so mixing never allocates memory and cannot be interrupted by
+ *    the garbage collector cleaning up after it.
+ * </p>
+ * <p>
+ *    If all voices are in use a new sound steals the voice with the lowest priority, but only if that priority is not
+ *    higher than its own. Between voices with the same priority the oldest one gets stolen.
+ * </p>
+ */
+public class SoundMixer implements Runnable {
+
+    /**
+     * The sample rate of the mix in Hz.
+     */
+    public final static int SAMPLE_RATE = 44100;
+
+    /**
+     * The mix is always stereo.
+     */
+    public final static int CHANNELS = 2;
+
+    private final static int DEFAULT_BUFFER_FRAMES = 1024;
+    private final static int COMMAND_CAPACITY = 256;
+
+    private final static int COMMAND_PLAY = 0;
+    private final static int COMMAND_STOP = 1;
+    private final static int COMMAND_VOLUME = 2;
+    private final static int COMMAND_STOP_ALL = 3;
+
+    //--- Output
+    private final AudioSink sink;
+    private final AudioFormat format;
+    private final int bufferFrames;
+
+    private final float[] mixBuffer;
+    private final float[] sourceBuffer;
+    private final byte[] outputBuffer;
+    //---
+
+    //--- Voices, only touched by the mixing thread
+    private final Voice[] voices;
+    private long framesMixed = 0;
+    //---
+
+    //--- Commands
+    private final Object commandLock = new Object();
+    private final int[] commandTypes = new int[COMMAND_CAPACITY];
+    private final int[] commandHandles = new int[COMMAND_CAPACITY];
+    private final Sound[] commandSounds = new Sound[COMMAND_CAPACITY];
+    private final float[] commandVolumes = new float[COMMAND_CAPACITY];
+    private final float[] commandPans = new float[COMMAND_CAPACITY];
+    private final boolean[] commandLoops = new boolean[COMMAND_CAPACITY];
+    private final int[] commandPriorities = new int[COMMAND_CAPACITY];
+    private int commandHead = 0;
+    private int commandSize = 0;
+
+    private final AtomicInteger handles = new AtomicInteger(0);
+    //---
+
+    private volatile float masterVolume = 1F;
+    private volatile int activeVoices = 0;
+    private volatile boolean running = false;
+
+    private boolean opened = false;
+    private Thread thread;
+
+    /**
+     * <p>
+     *    Creates a new SoundMixer with a buffer of 1024 frames (~23ms).
+     * </p>
+     *
+     * @param sink The sink to write the mix to.
+     * @param voices The max. amount of sounds playing at the same time.
+     */
+    public SoundMixer(AudioSink sink, int voices) {
+        this(sink, voices, DEFAULT_BUFFER_FRAMES);
+    }
+
+    /**
+     * <p>
+     *    Creates a new SoundMixer.
+     * </p>
+     *
+     * @param sink The sink to write the mix to.
+     * @param voices The max. amount of sounds playing at the same time.
+     * @param bufferFrames The amount of frames mixed at once. Smaller buffers mean less latency but more overhead.
+     */
+    public SoundMixer(AudioSink sink, int voices, int bufferFrames) {
+
+        Assert.assertNotNull("The sink cannot be null.", sink);
+        Assert.assertTrue("There has to be at least one voice.", voices > 0);
+        Assert.assertTrue("bufferFrames cannot be less than 1.", bufferFrames > 0);
+
+        this.sink = sink;
+        this.bufferFrames = bufferFrames;
+        this.format = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+        this.mixBuffer = new float[bufferFrames * CHANNELS];
+        this.sourceBuffer = new float[bufferFrames * CHANNELS];
+        this.outputBuffer = new byte[bufferFrames * this.format.getFrameSize()];
+
+        this.voices = new Voice[voices];
+        for(int i = 0; i < voices; i++) {
+            this.voices[i] = new Voice();
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Gives the format of the mix written to the sink.
+     * </p>
+     *
+     * @return The format, never null.
+     */
+    public AudioFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * <p>
+     *    The amount of voices playing while the last buffer was mixed.
+     * </p>
+     *
+     * @return The amount of voices in use.
+     */
+    public int getActiveVoices() {
+        return this.activeVoices;
+    }
+
+    /**
+     * <p>
+     *    Gives the volume that gets applied to the whole mix.
+     * </p>
+     *
+     * @return The master volume in [0, 1].
+     */
+    public float getMasterVolume() {
+        return this.masterVolume;
+    }
+
+    /**
+     * <p>
+     *    Sets the volume that gets applied to the whole mix.
+     * </p>
+     *
+     * @param masterVolume The volume, must be in [0, 1].
+     */
+    public void setMasterVolume(float masterVolume) {
+        Assert.assertTrue("The volume must be => 0 and <= 1.", (masterVolume >= 0 && masterVolume <= 1));
+        this.masterVolume = masterVolume;
+    }
+
+    /**
+     * <p>
+     *    Plays the sound once with full volume, centered and with a priority of 0.
+     * </p>
+     *
+     * @param sound The sound to play.
+     * @return The handle of the voice or -1 if the command queue is full.
+     */
+    public int play(Sound sound) {
+        return this.play(sound, 1F, 0F, false, 0);
+    }
+
+    /**
+     * <p>
+     *    Plays a sound. The sound starts with the next mixed buffer.
+     * </p>
+     *
+     * @param sound The sound to play.
+     * @param volume The volume in [0, 1].
+     * @param pan The position in the stereo field, -1 is left, 0 is center and 1 is right.
+     * @param loop If true, the sound restarts when it reached its end until it gets stopped.
+     * @param priority The priority of the sound if all voices are in use, higher values are more important.
+     * @return The handle of the voice, use it to stop the sound or change its volume, or -1 if the command queue is full.
+     */
+    public int play(Sound sound, float volume, float pan, boolean loop, int priority) {
+
+        Assert.assertNotNull("The sound cannot be null.", sound);
+        Assert.assertTrue("The volume must be => 0 and <= 1.", (volume >= 0 && volume <= 1));
+        Assert.assertTrue("The pan must be => -1 and <= 1.", (pan >= -1 && pan <= 1));
+
+        int handle = this.handles.incrementAndGet() & Integer.MAX_VALUE;
+        return (this.enqueue(COMMAND_PLAY, handle, sound, volume, pan, loop, priority) ? handle : -1);
+
+    }
+
+    /**
+     * <p>
+     *    Stops the sound played by the voice.
+     * </p>
+     *
+     * @param handle The handle returned by {@link SoundMixer#play(Sound, float, float, boolean, int)}.
+     */
+    public void stop(int handle) {
+        this.enqueue(COMMAND_STOP, handle, null, 0, 0, false, 0);
+    }
+
+    /**
+     * <p>
+     *    Changes the volume of the sound played by the voice.
+     * </p>
+     *
+     * @param handle The handle returned by {@link SoundMixer#play(Sound, float, float, boolean, int)}.
+     * @param volume The new volume in [0, 1].
+     */
+    public void setVolume(int handle, float volume) {
+        Assert.assertTrue("The volume must be => 0 and <= 1.", (volume >= 0 && volume <= 1));
+        this.enqueue(COMMAND_VOLUME, handle, null, volume, 0, false, 0);
+    }
+
+    /**
+     * <p>
+     *    Stops all sounds.
+     * </p>
+     */
+    public void stopAll() {
+        this.enqueue(COMMAND_STOP_ALL, -1, null, 0, 0, false, 0);
+    }
+
+    /**
+     * <p>
+     *    Opens the sink. This happens automatically when the mixer gets started or renders for the first time.
+     * </p>
+     *
+     * @throws IOException If the sink cannot be opened.
+     */
+    public void open() throws IOException {
+
+        if(!(this.opened)) {
+            this.sink.open(this.format, this.outputBuffer.length);
+            this.opened = true;
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Opens the sink and starts mixing on a new thread until {@link SoundMixer#close()} gets called.
+     * </p>
+     *
+     * @param threadFactory The factory to create the mixing thread.
+     * @throws IOException If the sink cannot be opened.
+     */
+    public void start(ThreadFactory threadFactory) throws IOException {
+
+        Assert.assertFalse("The mixer is already running.", this.running);
+
+        this.open();
+        this.running = true;
+
+        this.thread = threadFactory.newThread(this);
+        this.thread.start();
+
+    }
+
+    /**
+     * <p>
+     *    Mixes the provided amount of frames on the calling thread and writes them to the sink. This can be used to
+     *    render a mix offline, e.g. into a {@link de.SweetCode.e.resources.sounds.sinks.WaveFileSink}.
+     * </p>
+     *
+     * @param frames The amount of frames to render.
+     * @throws IOException If the sink fails to write.
+     */
+    public void render(int frames) throws IOException {
+
+        Assert.assertFalse("The mixer cannot render offline while it is running.", this.running);
+        this.open();
+
+        while (frames > 0) {
+            int chunk = Math.min(frames, this.bufferFrames);
+            this.mix(chunk);
+            this.sink.write(this.outputBuffer, chunk * this.format.getFrameSize());
+            frames -= chunk;
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Stops the mixing thread, if it is running, and closes the sink.
+     * </p>
+     *
+     * @throws IOException If the sink fails to close.
+     */
+    public void close() throws IOException {
+
+        this.running = false;
+
+        if(!(this.thread == null)) {
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+        }
+
+        if(this.opened) {
+            this.sink.close();
+            this.opened = false;
+        }
+
+    }
+
+    @Override
+    public void run() {
+
+        long bufferTime = TimeUnit.SECONDS.toNanos(this.bufferFrames) / SAMPLE_RATE;
+        long deadline = System.nanoTime();
+
+        while (this.running) {
+
+            this.mix(this.bufferFrames);
+
+            try {
+                this.sink.write(this.outputBuffer, this.outputBuffer.length);
+            } catch (IOException e) {
+                E.getE().getLog().log(
+                    LogEntry.Builder.create(SoundMixer.class)
+                        .prefix(LogPrefixes.SOUND)
+                        .message("Failed to write to the audio sink, the audio has stopped: %s", e.getMessage())
+                    .build()
+                );
+                this.running = false;
+                return;
+            }
+
+            //--- If the sink doesn't block, we have to make sure that we are not mixing faster than real-time.
+            if(!(this.sink.isBlocking())) {
+                deadline += bufferTime;
+                long wait = deadline - System.nanoTime();
+
+                if(wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    deadline = System.nanoTime();
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Applies all queued commands, mixes all active voices into the mix buffer and converts it into the output buffer.
+     * </p>
+     *
+     * @param frames The amount of frames to mix.
+     */
+    private void mix(int frames) {
+
+        this.processCommands();
+
+        Arrays.fill(this.mixBuffer, 0, frames * CHANNELS, 0F);
+
+        int active = 0;
+        for(Voice voice : this.voices) {
+
+            if(voice.sound == null) {
+                continue;
+            }
+
+            active++;
+
+            if(!(this.mixVoice(voice, frames))) {
+                voice.free();
+            }
+
+        }
+
+        this.activeVoices = active;
+        this.framesMixed += frames;
+
+        //--- Float to 16-bit signed little-endian
+        float master = this.masterVolume;
+        for(int i = 0, j = 0; i < frames * CHANNELS; i++, j += 2) {
+
+            float sample = this.mixBuffer[i] * master;
+            sample = (sample > 1F ? 1F : (sample < -1F ? -1F : sample));
+
+            short value = (short) (sample * Short.MAX_VALUE);
+            this.outputBuffer[j] = (byte) value;
+            this.outputBuffer[j + 1] = (byte) (value >> 8);
+
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Mixes the voice into the mix buffer.
+     * </p>
+     *
+     * @return False, if the voice finished playing its sound.
+     */
+    private boolean mixVoice(Voice voice, int frames) {
+
+        int channels = voice.sound.getChannels();
+
+        //--- Sampled
+        if(voice.sound instanceof SampledSound) {
+
+            float[] samples = ((SampledSound) voice.sound).getSamples();
+            int length = (int) voice.sound.getFrames();
+
+            int position = (int) voice.position;
+            for(int i = 0; i < frames; i++) {
+
+                if(position >= length) {
+                    if(!(voice.loop) || length == 0) {
+                        return false;
+                    }
+                    position = 0;
+                }
+
+                float left = samples[position * channels];
+                float right = (channels == 2 ? samples[position * channels + 1] : left);
+
+                this.mixBuffer[i * CHANNELS] += left * voice.gainLeft;
+                this.mixBuffer[i * CHANNELS + 1] += right * voice.gainRight;
+                position++;
+
+            }
+
+            voice.position = position;
+            return true;
+
+        }
+
+        //--- Streaming
+        StreamingSound stream = (StreamingSound) voice.sound;
+        int mixed = 0;
+
+        try {
+
+            while (mixed < frames) {
+
+                int read = stream.read(this.sourceBuffer, frames - mixed);
+
+                if(read == 0) {
+                    if(!(voice.loop) || stream.getFrames() == 0) {
+                        return false;
+                    }
+                    stream.rewind();
+                    continue;
+                }
+
+                for(int i = 0; i < read; i++) {
+                    float left = this.sourceBuffer[i * channels];
+                    float right = (channels == 2 ? this.sourceBuffer[i * channels + 1] : left);
+
+                    this.mixBuffer[(mixed + i) * CHANNELS] += left * voice.gainLeft;
+                    this.mixBuffer[(mixed + i) * CHANNELS + 1] += right * voice.gainRight;
+                }
+
+                mixed += read;
+
+            }
+
+        } catch (IOException e) {
+            E.getE().getLog().log(
+                LogEntry.Builder.create(SoundMixer.class)
+                    .prefix(LogPrefixes.SOUND)
+                    .message("Failed to read the stream of a voice, the sound has stopped: %s", e.getMessage())
+                .build()
+            );
+            return false;
+        }
+
+        return true;
+
+    }
+
+    private boolean enqueue(int type, int handle, Sound sound, float volume, float pan, boolean loop, int priority) {
+
+        synchronized (this.commandLock) {
+
+            if(this.commandSize == COMMAND_CAPACITY) {
+                return false;
+            }
+
+            int index = (this.commandHead + this.commandSize) % COMMAND_CAPACITY;
+            this.commandTypes[index] = type;
+            this.commandHandles[index] = handle;
+            this.commandSounds[index] = sound;
+            this.commandVolumes[index] = volume;
+            this.commandPans[index] = pan;
+            this.commandLoops[index] = loop;
+            this.commandPriorities[index] = priority;
+            this.commandSize++;
+
+            return true;
+
+        }
+
+    }
+
+    private void processCommands() {
+
+        synchronized (this.commandLock) {
+
+            while (this.commandSize > 0) {
+
+                int index = this.commandHead;
+                int handle = this.commandHandles[index];
+
+                switch (this.commandTypes[index]) {
+
+                    case COMMAND_PLAY:
+                        this.startVoice(
+                            handle,
+                            this.commandSounds[index],
+                            this.commandVolumes[index],
+                            this.commandPans[index],
+                            this.commandLoops[index],
+                            this.commandPriorities[index]
+                        );
+                    break;
+
+                    case COMMAND_STOP:
+                        for(Voice voice : this.voices) {
+                            if(voice.handle == handle) {
+                                voice.free();
+                            }
+                        }
+                    break;
+
+                    case COMMAND_VOLUME:
+                        for(Voice voice : this.voices) {
+                            if(voice.handle == handle) {
+                                voice.setGain(this.commandVolumes[index], voice.pan);
+                            }
+                        }
+                    break;
+
+                    case COMMAND_STOP_ALL:
+                        for(Voice voice : this.voices) {
+                            voice.free();
+                        }
+                    break;
+
+                }
+
+                this.commandSounds[index] = null;
+                this.commandHead = (this.commandHead + 1) % COMMAND_CAPACITY;
+                this.commandSize--;
+
+            }
+
+        }
+
+    }
+
+    private void startVoice(int handle, Sound sound, float volume, float pan, boolean loop, int priority) {
+
+        Voice target = null;
+
+        for(Voice voice : this.voices) {
+
+            // Note: A stream has only one read position, so it restarts if it is already playing.
+            if(sound instanceof StreamingSound && voice.sound == sound) {
+                voice.free();
+            }
+
+            if(target == null && voice.sound == null) {
+                target = voice;
+            }
+
+        }
+
+        //--- Voice limiting: steal the least important voice, if it isn't more important than the new one.
+        if(target == null) {
+
+            for(Voice voice : this.voices) {
+                if(
+                    target == null ||
+                    voice.priority < target.priority ||
+                    (voice.priority == target.priority && voice.startedAt < target.startedAt)
+                ) {
+                    target = voice;
+                }
+            }
+
+            if(target.priority > priority) {
+                return;
+            }
+
+            target.free();
+
+        }
+
+        if(sound instanceof StreamingSound) {
+            ((StreamingSound) sound).rewind();
+        }
+
+        target.sound = sound;
+        target.handle = handle;
+        target.loop = loop;
+        target.priority = priority;
+        target.position = 0;
+        target.startedAt = this.framesMixed;
+        target.setGain(volume, pan);
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("voices", this.voices.length)
+                .append("activeVoices", this.activeVoices)
+                .append("bufferFrames", this.bufferFrames)
+                .append("masterVolume", this.masterVolume)
+                .append("running", this.running)
+            .build();
+    }
+
+    /**
+     * The state of one playing sound, it only gets touched by the mixing thread.
+     */
+    private static class Voice {
+
+        private Sound sound = null;
+        private int handle = -1;
+        private int priority = 0;
+        private boolean loop = false;
+
+        private long position = 0;
+        private long startedAt = 0;
+
+        private float pan = 0;
+        private float gainLeft = 0;
+        private float gainRight = 0;
+
+        private void setGain(float volume, float pan) {
+            this.pan = pan;
+            this.gainLeft = volume * Math.min(1F, 1F - pan);
+            this.gainRight = volume * Math.min(1F, 1F + pan);
+        }
+
+        private void free() {
+            this.sound = null;
+            this.handle = -1;
+        }
+
+    }
+
+}
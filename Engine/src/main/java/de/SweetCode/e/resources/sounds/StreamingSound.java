@@ -0,0 +1,150 @@
+package de.SweetCode.e.resources.sounds;
+
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ *    A StreamingSound decodes its samples while it is being played, so only a small chunk of it is in memory at any
+ *    time. The samples are read with positional reads from a {@link FileChannel} into a direct {@link ByteBuffer} which
+ *    is allocated once, so playing the sound doesn't produce any garbage.
+ * </p>
+ * <p>
+ *    A StreamingSound keeps its own read position, so it can only be played by one voice at a time. Playing it again
+ *    restarts it.
+ * </p>
+ */
+public class StreamingSound implements Sound, Closeable {
+
+    /**
+     * The amount of frames decoded with one read.
+     */
+    private final static int CHUNK_FRAMES = 4096;
+
+    private final FileChannel channel;
+    private final long dataOffset;
+    private final long dataLength;
+    private final int channels;
+
+    private final ByteBuffer buffer;
+    private long position = 0;
+
+    /**
+     * <p>
+     *    Creates a new StreamingSound, use {@link SoundLoader#stream(java.io.File)} to create one from a file.
+     * </p>
+     *
+     * @param channel The channel to read the signed 16-bit little-endian PCM samples from.
+     * @param dataOffset The position of the first sample in the channel in bytes.
+     * @param dataLength The length of the sample data in bytes.
+     * @param channels The amount of channels, 1 or 2.
+     */
+    StreamingSound(FileChannel channel, long dataOffset, long dataLength, int channels) {
+
+        Assert.assertNotNull("The channel cannot be null.", channel);
+        Assert.assertTrue("Only mono and stereo sounds are supported.", (channels == 1 || channels == 2));
+
+        this.channel = channel;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength - (dataLength % (channels * 2));
+        this.channels = channels;
+
+        this.buffer = ByteBuffer.allocateDirect(CHUNK_FRAMES * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+
+    }
+
+    @Override
+    public int getChannels() {
+        return this.channels;
+    }
+
+    @Override
+    public long getFrames() {
+        return this.dataLength / (this.channels * 2);
+    }
+
+    /**
+     * <p>
+     *    Moves the read position back to the first sample.
+     * </p>
+     */
+    void rewind() {
+        this.position = 0;
+    }
+
+    /**
+     * <p>
+     *    Decodes the next frames into the target array.
+     * </p>
+     *
+     * @param target The array to write the interleaved samples in [-1, 1] to.
+     * @param frames The max. amount of frames to decode.
+     * @return The amount of frames actually decoded, 0 if the end of the sound has been reached.
+     * @throws IOException If the channel fails to read.
+     */
+    int read(float[] target, int frames) throws IOException {
+
+        int frameSize = this.channels * 2;
+        int decoded = 0;
+
+        while (decoded < frames && this.position < this.dataLength) {
+
+            int chunkFrames = (int) Math.min(
+                    Math.min(frames - decoded, CHUNK_FRAMES),
+                    (this.dataLength - this.position) / frameSize
+            );
+
+            this.buffer.clear();
+            this.buffer.limit(chunkFrames * frameSize);
+
+            while (this.buffer.hasRemaining()) {
+                int read = this.channel.read(this.buffer, this.dataOffset + this.position + this.buffer.position());
+
+                if(read < 0) {
+                    break;
+                }
+            }
+
+            this.buffer.flip();
+
+            int readFrames = this.buffer.remaining() / frameSize;
+            int offset = decoded * this.channels;
+
+            for(int i = 0; i < readFrames * this.channels; i++) {
+                target[offset + i] = this.buffer.getShort() / 32768F;
+            }
+
+            this.position += readFrames * frameSize;
+            decoded += readFrames;
+
+            if(readFrames < chunkFrames) {
+                break;
+            }
+
+        }
+
+        return decoded;
+
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("channels", this.channels)
+                .append("frames", this.getFrames())
+                .append("position", this.position / (this.channels * 2))
+            .build();
+    }
+
+}
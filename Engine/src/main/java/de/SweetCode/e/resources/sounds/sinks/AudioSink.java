@@ -0,0 +1,56 @@
+package de.SweetCode.e.resources.sounds.sinks;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+
+/**
+ * <p>
+ *    An AudioSink receives the mixed samples of the {@link de.SweetCode.e.resources.sounds.SoundMixer}. The mixer calls
+ *    {@link AudioSink#write(byte[], int)} from its own thread, so implementations must not allocate memory while
+ *    writing.
+ * </p>
+ */
+public interface AudioSink {
+
+    /**
+     * <p>
+     *    Prepares the sink to receive samples.
+     * </p>
+     *
+     * @param format The format of the samples.
+     * @param bufferSize The max. amount of bytes passed to a single {@link AudioSink#write(byte[], int)} call.
+     * @throws IOException If the sink cannot be opened.
+     */
+    void open(AudioFormat format, int bufferSize) throws IOException;
+
+    /**
+     * <p>
+     *    Writes the mixed samples.
+     * </p>
+     *
+     * @param data The samples in the format passed to {@link AudioSink#open(AudioFormat, int)}.
+     * @param length The amount of bytes to write.
+     * @throws IOException If the sink fails to write.
+     */
+    void write(byte[] data, int length) throws IOException;
+
+    /**
+     * <p>
+     *    Defines if {@link AudioSink#write(byte[], int)} blocks until the device consumed the samples. If it doesn't,
+     *    the mixer thread paces itself to real-time.
+     * </p>
+     *
+     * @return True, if writing blocks, otherwise false.
+     */
+    boolean isBlocking();
+
+    /**
+     * <p>
+     *    Flushes and releases the sink.
+     * </p>
+     *
+     * @throws IOException If the sink fails to close.
+     */
+    void close() throws IOException;
+
+}
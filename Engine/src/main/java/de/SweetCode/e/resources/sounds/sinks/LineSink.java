@@ -0,0 +1,55 @@
+package de.SweetCode.e.resources.sounds.sinks;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.io.IOException;
+
+/**
+ * <p>
+ *    The LineSink writes the samples to a {@link SourceDataLine}, so they are played on the default audio device.
+ * </p>
+ */
+public class LineSink implements AudioSink {
+
+    private SourceDataLine line;
+
+    public LineSink() {}
+
+    @Override
+    public void open(AudioFormat format, int bufferSize) throws IOException {
+
+        try {
+            this.line = AudioSystem.getSourceDataLine(format);
+
+            // Note: Two buffers in the line, so the mixer can already mix the next one while the device plays.
+            this.line.open(format, bufferSize * 2);
+            this.line.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            throw new IOException("Failed to open the audio line.", e);
+        }
+
+    }
+
+    @Override
+    public void write(byte[] data, int length) {
+        this.line.write(data, 0, length);
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+
+        if(!(this.line == null)) {
+            this.line.drain();
+            this.line.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package de.SweetCode.e.resources.sounds.sinks;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * <p>
+ *    The NullSink discards all samples. It is used if there is no audio device, e.g. on a headless server.
+ * </p>
+ */
+public class NullSink implements AudioSink {
+
+    public NullSink() {}
+
+    @Override
+    public void open(AudioFormat format, int bufferSize) {}
+
+    @Override
+    public void write(byte[] data, int length) {}
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public void close() {}
+
+}
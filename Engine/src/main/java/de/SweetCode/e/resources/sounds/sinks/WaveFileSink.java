@@ -0,0 +1,117 @@
+package de.SweetCode.e.resources.sounds.sinks;
+
+import de.SweetCode.e.utils.Assert;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *    The WaveFileSink writes all samples into a WAVE file. Together with {@link de.SweetCode.e.resources.sounds.SoundMixer#render(int)}
+ *    it allows to render a mix offline, e.g. to compare it with an expected result.
+ * </p>
+ */
+public class WaveFileSink implements AudioSink {
+
+    private final static int HEADER_SIZE = 44;
+
+    private final File file;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private AudioFormat format;
+    private long written = 0;
+
+    /**
+     * <p>
+     *    Creates a new WaveFileSink.
+     * </p>
+     *
+     * @param file The file to write to, it gets overwritten if it already exists.
+     */
+    public WaveFileSink(File file) {
+        Assert.assertNotNull("The file cannot be null.", file);
+        this.file = file;
+    }
+
+    @Override
+    public void open(AudioFormat format, int bufferSize) throws IOException {
+
+        this.format = format;
+        this.channel = FileChannel.open(
+                this.file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        this.written = 0;
+
+        // Note: The sizes in the header get fixed when the sink gets closed.
+        this.writeHeader();
+
+    }
+
+    @Override
+    public void write(byte[] data, int length) throws IOException {
+
+        this.buffer.clear();
+        this.buffer.put(data, 0, length);
+        this.buffer.flip();
+
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer, HEADER_SIZE + this.written + this.buffer.position());
+        }
+
+        this.written += length;
+
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if(this.channel == null) {
+            return;
+        }
+
+        this.writeHeader();
+        this.channel.close();
+        this.channel = null;
+
+    }
+
+    private void writeHeader() throws IOException {
+
+        int frameSize = this.format.getFrameSize();
+
+        this.buffer.clear();
+        this.buffer.putInt(0x46464952);                                          // "RIFF"
+        this.buffer.putInt((int) (36 + this.written));
+        this.buffer.putInt(0x45564157);                                          // "WAVE"
+        this.buffer.putInt(0x20746D66);                                          // "fmt "
+        this.buffer.putInt(16);
+        this.buffer.putShort((short) 1);                                         // PCM
+        this.buffer.putShort((short) this.format.getChannels());
+        this.buffer.putInt((int) this.format.getSampleRate());
+        this.buffer.putInt((int) this.format.getSampleRate() * frameSize);
+        this.buffer.putShort((short) frameSize);
+        this.buffer.putShort((short) this.format.getSampleSizeInBits());
+        this.buffer.putInt(0x61746164);                                          // "data"
+        this.buffer.putInt((int) this.written);
+        this.buffer.flip();
+
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer, this.buffer.position());
+        }
+
+    }
+
+}
@@ -1,10 +1,10 @@
 package de.SweetCode.e.resources.textures;
 
 import de.SweetCode.e.E;
-import de.SweetCode.e.EScreen;
 import de.SweetCode.e.input.InputEntry;
 import de.SweetCode.e.math.IBoundingBox;
 import de.SweetCode.e.math.ILocation;
+import de.SweetCode.e.rendering.AcceleratedImage;
 import de.SweetCode.e.utils.Assert;
 import de.SweetCode.e.utils.log.LogEntry;
 import de.SweetCode.e.utils.log.LogPrefixes;
@@ -13,12 +13,12 @@ import me.lemire.integercompression.differential.IntegratedIntCompressor;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.VolatileImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The DynamicTextureLoader keeps only actively used textures uncompressed (!) in memory as BufferedImage, all other
@@ -48,6 +48,9 @@ public class DynamicTextureLoader implements TextureLoader {
 
     private int[] compressedImage = null;
 
+    private final LongAdder hits = E.getE().getMetrics().counter("texture.dynamic.hits");
+    private final LongAdder misses = E.getE().getMetrics().counter("texture.dynamic.misses");
+
     /**
      * Constructor.
      * @param file The sprite sheet file.
@@ -145,11 +148,14 @@ public class DynamicTextureLoader implements TextureLoader {
         if(this.cache.containsKey(index)) {
 
             entry = this.cache.get(index);
+            this.hits.increment();
 
         }
         // Image currently not in cache
         else {
 
+            this.misses.increment();
+
             int[] uncompressed = compressor.uncompress(this.compressedImage);
 
             BufferedImage bufferedImage = new BufferedImage(this.tileWidth, this.tileHeight, BufferedImage.TYPE_INT_ARGB);
@@ -188,6 +194,7 @@ public class DynamicTextureLoader implements TextureLoader {
             iterator.forEachRemaining(e -> {
 
                 if(e.hasExpired()) {
+                    e.flush();
                     iterator.remove();
                 }
 
@@ -207,17 +214,19 @@ public class DynamicTextureLoader implements TextureLoader {
     private static class ImageCacheEntry {
 
         private long expired;
-        private Image image;
+        private BufferedImage image;
+        private AcceleratedImage acceleratedImage;
 
         public ImageCacheEntry(long expired, BufferedImage image) {
             this.expired = expired;
+            this.image = image;
 
             // Storing images in VRAM if we are supposed to... :) otherwise just plain BufferedImage in normal RAM
-            this.image = (EScreen.USE_VRAM ? toVolatile(image) : image);
+            this.acceleratedImage = (!(E.getE().getScreen() == null) && E.getE().getScreen().isUsingVRAM() ? new AcceleratedImage(image) : null);
         }
 
         public Image getImage() {
-            return this.image;
+            return (this.acceleratedImage == null ? this.image : this.acceleratedImage.get());
         }
 
         public boolean hasExpired() {
@@ -228,27 +237,12 @@ public class DynamicTextureLoader implements TextureLoader {
             this.expired = System.currentTimeMillis() + expireTime;
         }
 
-        private static Image toVolatile(BufferedImage bufferedImage) {
-            int width = bufferedImage.getWidth();
-            int height = bufferedImage.getHeight();
-
-            VolatileImage volatileImage = EScreen.getGraphicConfiguration().createCompatibleVolatileImage(width, height);
-            volatileImage.setAccelerationPriority(1);
-
-            //@TODO: Remove background
-            Graphics2D g = volatileImage.createGraphics();
-
-            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
-            g.setBackground(new Color(255, 255, 255, 0));
-            g.fillRect(0, 0, width, height);
-
-            g.setRenderingHints(E.getE().getSettings().getRenderingHints());
-            g.drawImage(bufferedImage, 0, 0, null);
-            g.dispose();
-
-            return volatileImage;
+        public void flush() {
+            if(!(this.acceleratedImage == null)) {
+                this.acceleratedImage.flush();
+            }
         }
 
     }
 
-}
\ No newline at end of file
+}
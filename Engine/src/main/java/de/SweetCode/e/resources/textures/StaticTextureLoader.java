@@ -25,6 +25,10 @@ public class StaticTextureLoader implements TextureLoader {
 
     private int columns;
 
+    // Note: The tiles are cut out once, so every call returns the same instance and renderers caching textures by
+    // instance, e.g. the GLBackend, upload every tile only once.
+    private Image[] tiles;
+
     /**
      * Constructor.
      * @param file The sprite sheet file.
@@ -53,6 +57,7 @@ public class StaticTextureLoader implements TextureLoader {
 
             this.boundingBox = new IBoundingBox(0, 0, bufferedImage.getWidth(), bufferedImage.getHeight());
             this.columns = bufferedImage.getWidth() / this.tileWidth;
+            this.tiles = new Image[this.columns * (bufferedImage.getHeight() / this.tileHeight)];
 
         } catch (IOException e) {
             E.getE().getLog().log(
@@ -77,7 +82,11 @@ public class StaticTextureLoader implements TextureLoader {
             throw new IndexOutOfBoundsException(String.format("%d out of texture.", index));
         }
 
-        return this.bufferedImage.getSubimage(x, y, this.tileWidth, this.tileHeight);
+        if(this.tiles[index] == null) {
+            this.tiles[index] = this.bufferedImage.getSubimage(x, y, this.tileWidth, this.tileHeight);
+        }
+
+        return this.tiles[index];
 
     }
 
@@ -0,0 +1,61 @@
+package de.SweetCode.e.trace;
+
+/**
+ * <p>
+ * The categories of the events recorded by the {@link Tracer}, they show up as <code>cat</code> in the trace viewer.
+ * </p>
+ */
+public enum TraceCategory {
+
+    /**
+     * <p>
+     *     The time between two presented frames.
+     * </p>
+     */
+    FRAME,
+
+    /**
+     * <p>
+     *     One tick of a {@link de.SweetCode.e.loop.Loop}.
+     * </p>
+     */
+    LOOP,
+
+    /**
+     * <p>
+     *     The update of one game component.
+     * </p>
+     */
+    UPDATE,
+
+    /**
+     * <p>
+     *     The render call of one renderable.
+     * </p>
+     */
+    RENDER,
+
+    /**
+     * <p>
+     *     The dispatch of one event to its listeners.
+     * </p>
+     */
+    EVENT,
+
+    /**
+     * <p>
+     *     A garbage collection, as reported by the JVM after it finished.
+     * </p>
+     */
+    GC;
+
+    private final String key = this.name().toLowerCase();
+
+    /**
+     * @return The name used in the trace file.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+}
@@ -0,0 +1,407 @@
+package de.SweetCode.e.trace;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import de.SweetCode.e.E;
+import de.SweetCode.e.utils.Assert;
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+import de.SweetCode.e.utils.log.LogEntry;
+import de.SweetCode.e.utils.log.LogPrefixes;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *    The Tracer is a flight recorder for the engine: it keeps the last {@link Tracer#getCapacity()} spans, e.g. loop
+ *    ticks, component updates, render calls, event dispatches and garbage collections, in a ring buffer. When a frame
+ *    takes longer than the spike threshold, the buffer is written into a new file in the trace directory, so a hitch
+ *    can be looked at after the fact. It can also be written at any time with {@link Tracer#dump(Path)}.
+ * </p>
+ * <p>
+ *    The files are in the Chrome trace event format and can be opened with <code>chrome://tracing</code> or
+ *    <a href="https://ui.perfetto.dev">Perfetto</a>.
+ * </p>
+ * <p>
+ *    Recording a span doesn't allocate and doesn't lock, it only claims the next slot with an atomic increment and writes
+ *    the fields into preallocated arrays. The slots are stamped with their sequence number, slots that are overwritten
+ *    while they are dumped are skipped. It is still a measurement of every component update and render call, and the
+ *    update workers share the sequence, so it is off unless {@link de.SweetCode.e.Settings#isTracingEnabled()} or
+ *    {@link Tracer#setEnabled(boolean)} turn it on.
+ * </p>
+ */
+public class Tracer {
+
+    // Note: A game running into a hitch usually keeps hitching for a while, one file is enough for that.
+    private static final long DUMP_COOLDOWN = TimeUnit.SECONDS.toNanos(10);
+
+    private static final TraceCategory[] CATEGORIES = TraceCategory.values();
+
+    private volatile boolean enabled;
+
+    //--- Ring Buffer
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray stamps;
+    private final Object[] names;
+    private final byte[] categories;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] threads;
+    //---
+
+    //--- Spike Dumps
+    private final long spikeThreshold;
+    private final Path directory;
+    private final AtomicBoolean dumping = new AtomicBoolean(false);
+    private volatile long lastDump = 0;
+    private final LongAdder dumps = E.getE().getMetrics().counter("trace.dumps");
+    //---
+
+    private final long origin = System.nanoTime();
+
+    /**
+     * @param enabled True, if spans should be recorded from the start.
+     * @param capacity The amount of spans to keep, rounded up to the next power of two.
+     * @param spikeThreshold The time in nanoseconds a frame has to take to trigger a dump.
+     * @param directory The directory the dumps are written into when a frame spikes, or null if they should not be written.
+     */
+    public Tracer(boolean enabled, int capacity, long spikeThreshold, Path directory) {
+
+        Assert.assertTrue("The capacity has to be greater than 0.", capacity > 0 && capacity <= (1 << 30));
+        Assert.assertTrue("The spike threshold has to be greater than 0.", spikeThreshold > 0);
+
+        int size = Integer.highestOneBit(capacity);
+        size = (size == capacity ? size : size << 1);
+
+        this.enabled = enabled;
+        this.mask = size - 1;
+        this.stamps = new AtomicLongArray(size);
+        this.names = new Object[size];
+        this.categories = new byte[size];
+        this.starts = new long[size];
+        this.ends = new long[size];
+        this.threads = new long[size];
+        this.spikeThreshold = spikeThreshold;
+        this.directory = directory;
+
+        for(int i = 0; i < size; i++) {
+            this.stamps.set(i, -1);
+        }
+
+        //--- Garbage collections are reported by the JVM, after they are done.
+        for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if(bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> this.collected(notification), null, null);
+            }
+        }
+
+    }
+
+    /**
+     * @return True, if spans are recorded.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * @param enabled True, if spans should be recorded.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The amount of spans the ring buffer keeps.
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return The amount of spans recorded since the tracer has been created.
+     */
+    public long getRecorded() {
+        return this.sequence.get();
+    }
+
+    /**
+     * <p>
+     *    Records a span. The name is only turned into a string when the spans are dumped, so classes can be passed
+     *    without any costs: they are written with their simple name.
+     * </p>
+     *
+     * @param category The category.
+     * @param name The name, e.g. the class of the component.
+     * @param start The start, from {@link System#nanoTime()}.
+     * @param end The end, from {@link System#nanoTime()}.
+     */
+    public void span(TraceCategory category, Object name, long start, long end) {
+
+        if(!(this.enabled)) {
+            return;
+        }
+
+        long sequence = this.sequence.getAndIncrement();
+        int index = (int) sequence & this.mask;
+
+        // Note: Marks the slot as being written, so a dump running at the same time skips it.
+        this.stamps.set(index, -1);
+        VarHandle.storeStoreFence();
+
+        this.names[index] = name;
+        this.categories[index] = (byte) category.ordinal();
+        this.starts[index] = start;
+        this.ends[index] = end;
+        this.threads[index] = Thread.currentThread().getId();
+
+        this.stamps.set(index, sequence);
+
+    }
+
+    /**
+     * <p>
+     *    Records a presented frame and writes a dump into the trace directory, if it took longer than the spike threshold.
+     *    The dump is written by its own thread, so the render thread isn't blocked by it.
+     * </p>
+     *
+     * @param start The time the previous frame has been presented.
+     * @param end The time this frame has been presented.
+     */
+    public void frame(long start, long end) {
+
+        if(!(this.enabled)) {
+            return;
+        }
+
+        this.span(TraceCategory.FRAME, "Frame", start, end);
+
+        if(
+            (this.directory == null) ||
+            (end - start < this.spikeThreshold) ||
+            (!(this.lastDump == 0) && end - this.lastDump < DUMP_COOLDOWN) ||
+            !(this.dumping.compareAndSet(false, true))
+        ) {
+            return;
+        }
+
+        this.lastDump = end;
+
+        long upto = this.sequence.get();
+        Path path = this.directory.resolve(String.format("trace-%d.json", System.currentTimeMillis()));
+
+        Thread thread = new Thread(() -> {
+
+            try {
+                Files.createDirectories(this.directory);
+
+                try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    this.dump(writer, upto);
+                }
+
+                E.getE().getLog().log(
+                    LogEntry.Builder.create(Tracer.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("A frame took %.2fms, the trace has been written to %s.", (end - start) / 1E6, path)
+                    .build()
+                );
+            } catch (IOException e) {
+                E.getE().getLog().log(
+                    LogEntry.Builder.create(Tracer.class)
+                        .prefix(LogPrefixes.ENGINE)
+                        .message("Failed to write the trace to %s: %s", path, e.getMessage())
+                    .build()
+                );
+            } finally {
+                this.dumping.set(false);
+            }
+
+        }, "e-trace-dump");
+
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+    }
+
+    /**
+     * <p>
+     *    Writes all spans that are currently in the ring buffer into a file.
+     * </p>
+     *
+     * @param path The file.
+     * @throws IOException If the file couldn't be written.
+     */
+    public void dump(Path path) throws IOException {
+
+        Assert.assertNotNull("The path cannot be null.", path);
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            this.dump(writer);
+        }
+
+    }
+
+    /**
+     * <p>
+     *    Writes all spans that are currently in the ring buffer in the Chrome trace event format.
+     * </p>
+     *
+     * @param writer The writer, it isn't closed.
+     * @throws IOException If the writer failed.
+     */
+    public void dump(Writer writer) throws IOException {
+
+        Assert.assertNotNull("The writer cannot be null.", writer);
+        this.dump(writer, this.sequence.get());
+
+    }
+
+    private void dump(Writer writer, long upto) throws IOException {
+
+        this.dumps.increment();
+
+        Set<Long> threads = new HashSet<>();
+        boolean first = true;
+
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+        for(long sequence = Math.max(0, upto - this.getCapacity()); sequence < upto; sequence++) {
+
+            int index = (int) sequence & this.mask;
+
+            if(!(this.stamps.get(index) == sequence)) {
+                continue;
+            }
+
+            Object name = this.names[index];
+            TraceCategory category = CATEGORIES[this.categories[index]];
+            long start = this.starts[index];
+            long end = this.ends[index];
+            long thread = this.threads[index];
+
+            // Note: The slot got overwritten while it was read.
+            VarHandle.loadLoadFence();
+            if(!(this.stamps.get(index) == sequence)) {
+                continue;
+            }
+
+            threads.add(thread);
+
+            writer.write(first ? "\n" : ",\n");
+            writer.write(String.format(Locale.ROOT,
+                "{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,\"pid\":1,\"tid\":%d}",
+                Tracer.escape(Tracer.name(name)),
+                category.getKey(),
+                (start - this.origin) / 1E3,
+                Math.max(0, end - start) / 1E3,
+                thread
+            ));
+
+            first = false;
+
+        }
+
+        //--- The names of the threads that are still alive, looked up without capturing their stacks.
+        long[] ids = threads.stream().mapToLong(Long::longValue).toArray();
+        ThreadInfo[] infos = ManagementFactory.getThreadMXBean().getThreadInfo(ids);
+        Map<Long, String> names = new HashMap<>();
+
+        for(int i = 0; i < ids.length; i++) {
+            if(!(infos[i] == null)) {
+                names.put(ids[i], infos[i].getThreadName());
+            }
+        }
+
+        for(long thread : threads) {
+            writer.write(first ? "\n" : ",\n");
+            writer.write(String.format(Locale.ROOT,
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}",
+                thread,
+                Tracer.escape(names.getOrDefault(thread, "Thread " + thread))
+            ));
+            first = false;
+        }
+
+        writer.write("\n]}\n");
+        writer.flush();
+
+    }
+
+    private void collected(Notification notification) {
+
+        if(!(this.enabled) || !(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))) {
+            return;
+        }
+
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+
+        // Note: The JVM reports the duration in milliseconds once the collection is done, so the start is an estimate.
+        long end = System.nanoTime();
+        long duration = TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration());
+
+        this.span(TraceCategory.GC, String.format("%s (%s)", info.getGcName(), info.getGcCause()), end - duration, end);
+
+    }
+
+    private static String name(Object name) {
+
+        if(name instanceof Class) {
+            Class<?> type = (Class<?>) name;
+            return (type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName());
+        }
+
+        return String.valueOf(name);
+
+    }
+
+    private static String escape(String value) {
+
+        StringBuilder builder = new StringBuilder(value.length());
+
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if(c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if(c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("enabled", this.enabled)
+                .append("capacity", this.getCapacity())
+                .append("recorded", this.getRecorded())
+            .build();
+    }
+
+}
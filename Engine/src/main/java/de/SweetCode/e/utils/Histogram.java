@@ -0,0 +1,203 @@
+package de.SweetCode.e.utils;
+
+import de.SweetCode.e.utils.ToString.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ *    A Histogram counts values, e.g. durations in nanoseconds, in log-linear buckets: the values are grouped by their
+ *    highest bit and every group is split into buckets of equal width. The default layout has 16 buckets per group,
+ *    which keeps the relative error of every value below 1/16, no matter if it is a few nanoseconds or several seconds,
+ *    with 592 buckets. The {@link Histogram#coarse() coarse} layout only has 72 buckets, for places that keep one
+ *    histogram per component, where there can be thousands of them.
+ * </p>
+ * <p>
+ *    Recording is lock-free and can happen from any amount of threads at the same time. Reading while values are
+ *    recorded gives a consistent enough picture for monitoring, but not an atomic snapshot.
+ * </p>
+ */
+public class Histogram {
+
+    // Note: Values are capped at 2^40 - 1, in nanoseconds this is more than 18 minutes.
+    private static final int SUB_BITS = 4;
+    private static final int MAX_BITS = 40;
+
+    // Note: 2 buckets per group and values capped at 2^36 - 1, more than a minute in nanoseconds.
+    private static final int COARSE_SUB_BITS = 1;
+    private static final int COARSE_MAX_BITS = 36;
+
+    private final int subBits;
+    private final int subBuckets;
+    private final long maxValue;
+
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * <p>
+     *    Creates a new histogram with 16 buckets per group, the relative error of every value stays below 1/16.
+     * </p>
+     */
+    public Histogram() {
+        this(SUB_BITS, MAX_BITS);
+    }
+
+    private Histogram(int subBits, int maxBits) {
+        this.subBits = subBits;
+        this.subBuckets = 1 << subBits;
+        this.maxValue = (1L << maxBits) - 1;
+        this.buckets = new AtomicLongArray((maxBits - subBits + 1) * this.subBuckets);
+    }
+
+    /**
+     * <p>
+     *    Creates a new histogram with 2 buckets per group. The relative error of a value can be up to 1/2, so it still
+     *    tells which components are slow and by which order of magnitude, but it only needs an eighth of the memory.
+     * </p>
+     *
+     * @return The new histogram.
+     */
+    public static Histogram coarse() {
+        return new Histogram(COARSE_SUB_BITS, COARSE_MAX_BITS);
+    }
+
+    /**
+     * <p>
+     *    Adds a value.
+     * </p>
+     *
+     * @param value The value, negative values are counted as 0.
+     */
+    public void record(long value) {
+
+        long clamped = Math.max(0, Math.min(this.maxValue, value));
+
+        this.buckets.incrementAndGet(this.index(clamped));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(clamped);
+
+        long current;
+        while (clamped > (current = this.max.get())) {
+            if(this.max.compareAndSet(current, clamped)) {
+                break;
+            }
+        }
+
+    }
+
+    /**
+     * @return The amount of recorded values.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return The highest recorded value, or 0 if there is none.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * @return The average of the recorded values, or 0 if there is none.
+     */
+    public long getMean() {
+        long count = this.count.get();
+        return (count == 0 ? 0 : this.sum.get() / count);
+    }
+
+    /**
+     * <p>
+     *    Gives a percentile of the recorded values. The result is the highest value of the bucket the percentile falls
+     *    into, so it is never lower than the exact value.
+     * </p>
+     *
+     * @param percentile The percentile in [0, 100].
+     * @return The value, or 0 if there is none.
+     */
+    public long getPercentile(double percentile) {
+
+        Assert.assertTrue("The percentile has to be in [0, 100].", percentile >= 0 && percentile <= 100);
+
+        long count = this.count.get();
+
+        if(count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100D * count));
+        long seen = 0;
+
+        for(int i = 0; i < this.buckets.length(); i++) {
+            seen += this.buckets.get(i);
+
+            if(seen >= rank) {
+                return Math.min(this.highest(i), this.max.get());
+            }
+        }
+
+        return this.max.get();
+
+    }
+
+    /**
+     * <p>
+     *    Removes all recorded values.
+     * </p>
+     */
+    public void reset() {
+
+        for(int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, 0);
+        }
+
+        this.count.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+
+    }
+
+    private int index(long value) {
+
+        if(value < this.subBuckets) {
+            return (int) value;
+        }
+
+        int bit = 63 - Long.numberOfLeadingZeros(value);
+        int group = bit - this.subBits + 1;
+        int sub = (int) (value >>> (bit - this.subBits)) & (this.subBuckets - 1);
+
+        return (group << this.subBits) | sub;
+
+    }
+
+    private long highest(int index) {
+
+        int group = index >>> this.subBits;
+        int sub = index & (this.subBuckets - 1);
+
+        if(group == 0) {
+            return sub;
+        }
+
+        long width = 1L << (group - 1);
+        return ((this.subBuckets + sub) * width) + width - 1;
+
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.create(this)
+                .append("count", this.getCount())
+                .append("p50", this.getPercentile(50))
+                .append("p99", this.getPercentile(99))
+                .append("max", this.getMax())
+            .build();
+    }
+
+}
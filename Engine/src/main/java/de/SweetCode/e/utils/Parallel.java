@@ -0,0 +1,205 @@
+package de.SweetCode.e.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ *    Parallel splits an index range into batches and processes them on an {@link Executor}. The calling thread works on
+ *    the batches itself instead of just waiting for them, so it is safe to use an executor whose threads might all be
+ *    busy, e.g. the pool of the loop that is calling it: Helpers that never get a thread simply find no work left.
+ * </p>
+ */
+public class Parallel {
+
+    private Parallel() {}
+
+    /**
+     * <p>
+     *    Calls the consumer for every index in [0, count) and returns after all calls finished. The order of the calls
+     *    is not defined.
+     * </p>
+     *
+     * @param executor The executor to run the helpers on, if null, everything runs on the calling thread.
+     * @param count The amount of indices.
+     * @param batch The amount of indices a thread processes at once, must be greater than 0.
+     * @param consumer The consumer to call.
+     */
+    public static void forEach(Executor executor, int count, int batch, IntConsumer consumer) {
+        Parallel.task(consumer).run(executor, count, batch);
+    }
+
+    /**
+     * <p>
+     *    Creates a task that can be run as often as needed, so code calling it every tick doesn't have to allocate the
+     *    counters and the helper for every call like {@link Parallel#forEach(Executor, int, int, IntConsumer)} does.
+     * </p>
+     *
+     * @param consumer The consumer the task calls for every index.
+     * @return The new task.
+     */
+    public static Task task(IntConsumer consumer) {
+        return new Task(consumer);
+    }
+
+    /**
+     * <p>
+     *    A Task calls its consumer for an index range, see {@link Parallel#forEach(Executor, int, int, IntConsumer)}. It
+     *    can be run again once a run returned, but only by one thread at a time.
+     * </p>
+     */
+    public static final class Task {
+
+        // Note: The index of the next batch is marked as closed between two runs, so helpers of an earlier run that only
+        // get a thread now can't claim anything.
+        private final static int CLOSED = Integer.MAX_VALUE;
+
+        private final IntConsumer consumer;
+
+        //--- The generation of the run in the upper half, the index of the next batch in the lower half
+        private final AtomicLong next = new AtomicLong(CLOSED);
+        //---
+
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final Object lock = new Object();
+        private final Runnable worker = this::work;
+
+        private volatile int count;
+        private volatile int batch;
+        private volatile int batches;
+
+        private Task(IntConsumer consumer) {
+
+            Assert.assertNotNull("The consumer cannot be null.", consumer);
+
+            this.consumer = consumer;
+
+        }
+
+        /**
+         * <p>
+         *    Calls the consumer for every index in [0, count) and returns after all calls finished. The order of the
+         *    calls is not defined.
+         * </p>
+         *
+         * @param executor The executor to run the helpers on, if null, everything runs on the calling thread.
+         * @param count The amount of indices.
+         * @param batch The amount of indices a thread processes at once, must be greater than 0.
+         */
+        public void run(Executor executor, int count, int batch) {
+
+            Assert.assertTrue("The batch size has to be greater than 0.", batch > 0);
+
+            if(executor == null || count <= batch) {
+                for(int i = 0; i < count; i++) {
+                    this.consumer.accept(i);
+                }
+                return;
+            }
+
+            Assert.assertTrue("The task is already running.", this.running.compareAndSet(false, true));
+
+            try {
+
+                int batches = (count + batch - 1) / batch;
+                int helpers = Math.min(batches, Runtime.getRuntime().availableProcessors()) - 1;
+
+                this.count = count;
+                this.batch = batch;
+                this.batches = batches;
+                this.done.set(0);
+                this.failure.set(null);
+
+                long generation = (this.next.get() >>> 32) + 1;
+                this.next.set(generation << 32);
+
+                for(int i = 0; i < helpers; i++) {
+                    try {
+                        executor.execute(this.worker);
+                    } catch (RejectedExecutionException e) {
+                        break;
+                    }
+                }
+
+                this.work();
+
+                //--- Every batch has been claimed now, so we only wait for the ones still running on helpers
+                synchronized (this.lock) {
+                    while (this.done.get() < batches) {
+                        try {
+                            this.lock.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("Interrupted while waiting for the batches to finish.", e);
+                        }
+                    }
+                }
+                //---
+
+                this.next.set((generation << 32) | CLOSED);
+
+                Throwable throwable = this.failure.get();
+
+                if(throwable instanceof RuntimeException) {
+                    throw (RuntimeException) throwable;
+                } else if(throwable instanceof Error) {
+                    throw (Error) throwable;
+                } else if(!(throwable == null)) {
+                    throw new IllegalStateException(throwable);
+                }
+
+            } finally {
+                this.running.set(false);
+            }
+
+        }
+
+        private void work() {
+
+            long generation = this.next.get() >>> 32;
+
+            while (true) {
+
+                long current = this.next.get();
+                int index = (int) current;
+
+                if(!((current >>> 32) == generation) || index >= this.batches) {
+                    return;
+                }
+
+                if(!(this.next.compareAndSet(current, current + 1))) {
+                    continue;
+                }
+
+                int count = this.count;
+                int batch = this.batch;
+
+                try {
+                    int to = Math.min(count, (index + 1) * batch);
+                    for(int i = index * batch; i < to; i++) {
+                        this.consumer.accept(i);
+                    }
+                } catch (Throwable e) {
+                    this.failure.compareAndSet(null, e);
+                } finally {
+                    if(this.done.incrementAndGet() == this.batches) {
+                        synchronized (this.lock) {
+                            this.lock.notifyAll();
+                        }
+                    }
+                }
+
+            }
+
+        }
+
+    }
+
+}
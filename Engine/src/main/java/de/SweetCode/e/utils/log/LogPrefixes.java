@@ -25,6 +25,12 @@ public enum LogPrefixes implements LogPrefix {
         public String prefix() {
             return "Texture";
         }
+    },
+    SOUND {
+        @Override
+        public String prefix() {
+            return "Sound";
+        }
     };
 
     public static LogPrefix custom(String prefix) {